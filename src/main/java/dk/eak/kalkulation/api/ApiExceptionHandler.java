@@ -0,0 +1,76 @@
+package dk.eak.kalkulation.api;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * JSON errors for the API: {@code {"error": "..."}} with a status code
+ * instead of the HTML error page. Only applies to controllers in this package.
+ */
+@RestControllerAdvice(basePackageClasses = ApiExceptionHandler.class)
+public class ApiExceptionHandler {
+
+    private static final String IDEMPOTENCY_KEY_INDEX = "uq_time_entry_idempotency_key";
+
+    // Service validation
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> badRequest(IllegalArgumentException e) {
+        return error(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<Map<String, String>> unreadable(HttpMessageNotReadableException e) {
+        return error(HttpStatus.BAD_REQUEST, "Malformed JSON body");
+    }
+
+    // queryForObject on an ID that does not exist
+    @ExceptionHandler(EmptyResultDataAccessException.class)
+    public ResponseEntity<Map<String, String>> notFound(EmptyResultDataAccessException e) {
+        return error(HttpStatus.NOT_FOUND, "Not found");
+    }
+
+    // A time entry retried while its first try was still being written; the next retry gets its ID.
+    // Any other unique constraint is an ordinary conflict.
+    @ExceptionHandler(DuplicateKeyException.class)
+    public ResponseEntity<Map<String, String>> inProgress(DuplicateKeyException e) {
+        if (violates(e, IDEMPOTENCY_KEY_INDEX)) {
+            return error(HttpStatus.CONFLICT, "Idempotency key is in use by a request in progress; retry it");
+        }
+        return conflict(e);
+    }
+
+    // Foreign keys, e.g. a time entry for a task that does not exist
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<Map<String, String>> conflict(DataIntegrityViolationException e) {
+        return error(HttpStatus.CONFLICT, "Request conflicts with existing data");
+    }
+
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<Map<String, String>> status(ResponseStatusException e) {
+        return error(HttpStatus.valueOf(e.getStatusCode().value()), e.getReason());
+    }
+
+    // The drivers name the index in the message (H2 in upper case), on the exception or its cause
+    private static boolean violates(Throwable e, String index) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t.getMessage() != null && t.getMessage().toLowerCase(Locale.ROOT).contains(index)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static ResponseEntity<Map<String, String>> error(HttpStatus status, String message) {
+        return ResponseEntity.status(status).body(Map.of("error", message != null ? message : status.getReasonPhrase()));
+    }
+}
@@ -0,0 +1,62 @@
+package dk.eak.kalkulation.api;
+
+import dk.eak.kalkulation.model.KeysetPage;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Helpers shared by the API controllers.
+ */
+final class ApiSupport {
+
+    /** Most rows one bulk request may create, update or delete. */
+    static final int MAX_BULK = 1000;
+
+    private ApiSupport() {
+    }
+
+    // Model list → DTOs → chosen fields
+    static <M, D> List<Object> list(List<M> models, Function<M, D> toDto, Function<D, Object> fields) {
+        List<Object> out = new ArrayList<>(models.size());
+        for (M m : models) {
+            out.add(fields.apply(toDto.apply(m)));
+        }
+        return out;
+    }
+
+    static <M, D> PageDto page(KeysetPage<M> page, Function<M, D> toDto, Function<D, Object> fields) {
+        return new PageDto(list(page.getItems(), toDto, fields), page.getNextCursor());
+    }
+
+    static <D, M> List<M> models(List<D> dtos, Function<D, M> toModel) {
+        checkBulk(dtos);
+        List<M> out = new ArrayList<>(dtos.size());
+        for (D d : dtos) {
+            if (d == null) {
+                throw new IllegalArgumentException("Bulk request cannot contain null");
+            }
+            out.add(toModel.apply(d));
+        }
+        return out;
+    }
+
+    static void checkBulk(List<?> items) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("Bulk request cannot be empty");
+        }
+        if (items.size() > MAX_BULK) {
+            throw new IllegalArgumentException("Bulk request cannot exceed " + MAX_BULK + " items");
+        }
+    }
+
+    static <T> T found(T value, String what) {
+        if (value == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, what + " not found");
+        }
+        return value;
+    }
+}
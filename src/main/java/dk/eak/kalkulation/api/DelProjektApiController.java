@@ -0,0 +1,54 @@
+package dk.eak.kalkulation.api;
+
+import dk.eak.kalkulation.service.DelProjektService;
+import dk.eak.kalkulation.service.OpgaveService;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/delprojekter")
+public class DelProjektApiController {
+
+    private final DelProjektService delProjektService;
+    private final OpgaveService opgaveService;
+
+    public DelProjektApiController(DelProjektService delProjektService, OpgaveService opgaveService) {
+        this.delProjektService = delProjektService;
+        this.opgaveService = opgaveService;
+    }
+
+    // 🔹 ONE DELPROJEKT
+    @GetMapping("/{id}")
+    public Object get(@PathVariable int id, @RequestParam(required = false) String fields) {
+        return DelProjektDto.FIELDS.select(fields)
+                .apply(DelProjektDto.of(ApiSupport.found(delProjektService.getById(id), "DelProjekt")));
+    }
+
+    // 🔹 OPGAVER OF A DELPROJEKT
+    @GetMapping("/{id}/opgaver")
+    public List<Object> opgaver(@PathVariable int id, @RequestParam(required = false) String fields) {
+        return ApiSupport.list(opgaveService.getByDelProjektId(id), OpgaveDto::of, OpgaveDto.FIELDS.select(fields));
+    }
+
+    // 🔹 BULK CREATE / UPDATE / DELETE (one transaction each)
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public IdsDto create(@RequestBody List<DelProjektDto> delProjekter) {
+        return new IdsDto(delProjektService.createAll(ApiSupport.models(delProjekter, DelProjektDto::toModel)));
+    }
+
+    @PutMapping
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void update(@RequestBody List<DelProjektDto> delProjekter) {
+        delProjektService.updateAll(ApiSupport.models(delProjekter, DelProjektDto::toModel));
+    }
+
+    @DeleteMapping
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void delete(@RequestParam List<Integer> ids) {
+        ApiSupport.checkBulk(ids);
+        delProjektService.deleteAll(ids);
+    }
+}
@@ -0,0 +1,26 @@
+package dk.eak.kalkulation.api;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import dk.eak.kalkulation.model.DelProjekt;
+
+/**
+ * Subproject as sent and received by the API.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record DelProjektDto(Integer id, Integer projectId, String name, String description) {
+
+    static final Fields<DelProjektDto> FIELDS = Fields.of(DelProjektDto.class);
+
+    static DelProjektDto of(DelProjekt d) {
+        return new DelProjektDto(d.getDelProjektId(), d.getProjectId(), d.getName(), d.getDescription());
+    }
+
+    DelProjekt toModel() {
+        DelProjekt d = new DelProjekt();
+        d.setDelProjektId(id);
+        d.setProjectId(projectId);
+        d.setName(name);
+        d.setDescription(description);
+        return d;
+    }
+}
@@ -0,0 +1,91 @@
+package dk.eak.kalkulation.api;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Sparse fieldsets for the API: {@code ?fields=id,name} keeps only those
+ * properties of a DTO record. The record accessors are looked up once per type;
+ * a request only parses the parameter and picks the handles.
+ *
+ * @param <T> the DTO record type
+ */
+public final class Fields<T extends Record> {
+
+    private static final MethodType GETTER = MethodType.methodType(Object.class, Object.class);
+
+    private final Map<String, MethodHandle> accessors;
+
+    private Fields(Map<String, MethodHandle> accessors) {
+        this.accessors = accessors;
+    }
+
+    /**
+     * The fieldset support for a record type; every record component is a field.
+     */
+    public static <T extends Record> Fields<T> of(Class<T> type) {
+        Map<String, MethodHandle> accessors = new LinkedHashMap<>();
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        for (RecordComponent c : type.getRecordComponents()) {
+            try {
+                accessors.put(c.getName(), lookup.unreflect(c.getAccessor()).asType(GETTER));
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Record " + type.getName() + " must be public", e);
+            }
+        }
+        return new Fields<>(Collections.unmodifiableMap(accessors));
+    }
+
+    /**
+     * Build the projection for one request.
+     *
+     * @param fields comma separated field names, or null/blank for all fields
+     * @return the record itself when all fields are wanted, otherwise a map of the chosen non-null fields
+     */
+    public Function<T, Object> select(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return t -> t;
+        }
+        List<String> names = new ArrayList<>();
+        List<MethodHandle> handles = new ArrayList<>();
+        for (String name : fields.split(",")) {
+            String n = name.trim();
+            MethodHandle h = accessors.get(n);
+            if (h == null) {
+                throw new IllegalArgumentException("Unknown field: " + n + " (fields: " + String.join(",", accessors.keySet()) + ")");
+            }
+            if (!names.contains(n)) {
+                names.add(n);
+                handles.add(h);
+            }
+        }
+        return t -> {
+            Map<String, Object> out = new LinkedHashMap<>(names.size() * 2);
+            for (int i = 0; i < handles.size(); i++) {
+                Object v = get(handles.get(i), t);
+                if (v != null) {
+                    out.put(names.get(i), v);
+                }
+            }
+            return out;
+        };
+    }
+
+    private static Object get(MethodHandle h, Object record) {
+        try {
+            return (Object) h.invokeExact(record);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
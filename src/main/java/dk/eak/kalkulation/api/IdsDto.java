@@ -0,0 +1,7 @@
+package dk.eak.kalkulation.api;
+
+/**
+ * Generated IDs of a bulk create, in request order.
+ */
+public record IdsDto(int[] ids) {
+}
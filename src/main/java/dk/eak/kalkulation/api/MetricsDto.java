@@ -0,0 +1,18 @@
+package dk.eak.kalkulation.api;
+
+import dk.eak.kalkulation.model.ProjectMetrics;
+
+/**
+ * Calculated figures of a project, as on the calc page.
+ */
+public record MetricsDto(int projectId, String name, int estimatedHours, int registeredHours, int remainingHours,
+                         int workingDays, double progressPercentage, double requiredHoursPerWorkday) {
+
+    static final Fields<MetricsDto> FIELDS = Fields.of(MetricsDto.class);
+
+    static MetricsDto of(ProjectMetrics m) {
+        return new MetricsDto(m.getProjectId(), m.getProjekt().getName(), m.getEstimatedHours(),
+                m.getRegisteredHours(), m.getRemainingHours(), m.getWorkingDays(),
+                m.getProgressPercentage(), m.getRequiredHoursPerWorkday());
+    }
+}
@@ -0,0 +1,57 @@
+package dk.eak.kalkulation.api;
+
+import dk.eak.kalkulation.service.OpgaveService;
+import dk.eak.kalkulation.service.TimeEntryService;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/opgaver")
+public class OpgaveApiController {
+
+    private final OpgaveService opgaveService;
+    private final TimeEntryService timeEntryService;
+
+    public OpgaveApiController(OpgaveService opgaveService, TimeEntryService timeEntryService) {
+        this.opgaveService = opgaveService;
+        this.timeEntryService = timeEntryService;
+    }
+
+    // 🔹 ONE OPGAVE
+    @GetMapping("/{id}")
+    public Object get(@PathVariable int id, @RequestParam(required = false) String fields) {
+        return OpgaveDto.FIELDS.select(fields).apply(OpgaveDto.of(ApiSupport.found(opgaveService.getById(id), "Opgave")));
+    }
+
+    // 🔹 TIME ENTRIES OF AN OPGAVE (one page, by date)
+    @GetMapping("/{id}/timer")
+    public PageDto timer(@PathVariable int id,
+                         @RequestParam(required = false) String after,
+                         @RequestParam(defaultValue = "50") int size,
+                         @RequestParam(required = false) String fields) {
+        return ApiSupport.page(timeEntryService.getPageByOpgaveId(id, after, size), TimeEntryDto::of,
+                TimeEntryDto.FIELDS.select(fields));
+    }
+
+    // 🔹 BULK CREATE / UPDATE / DELETE (one transaction each)
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public IdsDto create(@RequestBody List<OpgaveDto> opgaver) {
+        return new IdsDto(opgaveService.createAll(ApiSupport.models(opgaver, OpgaveDto::toModel)));
+    }
+
+    @PutMapping
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void update(@RequestBody List<OpgaveDto> opgaver) {
+        opgaveService.updateAll(ApiSupport.models(opgaver, OpgaveDto::toModel));
+    }
+
+    @DeleteMapping
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void delete(@RequestParam List<Integer> ids) {
+        ApiSupport.checkBulk(ids);
+        opgaveService.deleteAll(ids);
+    }
+}
@@ -0,0 +1,33 @@
+package dk.eak.kalkulation.api;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import dk.eak.kalkulation.model.Opgave;
+
+import java.time.LocalDate;
+
+/**
+ * Task as sent and received by the API.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record OpgaveDto(Integer id, Integer projectId, Integer delProjektId, String name, String description,
+                        Integer estimatedHours, LocalDate deadline) {
+
+    static final Fields<OpgaveDto> FIELDS = Fields.of(OpgaveDto.class);
+
+    static OpgaveDto of(Opgave o) {
+        return new OpgaveDto(o.getOpgaveId(), o.getProject_id(), o.getDelProjektId(), o.getName(),
+                o.getDescription(), o.getEstimatedHours(), o.getDeadline());
+    }
+
+    Opgave toModel() {
+        Opgave o = new Opgave();
+        o.setOpgaveId(id);
+        o.setProject_id(projectId);
+        o.setDelProjektId(delProjektId);
+        o.setName(name);
+        o.setDescription(description);
+        o.setEstimatedHours(estimatedHours);
+        o.setDeadline(deadline);
+        return o;
+    }
+}
@@ -0,0 +1,12 @@
+package dk.eak.kalkulation.api;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * One page of a list; {@code next} is the cursor for {@code ?after=}, absent on the last page.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PageDto(List<Object> items, String next) {
+}
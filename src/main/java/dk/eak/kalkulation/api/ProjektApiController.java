@@ -0,0 +1,92 @@
+package dk.eak.kalkulation.api;
+
+import dk.eak.kalkulation.service.CalculationService;
+import dk.eak.kalkulation.service.DelProjektService;
+import dk.eak.kalkulation.service.OpgaveService;
+import dk.eak.kalkulation.service.ProjektService;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/projekter")
+public class ProjektApiController {
+
+    private final ProjektService projektService;
+    private final DelProjektService delProjektService;
+    private final OpgaveService opgaveService;
+    private final CalculationService calc;
+
+    public ProjektApiController(ProjektService projektService, DelProjektService delProjektService,
+                                OpgaveService opgaveService, CalculationService calc) {
+        this.projektService = projektService;
+        this.delProjektService = delProjektService;
+        this.opgaveService = opgaveService;
+        this.calc = calc;
+    }
+
+    // 🔹 ALL PROJECTS (one page; ?after=<cursor> for the next)
+    @GetMapping
+    public PageDto getAll(@RequestParam(required = false) String after,
+                          @RequestParam(defaultValue = "50") int size,
+                          @RequestParam(required = false) String fields) {
+        return ApiSupport.page(projektService.getPage(after, size), ProjektDto::of, ProjektDto.FIELDS.select(fields));
+    }
+
+    // 🔹 ONE PROJECT
+    @GetMapping("/{id}")
+    public Object get(@PathVariable int id, @RequestParam(required = false) String fields) {
+        return ProjektDto.FIELDS.select(fields).apply(ProjektDto.of(ApiSupport.found(projektService.getById(id), "Project")));
+    }
+
+    // 🔹 DELPROJEKTER OF A PROJECT
+    @GetMapping("/{id}/delprojekter")
+    public List<Object> delProjekter(@PathVariable int id, @RequestParam(required = false) String fields) {
+        return ApiSupport.list(delProjektService.getByProjectId(id), DelProjektDto::of, DelProjektDto.FIELDS.select(fields));
+    }
+
+    // 🔹 OPGAVER OF A PROJECT (one page)
+    @GetMapping("/{id}/opgaver")
+    public PageDto opgaver(@PathVariable int id,
+                           @RequestParam(required = false) String after,
+                           @RequestParam(defaultValue = "50") int size,
+                           @RequestParam(required = false) String fields) {
+        return ApiSupport.page(opgaveService.getPageByProjectId(id, after, size), OpgaveDto::of,
+                OpgaveDto.FIELDS.select(fields));
+    }
+
+    // 📊 METRICS OF ONE PROJECT
+    @GetMapping("/{id}/metrics")
+    public Object metrics(@PathVariable int id, @RequestParam(required = false) String fields) {
+        return MetricsDto.FIELDS.select(fields).apply(MetricsDto.of(calc.metrics(id)));
+    }
+
+    // 📊 METRICS OF MANY PROJECTS (?ids=1,2,3, all when absent; three queries either way)
+    @GetMapping("/metrics")
+    public List<Object> metrics(@RequestParam(required = false) List<Integer> ids,
+                                @RequestParam(required = false) String fields) {
+        return ApiSupport.list(ids != null ? calc.metricsFor(ids) : calc.metricsForAll(), MetricsDto::of,
+                MetricsDto.FIELDS.select(fields));
+    }
+
+    // 🔹 BULK CREATE / UPDATE / DELETE (one transaction each)
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public IdsDto create(@RequestBody List<ProjektDto> projekter) {
+        return new IdsDto(projektService.createAll(ApiSupport.models(projekter, ProjektDto::toModel)));
+    }
+
+    @PutMapping
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void update(@RequestBody List<ProjektDto> projekter) {
+        projektService.updateAll(ApiSupport.models(projekter, ProjektDto::toModel));
+    }
+
+    @DeleteMapping
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void delete(@RequestParam List<Integer> ids) {
+        ApiSupport.checkBulk(ids);
+        projektService.deleteAll(ids);
+    }
+}
@@ -0,0 +1,32 @@
+package dk.eak.kalkulation.api;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import dk.eak.kalkulation.model.Projekt;
+
+import java.time.LocalDate;
+
+/**
+ * Project as sent and received by the API.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ProjektDto(Integer id, String name, String description,
+                         LocalDate startDate, LocalDate endDate, String calendarId) {
+
+    static final Fields<ProjektDto> FIELDS = Fields.of(ProjektDto.class);
+
+    static ProjektDto of(Projekt p) {
+        return new ProjektDto(p.getProjectId(), p.getName(), p.getDescription(),
+                p.getStartDate(), p.getEndDate(), p.getCalendarId());
+    }
+
+    Projekt toModel() {
+        Projekt p = new Projekt();
+        p.setProjectId(id != null ? id : 0);
+        p.setName(name);
+        p.setDescription(description);
+        p.setStartDate(startDate);
+        p.setEndDate(endDate);
+        p.setCalendarId(calendarId);
+        return p;
+    }
+}
@@ -0,0 +1,45 @@
+package dk.eak.kalkulation.api;
+
+import dk.eak.kalkulation.service.TimeEntryService;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/timer")
+public class TimeEntryApiController {
+
+    private final TimeEntryService timeEntryService;
+
+    public TimeEntryApiController(TimeEntryService timeEntryService) {
+        this.timeEntryService = timeEntryService;
+    }
+
+    // 🔹 ONE TIME ENTRY
+    @GetMapping("/{id}")
+    public Object get(@PathVariable int id, @RequestParam(required = false) String fields) {
+        return TimeEntryDto.FIELDS.select(fields)
+                .apply(TimeEntryDto.of(ApiSupport.found(timeEntryService.getById(id), "Time entry")));
+    }
+
+    // 🔹 BULK CREATE / UPDATE / DELETE (one transaction each, batched statements)
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public IdsDto create(@RequestBody List<TimeEntryDto> entries) {
+        return new IdsDto(timeEntryService.createAll(ApiSupport.models(entries, TimeEntryDto::toModel)));
+    }
+
+    @PutMapping
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void update(@RequestBody List<TimeEntryDto> entries) {
+        timeEntryService.updateAll(ApiSupport.models(entries, TimeEntryDto::toModel));
+    }
+
+    @DeleteMapping
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void delete(@RequestParam List<Integer> ids) {
+        ApiSupport.checkBulk(ids);
+        timeEntryService.deleteAll(ids);
+    }
+}
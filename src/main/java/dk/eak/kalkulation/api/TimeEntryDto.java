@@ -0,0 +1,30 @@
+package dk.eak.kalkulation.api;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import dk.eak.kalkulation.model.TimeEntry;
+
+import java.time.LocalDate;
+
+/**
+ * Time entry as sent and received by the API. {@code idempotencyKey} is only
+ * sent: a create retried with the same key returns the ID of the first entry.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TimeEntryDto(Integer id, Integer opgaveId, LocalDate workDate, Integer hours, String idempotencyKey) {
+
+    static final Fields<TimeEntryDto> FIELDS = Fields.of(TimeEntryDto.class);
+
+    static TimeEntryDto of(TimeEntry t) {
+        return new TimeEntryDto(t.getTimeEntryId(), t.getOpgaveId(), t.getWorkDate(), t.getHours(), null);
+    }
+
+    TimeEntry toModel() {
+        TimeEntry t = new TimeEntry();
+        t.setTimeEntryId(id);
+        t.setOpgaveId(opgaveId);
+        t.setWorkDate(workDate);
+        t.setHours(hours);
+        t.setIdempotencyKey(idempotencyKey);
+        return t;
+    }
+}
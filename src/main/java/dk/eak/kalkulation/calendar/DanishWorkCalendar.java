@@ -0,0 +1,70 @@
+package dk.eak.kalkulation.calendar;
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Danish working days: Monday-Friday minus Danish public holidays.
+ * Christmas Eve and Constitution Day are included because they are
+ * days off in most Danish agreements.
+ */
+@Component
+public class DanishWorkCalendar extends HolidayWorkCalendar {
+
+    public static final String ID = "DK";
+
+    /** Store bededag was abolished from 2024. */
+    private static final int LAST_STORE_BEDEDAG_YEAR = 2023;
+
+    @Override
+    public String getId() {
+        return ID;
+    }
+
+    @Override
+    protected List<LocalDate> holidays(int year) {
+        LocalDate easter = easterSunday(year);
+        List<LocalDate> days = new ArrayList<>();
+        days.add(LocalDate.of(year, 1, 1));   // Nytårsdag
+        days.add(easter.minusDays(3));        // Skærtorsdag
+        days.add(easter.minusDays(2));        // Langfredag
+        days.add(easter.plusDays(1));         // 2. påskedag
+        if (year <= LAST_STORE_BEDEDAG_YEAR) {
+            days.add(easter.plusDays(26));    // Store bededag
+        }
+        days.add(easter.plusDays(39));        // Kristi himmelfartsdag
+        days.add(easter.plusDays(50));        // 2. pinsedag
+        days.add(LocalDate.of(year, 6, 5));   // Grundlovsdag
+        days.add(LocalDate.of(year, 12, 24)); // Juleaften
+        days.add(LocalDate.of(year, 12, 25)); // 1. juledag
+        days.add(LocalDate.of(year, 12, 26)); // 2. juledag
+        return days;
+    }
+
+    /**
+     * Easter Sunday in the Gregorian calendar (Meeus/Jones/Butcher).
+     *
+     * @param year the year
+     * @return date of Easter Sunday
+     */
+    static LocalDate easterSunday(int year) {
+        int a = year % 19;
+        int b = year / 100;
+        int c = year % 100;
+        int d = b / 4;
+        int e = b % 4;
+        int f = (b + 8) / 25;
+        int g = (b - f + 1) / 3;
+        int h = (19 * a + b - d - g + 15) % 30;
+        int i = c / 4;
+        int k = c % 4;
+        int l = (32 + 2 * e + 2 * i - h - k) % 7;
+        int m = (a + 11 * h + 22 * l) / 451;
+        int month = (h + l - 7 * m + 114) / 31;
+        int day = ((h + l - 7 * m + 114) % 31) + 1;
+        return LocalDate.of(year, month, day);
+    }
+}
@@ -0,0 +1,149 @@
+package dk.eak.kalkulation.calendar;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Base class for Monday-Friday calendars with public holidays.
+ * <p>
+ * Weekdays are counted with closed-form arithmetic on epoch days, so the cost
+ * does not depend on the length of the range. Holidays are kept as one bitset
+ * per year (bit = day of year - 1), holding only holidays that fall on a
+ * weekday, and are subtracted with a popcount over the words in the range.
+ */
+public abstract class HolidayWorkCalendar implements WorkCalendar {
+
+    private static final int WORDS_PER_YEAR = 6; // 6 * 64 bits >= 366 days
+    private static final long MAX_SPAN_DAYS = 1000L * 366;
+
+    private final ConcurrentHashMap<Integer, long[]> holidaysByYear = new ConcurrentHashMap<>();
+
+    /**
+     * Public holidays in a year. Called once per year; the result is cached.
+     *
+     * @param year the year
+     * @return holidays in that year, weekend days are allowed and ignored
+     */
+    protected abstract List<LocalDate> holidays(int year);
+
+    @Override
+    public boolean isWorkingDay(LocalDate date) {
+        if (date == null) {
+            return false;
+        }
+        long epochDay = date.toEpochDay();
+        if (!isWeekday(epochDay)) {
+            return false;
+        }
+        long[] bits = bitsFor(date.getYear());
+        int bit = date.getDayOfYear() - 1;
+        return (bits[bit >>> 6] & (1L << bit)) == 0;
+    }
+
+    @Override
+    public int workingDaysBetween(LocalDate start, LocalDate endInclusive) {
+        if (start == null || endInclusive == null) {
+            return 0;
+        }
+        if (endInclusive.isBefore(start)) {
+            return 0;
+        }
+        long weekdays = weekdaysBetween(start.toEpochDay(), endInclusive.toEpochDay());
+        return (int) (weekdays - holidaysBetween(start, endInclusive));
+    }
+
+    /**
+     * Binary search on {@link #workingDaysBetween} instead of a walk day by day,
+     * so the cost grows with the log of the distance.
+     */
+    @Override
+    public LocalDate plusWorkingDays(LocalDate start, int workingDays) {
+        if (workingDays <= 0) {
+            return start;
+        }
+        long span = workingDays * 2L + 14;
+        while (workingDaysBetween(start, start.plusDays(span)) < workingDays) {
+            if (span > MAX_SPAN_DAYS) {
+                throw new IllegalArgumentException("No " + workingDays + " working days after " + start);
+            }
+            span *= 2;
+        }
+        long lo = 0;
+        long hi = span;
+        while (lo < hi) {
+            long mid = (lo + hi) >>> 1;
+            if (workingDaysBetween(start, start.plusDays(mid)) < workingDays) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return start.plusDays(lo);
+    }
+
+    /**
+     * Number of Monday-Friday days in [startEpochDay, endEpochDay].
+     */
+    static long weekdaysBetween(long startEpochDay, long endEpochDay) {
+        return weekdaysBefore(endEpochDay + 1) - weekdaysBefore(startEpochDay);
+    }
+
+    static boolean isWeekday(long epochDay) {
+        // 1970-01-01 was a Thursday, so +3 makes 0 a Monday
+        return Math.floorMod(epochDay + 3, 7) < 5;
+    }
+
+    /**
+     * Weekdays in [Monday before the epoch, epochDay), shifted so only differences matter.
+     */
+    private static long weekdaysBefore(long epochDay) {
+        long k = epochDay + 3;
+        return Math.floorDiv(k, 7) * 5 + Math.min(Math.floorMod(k, 7), 5);
+    }
+
+    private long holidaysBetween(LocalDate start, LocalDate endInclusive) {
+        long count = 0;
+        for (int year = start.getYear(); year <= endInclusive.getYear(); year++) {
+            int from = year == start.getYear() ? start.getDayOfYear() - 1 : 0;
+            int to = year == endInclusive.getYear()
+                    ? endInclusive.getDayOfYear() - 1
+                    : (LocalDate.ofYearDay(year, 1).isLeapYear() ? 365 : 364);
+            count += countBits(bitsFor(year), from, to);
+        }
+        return count;
+    }
+
+    private static int countBits(long[] bits, int from, int toInclusive) {
+        int count = 0;
+        int firstWord = from >>> 6;
+        int lastWord = toInclusive >>> 6;
+        for (int w = firstWord; w <= lastWord; w++) {
+            long word = bits[w];
+            if (word == 0) {
+                continue;
+            }
+            if (w == firstWord) {
+                word &= -1L << (from & 63);
+            }
+            if (w == lastWord) {
+                word &= -1L >>> (63 - (toInclusive & 63));
+            }
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    private long[] bitsFor(int year) {
+        return holidaysByYear.computeIfAbsent(year, y -> {
+            long[] bits = new long[WORDS_PER_YEAR];
+            for (LocalDate d : holidays(y)) {
+                if (d.getYear() == y && isWeekday(d.toEpochDay())) {
+                    int bit = d.getDayOfYear() - 1;
+                    bits[bit >>> 6] |= 1L << bit;
+                }
+            }
+            return bits;
+        });
+    }
+}
@@ -0,0 +1,25 @@
+package dk.eak.kalkulation.calendar;
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Plain Monday-Friday calendar without holidays.
+ */
+@Component
+public class WeekdayWorkCalendar extends HolidayWorkCalendar {
+
+    public static final String ID = "WEEKDAYS";
+
+    @Override
+    public String getId() {
+        return ID;
+    }
+
+    @Override
+    protected List<LocalDate> holidays(int year) {
+        return List.of();
+    }
+}
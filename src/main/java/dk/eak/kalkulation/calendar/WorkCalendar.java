@@ -0,0 +1,57 @@
+package dk.eak.kalkulation.calendar;
+
+import java.time.LocalDate;
+
+/**
+ * A calendar that knows which days are working days.
+ * Implementations are Spring beans and are picked per project by their ID.
+ */
+public interface WorkCalendar {
+
+    /**
+     * Short ID stored on the project, e.g. "DK".
+     *
+     * @return calendar ID
+     */
+    String getId();
+
+    /**
+     * Check if a single date is a working day.
+     *
+     * @param date the date
+     * @return true if the date is a working day
+     */
+    boolean isWorkingDay(LocalDate date);
+
+    /**
+     * Count working days between two dates.
+     *
+     * @param start the start date (inclusive)
+     * @param endInclusive the end date (inclusive)
+     * @return number of working days, 0 if a date is missing or the range is empty
+     */
+    int workingDaysBetween(LocalDate start, LocalDate endInclusive);
+
+    /**
+     * Find the date of the n-th working day counted from a start date.
+     * The start date itself counts if it is a working day.
+     *
+     * @param start the first date to consider
+     * @param workingDays number of working days, 0 returns the start date
+     * @return the date the given number of working days is reached
+     */
+    default LocalDate plusWorkingDays(LocalDate start, int workingDays) {
+        LocalDate d = start;
+        int left = workingDays;
+        while (left > 0) {
+            if (isWorkingDay(d)) {
+                left--;
+                if (left == 0) {
+                    break;
+                }
+            }
+            d = d.plusDays(1);
+        }
+        return d;
+    }
+}
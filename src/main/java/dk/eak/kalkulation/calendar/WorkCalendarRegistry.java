@@ -0,0 +1,51 @@
+package dk.eak.kalkulation.calendar;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Looks up work calendars by ID. Every {@link WorkCalendar} bean is registered.
+ */
+@Component
+public class WorkCalendarRegistry {
+
+    private final Map<String, WorkCalendar> calendars = new LinkedHashMap<>();
+    private final WorkCalendar defaultCalendar;
+
+    public WorkCalendarRegistry(List<WorkCalendar> calendars,
+                                @Value("${kalkulation.calendar.default:" + DanishWorkCalendar.ID + "}") String defaultId) {
+        for (WorkCalendar c : calendars) {
+            this.calendars.put(c.getId(), c);
+        }
+        this.defaultCalendar = this.calendars.get(defaultId);
+        if (this.defaultCalendar == null) {
+            throw new IllegalArgumentException("Unknown default calendar: " + defaultId);
+        }
+    }
+
+    /**
+     * Get a calendar by ID.
+     *
+     * @param id the calendar ID, may be null
+     * @return the calendar, or the default calendar if the ID is null or unknown
+     */
+    public WorkCalendar get(String id) {
+        if (id == null) {
+            return defaultCalendar;
+        }
+        return calendars.getOrDefault(id, defaultCalendar);
+    }
+
+    public WorkCalendar getDefault() {
+        return defaultCalendar;
+    }
+
+    public Set<String> ids() {
+        return calendars.keySet();
+    }
+}
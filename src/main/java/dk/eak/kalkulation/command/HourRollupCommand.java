@@ -0,0 +1,60 @@
+package dk.eak.kalkulation.command;
+
+import dk.eak.kalkulation.model.RollupDrift;
+import dk.eak.kalkulation.service.HourRollupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Verifies or rebuilds the hour rollup tables at startup.
+ * <p>
+ * Run with {@code --kalkulation.rollup.command=verify} to log drift between the
+ * rollup tables and time_entry, or {@code rebuild} to recompute them from scratch
+ * (the report is logged before and after).
+ */
+@Component
+public class HourRollupCommand implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(HourRollupCommand.class);
+
+    private final HourRollupService rollups;
+    private final String command;
+
+    public HourRollupCommand(HourRollupService rollups,
+                             @Value("${kalkulation.rollup.command:}") String command) {
+        this.rollups = rollups;
+        this.command = command;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        switch (command) {
+            case "" -> { }
+            case "verify" -> report(rollups.verify());
+            case "rebuild" -> {
+                report(rollups.verify());
+                rollups.rebuild();
+                log.info("Hour rollups rebuilt from time_entry");
+                report(rollups.verify());
+            }
+            default -> throw new IllegalArgumentException("Unknown rollup command: " + command);
+        }
+    }
+
+    private void report(List<RollupDrift> drift) {
+        if (drift.isEmpty()) {
+            log.info("Hour rollups match time_entry");
+            return;
+        }
+        log.warn("Hour rollups have {} drifting rows", drift.size());
+        for (RollupDrift d : drift) {
+            log.warn("  {}", d);
+        }
+    }
+}
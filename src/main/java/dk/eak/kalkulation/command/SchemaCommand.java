@@ -0,0 +1,56 @@
+package dk.eak.kalkulation.command;
+
+import dk.eak.kalkulation.migration.IndexCheck;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Checks the query plans of the hot repository queries at startup.
+ * <p>
+ * Run with {@code --kalkulation.schema.command=explain} to EXPLAIN each query
+ * and log whether it uses its index; the plan is logged for any that do not.
+ */
+@Component
+public class SchemaCommand implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SchemaCommand.class);
+
+    private final JdbcTemplate jdbc;
+    private final String command;
+
+    public SchemaCommand(JdbcTemplate jdbc,
+                         @Value("${kalkulation.schema.command:}") String command) {
+        this.jdbc = jdbc;
+        this.command = command;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        switch (command) {
+            case "" -> { }
+            case "explain" -> explain();
+            default -> throw new IllegalArgumentException("Unknown schema command: " + command);
+        }
+    }
+
+    private void explain() {
+        int missing = 0;
+        for (IndexCheck check : IndexCheck.HOT_QUERIES) {
+            String plan = check.explain(jdbc);
+            if (check.isUsedBy(plan)) {
+                log.info("{}: uses {}", check.getName(), check.getIndex());
+            } else {
+                missing++;
+                log.warn("{}: does not use {}\n{}", check.getName(), check.getIndex(), plan);
+            }
+        }
+        if (missing == 0) {
+            log.info("All {} hot queries use their index", IndexCheck.HOT_QUERIES.size());
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package dk.eak.kalkulation.command;
+
+import dk.eak.kalkulation.model.ImportReport;
+import dk.eak.kalkulation.service.TimesheetImportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Imports historical timesheets from a CSV file at startup.
+ * <p>
+ * Run with {@code --kalkulation.import.file=/path/to/timesheets.csv}. Throughput
+ * is logged when done; rejected rows are written to {@code <file>.rejected.csv}
+ * with their line number and reason.
+ */
+@Component
+public class TimesheetImportCommand implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(TimesheetImportCommand.class);
+    private static final int LOGGED_REJECTIONS = 20;
+
+    private final TimesheetImportService importService;
+    private final String file;
+
+    public TimesheetImportCommand(TimesheetImportService importService,
+                                  @Value("${kalkulation.import.file:}") String file) {
+        this.importService = importService;
+        this.file = file;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (file.isBlank()) {
+            return;
+        }
+        ImportReport report = importService.importFile(Path.of(file));
+        log.info("Imported {} of {} rows from {} in {} ms ({} rows/sec, {} threads)",
+                report.getRowsImported(), report.getRowsRead(), report.getFile(),
+                report.getElapsedMillis(), report.getRowsPerSecond(), report.getThreads());
+        if (report.getRowsRejected() == 0) {
+            return;
+        }
+        Path rejectedFile = Path.of(file + ".rejected.csv");
+        writeRejected(report, rejectedFile);
+        log.warn("{} rows rejected, details in {}", report.getRowsRejected(), rejectedFile);
+        report.getRejected().stream().limit(LOGGED_REJECTIONS).forEach(r -> log.warn("  {}", r));
+    }
+
+    private static void writeRejected(ImportReport report, Path target) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            out.write("line;reason;text");
+            out.newLine();
+            for (ImportReport.RejectedRow r : report.getRejected()) {
+                out.write(r.getLine() + ";" + r.getReason() + ";\"" + r.getText().replace("\"", "\"\"") + "\"");
+                out.newLine();
+            }
+            if (report.getRowsRejected() > report.getRejected().size()) {
+                out.write(";" + (report.getRowsRejected() - report.getRejected().size()) + " more rows not listed;");
+                out.newLine();
+            }
+        }
+    }
+}
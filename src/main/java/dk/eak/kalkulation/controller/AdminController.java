@@ -0,0 +1,55 @@
+package dk.eak.kalkulation.controller;
+
+import dk.eak.kalkulation.repository.QueryCache;
+import dk.eak.kalkulation.service.IdempotencyKeys;
+import dk.eak.kalkulation.service.TimeEntryIngestService;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@Controller
+@RequestMapping("/admin")
+public class AdminController {
+
+    private final QueryCache cache;
+    private final FragmentCache fragments;
+    private final TimeEntryIngestService ingest;
+    private final IdempotencyKeys keys;
+
+    public AdminController(QueryCache cache, FragmentCache fragments, TimeEntryIngestService ingest,
+                           IdempotencyKeys keys) {
+        this.cache = cache;
+        this.fragments = fragments;
+        this.ingest = ingest;
+        this.keys = keys;
+    }
+
+    // 📈 QUERY CACHE HIT/MISS COUNTERS
+    @GetMapping("/cache")
+    @ResponseBody
+    public Map<String, Long> cacheStats() {
+        return cache.stats();
+    }
+
+    // 🧩 FRAGMENT CACHE HIT/MISS COUNTERS
+    @GetMapping("/fragments")
+    @ResponseBody
+    public Map<String, Long> fragmentStats() {
+        return fragments.stats();
+    }
+
+    // 📥 GROUP COMMIT COUNTERS FOR TIME ENTRIES
+    @GetMapping("/ingest")
+    @ResponseBody
+    public Map<String, Long> ingestStats() {
+        return ingest.stats();
+    }
+
+    // 🔑 IDEMPOTENCY KEY WINDOW: ANSWERED IN MEMORY VS LOOKED UP
+    @GetMapping("/idempotency")
+    @ResponseBody
+    public Map<String, Long> idempotencyStats() {
+        return keys.stats();
+    }
+}
@@ -1,33 +1,92 @@
 package dk.eak.kalkulation.controller;
 
-import dk.eak.kalkulation.repository.ProjektRepository;
+import dk.eak.kalkulation.model.Burndown;
+import dk.eak.kalkulation.model.Forecast;
+import dk.eak.kalkulation.model.ProjectMetrics;
+import dk.eak.kalkulation.service.BurndownService;
 import dk.eak.kalkulation.service.CalculationService;
+import dk.eak.kalkulation.service.ForecastService;
+import dk.eak.kalkulation.service.LiveMetricsService;
+import dk.eak.kalkulation.service.ProjectVersionService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @Controller
 @RequestMapping("/projekter/{projectId}/calc")
 public class CalculationController {
 
-    private final ProjektRepository projektRepo;
     private final CalculationService calc;
+    private final BurndownService burndown;
+    private final ForecastService forecast;
+    private final ProjectVersionService versions;
+    private final LiveMetricsService live;
 
-    public CalculationController(ProjektRepository projektRepo, CalculationService calc) {
-        this.projektRepo = projektRepo;
+    public CalculationController(CalculationService calc, BurndownService burndown, ForecastService forecast,
+                                 ProjectVersionService versions, LiveMetricsService live) {
         this.calc = calc;
+        this.burndown = burndown;
+        this.forecast = forecast;
+        this.versions = versions;
+        this.live = live;
     }
 
+    // 🔹 METRICS PAGE (304 without any query when the project is unchanged)
     @GetMapping
-    public String view(@PathVariable int projectId, Model model) {
-        var p = projektRepo.findById(projectId);
+    public String view(@PathVariable int projectId, Model model,
+                       WebRequest request, HttpServletResponse response) {
+        if (ConditionalGet.notModified(versions, "calc", projectId, request, response)) {
+            return null;
+        }
+        ProjectMetrics m = calc.metrics(projectId);
 
-        model.addAttribute("projekt", p);
-        model.addAttribute("estimatedTotal", calc.totalEstimatedHours(projectId));
-        model.addAttribute("registeredTotal", calc.totalRegisteredHours(projectId));
-        model.addAttribute("remaining", calc.remainingEstimatedHours(projectId));
-        model.addAttribute("requiredPerDay", calc.requiredHoursPerWorkday(p));
+        model.addAttribute("projekt", m.getProjekt());
+        model.addAttribute("metrics", m);
 
         return "calc";
     }
+
+    // 📡 LIVE METRICS (Server-Sent Events, pushed after each committed change)
+    @GetMapping(value = "/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ResponseBody
+    public SseEmitter live(@PathVariable int projectId) {
+        return live.subscribeProject(projectId);
+    }
+
+    // 📉 BURNDOWN SERIES AS JSON (?granularity=daily|weekly)
+    @GetMapping("/burndown")
+    @ResponseBody
+    public Burndown burndown(@PathVariable int projectId,
+                             @RequestParam(defaultValue = "daily") String granularity) {
+        return burndown.burndown(projectId, granularity(granularity));
+    }
+
+    // 🎲 MONTE CARLO COMPLETION FORECAST AS JSON
+    @GetMapping("/forecast")
+    @ResponseBody
+    public Forecast forecast(@PathVariable int projectId,
+                             @RequestParam(defaultValue = "" + ForecastService.DEFAULT_ITERATIONS) int iterations) {
+        if (iterations <= 0 || iterations > ForecastService.MAX_ITERATIONS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Iterations must be between 1 and " + ForecastService.MAX_ITERATIONS);
+        }
+        return forecast.forecast(projectId, iterations);
+    }
+
+    // Unknown values are a bad request, not a server error
+    private static Burndown.Granularity granularity(String value) {
+        for (Burndown.Granularity g : Burndown.Granularity.values()) {
+            if (g.name().equalsIgnoreCase(value)) {
+                return g;
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Unknown granularity: " + value + " (allowed: daily, weekly)");
+    }
 }
@@ -0,0 +1,28 @@
+package dk.eak.kalkulation.controller;
+
+import dk.eak.kalkulation.service.ProjectVersionService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Conditional GET for the project pages, answered from the project version
+ * before any query or template runs. A handler returns null when
+ * {@link #notModified} is true; Spring then sends 304 without a body.
+ */
+final class ConditionalGet {
+
+    // Browsers may keep the page but must ask again each time
+    private static final String CACHE_CONTROL = CacheControl.noCache().cachePrivate().getHeaderValue();
+
+    private ConditionalGet() {
+    }
+
+    static boolean notModified(ProjectVersionService versions, String view, int projectId,
+                               WebRequest request, HttpServletResponse response) {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        String etag = versions.etag(view, projectId);
+        return etag != null && request.checkNotModified(etag, versions.lastModified(projectId));
+    }
+}
@@ -1,17 +1,23 @@
 package dk.eak.kalkulation.controller;
 
+import dk.eak.kalkulation.model.Opgave;
 import dk.eak.kalkulation.repository.OpgaveRepository;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
 @Controller
 @RequestMapping("/delprojekter/{delProjektId}/tasks")
 public class DelProjektTasksController {
 
     private final OpgaveRepository repo;
+    private final FragmentCache fragments;
 
-    public DelProjektTasksController(OpgaveRepository repo) {
+    public DelProjektTasksController(OpgaveRepository repo, FragmentCache fragments) {
         this.repo = repo;
+        this.fragments = fragments;
     }
 
     @GetMapping
@@ -19,8 +25,14 @@ public class DelProjektTasksController {
             @PathVariable int delProjektId,
             Model model
     ) {
-        model.addAttribute("opgaver", repo.findByDelProjektId(delProjektId));
+        long mark = fragments.mark();
+        List<Opgave> opgaver = repo.findByDelProjektId(delProjektId);
+        model.addAttribute("opgaver", opgaver);
         model.addAttribute("delProjektId", delProjektId);
+
+        List<Integer> ids = opgaver.stream().map(Opgave::getOpgaveId).toList();
+        List<Integer> projectIds = opgaver.stream().map(Opgave::getProject_id).distinct().toList();
+        model.addAttribute("rowsHtml", fragments.get("tasks", "rows", model, ids, projectIds, mark));
         return "tasks";
     }
 }
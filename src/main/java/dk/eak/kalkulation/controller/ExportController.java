@@ -0,0 +1,89 @@
+package dk.eak.kalkulation.controller;
+
+import dk.eak.kalkulation.export.ExportFormat;
+import dk.eak.kalkulation.service.ExportService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streaming exports. The response has no Content-Length, so it is sent chunked
+ * while the query is still running; it is gzipped when the client accepts it.
+ */
+@Controller
+public class ExportController {
+
+    private final ExportService service;
+
+    public ExportController(ExportService service) {
+        this.service = service;
+    }
+
+    // ⬇️ OPGAVER OF A PROJECT (?format=csv|json)
+    @GetMapping("/projekter/{projectId}/export/opgaver")
+    public void projectOpgaver(@PathVariable int projectId,
+                               @RequestParam(defaultValue = "csv") String format,
+                               HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ExportFormat f = ExportFormat.parse(format);
+        service.validate(projectId);
+        try (OutputStream out = open(request, response, f, "projekt-" + projectId + "-opgaver")) {
+            service.exportOpgaver(projectId, f, out);
+        }
+    }
+
+    // ⬇️ TIME ENTRIES OF A PROJECT (?format=csv|json)
+    @GetMapping("/projekter/{projectId}/export/timer")
+    public void projectTimeEntries(@PathVariable int projectId,
+                                   @RequestParam(defaultValue = "csv") String format,
+                                   HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ExportFormat f = ExportFormat.parse(format);
+        service.validate(projectId);
+        try (OutputStream out = open(request, response, f, "projekt-" + projectId + "-timer")) {
+            service.exportTimeEntries(projectId, f, out);
+        }
+    }
+
+    // ⬇️ ALL OPGAVER (?format=csv|json)
+    @GetMapping("/projekter/export/opgaver")
+    public void allOpgaver(@RequestParam(defaultValue = "csv") String format,
+                           HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ExportFormat f = ExportFormat.parse(format);
+        try (OutputStream out = open(request, response, f, "opgaver")) {
+            service.exportOpgaver(null, f, out);
+        }
+    }
+
+    // ⬇️ ALL TIME ENTRIES (?format=csv|json)
+    @GetMapping("/projekter/export/timer")
+    public void allTimeEntries(@RequestParam(defaultValue = "csv") String format,
+                               HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ExportFormat f = ExportFormat.parse(format);
+        try (OutputStream out = open(request, response, f, "timer")) {
+            service.exportTimeEntries(null, f, out);
+        }
+    }
+
+    // Headers plus the body stream; gzip flushes with the writer so the first row is not held back
+    private static OutputStream open(HttpServletRequest request, HttpServletResponse response,
+                                     ExportFormat format, String name) throws IOException {
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"" + name + "." + format.getExtension() + "\"");
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        String accept = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (accept != null && accept.contains("gzip")) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return new GZIPOutputStream(response.getOutputStream(), 8192, true);
+        }
+        return response.getOutputStream();
+    }
+}
@@ -0,0 +1,181 @@
+package dk.eak.kalkulation.controller;
+
+import dk.eak.kalkulation.service.ProjectVersionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.ui.Model;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded LRU cache of rendered template fragments.
+ * <p>
+ * A fragment is keyed by the IDs of the rows it shows and the version of every
+ * project those rows belong to ({@link ProjectVersionService#tag}). Every write
+ * through the project, delprojekt, opgave and time entry services touches the
+ * project, so its fragments get a new key and the old entries age out.
+ * <p>
+ * The page splices the HTML in with {@code th:utext} and renders the fragment
+ * itself when it gets null: caching is off, or a project changed while the rows
+ * were read (or within the replica lag).
+ * <pre>
+ * &lt;th:block th:fragment="rows" th:if="${rowsHtml == null}"&gt;...&lt;/th:block&gt;
+ * &lt;th:block th:utext="${rowsHtml}"&gt;&lt;/th:block&gt;
+ * </pre>
+ */
+@Component
+class FragmentCache {
+
+    private final ITemplateEngine engine;
+    private final ProjectVersionService versions;
+    private final boolean enabled;
+    private final int maxEntries;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, String> entries;
+    private volatile JakartaServletWebApplication application;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder uncached = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    FragmentCache(ITemplateEngine engine,
+                  ProjectVersionService versions,
+                  @Value("${kalkulation.fragments.enabled:true}") boolean enabled,
+                  @Value("${kalkulation.fragments.max-entries:2000}") int maxEntries) {
+        this.engine = engine;
+        this.versions = versions;
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                if (size() > FragmentCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * The newest project version; read it before loading the rows of a fragment.
+     */
+    long mark() {
+        return versions.mark();
+    }
+
+    /**
+     * Get a fragment from the cache, or render and store it.
+     *
+     * @param template the template name
+     * @param fragment the {@code th:fragment} name within the template
+     * @param model the page model; the fragment is rendered with it
+     * @param ids IDs of the rows the fragment shows, in order
+     * @param projectIds the projects those rows belong to
+     * @param mark {@link #mark()} from before the rows were loaded
+     * @return the HTML, or null when the page must render the fragment itself
+     */
+    String get(String template, String fragment, Model model,
+               Collection<Integer> ids, Collection<Integer> projectIds, long mark) {
+        if (!enabled) {
+            return null;
+        }
+        StringBuilder key = new StringBuilder(template).append("::").append(fragment).append(ids).append('@');
+        for (int projectId : new TreeSet<>(projectIds)) {
+            String tag = versions.tag(projectId, mark);
+            if (tag == null) {
+                uncached.increment();
+                return null;
+            }
+            key.append(tag).append(',');
+        }
+        String k = key.toString();
+
+        lock.lock();
+        try {
+            String html = entries.get(k);
+            if (html != null) {
+                hits.increment();
+                return html;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        misses.increment();
+        String html = render(template, fragment, model.asMap());
+        lock.lock();
+        try {
+            entries.put(k, html);
+        } finally {
+            lock.unlock();
+        }
+        return html;
+    }
+
+    /** Drop all entries. */
+    void clear() {
+        lock.lock();
+        try {
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    Map<String, Long> stats() {
+        lock.lock();
+        int size;
+        try {
+            size = entries.size();
+        } finally {
+            lock.unlock();
+        }
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("size", (long) size);
+        stats.put("maxEntries", (long) maxEntries);
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("uncached", uncached.sum());
+        stats.put("evictions", evictions.sum());
+        return stats;
+    }
+
+    // ===== helpers =====
+    private String render(String template, String fragment, Map<String, Object> variables) {
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.currentRequestAttributes();
+        HttpServletRequest request = attributes.getRequest();
+        JakartaServletWebApplication app = application;
+        if (app == null) {
+            app = JakartaServletWebApplication.buildApplication(request.getServletContext());
+            application = app;
+        }
+        // the HTML is shared by all clients: no session IDs in links
+        HttpServletResponse response = new HttpServletResponseWrapper(attributes.getResponse()) {
+            @Override
+            public String encodeURL(String url) {
+                return url;
+            }
+        };
+        WebContext context = new WebContext(app.buildExchange(request, response), LocaleContextHolder.getLocale(),
+                variables);
+        return engine.process(template, Set.of(fragment), context);
+    }
+}
@@ -1,28 +1,43 @@
 package dk.eak.kalkulation.controller;
 
+import dk.eak.kalkulation.model.KeysetPage;
 import dk.eak.kalkulation.model.Opgave;
-import dk.eak.kalkulation.repository.OpgaveRepository;
+import dk.eak.kalkulation.service.OpgaveService;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.util.List;
 
 @Controller
 @RequestMapping("/opgaver")
 public class OpgaveController {
 
-    private final OpgaveRepository repo;
+    private final OpgaveService service;
+    private final FragmentCache fragments;
 
-    public OpgaveController(OpgaveRepository repo) {
-        this.repo = repo;
+    public OpgaveController(OpgaveService service, FragmentCache fragments) {
+        this.service = service;
+        this.fragments = fragments;
     }
 
-    // 📄 SHOW TASKS FOR PROJECT
+    // 📄 SHOW TASKS FOR PROJECT (one page; ?after=<cursor> for the next)
     @GetMapping("/{projectId}")
-    public String showTasks(@PathVariable int projectId, Model model) {
+    public String showTasks(@PathVariable int projectId,
+                            @RequestParam(required = false) String after,
+                            @RequestParam(defaultValue = "50") int size,
+                            Model model) {
+        long mark = fragments.mark();
+        KeysetPage<Opgave> page = service.getPageByProjectId(projectId, after, size);
         model.addAttribute("projectId", projectId);
-        model.addAttribute("opgaver", repo.findByProjectId(projectId));
+        model.addAttribute("opgaver", page.getItems());
+        model.addAttribute("page", page);
+        model.addAttribute("after", after);
+        model.addAttribute("size", size);
+
+        List<Integer> ids = page.getItems().stream().map(Opgave::getOpgaveId).toList();
+        model.addAttribute("rowsHtml", fragments.get("tasks", "rows", model, ids, List.of(projectId), mark));
         return "tasks";
     }
 
@@ -42,7 +57,7 @@ public class OpgaveController {
         o.setEstimatedHours(estimatedHours);
         o.setDeadline(deadline);
 
-        repo.create(o);
+        service.create(o);
 
         return "redirect:/opgaver/" + projectId;
     }
@@ -51,7 +66,7 @@ public class OpgaveController {
     @GetMapping("/slet/{id}")
     public String delete(@PathVariable int id,
                          @RequestParam int projectId) {
-        repo.delete(id);
+        service.delete(id);
         return "redirect:/opgaver/" + projectId;
     }
 }
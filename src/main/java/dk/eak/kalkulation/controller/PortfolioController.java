@@ -0,0 +1,63 @@
+package dk.eak.kalkulation.controller;
+
+import dk.eak.kalkulation.model.LoadProfile;
+import dk.eak.kalkulation.model.ProjectMetrics;
+import dk.eak.kalkulation.service.CalculationService;
+import dk.eak.kalkulation.service.CapacityService;
+import dk.eak.kalkulation.service.LiveMetricsService;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+@Controller
+@RequestMapping("/projekter/calc")
+public class PortfolioController {
+
+    private final CalculationService calc;
+    private final CapacityService capacity;
+    private final LiveMetricsService live;
+
+    public PortfolioController(CalculationService calc, CapacityService capacity, LiveMetricsService live) {
+        this.calc = calc;
+        this.capacity = capacity;
+        this.live = live;
+    }
+
+    // 📊 OVERVIEW OF ALL PROJECTS
+    @GetMapping
+    public String overview(Model model) {
+        model.addAttribute("metrics", calc.metricsForAll());
+        return "portfolio_calc";
+    }
+
+    // 📦 SAME DATA AS JSON (optional ?ids=1,2,3)
+    @GetMapping("/json")
+    @ResponseBody
+    public List<ProjectMetrics> json(@RequestParam(required = false) List<Integer> ids) {
+        return ids == null ? calc.metricsForAll() : calc.metricsFor(ids);
+    }
+
+    // 📡 LIVE METRICS OF ALL PROJECTS (Server-Sent Events)
+    @GetMapping(value = "/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ResponseBody
+    public SseEmitter live() {
+        return live.subscribePortfolio();
+    }
+
+    // 🏋️ CAPACITY LOAD PROFILE (optional ?capacity=hours per day)
+    @GetMapping("/capacity")
+    public String capacity(@RequestParam(required = false) Double capacity, Model model) {
+        model.addAttribute("profile", this.capacity.plan(capacity != null ? capacity : this.capacity.getDefaultCapacity()));
+        return "capacity";
+    }
+
+    @GetMapping("/capacity/json")
+    @ResponseBody
+    public LoadProfile capacityJson(@RequestParam(required = false) Double capacity) {
+        return this.capacity.plan(capacity != null ? capacity : this.capacity.getDefaultCapacity());
+    }
+}
@@ -1,12 +1,16 @@
 package dk.eak.kalkulation.controller;
 
-import dk.eak.kalkulation.model.DelProjekt;
+import dk.eak.kalkulation.calendar.WorkCalendarRegistry;
+import dk.eak.kalkulation.model.KeysetPage;
+import dk.eak.kalkulation.model.ProjectTree;
 import dk.eak.kalkulation.model.Projekt;
-import dk.eak.kalkulation.repository.DelProjektRepository;
+import dk.eak.kalkulation.service.ProjectVersionService;
 import dk.eak.kalkulation.service.ProjektService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -15,31 +19,52 @@ import java.util.List;
 public class ProjektController {
 
     private final ProjektService projektService;
-    private final DelProjektRepository delProjektRepository;
+    private final WorkCalendarRegistry calendars;
+    private final ProjectVersionService versions;
+    private final FragmentCache fragments;
 
     public ProjektController(ProjektService projektService,
-                             DelProjektRepository delProjektRepository) {
+                             WorkCalendarRegistry calendars,
+                             ProjectVersionService versions,
+                             FragmentCache fragments) {
         this.projektService = projektService;
-        this.delProjektRepository = delProjektRepository;
+        this.calendars = calendars;
+        this.versions = versions;
+        this.fragments = fragments;
     }
 
-    // 🔹 ALL PROJECTS
+    // 🔹 ALL PROJECTS (one page; ?after=<cursor> for the next; rows from the fragment cache)
     @GetMapping
-    public String getAll(Model model) {
-        model.addAttribute("projekts", projektService.getAll());
+    public String getAll(@RequestParam(required = false) String after,
+                         @RequestParam(defaultValue = "50") int size,
+                         Model model) {
+        long mark = fragments.mark();
+        KeysetPage<Projekt> page = projektService.getPage(after, size);
+        model.addAttribute("projekts", page.getItems());
+        model.addAttribute("page", page);
+        model.addAttribute("after", after);
+        model.addAttribute("size", size);
+
+        List<Integer> ids = page.getItems().stream().map(Projekt::getProjectId).toList();
+        model.addAttribute("rowsHtml", fragments.get("projekter", "rows", model, ids, ids, mark));
         return "projekter";
     }
 
-    // 🔹 PROJECT DETAILS + DELPROJEKTER
+    // 🔹 PROJECT DETAILS: DELPROJEKTER → OPGAVER → HOURS (two queries, none on 304; table from the fragment cache)
     @GetMapping("/{id}")
-    public String details(@PathVariable int id, Model model) {
+    public String details(@PathVariable int id, Model model,
+                          WebRequest request, HttpServletResponse response) {
+
+        if (ConditionalGet.notModified(versions, "details", id, request, response)) {
+            return null;
+        }
 
-        Projekt project = projektService.getById(id);
-        List<DelProjekt> delprojekter =
-                delProjektRepository.findByProjektId(id);
+        long mark = fragments.mark();
+        ProjectTree tree = projektService.getTree(id);
 
-        model.addAttribute("project", project);
-        model.addAttribute("delprojekter", delprojekter);
+        model.addAttribute("project", tree.getProject());
+        model.addAttribute("tree", tree);
+        model.addAttribute("treeHtml", fragments.get("project-details", "tree", model, List.of(id), List.of(id), mark));
 
         return "project-details";
     }
@@ -48,6 +73,7 @@ public class ProjektController {
     @GetMapping("/opret")
     public String createForm(Model model) {
         model.addAttribute("projekt", new Projekt());
+        model.addAttribute("calendars", calendars.ids());
         return "opret_projekt";
     }
 
@@ -61,6 +87,7 @@ public class ProjektController {
     @GetMapping("/rediger/{id}")
     public String editForm(@PathVariable int id, Model model) {
         model.addAttribute("projekt", projektService.getById(id));
+        model.addAttribute("calendars", calendars.ids());
         return "rediger_projekt";
     }
 
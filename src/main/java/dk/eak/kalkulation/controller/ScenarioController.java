@@ -0,0 +1,124 @@
+package dk.eak.kalkulation.controller;
+
+import dk.eak.kalkulation.model.ScenarioResult;
+import dk.eak.kalkulation.service.ScenarioService;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.function.Supplier;
+
+@Controller
+@RequestMapping("/projekter/{projectId}/scenarier")
+public class ScenarioController {
+
+    private final ScenarioService service;
+
+    public ScenarioController(ScenarioService service) {
+        this.service = service;
+    }
+
+    // 🧪 OPEN NEW SCENARIO (?reload=true loads the project again)
+    @PostMapping
+    @ResponseBody
+    public ScenarioResult create(@PathVariable int projectId,
+                                 @RequestParam(defaultValue = "false") boolean reload) {
+        return badRequest(() -> service.create(projectId, reload));
+    }
+
+    // 🧪 EVALUATE SCENARIO
+    @GetMapping("/{scenarioId}")
+    @ResponseBody
+    public ScenarioResult get(@PathVariable int projectId, @PathVariable String scenarioId) {
+        checkProject(projectId, scenarioId);
+        return service.get(scenarioId);
+    }
+
+    // ✏️ OPGAVE ESTIMATE (?hours=40 or ?percent=-20)
+    @PostMapping("/{scenarioId}/opgaver/{opgaveId}")
+    @ResponseBody
+    public ScenarioResult estimate(@PathVariable int projectId,
+                                   @PathVariable String scenarioId,
+                                   @PathVariable int opgaveId,
+                                   @RequestParam(required = false) Integer hours,
+                                   @RequestParam(required = false) Double percent) {
+        checkProject(projectId, scenarioId);
+        if (hours != null) {
+            return badRequest(() -> service.setEstimate(scenarioId, opgaveId, hours));
+        }
+        if (percent != null) {
+            return badRequest(() -> service.scaleEstimate(scenarioId, opgaveId, percent));
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Either hours or percent is required");
+    }
+
+    // ✏️ ALL ESTIMATES IN A DELPROJEKT (?percent=-20)
+    @PostMapping("/{scenarioId}/delprojekter/{delProjektId}")
+    @ResponseBody
+    public ScenarioResult delProjekt(@PathVariable int projectId,
+                                     @PathVariable String scenarioId,
+                                     @PathVariable int delProjektId,
+                                     @RequestParam double percent) {
+        checkProject(projectId, scenarioId);
+        return badRequest(() -> service.scaleDelProjekt(scenarioId, delProjektId, percent));
+    }
+
+    // ❌ LEAVE OPGAVE OUT
+    @DeleteMapping("/{scenarioId}/opgaver/{opgaveId}")
+    @ResponseBody
+    public ScenarioResult removeOpgave(@PathVariable int projectId,
+                                       @PathVariable String scenarioId,
+                                       @PathVariable int opgaveId) {
+        checkProject(projectId, scenarioId);
+        return badRequest(() -> service.removeOpgave(scenarioId, opgaveId));
+    }
+
+    // 📅 END DATE (?date=2026-06-30 or ?shiftDays=14)
+    @PostMapping("/{scenarioId}/end-date")
+    @ResponseBody
+    public ScenarioResult endDate(@PathVariable int projectId,
+                                  @PathVariable String scenarioId,
+                                  @RequestParam(required = false) LocalDate date,
+                                  @RequestParam(required = false) Integer shiftDays) {
+        checkProject(projectId, scenarioId);
+        if (date != null) {
+            return badRequest(() -> service.setEndDate(scenarioId, date));
+        }
+        if (shiftDays != null) {
+            return badRequest(() -> service.shiftEndDate(scenarioId, shiftDays));
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Either date or shiftDays is required");
+    }
+
+    // 🗑️ CLOSE SCENARIO
+    @DeleteMapping("/{scenarioId}")
+    @ResponseBody
+    public void discard(@PathVariable int projectId, @PathVariable String scenarioId) {
+        checkProject(projectId, scenarioId);
+        service.discard(scenarioId);
+    }
+
+    // A scenario of another project is not found under this one
+    private void checkProject(int projectId, String scenarioId) {
+        int owner;
+        try {
+            owner = service.projectOf(scenarioId);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
+        }
+        if (owner != projectId) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown scenario " + scenarioId);
+        }
+    }
+
+    // Invalid edits are a bad request, not a server error
+    private static ScenarioResult badRequest(Supplier<ScenarioResult> call) {
+        try {
+            return call.get();
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+}
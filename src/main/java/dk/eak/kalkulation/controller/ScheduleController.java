@@ -0,0 +1,56 @@
+package dk.eak.kalkulation.controller;
+
+import dk.eak.kalkulation.model.Schedule;
+import dk.eak.kalkulation.repository.OpgaveRepository;
+import dk.eak.kalkulation.service.ScheduleService;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.*;
+
+@Controller
+@RequestMapping("/projekter/{projectId}/schedule")
+public class ScheduleController {
+
+    private final ScheduleService service;
+    private final OpgaveRepository opgaveRepo;
+
+    public ScheduleController(ScheduleService service, OpgaveRepository opgaveRepo) {
+        this.service = service;
+        this.opgaveRepo = opgaveRepo;
+    }
+
+    // 🗓️ CRITICAL PATH PAGE
+    @GetMapping
+    public String view(@PathVariable int projectId, Model model) {
+        model.addAttribute("projectId", projectId);
+        model.addAttribute("schedule", service.schedule(projectId));
+        model.addAttribute("opgaver", opgaveRepo.findByProjectId(projectId));
+        model.addAttribute("dependencies", service.getDependencies(projectId));
+        return "schedule";
+    }
+
+    // 🗓️ SCHEDULE AS JSON
+    @GetMapping("/json")
+    @ResponseBody
+    public Schedule json(@PathVariable int projectId) {
+        return service.schedule(projectId);
+    }
+
+    // 🔗 ADD DEPENDENCY
+    @PostMapping("/dependencies")
+    public String addDependency(@PathVariable int projectId,
+                                @RequestParam int opgaveId,
+                                @RequestParam int dependsOnId) {
+        service.addDependency(opgaveId, dependsOnId);
+        return "redirect:/projekter/" + projectId + "/schedule";
+    }
+
+    // ❌ REMOVE DEPENDENCY
+    @PostMapping("/dependencies/slet")
+    public String removeDependency(@PathVariable int projectId,
+                                   @RequestParam int opgaveId,
+                                   @RequestParam int dependsOnId) {
+        service.removeDependency(opgaveId, dependsOnId);
+        return "redirect:/projekter/" + projectId + "/schedule";
+    }
+}
@@ -1,47 +1,63 @@
 package dk.eak.kalkulation.controller;
 
+import dk.eak.kalkulation.model.KeysetPage;
 import dk.eak.kalkulation.model.TimeEntry;
 import dk.eak.kalkulation.repository.OpgaveRepository;
-import dk.eak.kalkulation.repository.TimeEntryRepository;
+import dk.eak.kalkulation.service.TimeEntryIngestService;
+import dk.eak.kalkulation.service.TimeEntryService;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDate;
+import java.util.UUID;
 
 @Controller
 @RequestMapping("/opgaver/{opgaveId}/time")
 public class TimeEntryController {
 
-    private final TimeEntryRepository timeRepo;
+    private final TimeEntryService timeService;
     private final OpgaveRepository opgaveRepo;
+    private final TimeEntryIngestService ingest;
 
-    public TimeEntryController(TimeEntryRepository timeRepo,
-                               OpgaveRepository opgaveRepo) {
-        this.timeRepo = timeRepo;
+    public TimeEntryController(TimeEntryService timeService,
+                               OpgaveRepository opgaveRepo,
+                               TimeEntryIngestService ingest) {
+        this.timeService = timeService;
         this.opgaveRepo = opgaveRepo;
+        this.ingest = ingest;
     }
 
-    // 📄 SHOW TIME ENTRIES
+    // 📄 SHOW TIME ENTRIES (one page; ?after=<cursor> for the next)
     @GetMapping
-    public String list(@PathVariable int opgaveId, Model model) {
+    public String list(@PathVariable int opgaveId,
+                       @RequestParam(required = false) String after,
+                       @RequestParam(defaultValue = "50") int size,
+                       Model model) {
 
-        var task = opgaveRepo.findByProjectId(opgaveId);
+        var task = opgaveRepo.findById(opgaveId);
 
         TimeEntry form = new TimeEntry();
         form.setOpgaveId(opgaveId);
         form.setWorkDate(LocalDate.now());
         form.setHours(1);
+        // a resubmit of this form (back button, flaky network) replays instead of adding the hours twice
+        form.setIdempotencyKey(UUID.randomUUID().toString());
 
         model.addAttribute("task", task);
-        model.addAttribute("entries",
-                timeRepo.findByOpgaveId(opgaveId));
+        KeysetPage<TimeEntry> page = timeService.getPageByOpgaveId(opgaveId, after, size);
+        model.addAttribute("entries", page.getItems());
+        model.addAttribute("page", page);
+        model.addAttribute("after", after);
+        model.addAttribute("size", size);
         model.addAttribute("timeForm", form);
 
         return "time_entries";
     }
 
-    // ➕ ADD TIME ENTRY
+    // ➕ ADD TIME ENTRY (group commit when kalkulation.ingest.enabled)
     @PostMapping
     public String create(@PathVariable int opgaveId,
                          @ModelAttribute("timeForm") TimeEntry t) {
@@ -53,8 +69,16 @@ public class TimeEntryController {
         if (t.getHours() == null) {
             t.setHours(0);
         }
+        if (t.getIdempotencyKey() != null && t.getIdempotencyKey().isBlank()) {
+            t.setIdempotencyKey(null);
+        }
 
-        timeRepo.create(t);
+        try {
+            ingest.create(t);
+        } catch (IllegalStateException e) {
+            // overloaded or not committed in time: the form may be sent again with the same key
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), e);
+        }
 
         return "redirect:/opgaver/" + opgaveId + "/time";
     }
@@ -64,7 +88,7 @@ public class TimeEntryController {
     public String delete(@PathVariable int opgaveId,
                          @PathVariable int timeEntryId) {
 
-        timeRepo.delete(timeEntryId);
+        timeService.delete(timeEntryId);
         return "redirect:/opgaver/" + opgaveId + "/time";
     }
 }
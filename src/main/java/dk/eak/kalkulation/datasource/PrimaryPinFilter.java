@@ -0,0 +1,118 @@
+package dk.eak.kalkulation.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.util.Set;
+
+/**
+ * Read-your-writes for the replica: a client that has just written reads from
+ * the primary for a while.
+ * <p>
+ * A request writes if it is not a GET/HEAD/OPTIONS or if it redirects (the
+ * delete links are GETs that redirect). Such a request is itself pinned to the
+ * primary and sets a cookie holding the end of the window; later requests that
+ * carry an unexpired cookie are pinned too. The cookie is set before the
+ * redirect is sent, so the page after a POST-redirect-GET sees the write.
+ */
+public class PrimaryPinFilter extends OncePerRequestFilter {
+
+    static final String COOKIE = "kalkulation_primary";
+
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final long windowMillis;
+    private final Clock clock;
+
+    public PrimaryPinFilter(long windowMillis, Clock clock) {
+        if (windowMillis <= 0) {
+            throw new IllegalArgumentException("Primary pin window must be positive");
+        }
+        this.windowMillis = windowMillis;
+        this.clock = clock;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean writes = !READ_METHODS.contains(request.getMethod());
+        if (writes) {
+            setCookie(response);
+        }
+        long now = clock.millis();
+        long until = pinnedUntil(request);
+        // the cookie is client-side; never honour more than one window from now
+        if (writes || (until > now && until <= now + windowMillis)) {
+            ReplicaContext.pin();
+        }
+        try {
+            chain.doFilter(request, writes ? response : new PinOnRedirect(response));
+        } finally {
+            ReplicaContext.unpin();
+        }
+    }
+
+    // Adds the cookie before any redirect commits the response
+    private final class PinOnRedirect extends HttpServletResponseWrapper {
+
+        PinOnRedirect(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            setCookie(this);
+            super.sendRedirect(location);
+        }
+
+        @Override
+        public void sendRedirect(String location, int sc) throws IOException {
+            setCookie(this);
+            super.sendRedirect(location, sc);
+        }
+
+        @Override
+        public void sendRedirect(String location, boolean clearBuffer) throws IOException {
+            setCookie(this);
+            super.sendRedirect(location, clearBuffer);
+        }
+
+        @Override
+        public void sendRedirect(String location, int sc, boolean clearBuffer) throws IOException {
+            setCookie(this);
+            super.sendRedirect(location, sc, clearBuffer);
+        }
+    }
+
+    private void setCookie(HttpServletResponse response) {
+        Cookie cookie = new Cookie(COOKIE, Long.toString(clock.millis() + windowMillis));
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        cookie.setMaxAge((int) Math.max(1, (windowMillis + 999) / 1000));
+        response.addCookie(cookie);
+    }
+
+    private static long pinnedUntil(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return 0;
+        }
+        for (Cookie c : cookies) {
+            if (COOKIE.equals(c.getName())) {
+                try {
+                    return Long.parseLong(c.getValue());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,44 @@
+package dk.eak.kalkulation.datasource;
+
+/**
+ * Per-thread routing state for the read replica.
+ * <p>
+ * A thread is pinned to the primary by {@link PrimaryPinFilter} while its
+ * session has written recently. {@link ReplicaRoutingDataSource} records when
+ * the current transaction was given a replica connection, so the query cache
+ * can tell that a result may lag behind the primary.
+ */
+public final class ReplicaContext {
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> ON_REPLICA = new ThreadLocal<>();
+
+    private ReplicaContext() {
+    }
+
+    /** Send every read on this thread to the primary until {@link #unpin()}. */
+    public static void pin() {
+        PINNED.set(Boolean.TRUE);
+    }
+
+    public static void unpin() {
+        PINNED.remove();
+    }
+
+    public static boolean isPinned() {
+        return PINNED.get() != null;
+    }
+
+    /** True while the current transaction reads from a replica. */
+    public static boolean isOnReplica() {
+        return ON_REPLICA.get() != null;
+    }
+
+    static void setOnReplica(boolean onReplica) {
+        if (onReplica) {
+            ON_REPLICA.set(Boolean.TRUE);
+        } else {
+            ON_REPLICA.remove();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package dk.eak.kalkulation.datasource;
+
+import dk.eak.kalkulation.repository.QueryCache;
+import dk.eak.kalkulation.service.ProjectVersionService;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+
+/**
+ * Primary/replica setup, active when {@code kalkulation.replica.url} is set.
+ * <p>
+ * The primary is built from {@code spring.datasource.*} as before; the replica
+ * from {@code kalkulation.replica.*}. Services mark their reads with
+ * {@code @Transactional(readOnly = true)}, and those go to the replica unless the
+ * client wrote within {@code kalkulation.replica.pin-millis}. The same window is
+ * the longest replica lag the query cache allows for: a replica result for a
+ * table written within it is not cached. Project pages changed within it get
+ * no ETag, for the same reason.
+ */
+@Configuration
+@ConditionalOnExpression("!'${kalkulation.replica.url:}'.isBlank()")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties primary,
+                                 @Value("${kalkulation.replica.url}") String url,
+                                 @Value("${kalkulation.replica.username:${spring.datasource.username:}}") String username,
+                                 @Value("${kalkulation.replica.password:${spring.datasource.password:}}") String password,
+                                 @Value("${kalkulation.replica.pin-millis:5000}") long pinMillis,
+                                 QueryCache cache) {
+        DataSource replica = DataSourceBuilder.create()
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        cache.setReplicaLagMillis(pinMillis);
+        return ReplicaRoutingDataSource.create(primary.initializeDataSourceBuilder().build(), replica);
+    }
+
+    // Not in dataSource(): the version service needs a repository, which needs the DataSource
+    @Bean
+    public SmartInitializingSingleton projectVersionReplicaLag(ProjectVersionService versions,
+            @Value("${kalkulation.replica.pin-millis:5000}") long pinMillis) {
+        return () -> versions.setReplicaLagMillis(pinMillis);
+    }
+
+    @Bean
+    public FilterRegistrationBean<PrimaryPinFilter> primaryPinFilter(
+            @Value("${kalkulation.replica.pin-millis:5000}") long pinMillis) {
+        FilterRegistrationBean<PrimaryPinFilter> registration =
+                new FilterRegistrationBean<>(new PrimaryPinFilter(pinMillis, Clock.systemUTC()));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -0,0 +1,50 @@
+package dk.eak.kalkulation.datasource;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to the replica and everything else to the primary.
+ * <p>
+ * The transaction manager asks for a connection before it marks the transaction
+ * read-only, so the router only works behind a {@link LazyConnectionDataSourceProxy},
+ * which fetches the real connection at the first statement; use {@link #create}.
+ * Reads outside a transaction and reads on a pinned thread go to the primary.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Route { PRIMARY, REPLICA }
+
+    /**
+     * @return the router wrapped in a lazy connection proxy
+     */
+    public static DataSource create(DataSource primary, DataSource replica) {
+        ReplicaRoutingDataSource router = new ReplicaRoutingDataSource();
+        router.setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        router.setDefaultTargetDataSource(primary);
+        router.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(router);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || ReplicaContext.isPinned()) {
+            return Route.PRIMARY;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            ReplicaContext.setOnReplica(true);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    ReplicaContext.setOnReplica(false);
+                }
+            });
+        }
+        return Route.REPLICA;
+    }
+}
@@ -0,0 +1,88 @@
+package dk.eak.kalkulation.export;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Comma separated values with a header line. Fields containing a comma, quote or
+ * line break are quoted (RFC 4180); null is an empty field.
+ */
+final class CsvRecordWriter extends RecordWriter {
+
+    CsvRecordWriter(Writer out) {
+        super(out);
+    }
+
+    @Override
+    public void begin(String... columns) throws IOException {
+        super.begin(columns);
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            text(columns[i]);
+        }
+        out.write('\n');
+    }
+
+    @Override
+    public void beginRow() {
+        column = 0;
+    }
+
+    @Override
+    public void value(int value) throws IOException {
+        separator();
+        out.write(Integer.toString(value));
+    }
+
+    @Override
+    public void value(String value) throws IOException {
+        separator();
+        if (value != null) {
+            text(value);
+        }
+    }
+
+    @Override
+    public void nullValue() throws IOException {
+        separator();
+    }
+
+    @Override
+    public void endRow() throws IOException {
+        out.write('\n');
+    }
+
+    @Override
+    public void end() throws IOException {
+        out.flush();
+    }
+
+    private void separator() throws IOException {
+        if (column++ > 0) {
+            out.write(',');
+        }
+    }
+
+    private void text(String s) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < s.length() && !quote; i++) {
+            char c = s.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.write(s);
+            return;
+        }
+        out.write('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"') {
+                out.write('"');
+            }
+            out.write(c);
+        }
+        out.write('"');
+    }
+}
@@ -0,0 +1,51 @@
+package dk.eak.kalkulation.export;
+
+import java.io.Writer;
+import java.util.Locale;
+
+/**
+ * File formats for the streaming exports.
+ */
+public enum ExportFormat {
+    CSV("text/csv", "csv"),
+    JSON("application/json", "json");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() { return contentType; }
+
+    public String getExtension() { return extension; }
+
+    /**
+     * Create a record writer for this format.
+     *
+     * @param out where the records go; not closed by the writer
+     * @return a new writer
+     */
+    public RecordWriter writer(Writer out) {
+        return this == CSV ? new CsvRecordWriter(out) : new JsonRecordWriter(out);
+    }
+
+    /**
+     * Parse a format name from a request parameter.
+     *
+     * @param name "csv" or "json", case-insensitive
+     * @return the format
+     */
+    public static ExportFormat parse(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("Format cannot be null");
+        }
+        return switch (name.toLowerCase(Locale.ROOT)) {
+            case "csv" -> CSV;
+            case "json" -> JSON;
+            default -> throw new IllegalArgumentException("Unknown export format: " + name);
+        };
+    }
+}
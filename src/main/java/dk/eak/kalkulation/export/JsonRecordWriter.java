@@ -0,0 +1,96 @@
+package dk.eak.kalkulation.export;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * A JSON array with one object per row, keyed by column name, one row per line.
+ */
+final class JsonRecordWriter extends RecordWriter {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private boolean firstRow = true;
+
+    JsonRecordWriter(Writer out) {
+        super(out);
+    }
+
+    @Override
+    public void begin(String... columns) throws IOException {
+        super.begin(columns);
+        out.write('[');
+    }
+
+    @Override
+    public void beginRow() throws IOException {
+        out.write(firstRow ? "\n{" : ",\n{");
+        firstRow = false;
+        column = 0;
+    }
+
+    @Override
+    public void value(int value) throws IOException {
+        key();
+        out.write(Integer.toString(value));
+    }
+
+    @Override
+    public void value(String value) throws IOException {
+        if (value == null) {
+            nullValue();
+            return;
+        }
+        key();
+        string(value);
+    }
+
+    @Override
+    public void nullValue() throws IOException {
+        key();
+        out.write("null");
+    }
+
+    @Override
+    public void endRow() throws IOException {
+        out.write('}');
+    }
+
+    @Override
+    public void end() throws IOException {
+        out.write(firstRow ? "]\n" : "\n]\n");
+        out.flush();
+    }
+
+    private void key() throws IOException {
+        if (column > 0) {
+            out.write(',');
+        }
+        string(columns[column++]);
+        out.write(':');
+    }
+
+    private void string(String s) throws IOException {
+        out.write('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> out.write("\\\"");
+                case '\\' -> out.write("\\\\");
+                case '\n' -> out.write("\\n");
+                case '\r' -> out.write("\\r");
+                case '\t' -> out.write("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.write("\\u00");
+                        out.write(HEX[c >> 4]);
+                        out.write(HEX[c & 0xF]);
+                    } else {
+                        out.write(c);
+                    }
+                }
+            }
+        }
+        out.write('"');
+    }
+}
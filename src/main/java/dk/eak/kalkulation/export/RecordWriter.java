@@ -0,0 +1,59 @@
+package dk.eak.kalkulation.export;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+
+/**
+ * Writes rows of named columns one value at a time, so an export never holds
+ * more than the current row. Usage: {@link #begin}, then per row {@link #beginRow},
+ * one value call per column and {@link #endRow}, and finally {@link #end}.
+ * Not thread-safe.
+ */
+public abstract class RecordWriter {
+
+    protected final Writer out;
+    protected String[] columns;
+    protected int column;
+
+    protected RecordWriter(Writer out) {
+        this.out = out;
+    }
+
+    /** Start the document with the column names. */
+    public void begin(String... columns) throws IOException {
+        this.columns = columns;
+    }
+
+    public abstract void beginRow() throws IOException;
+
+    public abstract void value(int value) throws IOException;
+
+    /** A text value; null is written as an empty/null value. */
+    public abstract void value(String value) throws IOException;
+
+    /** A nullable integer value. */
+    public void value(Integer value) throws IOException {
+        if (value == null) {
+            nullValue();
+        } else {
+            value(value.intValue());
+        }
+    }
+
+    /** A date as yyyy-MM-dd; null is written as an empty/null value. */
+    public void value(LocalDate value) throws IOException {
+        if (value == null) {
+            nullValue();
+        } else {
+            value(value.toString());
+        }
+    }
+
+    public abstract void nullValue() throws IOException;
+
+    public abstract void endRow() throws IOException;
+
+    /** Finish the document and flush; the underlying writer is left open. */
+    public abstract void end() throws IOException;
+}
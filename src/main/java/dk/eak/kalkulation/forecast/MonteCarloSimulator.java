@@ -0,0 +1,133 @@
+package dk.eak.kalkulation.forecast;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Simulates how many working days the remaining work of a project takes.
+ * <p>
+ * Every iteration draws an actual/estimate ratio per task from a log-normal
+ * distribution, sums the work still left and divides it by the daily throughput.
+ * Iterations are split over a fork-join pool; each leaf owns a {@link SplittableRandom}
+ * split off its parent and writes only its own slice of the result array, so there is
+ * no shared mutable state and the same seed always gives the same result.
+ */
+public final class MonteCarloSimulator {
+
+    /** Iterations per leaf task, small enough to balance and large enough to amortize forking. */
+    static final int LEAF_SIZE = 2048;
+
+    private final ForkJoinPool pool;
+
+    public MonteCarloSimulator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public MonteCarloSimulator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Run the simulation.
+     *
+     * @param estimatedHours estimate per task
+     * @param registeredHours hours already registered per task, same order as the estimates
+     * @param mu mean of the log of actual/estimate
+     * @param sigma standard deviation of the log of actual/estimate
+     * @param hoursPerWorkday hours the project gets done per working day, must be positive
+     * @param iterations number of simulated completions
+     * @param seed random seed
+     * @return working days needed per iteration, sorted ascending
+     */
+    public int[] simulate(int[] estimatedHours, int[] registeredHours, double mu, double sigma,
+                          double hoursPerWorkday, int iterations, long seed) {
+        if (estimatedHours.length != registeredHours.length) {
+            throw new IllegalArgumentException("Estimated and registered hours must have the same length");
+        }
+        if (hoursPerWorkday <= 0) {
+            throw new IllegalArgumentException("Hours per workday must be positive");
+        }
+        if (iterations <= 0) {
+            throw new IllegalArgumentException("Iterations must be positive");
+        }
+        int[] days = new int[iterations];
+        pool.invoke(new Chunk(estimatedHours, registeredHours, mu, sigma, hoursPerWorkday,
+                days, 0, iterations, new SplittableRandom(seed)));
+        Arrays.parallelSort(days);
+        return days;
+    }
+
+    /**
+     * Nearest-rank percentile of a sorted sample.
+     *
+     * @param sorted values sorted ascending
+     * @param percentile percentile between 0 and 100
+     * @return the value at the percentile
+     */
+    public static int percentile(int[] sorted, double percentile) {
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(rank - 1, 0)];
+    }
+
+    private static final class Chunk extends RecursiveAction {
+
+        private final int[] estimated;
+        private final int[] registered;
+        private final double mu;
+        private final double sigma;
+        private final double hoursPerWorkday;
+        private final int[] out;
+        private final int from;
+        private final int to;
+        private final SplittableRandom rng;
+
+        Chunk(int[] estimated, int[] registered, double mu, double sigma, double hoursPerWorkday,
+              int[] out, int from, int to, SplittableRandom rng) {
+            this.estimated = estimated;
+            this.registered = registered;
+            this.mu = mu;
+            this.sigma = sigma;
+            this.hoursPerWorkday = hoursPerWorkday;
+            this.out = out;
+            this.from = from;
+            this.to = to;
+            this.rng = rng;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_SIZE) {
+                run();
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            // split before forking so the tree of generators only depends on the range
+            Chunk right = new Chunk(estimated, registered, mu, sigma, hoursPerWorkday,
+                    out, mid, to, rng.split());
+            Chunk left = new Chunk(estimated, registered, mu, sigma, hoursPerWorkday,
+                    out, from, mid, rng);
+            invokeAll(left, right);
+        }
+
+        private void run() {
+            int tasks = estimated.length;
+            for (int i = from; i < to; i++) {
+                double remaining = 0;
+                for (int t = 0; t < tasks; t++) {
+                    int est = estimated[t];
+                    if (est <= 0) {
+                        continue;
+                    }
+                    double actual = est * Math.exp(mu + sigma * rng.nextGaussian());
+                    double left = actual - registered[t];
+                    if (left > 0) {
+                        remaining += left;
+                    }
+                }
+                out[i] = (int) Math.ceil(remaining / hoursPerWorkday);
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package dk.eak.kalkulation.importer;
+
+/**
+ * Parsed time entry rows in primitive columns, handed from the parser threads to
+ * the writer. Arrays are only valid up to {@link #size()}.
+ */
+public final class RowBatch {
+
+    /** Marker a parser puts on the queue when its chunk is done. */
+    static final RowBatch END = new RowBatch(0);
+
+    private final int[] opgaveIds;
+    private final int[] epochDays;
+    private final int[] hours;
+    private int size;
+
+    RowBatch(int capacity) {
+        this.opgaveIds = new int[capacity];
+        this.epochDays = new int[capacity];
+        this.hours = new int[capacity];
+    }
+
+    void add(int opgaveId, int epochDay, int h) {
+        opgaveIds[size] = opgaveId;
+        epochDays[size] = epochDay;
+        hours[size] = h;
+        size++;
+    }
+
+    boolean isFull() { return size == opgaveIds.length; }
+
+    public int size() { return size; }
+
+    public int[] opgaveIds() { return opgaveIds; }
+
+    /** Work dates as {@link java.time.LocalDate#toEpochDay()} values. */
+    public int[] epochDays() { return epochDays; }
+
+    public int[] hours() { return hours; }
+}
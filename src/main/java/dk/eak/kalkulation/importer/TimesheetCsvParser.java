@@ -0,0 +1,261 @@
+package dk.eak.kalkulation.importer;
+
+import dk.eak.kalkulation.model.ImportReport.RejectedRow;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * Parses one chunk of a timesheet CSV file straight from a byte buffer.
+ * <p>
+ * Columns are {@code opgave_id, work_date, hours} separated by comma or semicolon,
+ * with dates as {@code yyyy-MM-dd}; fields may be quoted and further columns are
+ * ignored. A first line in the file that does not start with a digit is taken as
+ * the header. Numbers and dates are decoded byte by byte into ints and epoch days,
+ * so accepted rows allocate nothing beyond their batch; only rejected rows become
+ * strings. Rows are checked with the same rules as {@code TimeEntryService}.
+ * One parser per chunk; not thread-safe.
+ */
+final class TimesheetCsvParser {
+
+    static final int MAX_TEXT = 200;
+
+    private static final String INVALID_OPGAVE = "Invalid opgave ID";
+    private static final String INVALID_DATE = "Invalid work date";
+    private static final String INVALID_HOURS = "Invalid hours";
+
+    private final IntPredicate knownOpgave;
+    private final long latestEpochDay;
+    private final int batchRows;
+    private final int maxRejected;
+    private final List<RejectedRow> rejected = new ArrayList<>();
+    private long lines;
+    private long rows;
+    private long rejectedCount;
+
+    // cursor into the current line
+    private int p;
+    private int digits;
+
+    TimesheetCsvParser(IntPredicate knownOpgave, LocalDate today, int batchRows, int maxRejected) {
+        this.knownOpgave = knownOpgave;
+        this.latestEpochDay = today.toEpochDay();
+        this.batchRows = batchRows;
+        this.maxRejected = maxRejected;
+    }
+
+    @FunctionalInterface
+    interface BatchSink {
+        void accept(RowBatch batch) throws InterruptedException;
+    }
+
+    /**
+     * Parse every line between the buffer's position and limit.
+     *
+     * @param buf the chunk, starting at a line boundary
+     * @param fileStart true for the first chunk of the file (BOM and header handling)
+     * @param sink receives full batches and the final partial one; may block
+     */
+    void parse(ByteBuffer buf, boolean fileStart, BatchSink sink) throws InterruptedException {
+        int pos = buf.position();
+        int end = buf.limit();
+        if (fileStart && end - pos >= 3
+                && buf.get(pos) == (byte) 0xEF && buf.get(pos + 1) == (byte) 0xBB && buf.get(pos + 2) == (byte) 0xBF) {
+            pos += 3;
+        }
+        boolean firstLine = fileStart;
+        RowBatch batch = new RowBatch(batchRows);
+        while (pos < end) {
+            int eol = pos;
+            while (eol < end && buf.get(eol) != '\n') {
+                eol++;
+            }
+            int lineEnd = eol > pos && buf.get(eol - 1) == '\r' ? eol - 1 : eol;
+            lines++;
+            boolean header = firstLine && !startsWithDigit(buf, pos, lineEnd);
+            firstLine = false;
+            if (!header && !isBlank(buf, pos, lineEnd)) {
+                rows++;
+                String reason = parseRow(buf, pos, lineEnd, batch);
+                if (reason != null) {
+                    reject(buf, pos, lineEnd, reason);
+                } else if (batch.isFull()) {
+                    sink.accept(batch);
+                    batch = new RowBatch(batchRows);
+                }
+            }
+            pos = eol + 1;
+        }
+        if (batch.size() > 0) {
+            sink.accept(batch);
+        }
+    }
+
+    /** Lines in the chunk, including header and blank lines. */
+    long lines() { return lines; }
+
+    /** Data rows in the chunk. */
+    long rows() { return rows; }
+
+    long rejectedCount() { return rejectedCount; }
+
+    /** Rejected rows with line numbers relative to the chunk start. */
+    List<RejectedRow> rejected() { return rejected; }
+
+    // Returns the reject reason, or null after adding the row to the batch
+    private String parseRow(ByteBuffer buf, int from, int to, RowBatch batch) {
+        p = from;
+        open(buf, to);
+        int opgaveId = number(buf, to, 9);
+        if (opgaveId < 0 || !close(buf, to, false)) {
+            return INVALID_OPGAVE;
+        }
+
+        open(buf, to);
+        int year = number(buf, to, 4);
+        if (digits != 4 || !expect(buf, to, '-')) {
+            return INVALID_DATE;
+        }
+        int month = number(buf, to, 2);
+        if (month < 1 || month > 12 || !expect(buf, to, '-')) {
+            return INVALID_DATE;
+        }
+        int day = number(buf, to, 2);
+        if (day < 1 || day > lengthOfMonth(year, month) || !close(buf, to, false)) {
+            return INVALID_DATE;
+        }
+
+        open(buf, to);
+        int h = number(buf, to, 9);
+        if (h < 0 || !close(buf, to, true)) {
+            return INVALID_HOURS;
+        }
+
+        if (opgaveId <= 0) {
+            return "Opgave ID must be valid";
+        }
+        if (!knownOpgave.test(opgaveId)) {
+            return "Unknown opgave ID " + opgaveId;
+        }
+        long epochDay = epochDay(year, month, day);
+        if (epochDay > latestEpochDay) {
+            return "Work date cannot be in the future";
+        }
+        if (h == 0) {
+            return "Hours must be greater than 0";
+        }
+        if (h > 24) {
+            return "Hours cannot exceed 24 per day";
+        }
+        batch.add(opgaveId, (int) epochDay, h);
+        return null;
+    }
+
+    // ===== byte-level helpers =====
+    private void open(ByteBuffer buf, int to) {
+        skipSpaces(buf, to);
+        if (p < to && buf.get(p) == '"') {
+            p++;
+        }
+    }
+
+    // Closing quote and spaces, then a separator; the last field may also end the line
+    private boolean close(ByteBuffer buf, int to, boolean last) {
+        if (p < to && buf.get(p) == '"') {
+            p++;
+        }
+        skipSpaces(buf, to);
+        if (p == to) {
+            return last;
+        }
+        byte b = buf.get(p);
+        if (b == ',' || b == ';') {
+            p++;
+            return true;
+        }
+        return false;
+    }
+
+    private boolean expect(ByteBuffer buf, int to, char c) {
+        if (p < to && buf.get(p) == c) {
+            p++;
+            return true;
+        }
+        return false;
+    }
+
+    // Unsigned decimal of 1..maxDigits digits, -1 otherwise; digit count left in 'digits'
+    private int number(ByteBuffer buf, int to, int maxDigits) {
+        int value = 0;
+        digits = 0;
+        while (p < to) {
+            int d = buf.get(p) - '0';
+            if (d < 0 || d > 9) {
+                break;
+            }
+            if (++digits > maxDigits) {
+                return -1;
+            }
+            value = value * 10 + d;
+            p++;
+        }
+        return digits == 0 ? -1 : value;
+    }
+
+    private void skipSpaces(ByteBuffer buf, int to) {
+        while (p < to && (buf.get(p) == ' ' || buf.get(p) == '\t')) {
+            p++;
+        }
+    }
+
+    private void reject(ByteBuffer buf, int from, int to, String reason) {
+        rejectedCount++;
+        if (rejected.size() < maxRejected) {
+            byte[] text = new byte[Math.min(to - from, MAX_TEXT)];
+            buf.get(from, text);
+            rejected.add(new RejectedRow(lines, reason, new String(text, StandardCharsets.UTF_8)));
+        }
+    }
+
+    private static boolean startsWithDigit(ByteBuffer buf, int from, int to) {
+        for (int i = from; i < to; i++) {
+            byte b = buf.get(i);
+            if (b != ' ' && b != '\t' && b != '"') {
+                return b >= '0' && b <= '9';
+            }
+        }
+        return true;
+    }
+
+    private static boolean isBlank(ByteBuffer buf, int from, int to) {
+        for (int i = from; i < to; i++) {
+            byte b = buf.get(i);
+            if (b != ' ' && b != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    // Days since 1970-01-01 for a proleptic Gregorian date, same as LocalDate.toEpochDay
+    static long epochDay(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+}
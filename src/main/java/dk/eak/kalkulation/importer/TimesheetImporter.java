@@ -0,0 +1,255 @@
+package dk.eak.kalkulation.importer;
+
+import dk.eak.kalkulation.model.ImportReport;
+import dk.eak.kalkulation.model.ImportReport.RejectedRow;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntPredicate;
+
+/**
+ * Imports a timesheet CSV file in three stages:
+ * <ol>
+ *   <li>split: the file is cut into chunks of about {@code chunkBytes}, each ending
+ *       at a line boundary;</li>
+ *   <li>parse: each chunk is memory-mapped and parsed by a pool of threads
+ *       ({@link TimesheetCsvParser}) into {@link RowBatch}es;</li>
+ *   <li>write: the calling thread hands the batches to a {@link BatchWriter}.</li>
+ * </ol>
+ * Parsers and writer are joined by a bounded queue, so parsing stops when the
+ * writer falls behind and memory stays at {@code queueCapacity} batches plus one
+ * mapped chunk per thread. Rejected rows are reported with their line numbers in
+ * the file.
+ * <p>
+ * When a parser or the writer fails, the parsers are interrupted and the queue
+ * is drained, so no thread stays blocked on it and the failure is rethrown at once.
+ */
+public final class TimesheetImporter {
+
+    public static final int DEFAULT_CHUNK_BYTES = 64 << 20;
+    public static final int MAX_REJECTED = 10_000;
+
+    private static final int PROBE_BYTES = 4096;
+
+    private final int threads;
+    private final int queueCapacity;
+    private final int batchRows;
+    private final int chunkBytes;
+
+    /**
+     * @param threads parser threads
+     * @param queueCapacity batches that may wait for the writer
+     * @param batchRows rows per batch handed to the writer
+     * @param chunkBytes target chunk size; chunks are extended to the next line end
+     */
+    public TimesheetImporter(int threads, int queueCapacity, int batchRows, int chunkBytes) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Threads must be positive");
+        }
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be positive");
+        }
+        if (batchRows <= 0) {
+            throw new IllegalArgumentException("Batch rows must be positive");
+        }
+        if (chunkBytes <= 0) {
+            throw new IllegalArgumentException("Chunk bytes must be positive");
+        }
+        this.threads = threads;
+        this.queueCapacity = queueCapacity;
+        this.batchRows = batchRows;
+        this.chunkBytes = chunkBytes;
+    }
+
+    /**
+     * Receives parsed rows on the importing thread, one batch at a time.
+     * The batch may be reused after the call returns.
+     */
+    @FunctionalInterface
+    public interface BatchWriter {
+        void write(RowBatch batch);
+    }
+
+    /**
+     * Import a file.
+     *
+     * @param file the CSV file
+     * @param knownOpgave test for existing opgave IDs, called from the parser threads
+     * @param today latest allowed work date
+     * @param writer receives the accepted rows
+     * @return counts, throughput and rejected rows
+     * @throws IOException if the file cannot be read; exceptions from the writer are rethrown as is
+     */
+    public ImportReport run(Path file, IntPredicate knownOpgave, LocalDate today, BatchWriter writer) throws IOException {
+        long t0 = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] bounds = split(channel);
+            int chunks = bounds.length - 1;
+            TimesheetCsvParser[] parsers = new TimesheetCsvParser[chunks];
+            BlockingQueue<RowBatch> queue = new ArrayBlockingQueue<>(queueCapacity);
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            long imported = 0;
+
+            ExecutorService pool = Executors.newFixedThreadPool(threads, threadFactory());
+            try {
+                for (int c = 0; c < chunks; c++) {
+                    TimesheetCsvParser parser = new TimesheetCsvParser(knownOpgave, today, batchRows, MAX_REJECTED);
+                    parsers[c] = parser;
+                    long from = bounds[c];
+                    long length = bounds[c + 1] - from;
+                    boolean fileStart = c == 0;
+                    pool.execute(() -> {
+                        try {
+                            ByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, from, length);
+                            parser.parse(buf, fileStart, queue::put);
+                        } catch (Throwable e) {
+                            if (e instanceof InterruptedException) {
+                                Thread.currentThread().interrupt();
+                            }
+                            failure.compareAndSet(null, e);
+                        } finally {
+                            // after a failure nobody counts the ENDs any more
+                            if (failure.get() == null) {
+                                try {
+                                    queue.put(RowBatch.END);
+                                } catch (InterruptedException e) {
+                                    Thread.currentThread().interrupt();
+                                }
+                            }
+                        }
+                    });
+                }
+
+                int done = 0;
+                while (done < chunks && failure.get() == null) {
+                    RowBatch batch = queue.take();
+                    if (batch == RowBatch.END) {
+                        done++;
+                    } else {
+                        writer.write(batch);
+                        imported += batch.size();
+                    }
+                }
+            } catch (InterruptedException e) {
+                failure.compareAndSet(null, e);
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Import interrupted");
+            } catch (RuntimeException | Error e) {
+                failure.compareAndSet(null, e);
+                throw e;
+            } finally {
+                pool.shutdownNow();
+                queue.clear();
+                awaitQuietly(pool);
+            }
+            rethrow(failure.get());
+            return report(file, parsers, imported, System.nanoTime() - t0);
+        }
+    }
+
+    // Chunk start offsets plus the file size; every inner offset follows a '\n'
+    long[] split(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long[] bounds = new long[(int) (size / chunkBytes) + 2];
+        int n = 0;
+        bounds[n++] = 0;
+        ByteBuffer probe = ByteBuffer.allocate(PROBE_BYTES);
+        long pos = 0;
+        while (pos < size) {
+            long end = pos + chunkBytes >= size ? size : nextLineStart(channel, pos + chunkBytes, size, probe);
+            if (end - pos > Integer.MAX_VALUE) {
+                throw new IOException("Line at offset " + pos + " is too long");
+            }
+            bounds[n++] = end;
+            pos = end;
+        }
+        return Arrays.copyOf(bounds, n);
+    }
+
+    // First offset after a '\n' at or after 'from - 1', or the file size
+    private static long nextLineStart(FileChannel channel, long from, long size, ByteBuffer probe) throws IOException {
+        long pos = from - 1;
+        while (pos < size) {
+            probe.clear();
+            int read = channel.read(probe, pos);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return pos + i + 1;
+                }
+            }
+            pos += read;
+        }
+        return size;
+    }
+
+    private ImportReport report(Path file, TimesheetCsvParser[] parsers, long imported, long nanos) {
+        long rows = 0;
+        long rejectedCount = 0;
+        long lineBase = 0;
+        List<RejectedRow> rejected = new ArrayList<>();
+        for (TimesheetCsvParser parser : parsers) {
+            rows += parser.rows();
+            rejectedCount += parser.rejectedCount();
+            for (RejectedRow r : parser.rejected()) {
+                if (rejected.size() < MAX_REJECTED) {
+                    rejected.add(new RejectedRow(lineBase + r.getLine(), r.getReason(), r.getText()));
+                }
+            }
+            lineBase += parser.lines();
+        }
+        return new ImportReport(file.toString(), rows, imported, rejectedCount,
+                TimeUnit.NANOSECONDS.toMillis(nanos), threads, rejected);
+    }
+
+    private static void rethrow(Throwable failure) throws IOException {
+        if (failure == null) {
+            return;
+        }
+        if (failure instanceof IOException e) {
+            throw e;
+        }
+        if (failure instanceof RuntimeException e) {
+            throw e;
+        }
+        if (failure instanceof Error e) {
+            throw e;
+        }
+        throw new IOException("Import failed", failure);
+    }
+
+    private static void awaitQuietly(ExecutorService pool) {
+        try {
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ThreadFactory threadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, "timesheet-import-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
@@ -0,0 +1,111 @@
+package dk.eak.kalkulation.migration;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.ResultSetMetaData;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A hot repository query and the index it should use.
+ * <p>
+ * {@link #explain} runs EXPLAIN on the query and returns the plan as text. H2
+ * names the index in its plan and MySQL in the key column, so
+ * {@link #isUsedBy} is a plain search that works for both. Foreign key indexes
+ * are named after the constraint: fk_opgave_project on MySQL,
+ * FK_OPGAVE_PROJECT_INDEX_8 on H2.
+ */
+public final class IndexCheck {
+
+    private static final Date DATE = Date.valueOf(LocalDate.of(2025, 1, 1));
+
+    public static final List<IndexCheck> HOT_QUERIES = List.of(
+            new IndexCheck("Time entries of an opgave", "idx_time_entry_opgave_date", """
+                    SELECT time_entry_id, opgave_id, work_date, hours FROM time_entry
+                    WHERE opgave_id = ?
+                    ORDER BY work_date, time_entry_id
+                """, 1),
+            new IndexCheck("Page of an opgave's time entries", "idx_time_entry_opgave_date", """
+                    SELECT time_entry_id, opgave_id, work_date, hours FROM time_entry
+                    WHERE opgave_id = ?
+                      AND (work_date > ? OR (work_date = ? AND time_entry_id > ?))
+                    ORDER BY work_date, time_entry_id
+                    LIMIT ?
+                """, 1, DATE, DATE, 1, 51),
+            new IndexCheck("Hours of an opgave per day", "idx_time_entry_opgave_date", """
+                    SELECT work_date, SUM(hours)
+                    FROM time_entry
+                    WHERE opgave_id = ? AND work_date >= ?
+                    GROUP BY work_date
+                """, 1, DATE),
+            new IndexCheck("Opgaver of a project", "fk_opgave_project", """
+                    SELECT * FROM opgave
+                    WHERE project_id = ?
+                    ORDER BY opgave_id
+                """, 1),
+            new IndexCheck("Opgaver of a delprojekt", "fk_opgave_delprojekt", """
+                    SELECT * FROM opgave
+                    WHERE delprojekt_id = ?
+                """, 1),
+            new IndexCheck("Delprojekter of a project", "fk_delprojekt_project", """
+                    SELECT delprojekt_id, project_id, name, description
+                    FROM delprojekt
+                    WHERE project_id = ?
+                    ORDER BY delprojekt_id
+                """, 1),
+            new IndexCheck("Hour rollup per opgave", "idx_time_entry_opgave_date", """
+                    SELECT opgave_id, SUM(hours)
+                    FROM time_entry
+                    GROUP BY opgave_id
+                """),
+            new IndexCheck("Hours of a project per day", "idx_time_entry_opgave_date", """
+                    SELECT te.work_date, SUM(te.hours) AS total
+                    FROM time_entry te
+                    JOIN opgave o ON o.opgave_id = te.opgave_id
+                    WHERE o.project_id = ?
+                    GROUP BY te.work_date
+                """, 1),
+            new IndexCheck("Time entries by idempotency key", "uq_time_entry_idempotency_key", """
+                    SELECT idempotency_key, time_entry_id
+                    FROM time_entry
+                    WHERE idempotency_key IN (?, ?)
+                """, "a", "b"));
+
+    private final String name;
+    private final String index;
+    private final String sql;
+    private final Object[] args;
+
+    public IndexCheck(String name, String index, String sql, Object... args) {
+        this.name = name;
+        this.index = index;
+        this.sql = sql;
+        this.args = args;
+    }
+
+    public String getName() { return name; }
+    public String getIndex() { return index; }
+
+    /**
+     * Run EXPLAIN on the query.
+     *
+     * @return the plan, one line per row with the columns separated by spaces
+     */
+    public String explain(JdbcTemplate jdbc) {
+        StringBuilder plan = new StringBuilder();
+        jdbc.query("EXPLAIN " + sql, rs -> {
+            ResultSetMetaData meta = rs.getMetaData();
+            for (int i = 1; i <= meta.getColumnCount(); i++) {
+                plan.append(rs.getString(i)).append(' ');
+            }
+            plan.append('\n');
+        }, args);
+        return plan.toString().strip();
+    }
+
+    public boolean isUsedBy(String plan) {
+        return plan.toLowerCase(Locale.ROOT).contains(index.toLowerCase(Locale.ROOT));
+    }
+}
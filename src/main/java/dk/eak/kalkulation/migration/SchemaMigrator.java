@@ -0,0 +1,304 @@
+package dk.eak.kalkulation.migration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Upgrades a persistent database in place with the versioned scripts in
+ * {@code db/migration}.
+ * <p>
+ * Scripts are named {@code V<version>__<description>.sql} and run in version
+ * order. Each applied version is recorded in schema_version with a CRC32 of the
+ * script, and startup fails if an applied script has been edited since. MySQL
+ * commits every DDL statement on its own, so a script that fails halfway is not
+ * rolled back; scripts are written to be re-run instead: tables use
+ * IF NOT EXISTS, and a CREATE INDEX or ALTER TABLE ... ADD COLUMN is skipped
+ * when the index or column is already there.
+ * <p>
+ * Enabled with {@code kalkulation.migrations.enabled=true}. The in-memory
+ * databases are built from schema.sql and do not use it. schema.sql drops every
+ * table, so startup fails before any script runs when migrations are enabled
+ * together with {@code spring.sql.init.mode=always}.
+ */
+@Component
+public class SchemaMigrator implements InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(SchemaMigrator.class);
+
+    public static final String LOCATION = "classpath*:db/migration/V*__*.sql";
+
+    private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    private static final Pattern CREATE_INDEX = Pattern.compile(
+            "^CREATE\\s+(?:UNIQUE\\s+)?INDEX\\s+(\\w+)\\s+ON\\s+(\\w+)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern ADD_COLUMN = Pattern.compile(
+            "^ALTER\\s+TABLE\\s+(\\w+)\\s+ADD\\s+(?:COLUMN\\s+)?(\\w+)", Pattern.CASE_INSENSITIVE);
+
+    private static final String CREATE_VERSION_TABLE = """
+            CREATE TABLE IF NOT EXISTS schema_version (
+                version INT PRIMARY KEY,
+                description VARCHAR(200) NOT NULL,
+                checksum BIGINT NOT NULL,
+                installed_on TIMESTAMP NOT NULL
+            )
+        """;
+
+    private final JdbcTemplate jdbc;
+    private final boolean enabled;
+
+    public SchemaMigrator(JdbcTemplate jdbc,
+                          @Value("${kalkulation.migrations.enabled:false}") boolean enabled) {
+        this.jdbc = jdbc;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (enabled) {
+            migrate(load(LOCATION));
+        }
+    }
+
+    /**
+     * Refuse migrations on a database that spring.sql.init rebuilds at every startup.
+     *
+     * @param enabled {@code kalkulation.migrations.enabled}
+     * @param initMode {@code spring.sql.init.mode}, or null when not set
+     * @throws IllegalStateException if both are on
+     */
+    public static void checkScriptInit(boolean enabled, String initMode) {
+        if (enabled && "always".equalsIgnoreCase(initMode)) {
+            throw new IllegalStateException("kalkulation.migrations.enabled=true needs spring.sql.init.mode=never:"
+                    + " with mode 'always' schema.sql drops the migrated tables at every startup");
+        }
+    }
+
+    /**
+     * Apply the migrations that are not yet recorded in schema_version.
+     *
+     * @param migrations the migrations, in any order
+     * @return the versions applied by this call, in order
+     * @throws IllegalStateException if an applied migration has changed
+     */
+    public List<Integer> migrate(List<Migration> migrations) {
+        jdbc.execute(CREATE_VERSION_TABLE);
+        Map<Integer, Long> applied = new HashMap<>();
+        jdbc.query("SELECT version, checksum FROM schema_version",
+                rs -> { applied.put(rs.getInt(1), rs.getLong(2)); });
+
+        List<Migration> ordered = new ArrayList<>(migrations);
+        ordered.sort(Comparator.comparingInt(Migration::getVersion));
+        List<Integer> done = new ArrayList<>();
+        for (Migration m : ordered) {
+            Long checksum = applied.get(m.getVersion());
+            if (checksum != null) {
+                if (checksum != m.getChecksum()) {
+                    throw new IllegalStateException("Migration V" + m.getVersion()
+                            + " has changed since it was applied");
+                }
+                continue;
+            }
+            for (String sql : m.getStatements()) {
+                if (indexExists(sql)) {
+                    log.info("V{}: index already exists, skipped: {}", m.getVersion(), firstLine(sql));
+                    continue;
+                }
+                if (columnExists(sql)) {
+                    log.info("V{}: column already exists, skipped: {}", m.getVersion(), firstLine(sql));
+                    continue;
+                }
+                jdbc.execute(sql);
+            }
+            jdbc.update("INSERT INTO schema_version (version, description, checksum, installed_on) VALUES (?, ?, ?, ?)",
+                    m.getVersion(), m.getDescription(), m.getChecksum(), Timestamp.valueOf(LocalDateTime.now()));
+            log.info("Applied migration V{} {}", m.getVersion(), m.getDescription());
+            done.add(m.getVersion());
+        }
+        if (done.isEmpty()) {
+            log.info("Schema is up to date ({} migrations)", ordered.size());
+        }
+        return done;
+    }
+
+    /**
+     * Read the migration scripts at a resource location.
+     *
+     * @param location a resource pattern, e.g. {@link #LOCATION}
+     * @return the migrations found
+     * @throws IllegalStateException if a script is misnamed or two share a version
+     */
+    public static List<Migration> load(String location) {
+        try {
+            Resource[] resources = new PathMatchingResourcePatternResolver().getResources(location);
+            Map<Integer, Migration> byVersion = new HashMap<>();
+            for (Resource r : resources) {
+                Matcher m = FILE_NAME.matcher(String.valueOf(r.getFilename()));
+                if (!m.matches()) {
+                    throw new IllegalStateException("Migration file name must be V<version>__<description>.sql: "
+                            + r.getFilename());
+                }
+                int version = Integer.parseInt(m.group(1));
+                String script = r.getContentAsString(StandardCharsets.UTF_8);
+                Migration migration = new Migration(version, m.group(2).replace('_', ' '), script);
+                if (byVersion.put(version, migration) != null) {
+                    throw new IllegalStateException("Migration version V" + version + " is used twice");
+                }
+            }
+            return new ArrayList<>(byVersion.values());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // CREATE INDEX has no IF NOT EXISTS on MySQL, so ask the metadata instead
+    private boolean indexExists(String sql) {
+        Matcher m = CREATE_INDEX.matcher(sql);
+        if (!m.find()) {
+            return false;
+        }
+        String index = m.group(1);
+        String table = m.group(2);
+        Boolean exists = jdbc.execute((ConnectionCallback<Boolean>) con -> {
+            DatabaseMetaData meta = con.getMetaData();
+            // H2 stores unquoted names in upper case, MySQL as written
+            for (String t : new String[] {table, table.toUpperCase(), table.toLowerCase()}) {
+                if (hasIndex(meta, con.getCatalog(), con.getSchema(), t, index)) {
+                    return true;
+                }
+            }
+            return false;
+        });
+        return Boolean.TRUE.equals(exists);
+    }
+
+    // ADD COLUMN IF NOT EXISTS is H2 and MariaDB only
+    private boolean columnExists(String sql) {
+        Matcher m = ADD_COLUMN.matcher(sql);
+        if (!m.find()) {
+            return false;
+        }
+        String table = m.group(1);
+        String column = m.group(2);
+        Boolean exists = jdbc.execute((ConnectionCallback<Boolean>) con -> {
+            DatabaseMetaData meta = con.getMetaData();
+            for (String t : new String[] {table, table.toUpperCase(), table.toLowerCase()}) {
+                for (String c : new String[] {column, column.toUpperCase(), column.toLowerCase()}) {
+                    try (ResultSet rs = meta.getColumns(con.getCatalog(), con.getSchema(), t, c)) {
+                        if (rs.next()) {
+                            return true;
+                        }
+                    }
+                }
+            }
+            return false;
+        });
+        return Boolean.TRUE.equals(exists);
+    }
+
+    private static boolean hasIndex(DatabaseMetaData meta, String catalog, String schema,
+                                    String table, String index) throws SQLException {
+        try (ResultSet rs = meta.getIndexInfo(catalog, schema, table, false, true)) {
+            while (rs.next()) {
+                if (index.equalsIgnoreCase(rs.getString("INDEX_NAME"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static String firstLine(String sql) {
+        int nl = sql.indexOf('\n');
+        return nl < 0 ? sql : sql.substring(0, nl);
+    }
+
+    /**
+     * Runs {@link #checkScriptInit} before any bean is created, i.e. before the
+     * script initializer has touched the database.
+     */
+    @Component
+    static class ScriptInitCheck implements BeanFactoryPostProcessor, EnvironmentAware {
+
+        private Environment environment;
+
+        @Override
+        public void setEnvironment(Environment environment) {
+            this.environment = environment;
+        }
+
+        @Override
+        public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+            checkScriptInit(environment.getProperty("kalkulation.migrations.enabled", Boolean.class, false),
+                    environment.getProperty("spring.sql.init.mode"));
+        }
+    }
+
+    /**
+     * One versioned script.
+     */
+    public static final class Migration {
+
+        private final int version;
+        private final String description;
+        private final List<String> statements;
+        private final long checksum;
+
+        public Migration(int version, String description, String script) {
+            this.version = version;
+            this.description = description;
+            this.statements = split(script);
+            CRC32 crc = new CRC32();
+            crc.update(script.replace("\r\n", "\n").getBytes(StandardCharsets.UTF_8));
+            this.checksum = crc.getValue();
+        }
+
+        public int getVersion() { return version; }
+        public String getDescription() { return description; }
+        public List<String> getStatements() { return statements; }
+        public long getChecksum() { return checksum; }
+
+        // Statements end with ';'; whole-line '--' comments are dropped
+        static List<String> split(String script) {
+            StringBuilder body = new StringBuilder();
+            for (String line : script.split("\r?\n")) {
+                if (!line.strip().startsWith("--")) {
+                    body.append(line).append('\n');
+                }
+            }
+            List<String> statements = new ArrayList<>();
+            for (String s : body.toString().split(";")) {
+                if (!s.isBlank()) {
+                    statements.add(s.strip());
+                }
+            }
+            return statements;
+        }
+    }
+}
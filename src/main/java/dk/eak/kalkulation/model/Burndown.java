@@ -0,0 +1,57 @@
+package dk.eak.kalkulation.model;
+
+import java.time.LocalDate;
+
+/**
+ * Burndown series for a project. Index i in every array is the i-th day
+ * (or week) after {@link #getStartDate()}.
+ */
+public final class Burndown {
+
+    public enum Granularity { DAILY, WEEKLY }
+
+    private final int projectId;
+    private final Granularity granularity;
+    private final LocalDate startDate;
+    private final int estimatedHours;
+    private final int[] cumulativeHours;
+    private final int[] remainingHours;
+    private final double[] idealRemainingHours;
+
+    public Burndown(int projectId, Granularity granularity, LocalDate startDate, int estimatedHours,
+                    int[] cumulativeHours, int[] remainingHours, double[] idealRemainingHours) {
+        this.projectId = projectId;
+        this.granularity = granularity;
+        this.startDate = startDate;
+        this.estimatedHours = estimatedHours;
+        this.cumulativeHours = cumulativeHours;
+        this.remainingHours = remainingHours;
+        this.idealRemainingHours = idealRemainingHours;
+    }
+
+    public int getProjectId() { return projectId; }
+
+    public Granularity getGranularity() { return granularity; }
+
+    public LocalDate getStartDate() { return startDate; }
+
+    public int getEstimatedHours() { return estimatedHours; }
+
+    public int[] getCumulativeHours() { return cumulativeHours; }
+
+    public int[] getRemainingHours() { return remainingHours; }
+
+    /** Ideal remaining hours; empty when the project has no start or end date. */
+    public double[] getIdealRemainingHours() { return idealRemainingHours; }
+
+    /** ISO date of the first day of each point. */
+    public String[] getLabels() {
+        int step = granularity == Granularity.WEEKLY ? 7 : 1;
+        long first = startDate != null ? startDate.toEpochDay() : 0;
+        String[] labels = new String[cumulativeHours.length];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = LocalDate.ofEpochDay(first + (long) i * step).toString();
+        }
+        return labels;
+    }
+}
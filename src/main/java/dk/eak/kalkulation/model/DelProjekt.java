@@ -38,4 +38,13 @@ public class DelProjekt {
     public void setDescription(String description) {
         this.description = description;
     }
+
+    public DelProjekt copy() {
+        DelProjekt dp = new DelProjekt();
+        dp.delProjektId = delProjektId;
+        dp.projectId = projectId;
+        dp.name = name;
+        dp.description = description;
+        return dp;
+    }
 }
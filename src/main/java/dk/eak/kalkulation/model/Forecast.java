@@ -0,0 +1,62 @@
+package dk.eak.kalkulation.model;
+
+import java.time.LocalDate;
+
+/**
+ * Result of a Monte Carlo completion forecast for a project.
+ * Dates are the working day on which the remaining work is done in
+ * 50, 80 and 95 percent of the simulated runs.
+ */
+public final class Forecast {
+
+    private final int projectId;
+    private final int iterations;
+    private final int historySamples;
+    private final double hoursPerWorkday;
+    private final LocalDate fromDate;
+    private final LocalDate endDate;
+    private final LocalDate p50Date;
+    private final LocalDate p80Date;
+    private final LocalDate p95Date;
+    private final double onTimeProbability;
+
+    public Forecast(int projectId, int iterations, int historySamples, double hoursPerWorkday,
+                    LocalDate fromDate, LocalDate endDate,
+                    LocalDate p50Date, LocalDate p80Date, LocalDate p95Date,
+                    double onTimeProbability) {
+        this.projectId = projectId;
+        this.iterations = iterations;
+        this.historySamples = historySamples;
+        this.hoursPerWorkday = hoursPerWorkday;
+        this.fromDate = fromDate;
+        this.endDate = endDate;
+        this.p50Date = p50Date;
+        this.p80Date = p80Date;
+        this.p95Date = p95Date;
+        this.onTimeProbability = onTimeProbability;
+    }
+
+    public int getProjectId() { return projectId; }
+
+    public int getIterations() { return iterations; }
+
+    /** Number of finished tasks the estimate error was fitted on; 0 means the default spread was used. */
+    public int getHistorySamples() { return historySamples; }
+
+    public double getHoursPerWorkday() { return hoursPerWorkday; }
+
+    /** First day of the simulated remaining work. */
+    public LocalDate getFromDate() { return fromDate; }
+
+    /** The project's planned end date, may be null. */
+    public LocalDate getEndDate() { return endDate; }
+
+    public LocalDate getP50Date() { return p50Date; }
+
+    public LocalDate getP80Date() { return p80Date; }
+
+    public LocalDate getP95Date() { return p95Date; }
+
+    /** Share of runs (0-1) finishing on or before the end date; 0 if the project has no end date. */
+    public double getOnTimeProbability() { return onTimeProbability; }
+}
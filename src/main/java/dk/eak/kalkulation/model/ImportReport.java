@@ -0,0 +1,76 @@
+package dk.eak.kalkulation.model;
+
+import java.util.List;
+
+/**
+ * Outcome of a timesheet import: row counts, throughput and the rejected rows.
+ * Only the first rejected rows are kept in detail; {@link #getRowsRejected()} counts all.
+ */
+public final class ImportReport {
+
+    private final String file;
+    private final long rowsRead;
+    private final long rowsImported;
+    private final long rowsRejected;
+    private final long elapsedMillis;
+    private final int threads;
+    private final List<RejectedRow> rejected;
+
+    public ImportReport(String file, long rowsRead, long rowsImported, long rowsRejected,
+                        long elapsedMillis, int threads, List<RejectedRow> rejected) {
+        this.file = file;
+        this.rowsRead = rowsRead;
+        this.rowsImported = rowsImported;
+        this.rowsRejected = rowsRejected;
+        this.elapsedMillis = elapsedMillis;
+        this.threads = threads;
+        this.rejected = List.copyOf(rejected);
+    }
+
+    public String getFile() { return file; }
+
+    /** Data rows in the file, excluding the header and blank lines. */
+    public long getRowsRead() { return rowsRead; }
+
+    public long getRowsImported() { return rowsImported; }
+
+    public long getRowsRejected() { return rowsRejected; }
+
+    public long getElapsedMillis() { return elapsedMillis; }
+
+    public int getThreads() { return threads; }
+
+    public List<RejectedRow> getRejected() { return rejected; }
+
+    public long getRowsPerSecond() {
+        return elapsedMillis == 0 ? rowsRead * 1000 : rowsRead * 1000 / elapsedMillis;
+    }
+
+    /**
+     * One row that was not imported.
+     */
+    public static final class RejectedRow {
+        private final long line;
+        private final String reason;
+        private final String text;
+
+        public RejectedRow(long line, String reason, String text) {
+            this.line = line;
+            this.reason = reason;
+            this.text = text;
+        }
+
+        /** Line number in the file, 1-based and counting the header. */
+        public long getLine() { return line; }
+
+        public String getReason() { return reason; }
+
+        /** The raw line, cut off after 200 characters. */
+        public String getText() { return text; }
+
+        @Override
+        public String toString() {
+            return "line " + line + ": " + reason + " [" + text + "]";
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package dk.eak.kalkulation.model;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated list.
+ * {@link #getNextCursor()} is null on the last page.
+ */
+public final class KeysetPage<T> {
+
+    public static final int MAX_SIZE = 500;
+
+    private final List<T> items;
+    private final String nextCursor;
+
+    public KeysetPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Build a page from up to {@code limit + 1} fetched rows; the extra row only
+     * tells that there is a next page.
+     *
+     * @param fetched rows from the seek query, at most limit + 1
+     * @param limit page size
+     * @param cursorOf cursor token for a row
+     * @return the page
+     */
+    public static <T> KeysetPage<T> of(List<T> fetched, int limit, Function<T, String> cursorOf) {
+        if (fetched.size() <= limit) {
+            return new KeysetPage<>(fetched, null);
+        }
+        List<T> items = fetched.subList(0, limit);
+        return new KeysetPage<>(items, cursorOf.apply(items.get(limit - 1)));
+    }
+
+    /**
+     * Check a requested page size.
+     *
+     * @param size rows per page
+     */
+    public static void checkSize(int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_SIZE);
+        }
+    }
+
+    public List<T> getItems() { return items; }
+
+    public String getNextCursor() { return nextCursor; }
+
+    public boolean isLast() { return nextCursor == null; }
+}
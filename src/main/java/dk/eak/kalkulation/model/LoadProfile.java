@@ -0,0 +1,86 @@
+package dk.eak.kalkulation.model;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Day-by-day load of the open work in the whole portfolio against a fixed capacity.
+ * Index i in every array is the i-th working day from {@link #getFromDate()}.
+ */
+public final class LoadProfile {
+
+    private final LocalDate fromDate;
+    private final double capacityPerDay;
+    private final LocalDate[] dates;
+    private final double[] requiredHours;
+    private final double[] plannedHours;
+    private final double[] lateHours;
+    private final List<Hotspot> hotspots;
+    private final List<Integer> lateOpgaveIds;
+    private final LocalDate finishDate;
+
+    public LoadProfile(LocalDate fromDate, double capacityPerDay, LocalDate[] dates,
+                       double[] requiredHours, double[] plannedHours, double[] lateHours,
+                       List<Hotspot> hotspots, List<Integer> lateOpgaveIds, LocalDate finishDate) {
+        this.fromDate = fromDate;
+        this.capacityPerDay = capacityPerDay;
+        this.dates = dates;
+        this.requiredHours = requiredHours;
+        this.plannedHours = plannedHours;
+        this.lateHours = lateHours;
+        this.hotspots = hotspots;
+        this.lateOpgaveIds = lateOpgaveIds;
+        this.finishDate = finishDate;
+    }
+
+    public LocalDate getFromDate() { return fromDate; }
+
+    public double getCapacityPerDay() { return capacityPerDay; }
+
+    public LocalDate[] getDates() { return dates; }
+
+    /** Hours per day needed to meet every deadline at an even pace. */
+    public double[] getRequiredHours() { return requiredHours; }
+
+    /** Hours per day when leveled to capacity, earliest deadline first. */
+    public double[] getPlannedHours() { return plannedHours; }
+
+    /** Part of the planned hours done after the deadline. */
+    public double[] getLateHours() { return lateHours; }
+
+    /** Periods where the required load is above capacity. */
+    public List<Hotspot> getHotspots() { return hotspots; }
+
+    /** Opgaver that cannot be done by their deadline with this capacity. */
+    public List<Integer> getLateOpgaveIds() { return lateOpgaveIds; }
+
+    /** Last day with planned work, null if nothing is open. */
+    public LocalDate getFinishDate() { return finishDate; }
+
+    /**
+     * Consecutive working days where the required load exceeds capacity.
+     */
+    public static final class Hotspot {
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+        private final double peakHours;
+        private final double excessHours;
+
+        public Hotspot(LocalDate startDate, LocalDate endDate, double peakHours, double excessHours) {
+            this.startDate = startDate;
+            this.endDate = endDate;
+            this.peakHours = peakHours;
+            this.excessHours = excessHours;
+        }
+
+        public LocalDate getStartDate() { return startDate; }
+
+        public LocalDate getEndDate() { return endDate; }
+
+        /** Highest required load of a single day in the period. */
+        public double getPeakHours() { return peakHours; }
+
+        /** Required hours above capacity summed over the period. */
+        public double getExcessHours() { return excessHours; }
+    }
+}
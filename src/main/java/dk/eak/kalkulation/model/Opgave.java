@@ -31,4 +31,16 @@ public class Opgave {
 
     public LocalDate getDeadline() { return deadline; }
     public void setDeadline(LocalDate deadline) { this.deadline = deadline; }
+
+    public Opgave copy() {
+        Opgave o = new Opgave();
+        o.opgaveId = opgaveId;
+        o.project_id = project_id;
+        o.delProjektId = delProjektId;
+        o.name = name;
+        o.description = description;
+        o.estimatedHours = estimatedHours;
+        o.deadline = deadline;
+        return o;
+    }
 }
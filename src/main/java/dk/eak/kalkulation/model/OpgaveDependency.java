@@ -0,0 +1,27 @@
+package dk.eak.kalkulation.model;
+
+/**
+ * Finish-to-start dependency: the opgave cannot start before the one it depends on is done.
+ */
+public class OpgaveDependency {
+    private Integer opgaveId;
+    private Integer dependsOnId;
+
+    public OpgaveDependency() {
+    }
+
+    public OpgaveDependency(Integer opgaveId, Integer dependsOnId) {
+        this.opgaveId = opgaveId;
+        this.dependsOnId = dependsOnId;
+    }
+
+    public Integer getOpgaveId() { return opgaveId; }
+    public void setOpgaveId(Integer opgaveId) { this.opgaveId = opgaveId; }
+
+    public Integer getDependsOnId() { return dependsOnId; }
+    public void setDependsOnId(Integer dependsOnId) { this.dependsOnId = dependsOnId; }
+
+    public OpgaveDependency copy() {
+        return new OpgaveDependency(opgaveId, dependsOnId);
+    }
+}
@@ -0,0 +1,74 @@
+package dk.eak.kalkulation.model;
+
+/**
+ * Immutable snapshot of the calculated figures for one project.
+ * Built from a single aggregate query, so a page can show every number
+ * without going back to the database.
+ */
+public final class ProjectMetrics {
+
+    private final Projekt projekt;
+    private final int estimatedHours;
+    private final int registeredHours;
+    private final int workingDays;
+
+    public ProjectMetrics(Projekt projekt, int estimatedHours, int registeredHours) {
+        this(projekt, estimatedHours, registeredHours, 0);
+    }
+
+    public ProjectMetrics(Projekt projekt, int estimatedHours, int registeredHours, int workingDays) {
+        this.projekt = projekt;
+        this.estimatedHours = estimatedHours;
+        this.registeredHours = registeredHours;
+        this.workingDays = workingDays;
+    }
+
+    /**
+     * Copy of this snapshot with the number of working days in the project period set.
+     *
+     * @param workingDays working days between start and end date
+     * @return new metrics instance
+     */
+    public ProjectMetrics withWorkingDays(int workingDays) {
+        return new ProjectMetrics(projekt, estimatedHours, registeredHours, workingDays);
+    }
+
+    /**
+     * Copy with its own Projekt instance, safe to hand out from a cache.
+     */
+    public ProjectMetrics copy() {
+        return new ProjectMetrics(projekt != null ? projekt.copy() : null,
+                estimatedHours, registeredHours, workingDays);
+    }
+
+    public Projekt getProjekt() { return projekt; }
+
+    public int getProjectId() { return projekt != null ? projekt.getProjectId() : 0; }
+
+    public int getEstimatedHours() { return estimatedHours; }
+
+    public int getRegisteredHours() { return registeredHours; }
+
+    public int getWorkingDays() { return workingDays; }
+
+    /** Estimated minus registered hours, minimum 0. */
+    public int getRemainingHours() {
+        return Math.max(estimatedHours - registeredHours, 0);
+    }
+
+    /** Registered hours as a percentage of estimated hours (0-100). */
+    public double getProgressPercentage() {
+        if (estimatedHours == 0) {
+            return 0.0;
+        }
+        return Math.min((registeredHours / (double) estimatedHours) * 100, 100.0);
+    }
+
+    /** Remaining hours spread over the working days of the project period. */
+    public double getRequiredHoursPerWorkday() {
+        if (workingDays == 0) {
+            return 0.0;
+        }
+        return getRemainingHours() / (double) workingDays;
+    }
+}
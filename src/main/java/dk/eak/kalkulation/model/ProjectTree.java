@@ -0,0 +1,112 @@
+package dk.eak.kalkulation.model;
+
+import java.util.List;
+
+/**
+ * A project with its delprojekter, their opgaver and the registered hours per
+ * opgave. Opgaver without a delprojekt are listed on their own.
+ * Built by ProjectTreeRepository from two queries.
+ */
+public final class ProjectTree {
+
+    private final Projekt project;
+    private final List<DelProjektNode> delprojekter;
+    private final List<OpgaveNode> unassigned;
+
+    public ProjectTree(Projekt project, List<DelProjektNode> delprojekter, List<OpgaveNode> unassigned) {
+        this.project = project;
+        this.delprojekter = List.copyOf(delprojekter);
+        this.unassigned = List.copyOf(unassigned);
+    }
+
+    /**
+     * Copy with its own model instances, safe to hand out from a cache.
+     */
+    public ProjectTree copy() {
+        return new ProjectTree(project.copy(),
+                delprojekter.stream().map(DelProjektNode::copy).toList(),
+                unassigned.stream().map(OpgaveNode::copy).toList());
+    }
+
+    public Projekt getProject() { return project; }
+
+    public List<DelProjektNode> getDelprojekter() { return delprojekter; }
+
+    /** Opgaver that belong to no delprojekt. */
+    public List<OpgaveNode> getUnassigned() { return unassigned; }
+
+    public int getEstimatedHours() {
+        return delprojekter.stream().mapToInt(DelProjektNode::getEstimatedHours).sum()
+                + unassigned.stream().mapToInt(OpgaveNode::getEstimatedHours).sum();
+    }
+
+    public int getRegisteredHours() {
+        return delprojekter.stream().mapToInt(DelProjektNode::getRegisteredHours).sum()
+                + unassigned.stream().mapToInt(OpgaveNode::getRegisteredHours).sum();
+    }
+
+    public int getOpgaveCount() {
+        return delprojekter.stream().mapToInt(d -> d.getOpgaver().size()).sum() + unassigned.size();
+    }
+
+    /**
+     * A delprojekt and its opgaver, ordered by ID.
+     */
+    public static final class DelProjektNode {
+
+        private final DelProjekt delProjekt;
+        private final List<OpgaveNode> opgaver;
+
+        public DelProjektNode(DelProjekt delProjekt, List<OpgaveNode> opgaver) {
+            this.delProjekt = delProjekt;
+            this.opgaver = List.copyOf(opgaver);
+        }
+
+        DelProjektNode copy() {
+            return new DelProjektNode(delProjekt.copy(), opgaver.stream().map(OpgaveNode::copy).toList());
+        }
+
+        public DelProjekt getDelProjekt() { return delProjekt; }
+
+        public List<OpgaveNode> getOpgaver() { return opgaver; }
+
+        public int getEstimatedHours() {
+            return opgaver.stream().mapToInt(OpgaveNode::getEstimatedHours).sum();
+        }
+
+        public int getRegisteredHours() {
+            return opgaver.stream().mapToInt(OpgaveNode::getRegisteredHours).sum();
+        }
+    }
+
+    /**
+     * An opgave with its registered hours.
+     */
+    public static final class OpgaveNode {
+
+        private final Opgave opgave;
+        private final int registeredHours;
+
+        public OpgaveNode(Opgave opgave, int registeredHours) {
+            this.opgave = opgave;
+            this.registeredHours = registeredHours;
+        }
+
+        OpgaveNode copy() {
+            return new OpgaveNode(opgave.copy(), registeredHours);
+        }
+
+        public Opgave getOpgave() { return opgave; }
+
+        public int getEstimatedHours() {
+            return opgave.getEstimatedHours() != null ? opgave.getEstimatedHours() : 0;
+        }
+
+        public int getRegisteredHours() { return registeredHours; }
+
+        /** Estimated minus registered hours, minimum 0. */
+        public int getRemainingHours() {
+            return Math.max(getEstimatedHours() - registeredHours, 0);
+        }
+    }
+}
@@ -7,6 +7,7 @@ public class Projekt {
     private String description;
     private LocalDate startDate;
     private LocalDate endDate;
+    private String calendarId; // null = standard kalender
 
     public String getName(){
         return name;
@@ -23,6 +24,9 @@ public class Projekt {
     public LocalDate getEndDate(){
         return  endDate;
     }
+    public String getCalendarId(){
+        return calendarId;
+    }
     public void setName(String name){
         this.name = name;
     }
@@ -38,6 +42,19 @@ public class Projekt {
     public void setEndDate(LocalDate endDate){
         this.endDate = endDate;
     }
+    public void setCalendarId(String calendarId){
+        this.calendarId = calendarId;
+    }
+    public Projekt copy(){
+        Projekt p = new Projekt();
+        p.name = name;
+        p.projectId = projectId;
+        p.description = description;
+        p.startDate = startDate;
+        p.endDate = endDate;
+        p.calendarId = calendarId;
+        return p;
+    }
 
 
 }
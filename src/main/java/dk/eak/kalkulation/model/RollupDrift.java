@@ -0,0 +1,33 @@
+package dk.eak.kalkulation.model;
+
+/**
+ * One row in a rollup table whose stored total differs from the total
+ * recomputed from time_entry.
+ */
+public final class RollupDrift {
+
+    private final String table;
+    private final int id;
+    private final int storedHours;
+    private final int actualHours;
+
+    public RollupDrift(String table, int id, int storedHours, int actualHours) {
+        this.table = table;
+        this.id = id;
+        this.storedHours = storedHours;
+        this.actualHours = actualHours;
+    }
+
+    public String getTable() { return table; }
+
+    public int getId() { return id; }
+
+    public int getStoredHours() { return storedHours; }
+
+    public int getActualHours() { return actualHours; }
+
+    @Override
+    public String toString() {
+        return table + "[" + id + "] stored=" + storedHours + " actual=" + actualHours;
+    }
+}
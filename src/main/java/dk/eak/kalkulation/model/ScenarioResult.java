@@ -0,0 +1,42 @@
+package dk.eak.kalkulation.model;
+
+import java.util.List;
+
+/**
+ * Metrics of a what-if scenario next to the metrics of the data it started from.
+ */
+public final class ScenarioResult {
+
+    private final String scenarioId;
+    private final int projectId;
+    private final List<String> edits;
+    private final ProjectMetrics base;
+    private final ProjectMetrics scenario;
+
+    public ScenarioResult(String scenarioId, int projectId, List<String> edits,
+                          ProjectMetrics base, ProjectMetrics scenario) {
+        this.scenarioId = scenarioId;
+        this.projectId = projectId;
+        this.edits = edits;
+        this.base = base;
+        this.scenario = scenario;
+    }
+
+    public String getScenarioId() { return scenarioId; }
+
+    public int getProjectId() { return projectId; }
+
+    public List<String> getEdits() { return edits; }
+
+    public ProjectMetrics getBase() { return base; }
+
+    public ProjectMetrics getScenario() { return scenario; }
+
+    public int getRemainingHoursDelta() {
+        return scenario.getRemainingHours() - base.getRemainingHours();
+    }
+
+    public double getRequiredHoursPerWorkdayDelta() {
+        return scenario.getRequiredHoursPerWorkday() - base.getRequiredHoursPerWorkday();
+    }
+}
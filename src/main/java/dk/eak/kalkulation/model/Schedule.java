@@ -0,0 +1,46 @@
+package dk.eak.kalkulation.model;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Critical path schedule of the remaining work in a project.
+ */
+public final class Schedule {
+
+    private final int projectId;
+    private final LocalDate fromDate;
+    private final LocalDate finishDate;
+    private final double hoursPerWorkday;
+    private final List<ScheduledTask> tasks;
+    private final List<Integer> criticalPath;
+
+    public Schedule(int projectId, LocalDate fromDate, LocalDate finishDate, double hoursPerWorkday,
+                    List<ScheduledTask> tasks, List<Integer> criticalPath) {
+        this.projectId = projectId;
+        this.fromDate = fromDate;
+        this.finishDate = finishDate;
+        this.hoursPerWorkday = hoursPerWorkday;
+        this.tasks = tasks;
+        this.criticalPath = criticalPath;
+    }
+
+    public int getProjectId() { return projectId; }
+
+    /** First day the remaining work can start. */
+    public LocalDate getFromDate() { return fromDate; }
+
+    /** Last working day of the critical path. */
+    public LocalDate getFinishDate() { return finishDate; }
+
+    public double getHoursPerWorkday() { return hoursPerWorkday; }
+
+    public List<ScheduledTask> getTasks() { return tasks; }
+
+    /** Opgave IDs on the critical path, in execution order. */
+    public List<Integer> getCriticalPath() { return criticalPath; }
+
+    public long getLateCount() {
+        return tasks.stream().filter(ScheduledTask::isLate).count();
+    }
+}
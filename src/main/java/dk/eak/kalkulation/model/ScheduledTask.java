@@ -0,0 +1,67 @@
+package dk.eak.kalkulation.model;
+
+import java.time.LocalDate;
+
+/**
+ * One opgave in a computed schedule. Start dates are the first working day,
+ * finish dates the last working day spent on the task.
+ */
+public final class ScheduledTask {
+
+    private final int opgaveId;
+    private final String name;
+    private final int remainingHours;
+    private final int durationDays;
+    private final LocalDate earliestStart;
+    private final LocalDate earliestFinish;
+    private final LocalDate latestStart;
+    private final LocalDate latestFinish;
+    private final int slackDays;
+    private final LocalDate deadline;
+    private final boolean critical;
+    private final boolean late;
+
+    public ScheduledTask(int opgaveId, String name, int remainingHours, int durationDays,
+                         LocalDate earliestStart, LocalDate earliestFinish,
+                         LocalDate latestStart, LocalDate latestFinish,
+                         int slackDays, LocalDate deadline, boolean critical, boolean late) {
+        this.opgaveId = opgaveId;
+        this.name = name;
+        this.remainingHours = remainingHours;
+        this.durationDays = durationDays;
+        this.earliestStart = earliestStart;
+        this.earliestFinish = earliestFinish;
+        this.latestStart = latestStart;
+        this.latestFinish = latestFinish;
+        this.slackDays = slackDays;
+        this.deadline = deadline;
+        this.critical = critical;
+        this.late = late;
+    }
+
+    public int getOpgaveId() { return opgaveId; }
+
+    public String getName() { return name; }
+
+    public int getRemainingHours() { return remainingHours; }
+
+    public int getDurationDays() { return durationDays; }
+
+    public LocalDate getEarliestStart() { return earliestStart; }
+
+    public LocalDate getEarliestFinish() { return earliestFinish; }
+
+    public LocalDate getLatestStart() { return latestStart; }
+
+    public LocalDate getLatestFinish() { return latestFinish; }
+
+    /** Working days the task can slip without moving the project finish. */
+    public int getSlackDays() { return slackDays; }
+
+    public LocalDate getDeadline() { return deadline; }
+
+    public boolean isCritical() { return critical; }
+
+    /** True if the remaining hours cannot be done before the deadline. */
+    public boolean isLate() { return late; }
+}
@@ -7,6 +7,7 @@ public class TimeEntry {
     private Integer opgaveId;
     private LocalDate workDate;
     private Integer hours; // real işlənən saat
+    private String idempotencyKey; // client-chosen; a retry with the same key returns the first entry
 
     public Integer getTimeEntryId() { return timeEntryId; }
     public void setTimeEntryId(Integer timeEntryId) { this.timeEntryId = timeEntryId; }
@@ -19,4 +20,17 @@ public class TimeEntry {
 
     public Integer getHours() { return hours; }
     public void setHours(Integer hours) { this.hours = hours; }
+
+    public String getIdempotencyKey() { return idempotencyKey; }
+    public void setIdempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; }
+
+    public TimeEntry copy() {
+        TimeEntry t = new TimeEntry();
+        t.timeEntryId = timeEntryId;
+        t.opgaveId = opgaveId;
+        t.workDate = workDate;
+        t.hours = hours;
+        t.idempotencyKey = idempotencyKey;
+        return t;
+    }
 }
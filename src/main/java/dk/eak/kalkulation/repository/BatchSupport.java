@@ -0,0 +1,121 @@
+package dk.eak.kalkulation.repository;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC batching shared by the repositories. Rows are sent in chunks of
+ * {@link #CHUNK_SIZE} so a large batch never holds one huge statement in memory.
+ */
+final class BatchSupport {
+
+    static final int CHUNK_SIZE = 1000;
+
+    private BatchSupport() {
+    }
+
+    @FunctionalInterface
+    interface RowBinder<T> {
+        void bind(PreparedStatement ps, T row) throws SQLException;
+    }
+
+    /**
+     * Insert rows with JDBC batching.
+     *
+     * @return generated keys in input order
+     */
+    static <T> int[] insert(JdbcTemplate jdbc, String sql, String keyColumn, List<T> rows, RowBinder<T> binder) {
+        int[] keys = new int[rows.size()];
+        for (int from = 0; from < rows.size(); from += CHUNK_SIZE) {
+            List<T> chunk = rows.subList(from, Math.min(from + CHUNK_SIZE, rows.size()));
+            KeyHolder holder = new GeneratedKeyHolder();
+            jdbc.batchUpdate(con -> con.prepareStatement(sql, new String[]{keyColumn}),
+                    setter(chunk, binder), holder);
+            List<Map<String, Object>> generated = holder.getKeyList();
+            if (generated.size() != chunk.size()) {
+                throw new IllegalStateException("Expected " + chunk.size() + " generated keys, got " + generated.size());
+            }
+            for (int i = 0; i < generated.size(); i++) {
+                keys[from + i] = ((Number) generated.get(i).values().iterator().next()).intValue();
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Run one statement per row with JDBC batching.
+     */
+    static <T> void update(JdbcTemplate jdbc, String sql, List<T> rows, RowBinder<T> binder) {
+        for (int from = 0; from < rows.size(); from += CHUNK_SIZE) {
+            List<T> chunk = rows.subList(from, Math.min(from + CHUNK_SIZE, rows.size()));
+            jdbc.batchUpdate(sql, setter(chunk, binder));
+        }
+    }
+
+    /**
+     * Delete rows by primary key, one IN list per chunk.
+     */
+    static void deleteByIds(JdbcTemplate jdbc, String table, String idColumn, Collection<Integer> ids) {
+        List<Integer> all = new ArrayList<>(ids);
+        for (int from = 0; from < all.size(); from += CHUNK_SIZE) {
+            List<Integer> chunk = all.subList(from, Math.min(from + CHUNK_SIZE, all.size()));
+            jdbc.update("DELETE FROM " + table + " WHERE " + idColumn + " IN (" + placeholders(chunk.size()) + ")",
+                    chunk.toArray());
+        }
+    }
+
+    static String placeholders(int n) {
+        return String.join(",", Collections.nCopies(n, "?"));
+    }
+
+    static void setInt(PreparedStatement ps, int index, Integer value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.INTEGER);
+        } else {
+            ps.setInt(index, value);
+        }
+    }
+
+    static void setString(PreparedStatement ps, int index, String value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.VARCHAR);
+        } else {
+            ps.setString(index, value);
+        }
+    }
+
+    static void setDate(PreparedStatement ps, int index, LocalDate value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.DATE);
+        } else {
+            ps.setDate(index, Date.valueOf(value));
+        }
+    }
+
+    private static <T> BatchPreparedStatementSetter setter(List<T> chunk, RowBinder<T> binder) {
+        return new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                binder.bind(ps, chunk.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return chunk.size();
+            }
+        };
+    }
+}
@@ -0,0 +1,174 @@
+package dk.eak.kalkulation.repository;
+
+import dk.eak.kalkulation.model.ProjectMetrics;
+import dk.eak.kalkulation.model.Projekt;
+import dk.eak.kalkulation.util.IntIntMap;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Aggregate queries used by the calculation pages.
+ * Each method answers with one SQL statement, regardless of how many tasks
+ * or time entries a project has.
+ */
+@Repository
+public class CalculationRepository {
+
+    private static final String[] METRICS_READS = {Tables.PROJECT, Tables.OPGAVE, Tables.PROJECT_HOURS};
+
+    private final JdbcTemplate jdbc;
+    private final QueryCache cache;
+
+    public CalculationRepository(JdbcTemplate jdbc, QueryCache cache) {
+        this.jdbc = jdbc;
+        this.cache = cache;
+    }
+
+    // 🔹 PROJECT + ESTIMATED + REGISTERED IN ONE ROUND TRIP
+    public ProjectMetrics findMetrics(int projectId) {
+        String sql = """
+            SELECT p.project_id, p.name, p.description, p.start_date, p.end_date, p.calendar_id,
+                   COALESCE((SELECT SUM(o.estimated_hours)
+                             FROM opgave o
+                             WHERE o.project_id = p.project_id), 0) AS estimated,
+                   COALESCE((SELECT ph.hours
+                             FROM project_hours ph
+                             WHERE ph.project_id = p.project_id), 0) AS registered
+            FROM project p
+            WHERE p.project_id = ?
+        """;
+        return cache.get(sql, new Object[]{projectId}, METRICS_READS, ProjectMetrics::copy,
+                () -> jdbc.queryForObject(sql, (rs, rn) -> new ProjectMetrics(
+                        ProjektRepository.ROW_MAPPER.mapRow(rs, rn),
+                        rs.getInt(7),
+                        rs.getInt(8)
+                ), projectId));
+    }
+
+    // 🔹 PROJECTS FOR THE PORTFOLIO (null = all)
+    public List<Projekt> findProjects(Collection<Integer> projectIds) {
+        String sql = "SELECT " + ProjektRepository.COLUMNS + " FROM project"
+                + whereIn("project_id", projectIds)
+                + " ORDER BY project_id";
+        return jdbc.query(sql, ProjektRepository.ROW_MAPPER, args(projectIds));
+    }
+
+    // 🔹 ESTIMATED HOURS PER PROJECT (null = all)
+    public IntIntMap sumEstimatedByProject(Collection<Integer> projectIds) {
+        String sql = "SELECT project_id, COALESCE(SUM(estimated_hours), 0) AS total FROM opgave"
+                + whereIn("project_id", projectIds)
+                + " GROUP BY project_id";
+        return sumByProject(sql, projectIds);
+    }
+
+    // 🔹 REGISTERED HOURS PER PROJECT FROM THE ROLLUP TABLE (null = all)
+    public IntIntMap sumRegisteredByProject(Collection<Integer> projectIds) {
+        String sql = "SELECT project_id, hours FROM project_hours"
+                + whereIn("project_id", projectIds);
+        return sumByProject(sql, projectIds);
+    }
+
+    // 🔹 ESTIMATED + REGISTERED HOURS PER OPGAVE IN A PROJECT
+    public void forEachTaskHours(int projectId, TaskHours consumer) {
+        String sql = """
+            SELECT o.opgave_id, COALESCE(o.estimated_hours, 0), COALESCE(oh.hours, 0)
+            FROM opgave o
+            LEFT JOIN opgave_hours oh ON oh.opgave_id = o.opgave_id
+            WHERE o.project_id = ?
+            ORDER BY o.opgave_id
+        """;
+        jdbc.query(sql, rs -> {
+            consumer.accept(rs.getInt(1), rs.getInt(2), rs.getInt(3));
+        }, projectId);
+    }
+
+    // 🔹 ESTIMATED + REGISTERED HOURS OF OPGAVER IN PROJECTS THAT ENDED BEFORE A DATE
+    public void forEachFinishedTaskHours(LocalDate endedBefore, TaskHours consumer) {
+        String sql = """
+            SELECT o.opgave_id, COALESCE(o.estimated_hours, 0), COALESCE(oh.hours, 0)
+            FROM opgave o
+            JOIN project p ON p.project_id = o.project_id
+            LEFT JOIN opgave_hours oh ON oh.opgave_id = o.opgave_id
+            WHERE p.end_date < ?
+        """;
+        jdbc.query(sql, rs -> {
+            consumer.accept(rs.getInt(1), rs.getInt(2), rs.getInt(3));
+        }, Date.valueOf(endedBefore));
+    }
+
+    // 🔹 WHAT THE SCHEDULER NEEDS PER OPGAVE, ORDERED BY ID
+    public void forEachTaskPlan(int projectId, TaskPlan consumer) {
+        String sql = """
+            SELECT o.opgave_id, o.name, COALESCE(o.estimated_hours, 0), COALESCE(oh.hours, 0), o.deadline
+            FROM opgave o
+            LEFT JOIN opgave_hours oh ON oh.opgave_id = o.opgave_id
+            WHERE o.project_id = ?
+            ORDER BY o.opgave_id
+        """;
+        jdbc.query(sql, rs -> {
+            consumer.accept(rs.getInt(1), rs.getString(2), rs.getInt(3), rs.getInt(4),
+                    RowSupport.date(rs, 5));
+        }, projectId);
+    }
+
+    // 🔹 EVERY OPGAVE WITH HOURS LEFT, WITH ITS DEADLINE (OR THE PROJECT END DATE)
+    public void forEachOpenTask(OpenTask consumer) {
+        String sql = """
+            SELECT o.opgave_id, o.project_id,
+                   COALESCE(o.estimated_hours, 0) - COALESCE(oh.hours, 0) AS remaining,
+                   p.start_date, COALESCE(o.deadline, p.end_date) AS due
+            FROM opgave o
+            JOIN project p ON p.project_id = o.project_id
+            LEFT JOIN opgave_hours oh ON oh.opgave_id = o.opgave_id
+            WHERE COALESCE(o.estimated_hours, 0) > COALESCE(oh.hours, 0)
+            ORDER BY o.opgave_id
+        """;
+        jdbc.query(sql, rs -> {
+            consumer.accept(rs.getInt(1), rs.getInt(2), rs.getInt(3),
+                    RowSupport.date(rs, 4), RowSupport.date(rs, 5));
+        });
+    }
+
+    @FunctionalInterface
+    public interface TaskHours {
+        void accept(int opgaveId, int estimatedHours, int registeredHours);
+    }
+
+    @FunctionalInterface
+    public interface TaskPlan {
+        void accept(int opgaveId, String name, int estimatedHours, int registeredHours, LocalDate deadline);
+    }
+
+    @FunctionalInterface
+    public interface OpenTask {
+        void accept(int opgaveId, int projectId, int remainingHours, LocalDate startDate, LocalDate deadline);
+    }
+
+    // ===== helpers =====
+    private IntIntMap sumByProject(String sql, Collection<Integer> projectIds) {
+        IntIntMap totals = new IntIntMap(projectIds != null ? projectIds.size() : 64);
+        jdbc.query(sql, rs -> {
+            totals.put(rs.getInt(1), rs.getInt(2));
+        }, args(projectIds));
+        return totals;
+    }
+
+    private static String whereIn(String column, Collection<Integer> ids) {
+        if (ids == null) {
+            return "";
+        }
+        return " WHERE " + column + " IN ("
+                + ids.stream().map(id -> "?").collect(Collectors.joining(","))
+                + ")";
+    }
+
+    private static Object[] args(Collection<Integer> ids) {
+        return ids == null ? new Object[0] : ids.toArray();
+    }
+}
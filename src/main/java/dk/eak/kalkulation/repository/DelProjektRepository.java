@@ -2,37 +2,54 @@ package dk.eak.kalkulation.repository;
 
 import dk.eak.kalkulation.model.DelProjekt;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public class DelProjektRepository {
 
+    private static final String[] READS = {Tables.DELPROJEKT};
+    // opgave.delprojekt_id is set to NULL and the rollup row cascades
+    private static final String[] DELETE_WRITES = {Tables.DELPROJEKT, Tables.OPGAVE, Tables.DELPROJEKT_HOURS};
+    // Column order read by ROW_MAPPER
+    static final String COLUMNS = "delprojekt_id, project_id, name, description";
+    static final RowMapper<DelProjekt> ROW_MAPPER = (rs, rowNum) -> {
+        DelProjekt dp = new DelProjekt();
+        dp.setDelProjektId(rs.getInt(1));
+        dp.setProjectId(rs.getInt(2));
+        dp.setName(rs.getString(3));
+        dp.setDescription(rs.getString(4));
+        return dp;
+    };
+
+    private static final String INSERT_SQL = """
+            INSERT INTO delprojekt (project_id, name, description)
+            VALUES (?, ?, ?)
+        """;
+    private static final String UPDATE_SQL =
+            "UPDATE delprojekt SET project_id = ?, name = ?, description = ? WHERE delprojekt_id = ?";
+
     private final JdbcTemplate jdbc;
+    private final QueryCache cache;
 
-    public DelProjektRepository(JdbcTemplate jdbc) {
+    public DelProjektRepository(JdbcTemplate jdbc, QueryCache cache) {
         this.jdbc = jdbc;
+        this.cache = cache;
     }
 
-    // 🔹 CREATE
+    // 🔹 CREATE (sets the generated ID on the delprojekt)
     public void create(DelProjekt dp) {
-        String sql = """
-            INSERT INTO delprojekt (project_id, name, description)
-            VALUES (?, ?, ?)
-        """;
-
-        jdbc.update(sql,
-                dp.getProjectId(),
-                dp.getName(),
-                dp.getDescription()
-        );
+        createAll(List.of(dp));
     }
 
     // 🔹 FIND BY ID
     public DelProjekt findById(int delProjektId) {
-        String sql = "SELECT * FROM delprojekt WHERE delprojekt_id = ?";
-        return jdbc.queryForObject(sql, (rs, rowNum) -> mapDelProjekt(rs), delProjektId);
+        String sql = "SELECT " + COLUMNS + " FROM delprojekt WHERE delprojekt_id = ?";
+        return cache.get(sql, new Object[]{delProjektId}, READS, DelProjekt::copy,
+                () -> jdbc.queryForObject(sql, ROW_MAPPER, delProjektId));
     }
 
     // 🔹 FIND BY PROJECT ID
@@ -41,35 +58,68 @@ public class DelProjektRepository {
             SELECT delprojekt_id, project_id, name, description
             FROM delprojekt
             WHERE project_id = ?
+            ORDER BY delprojekt_id
         """;
 
-        return jdbc.query(sql, (rs, rowNum) -> mapDelProjekt(rs), projectId);
+        return cache.get(sql, new Object[]{projectId}, READS, QueryCache.listOf(DelProjekt::copy),
+                () -> jdbc.query(sql, ROW_MAPPER, projectId));
     }
 
     // 🔹 UPDATE
     public void update(DelProjekt dp) {
-        String sql = "UPDATE delprojekt SET project_id = ?, name = ?, description = ? WHERE delprojekt_id = ?";
-        jdbc.update(sql,
+        jdbc.update(UPDATE_SQL,
                 dp.getProjectId(),
                 dp.getName(),
                 dp.getDescription(),
                 dp.getDelProjektId()
         );
+        cache.invalidate(READS);
     }
 
     // 🔹 DELETE
     public void delete(int id) {
         String sql = "DELETE FROM delprojekt WHERE delprojekt_id = ?";
         jdbc.update(sql, id);
+        cache.invalidate(DELETE_WRITES);
     }
 
-    // Helper method to map ResultSet to DelProjekt
-    private DelProjekt mapDelProjekt(java.sql.ResultSet rs) throws java.sql.SQLException {
-        DelProjekt dp = new DelProjekt();
-        dp.setDelProjektId(rs.getInt("delprojekt_id"));
-        dp.setProjectId(rs.getInt("project_id"));
-        dp.setName(rs.getString("name"));
-        dp.setDescription(rs.getString("description"));
-        return dp;
+    // 🔹 BATCH CREATE, returns generated IDs in input order
+    public int[] createAll(List<DelProjekt> delProjekter) {
+        if (delProjekter.isEmpty()) {
+            return new int[0];
+        }
+        int[] ids = BatchSupport.insert(jdbc, INSERT_SQL, "delprojekt_id", delProjekter, (ps, dp) -> {
+            BatchSupport.setInt(ps, 1, dp.getProjectId());
+            ps.setString(2, dp.getName());
+            ps.setString(3, dp.getDescription());
+        });
+        for (int i = 0; i < ids.length; i++) {
+            delProjekter.get(i).setDelProjektId(ids[i]);
+        }
+        cache.invalidate(READS);
+        return ids;
+    }
+
+    // 🔹 BATCH UPDATE
+    public void updateAll(List<DelProjekt> delProjekter) {
+        if (delProjekter.isEmpty()) {
+            return;
+        }
+        BatchSupport.update(jdbc, UPDATE_SQL, delProjekter, (ps, dp) -> {
+            BatchSupport.setInt(ps, 1, dp.getProjectId());
+            ps.setString(2, dp.getName());
+            ps.setString(3, dp.getDescription());
+            BatchSupport.setInt(ps, 4, dp.getDelProjektId());
+        });
+        cache.invalidate(READS);
+    }
+
+    // 🔹 BATCH DELETE
+    public void deleteAll(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        BatchSupport.deleteByIds(jdbc, "delprojekt", "delprojekt_id", ids);
+        cache.invalidate(DELETE_WRITES);
     }
 }
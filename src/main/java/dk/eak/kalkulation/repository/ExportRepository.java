@@ -0,0 +1,82 @@
+package dk.eak.kalkulation.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+
+/**
+ * Uncached, streaming reads for the exports.
+ * Every query runs on a forward-only, read-only cursor with a fetch size, and each
+ * row is handed to the caller as it arrives, so memory does not grow with the
+ * result. MySQL honours the fetch size only with {@code useCursorFetch=true}.
+ */
+@Repository
+public class ExportRepository {
+
+    static final int FETCH_SIZE = 1000;
+
+    private static final String TIME_ENTRIES = """
+            SELECT te.opgave_id, te.work_date, te.hours, te.time_entry_id, o.project_id
+            FROM time_entry te
+            JOIN opgave o ON o.opgave_id = te.opgave_id
+        """;
+    private static final String OPGAVER = """
+            SELECT opgave_id, project_id, delprojekt_id, name, description, estimated_hours, deadline
+            FROM opgave
+        """;
+
+    private final JdbcTemplate jdbc;
+
+    public ExportRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public boolean projectExists(int projectId) {
+        Integer n = jdbc.queryForObject("SELECT COUNT(*) FROM project WHERE project_id = ?", Integer.class, projectId);
+        return n != null && n > 0;
+    }
+
+    // 🔹 TIME ENTRIES OF ONE PROJECT, OR ALL WHEN projectId IS NULL
+    public void forEachTimeEntry(Integer projectId, TimeEntryRow consumer) {
+        String where = projectId == null ? "" : "WHERE o.project_id = ?\n";
+        stream(TIME_ENTRIES + where + "ORDER BY o.project_id, te.work_date, te.time_entry_id", rs -> {
+            consumer.accept(rs.getInt(1), RowSupport.date(rs, 2), rs.getInt(3), rs.getInt(4), rs.getInt(5));
+        }, projectId);
+    }
+
+    // 🔹 OPGAVER OF ONE PROJECT, OR ALL WHEN projectId IS NULL
+    public void forEachOpgave(Integer projectId, OpgaveRow consumer) {
+        String where = projectId == null ? "" : "WHERE project_id = ?\n";
+        stream(OPGAVER + where + "ORDER BY project_id, opgave_id", rs -> {
+            consumer.accept(rs.getInt(1), rs.getInt(2), rs.getObject(3, Integer.class),
+                    rs.getString(4), rs.getString(5), rs.getInt(6), RowSupport.date(rs, 7));
+        }, projectId);
+    }
+
+    @FunctionalInterface
+    public interface TimeEntryRow {
+        void accept(int opgaveId, LocalDate workDate, int hours, int timeEntryId, int projectId);
+    }
+
+    @FunctionalInterface
+    public interface OpgaveRow {
+        void accept(int opgaveId, int projectId, Integer delProjektId, String name, String description,
+                    int estimatedHours, LocalDate deadline);
+    }
+
+    // ===== helpers =====
+    private void stream(String sql, RowCallbackHandler handler, Integer projectId) {
+        jdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(FETCH_SIZE);
+            if (projectId != null) {
+                ps.setInt(1, projectId);
+            }
+            return ps;
+        }, handler);
+    }
+}
@@ -0,0 +1,134 @@
+package dk.eak.kalkulation.repository;
+
+import dk.eak.kalkulation.util.IntIntMap;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Summary tables with registered hours per opgave, delprojekt and project.
+ * The tables are kept up to date by the services, so reading a total is a
+ * primary-key lookup instead of a scan over time_entry.
+ */
+@Repository
+public class HourRollupRepository {
+
+    public static final String OPGAVE = Tables.OPGAVE_HOURS;
+    public static final String DELPROJEKT = Tables.DELPROJEKT_HOURS;
+    public static final String PROJECT = Tables.PROJECT_HOURS;
+
+    private final JdbcTemplate jdbc;
+    private final QueryCache cache;
+
+    public HourRollupRepository(JdbcTemplate jdbc, QueryCache cache) {
+        this.jdbc = jdbc;
+        this.cache = cache;
+    }
+
+    // 🔹 READS (primary key lookups)
+    public int opgaveHours(int opgaveId) {
+        return read(OPGAVE, "opgave_id", opgaveId);
+    }
+
+    public int delProjektHours(int delProjektId) {
+        return read(DELPROJEKT, "delprojekt_id", delProjektId);
+    }
+
+    public int projectHours(int projectId) {
+        return read(PROJECT, "project_id", projectId);
+    }
+
+    // 🔹 INCREMENTAL UPDATES
+    public void addToOpgave(int opgaveId, int delta) {
+        add(OPGAVE, "opgave_id", opgaveId, delta);
+    }
+
+    public void addToDelProjekt(int delProjektId, int delta) {
+        add(DELPROJEKT, "delprojekt_id", delProjektId, delta);
+    }
+
+    public void addToProject(int projectId, int delta) {
+        add(PROJECT, "project_id", projectId, delta);
+    }
+
+    // 🔹 REBUILD FROM time_entry
+    public void rebuild() {
+        jdbc.update("DELETE FROM " + OPGAVE);
+        jdbc.update("DELETE FROM " + DELPROJEKT);
+        jdbc.update("DELETE FROM " + PROJECT);
+        jdbc.update("INSERT INTO " + OPGAVE + " (opgave_id, hours) " + ACTUAL_OPGAVE);
+        jdbc.update("INSERT INTO " + DELPROJEKT + " (delprojekt_id, hours) " + ACTUAL_DELPROJEKT);
+        jdbc.update("INSERT INTO " + PROJECT + " (project_id, hours) " + ACTUAL_PROJECT);
+        cache.invalidate(OPGAVE, DELPROJEKT, PROJECT);
+    }
+
+    // 🔹 STORED VS. ACTUAL (used to report drift)
+    public IntIntMap storedTotals(String table) {
+        String idColumn = switch (table) {
+            case OPGAVE -> "opgave_id";
+            case DELPROJEKT -> "delprojekt_id";
+            case PROJECT -> "project_id";
+            default -> throw new IllegalArgumentException("Unknown rollup table: " + table);
+        };
+        return toMap("SELECT " + idColumn + ", hours FROM " + table);
+    }
+
+    public IntIntMap actualTotals(String table) {
+        return toMap(switch (table) {
+            case OPGAVE -> ACTUAL_OPGAVE;
+            case DELPROJEKT -> ACTUAL_DELPROJEKT;
+            case PROJECT -> ACTUAL_PROJECT;
+            default -> throw new IllegalArgumentException("Unknown rollup table: " + table);
+        });
+    }
+
+    // ===== helpers =====
+    private static final String ACTUAL_OPGAVE = """
+        SELECT te.opgave_id, SUM(te.hours)
+        FROM time_entry te
+        GROUP BY te.opgave_id
+    """;
+
+    private static final String ACTUAL_DELPROJEKT = """
+        SELECT o.delprojekt_id, SUM(te.hours)
+        FROM time_entry te
+        JOIN opgave o ON o.opgave_id = te.opgave_id
+        WHERE o.delprojekt_id IS NOT NULL
+        GROUP BY o.delprojekt_id
+    """;
+
+    private static final String ACTUAL_PROJECT = """
+        SELECT o.project_id, SUM(te.hours)
+        FROM time_entry te
+        JOIN opgave o ON o.opgave_id = te.opgave_id
+        GROUP BY o.project_id
+    """;
+
+    private int read(String table, String idColumn, int id) {
+        Integer v = jdbc.query("SELECT hours FROM " + table + " WHERE " + idColumn + " = ?",
+                rs -> rs.next() ? rs.getInt(1) : null, id);
+        return v == null ? 0 : v;
+    }
+
+    private void add(String table, String idColumn, int id, int delta) {
+        cache.invalidate(table);
+        String update = "UPDATE " + table + " SET hours = hours + ? WHERE " + idColumn + " = ?";
+        if (jdbc.update(update, delta, id) > 0) {
+            return;
+        }
+        try {
+            jdbc.update("INSERT INTO " + table + " (" + idColumn + ", hours) VALUES (?, ?)", id, delta);
+        } catch (DuplicateKeyException e) {
+            // another transaction created the row first
+            jdbc.update(update, delta, id);
+        }
+    }
+
+    private IntIntMap toMap(String sql) {
+        IntIntMap totals = new IntIntMap();
+        jdbc.query(sql, rs -> {
+            totals.put(rs.getInt(1), rs.getInt(2));
+        });
+        return totals;
+    }
+}
@@ -0,0 +1,47 @@
+package dk.eak.kalkulation.repository;
+
+import dk.eak.kalkulation.model.OpgaveDependency;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public class OpgaveDependencyRepository {
+
+    private static final String[] READS = {Tables.OPGAVE_DEPENDENCY, Tables.OPGAVE};
+    private static final String[] WRITES = {Tables.OPGAVE_DEPENDENCY};
+
+    private final JdbcTemplate jdbc;
+    private final QueryCache cache;
+
+    public OpgaveDependencyRepository(JdbcTemplate jdbc, QueryCache cache) {
+        this.jdbc = jdbc;
+        this.cache = cache;
+    }
+
+    // 🔗 ALL DEPENDENCIES BETWEEN OPGAVER OF A PROJECT
+    public List<OpgaveDependency> findByProjectId(int projectId) {
+        String sql = """
+            SELECT d.opgave_id, d.depends_on_id
+            FROM opgave_dependency d
+            JOIN opgave o ON o.opgave_id = d.opgave_id
+            WHERE o.project_id = ?
+            ORDER BY d.opgave_id, d.depends_on_id
+        """;
+        return cache.get(sql, new Object[]{projectId}, READS, QueryCache.listOf(OpgaveDependency::copy),
+                () -> jdbc.query(sql, (rs, rn) -> new OpgaveDependency(rs.getInt(1), rs.getInt(2)), projectId));
+    }
+
+    public void create(OpgaveDependency d) {
+        jdbc.update("INSERT INTO opgave_dependency (opgave_id, depends_on_id) VALUES (?, ?)",
+                d.getOpgaveId(), d.getDependsOnId());
+        cache.invalidate(WRITES);
+    }
+
+    public void delete(int opgaveId, int dependsOnId) {
+        jdbc.update("DELETE FROM opgave_dependency WHERE opgave_id = ? AND depends_on_id = ?",
+                opgaveId, dependsOnId);
+        cache.invalidate(WRITES);
+    }
+}
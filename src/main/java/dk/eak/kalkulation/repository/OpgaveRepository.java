@@ -1,58 +1,107 @@
 package dk.eak.kalkulation.repository;
 
 import dk.eak.kalkulation.model.Opgave;
+import dk.eak.kalkulation.util.IntIntMap;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
 import java.sql.Date;
-import java.sql.ResultSet;
-import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 @Repository
 public class OpgaveRepository {
 
+    private static final String[] READS = {Tables.OPGAVE};
+    // time entries, dependencies and the task rollup row cascade
+    private static final String[] DELETE_WRITES = {Tables.OPGAVE, Tables.TIME_ENTRY, Tables.OPGAVE_HOURS,
+            Tables.OPGAVE_DEPENDENCY};
+
+    // Column order read by ROW_MAPPER
+    static final String COLUMNS = "opgave_id, project_id, delprojekt_id, name, description, estimated_hours, deadline";
+    static final RowMapper<Opgave> ROW_MAPPER = (rs, rowNum) -> {
+        Opgave o = new Opgave();
+        o.setOpgaveId(rs.getInt(1));
+        o.setProject_id(rs.getInt(2));
+        o.setDelProjektId(RowSupport.nullableInt(rs, 3));
+        o.setName(rs.getString(4));
+        o.setDescription(rs.getString(5));
+        o.setEstimatedHours(rs.getInt(6));
+        o.setDeadline(RowSupport.date(rs, 7));
+        return o;
+    };
+
+    private static final String INSERT_SQL = """
+            INSERT INTO opgave
+            (project_id, delprojekt_id, name, description, estimated_hours, deadline)
+            VALUES (?,?,?,?,?,?)
+        """;
+    private static final String UPDATE_SQL = """
+            UPDATE opgave
+            SET project_id = ?, delprojekt_id = ?, name = ?, description = ?, estimated_hours = ?, deadline = ?
+            WHERE opgave_id = ?
+        """;
+
     private final JdbcTemplate jdbc;
+    private final QueryCache cache;
 
-    public OpgaveRepository(JdbcTemplate jdbc) {
+    public OpgaveRepository(JdbcTemplate jdbc, QueryCache cache) {
         this.jdbc = jdbc;
+        this.cache = cache;
     }
 
     public List<Opgave> findByProjectId(int projectId) {
-        String sql = "SELECT * FROM opgave WHERE project_id = ? ORDER BY opgave_id";
+        String sql = "SELECT " + COLUMNS + " FROM opgave WHERE project_id = ? ORDER BY opgave_id";
         return mapList(sql, projectId);
     }
 
+    // Keyset page ordered by opgave_id; lastId 0 gives the first page
+    public List<Opgave> findByProjectIdAfter(int projectId, int lastId, int limit) {
+        String sql = "SELECT " + COLUMNS + " FROM opgave WHERE project_id = ? AND opgave_id > ? ORDER BY opgave_id LIMIT ?";
+        return cache.get(sql, new Object[]{projectId, lastId, limit}, READS, QueryCache.listOf(Opgave::copy),
+                () -> jdbc.query(sql, ROW_MAPPER, projectId, lastId, limit));
+    }
+
     public List<Opgave> findByDelProjektId(int delProjektId) {
-        String sql = "SELECT * FROM opgave WHERE delprojekt_id = ? ORDER BY opgave_id";
+        String sql = "SELECT " + COLUMNS + " FROM opgave WHERE delprojekt_id = ? ORDER BY opgave_id";
         return mapList(sql, delProjektId);
     }
 
     public Opgave findById(int id) {
-        String sql = "SELECT * FROM opgave WHERE opgave_id = ?";
-        return jdbc.queryForObject(sql, (rs, rn) -> map(rs));
+        String sql = "SELECT " + COLUMNS + " FROM opgave WHERE opgave_id = ?";
+        return cache.get(sql, new Object[]{id}, READS, Opgave::copy,
+                () -> jdbc.queryForObject(sql, ROW_MAPPER, id));
+    }
+
+    // Uncached: used by batch writes to load the rows before changing them
+    public List<Opgave> findByIds(Collection<Integer> ids) {
+        List<Integer> all = new ArrayList<>(ids);
+        List<Opgave> result = new ArrayList<>(all.size());
+        for (int from = 0; from < all.size(); from += BatchSupport.CHUNK_SIZE) {
+            List<Integer> chunk = all.subList(from, Math.min(from + BatchSupport.CHUNK_SIZE, all.size()));
+            String sql = "SELECT " + COLUMNS + " FROM opgave WHERE opgave_id IN (" + BatchSupport.placeholders(chunk.size()) + ")";
+            result.addAll(jdbc.query(sql, ROW_MAPPER, chunk.toArray()));
+        }
+        return result;
     }
 
+    // Uncached: every opgave ID mapped to its project ID, used to validate imports
+    public IntIntMap projectIdsByOpgave() {
+        IntIntMap ids = new IntIntMap();
+        jdbc.query("SELECT opgave_id, project_id FROM opgave", rs -> {
+            ids.put(rs.getInt(1), rs.getInt(2));
+        });
+        return ids;
+    }
+
+    // Sets the generated ID on the opgave
     public void create(Opgave o) {
-        jdbc.update("""
-            INSERT INTO opgave
-            (project_id, delprojekt_id, name, description, estimated_hours, deadline)
-            VALUES (?,?,?,?,?,?)
-        """,
-                o.getProject_id(),
-                o.getDelProjektId(),
-                o.getName(),
-                o.getDescription(),
-                o.getEstimatedHours(),
-                o.getDeadline() != null ? Date.valueOf(o.getDeadline()) : null
-        );
+        createAll(List.of(o));
     }
 
     public void update(Opgave o) {
-        jdbc.update("""
-            UPDATE opgave
-            SET project_id = ?, delprojekt_id = ?, name = ?, description = ?, estimated_hours = ?, deadline = ?
-            WHERE opgave_id = ?
-        """,
+        jdbc.update(UPDATE_SQL,
                 o.getProject_id(),
                 o.getDelProjektId(),
                 o.getName(),
@@ -61,28 +110,61 @@ public class OpgaveRepository {
                 o.getDeadline() != null ? Date.valueOf(o.getDeadline()) : null,
                 o.getOpgaveId()
         );
+        cache.invalidate(READS);
     }
 
     public void delete(int id) {
         jdbc.update("DELETE FROM opgave WHERE opgave_id = ?", id);
+        cache.invalidate(DELETE_WRITES);
     }
 
-    // ===== helpers =====
-    private List<Opgave> mapList(String sql, int id) {
-        return jdbc.query(sql, (rs, rn) -> map(rs), id);
+    // Returns generated IDs in input order
+    public int[] createAll(List<Opgave> opgaver) {
+        if (opgaver.isEmpty()) {
+            return new int[0];
+        }
+        int[] ids = BatchSupport.insert(jdbc, INSERT_SQL, "opgave_id", opgaver, (ps, o) -> {
+            BatchSupport.setInt(ps, 1, o.getProject_id());
+            BatchSupport.setInt(ps, 2, o.getDelProjektId());
+            ps.setString(3, o.getName());
+            ps.setString(4, o.getDescription());
+            BatchSupport.setInt(ps, 5, o.getEstimatedHours());
+            BatchSupport.setDate(ps, 6, o.getDeadline());
+        });
+        for (int i = 0; i < ids.length; i++) {
+            opgaver.get(i).setOpgaveId(ids[i]);
+        }
+        cache.invalidate(READS);
+        return ids;
     }
 
-    private Opgave map(ResultSet rs) throws SQLException {
-        Opgave o = new Opgave();
-        o.setOpgaveId(rs.getInt("opgave_id"));
-        o.setProject_id(rs.getInt("project_id"));
-        int dp = rs.getInt("delprojekt_id");
-        o.setDelProjektId(rs.wasNull() ? null : dp);
-        o.setName(rs.getString("name"));
-        o.setDescription(rs.getString("description"));
-        o.setEstimatedHours(rs.getInt("estimated_hours"));
-        Date d = rs.getDate("deadline");
-        o.setDeadline(d != null ? d.toLocalDate() : null);
-        return o;
+    public void updateAll(List<Opgave> opgaver) {
+        if (opgaver.isEmpty()) {
+            return;
+        }
+        BatchSupport.update(jdbc, UPDATE_SQL, opgaver, (ps, o) -> {
+            BatchSupport.setInt(ps, 1, o.getProject_id());
+            BatchSupport.setInt(ps, 2, o.getDelProjektId());
+            ps.setString(3, o.getName());
+            ps.setString(4, o.getDescription());
+            BatchSupport.setInt(ps, 5, o.getEstimatedHours());
+            BatchSupport.setDate(ps, 6, o.getDeadline());
+            BatchSupport.setInt(ps, 7, o.getOpgaveId());
+        });
+        cache.invalidate(READS);
+    }
+
+    public void deleteAll(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        BatchSupport.deleteByIds(jdbc, "opgave", "opgave_id", ids);
+        cache.invalidate(DELETE_WRITES);
+    }
+
+    // ===== helpers =====
+    private List<Opgave> mapList(String sql, int id) {
+        return cache.get(sql, new Object[]{id}, READS, QueryCache.listOf(Opgave::copy),
+                () -> jdbc.query(sql, ROW_MAPPER, id));
     }
 }
@@ -0,0 +1,311 @@
+package dk.eak.kalkulation.repository;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import dk.eak.kalkulation.datasource.ReplicaContext;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Runs the independent queries of one page at the same time, each on its own
+ * virtual thread and connection, so the page waits about as long as its
+ * slowest query instead of the sum of them.
+ * <p>
+ * Used as a scope: fork the queries, join, then read the results. The first
+ * fork runs on the calling thread, in the caller's transaction. The others run
+ * in parallel while a connection permit is free and the Hikari pool they will
+ * be routed to has an idle connection, and on the calling thread otherwise. The
+ * permits only cap the forks; they reserve nothing, and the callers hold
+ * connections of their own across {@link Scope#join()}. So a busy pool falls
+ * back to running the queries one after another instead of callers waiting for
+ * forks that wait for the callers' connections. A fork can still lose a race
+ * for the last idle connection; it then waits until any query returns one.
+ * When one query fails the others are cancelled, and no fork outlives its scope.
+ * <p>
+ * A fork cannot see uncommitted rows of the caller, so inside a read-write
+ * transaction everything runs on the calling thread. Inside a read-only
+ * transaction each fork gets a read-only transaction of its own and is routed
+ * like the caller (replica, or primary while pinned).
+ */
+@Component
+public class ParallelQueries implements DisposableBean {
+
+    private final Semaphore permits;
+    private final TransactionTemplate readOnly;
+    private final ExecutorService executor;
+    private final DataSource dataSource;
+
+    @Autowired
+    public ParallelQueries(PlatformTransactionManager transactionManager,
+                           DataSource dataSource,
+                           @Value("${kalkulation.parallel.enabled:true}") boolean enabled,
+                           @Value("${kalkulation.parallel.max-connections:0}") int maxConnections,
+                           @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize) {
+        if (maxConnections < 0) {
+            throw new IllegalArgumentException("Max connections cannot be negative");
+        }
+        if (enabled) {
+            // by default forks may hold half the pool; the rest is left for the callers
+            this.permits = new Semaphore(maxConnections > 0 ? maxConnections : Math.max(1, poolSize / 2));
+            this.readOnly = new TransactionTemplate(transactionManager);
+            this.readOnly.setReadOnly(true);
+            this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        } else {
+            this.permits = null;
+            this.readOnly = null;
+            this.executor = null;
+        }
+        this.dataSource = dataSource;
+    }
+
+    private ParallelQueries() {
+        this.permits = null;
+        this.readOnly = null;
+        this.executor = null;
+        this.dataSource = null;
+    }
+
+    /**
+     * Queries that always run one after another on the calling thread.
+     */
+    public static ParallelQueries sequential() {
+        return new ParallelQueries();
+    }
+
+    /**
+     * Open a scope for the queries of one page; use it in try-with-resources.
+     */
+    public Scope open() {
+        boolean inTransaction = TransactionSynchronizationManager.isActualTransactionActive();
+        boolean readOnlyTransaction = inTransaction && TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        return new Scope(permits != null && (!inTransaction || readOnlyTransaction), readOnlyTransaction,
+                ReplicaContext.isPinned());
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    // Whether a connection can be borrowed without waiting. Asked on the calling
+    // thread, which a fork copies, so a routing DataSource resolves the same pool.
+    // A pool other than Hikari is not inspected; the permits alone apply.
+    private boolean idleConnection() {
+        try {
+            if (!dataSource.isWrapperFor(HikariDataSource.class)) {
+                return true;
+            }
+            HikariPoolMXBean pool = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+            return pool != null && pool.getIdleConnections() > 0;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * The queries of one page. Not thread-safe; belongs to the thread that opened it.
+     */
+    public final class Scope implements AutoCloseable {
+
+        private final boolean parallel;
+        private final boolean readOnlyTransaction;
+        private final boolean pinned;
+        private final List<Fork<?>> forks = new ArrayList<>();
+        private boolean joined;
+
+        private Scope(boolean parallel, boolean readOnlyTransaction, boolean pinned) {
+            this.parallel = parallel;
+            this.readOnlyTransaction = readOnlyTransaction;
+            this.pinned = pinned;
+        }
+
+        /**
+         * Add a query.
+         *
+         * @param query the query; must not depend on the results of the other forks
+         * @return its result, readable after {@link #join()}
+         */
+        public <T> Supplier<T> fork(Supplier<T> query) {
+            if (joined) {
+                throw new IllegalStateException("Scope is already joined");
+            }
+            Fork<T> fork = new Fork<>(query);
+            if (parallel && !forks.isEmpty() && permits.tryAcquire()) {
+                if (idleConnection()) {
+                    fork.start();
+                } else {
+                    permits.release();
+                }
+            }
+            forks.add(fork);
+            return fork;
+        }
+
+        /**
+         * Wait for all queries. The first failure cancels the rest and is rethrown.
+         */
+        public void join() {
+            joined = true;
+            try {
+                for (Fork<?> fork : forks) {
+                    if (!fork.started()) {
+                        fork.runHere();
+                    }
+                }
+                for (Fork<?> fork : forks) {
+                    fork.await();
+                }
+            } catch (RuntimeException | Error e) {
+                cancel();
+                throw e;
+            }
+        }
+
+        /**
+         * Cancel the queries still running and wait until their threads are done.
+         */
+        @Override
+        public void close() {
+            cancel();
+            boolean interrupted = false;
+            for (Fork<?> fork : forks) {
+                interrupted |= fork.awaitFinished();
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void cancel() {
+            joined = true;
+            forks.forEach(Fork::cancel);
+        }
+
+        private <T> T call(Supplier<T> query) {
+            if (pinned) {
+                ReplicaContext.pin();
+            }
+            try {
+                return readOnlyTransaction ? readOnly.execute(status -> query.get()) : query.get();
+            } finally {
+                if (pinned) {
+                    ReplicaContext.unpin();
+                }
+            }
+        }
+
+        private final class Fork<T> implements Supplier<T> {
+
+            private final Supplier<T> query;
+            private FutureTask<T> task;
+            private CountDownLatch finished;
+            private T value;
+            private boolean done;
+
+            Fork(Supplier<T> query) {
+                this.query = query;
+            }
+
+            @Override
+            public T get() {
+                if (!done) {
+                    throw new IllegalStateException("Query has not completed; call join() first");
+                }
+                return value;
+            }
+
+            boolean started() {
+                return task != null;
+            }
+
+            void start() {
+                task = new FutureTask<>(() -> call(query));
+                finished = new CountDownLatch(1);
+                try {
+                    executor.execute(() -> {
+                        try {
+                            task.run();
+                        } finally {
+                            permits.release();
+                            finished.countDown();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    // shutting down: run it on the caller
+                    permits.release();
+                    task = null;
+                    finished = null;
+                }
+            }
+
+            void runHere() {
+                value = query.get();
+                done = true;
+            }
+
+            void await() {
+                if (done) {
+                    return;
+                }
+                try {
+                    value = task.get();
+                    done = true;
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException r) {
+                        throw r;
+                    }
+                    if (cause instanceof Error err) {
+                        throw err;
+                    }
+                    throw new IllegalStateException(cause);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for a query", e);
+                }
+            }
+
+            void cancel() {
+                if (task != null) {
+                    task.cancel(true);
+                }
+            }
+
+            // true if the wait was interrupted
+            boolean awaitFinished() {
+                if (finished == null) {
+                    return false;
+                }
+                boolean interrupted = false;
+                while (true) {
+                    try {
+                        finished.await();
+                        return interrupted;
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package dk.eak.kalkulation.repository;
+
+import dk.eak.kalkulation.model.DelProjekt;
+import dk.eak.kalkulation.model.Opgave;
+import dk.eak.kalkulation.model.ProjectTree;
+import dk.eak.kalkulation.model.ProjectTree.DelProjektNode;
+import dk.eak.kalkulation.model.ProjectTree.OpgaveNode;
+import dk.eak.kalkulation.model.Projekt;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Loads a whole project tree for the details page.
+ * The project and its delprojekter come from one query, every opgave of the
+ * project with its registered hours from a second; opgaver are put under their
+ * delprojekt by ID in memory. Two queries however large the tree is, run in
+ * parallel.
+ */
+@Repository
+public class ProjectTreeRepository {
+
+    private static final String[] READS = {Tables.PROJECT, Tables.DELPROJEKT, Tables.OPGAVE, Tables.OPGAVE_HOURS};
+
+    // Columns 1-6 are read by ProjektRepository.ROW_MAPPER
+    private static final String PROJECT_SQL = """
+            SELECT p.project_id, p.name, p.description, p.start_date, p.end_date, p.calendar_id,
+                   d.delprojekt_id, d.name, d.description
+            FROM project p
+            LEFT JOIN delprojekt d ON d.project_id = p.project_id
+            WHERE p.project_id = ?
+            ORDER BY d.delprojekt_id
+        """;
+    // Columns 1-7 are read by OpgaveRepository.ROW_MAPPER
+    private static final String OPGAVE_SQL = """
+            SELECT o.opgave_id, o.project_id, o.delprojekt_id, o.name, o.description, o.estimated_hours, o.deadline,
+                   COALESCE(oh.hours, 0)
+            FROM opgave o
+            LEFT JOIN opgave_hours oh ON oh.opgave_id = o.opgave_id
+            WHERE o.project_id = ?
+            ORDER BY o.opgave_id
+        """;
+
+    private final JdbcTemplate jdbc;
+    private final QueryCache cache;
+    private final ParallelQueries parallel;
+
+    public ProjectTreeRepository(JdbcTemplate jdbc, QueryCache cache, ParallelQueries parallel) {
+        this.jdbc = jdbc;
+        this.cache = cache;
+        this.parallel = parallel;
+    }
+
+    // 🔹 PROJECT → DELPROJEKTER → OPGAVER → HOURS (null if the project does not exist)
+    public ProjectTree findByProjectId(int projectId) {
+        return cache.get(PROJECT_SQL, new Object[]{projectId}, READS, t -> t != null ? t.copy() : null,
+                () -> load(projectId));
+    }
+
+    private ProjectTree load(int projectId) {
+        Head head;
+        List<OpgaveNode> opgaver;
+        try (ParallelQueries.Scope scope = parallel.open()) {
+            Supplier<Head> h = scope.fork(() -> loadHead(projectId));
+            Supplier<List<OpgaveNode>> o = scope.fork(() -> loadOpgaver(projectId));
+            scope.join();
+            head = h.get();
+            opgaver = o.get();
+        }
+        if (head.project() == null) {
+            return null;
+        }
+        Map<Integer, DelProjekt> delprojekter = head.delprojekter();
+
+        Map<Integer, List<OpgaveNode>> byDelProjekt = new LinkedHashMap<>();
+        delprojekter.keySet().forEach(id -> byDelProjekt.put(id, new ArrayList<>()));
+        List<OpgaveNode> unassigned = new ArrayList<>();
+        for (OpgaveNode node : opgaver) {
+            Integer delProjektId = node.getOpgave().getDelProjektId();
+            List<OpgaveNode> siblings = delProjektId != null ? byDelProjekt.get(delProjektId) : null;
+            // an opgave pointing at another project's delprojekt is shown as unassigned
+            (siblings != null ? siblings : unassigned).add(node);
+        }
+
+        List<DelProjektNode> nodes = new ArrayList<>(delprojekter.size());
+        delprojekter.forEach((id, dp) -> nodes.add(new DelProjektNode(dp, byDelProjekt.get(id))));
+        return new ProjectTree(head.project(), nodes, unassigned);
+    }
+
+    private Head loadHead(int projectId) {
+        Projekt[] project = new Projekt[1];
+        Map<Integer, DelProjekt> delprojekter = new LinkedHashMap<>();
+        jdbc.query(PROJECT_SQL, rs -> {
+            if (project[0] == null) {
+                project[0] = ProjektRepository.ROW_MAPPER.mapRow(rs, 0);
+            }
+            Integer id = RowSupport.nullableInt(rs, 7);
+            if (id != null) {
+                DelProjekt dp = new DelProjekt();
+                dp.setDelProjektId(id);
+                dp.setProjectId(projectId);
+                dp.setName(rs.getString(8));
+                dp.setDescription(rs.getString(9));
+                delprojekter.put(id, dp);
+            }
+        }, projectId);
+        return new Head(project[0], delprojekter);
+    }
+
+    private List<OpgaveNode> loadOpgaver(int projectId) {
+        return jdbc.query(OPGAVE_SQL, (rs, rowNum) -> new OpgaveNode(OpgaveRepository.ROW_MAPPER.mapRow(rs, rowNum), rs.getInt(8)),
+                projectId);
+    }
+
+    // The project (null if it does not exist) and its delprojekter by ID
+    private record Head(Projekt project, Map<Integer, DelProjekt> delprojekter) {
+    }
+}
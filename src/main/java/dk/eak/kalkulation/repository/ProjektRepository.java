@@ -2,42 +2,56 @@ package dk.eak.kalkulation.repository;
 
 import dk.eak.kalkulation.model.Projekt;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 
 public class ProjektRepository {
+    private static final String[] READS = {Tables.PROJECT};
+    // project rows cascade to everything below them
+    private static final String[] DELETE_WRITES = {Tables.PROJECT, Tables.DELPROJEKT, Tables.OPGAVE,
+            Tables.TIME_ENTRY, Tables.OPGAVE_HOURS, Tables.DELPROJEKT_HOURS, Tables.PROJECT_HOURS,
+            Tables.OPGAVE_DEPENDENCY};
+    // Column order read by ROW_MAPPER
+    static final String COLUMNS = "project_id, name, description, start_date, end_date, calendar_id";
+    static final RowMapper<Projekt> ROW_MAPPER = (rs, rowNum) -> {
+        Projekt p = new Projekt();
+        p.setProjectId(rs.getInt(1));
+        p.setName(rs.getString(2));
+        p.setDescription(rs.getString(3));
+        p.setStartDate(RowSupport.date(rs, 4));
+        p.setEndDate(RowSupport.date(rs, 5));
+        p.setCalendarId(rs.getString(6));
+        return p;
+    };
+
+    private static final String INSERT_SQL =
+            "INSERT INTO project (name, description, start_date, end_date, calendar_id) VALUES (?, ?, ?, ?, ?)";
+    private static final String UPDATE_SQL =
+            "UPDATE project SET name = ?, description = ?, start_date = ?, end_date = ?, calendar_id = ? WHERE project_id = ?";
+
     private final JdbcTemplate jdbc;
+    private final QueryCache cache;
 
-    public ProjektRepository(JdbcTemplate jdbc) {
+    public ProjektRepository(JdbcTemplate jdbc, QueryCache cache) {
         this.jdbc = jdbc;
+        this.cache = cache;
     }
 
-    // 1. CREATE
+    // 1. CREATE (sets the generated ID on the projekt)
     public void create(Projekt projekt) {
-        String sql = "INSERT INTO project (name, description, start_date, end_date) VALUES (?, ?, ?, ?)";
-        jdbc.update(sql,
-                projekt.getName(),
-                projekt.getDescription(),
-                projekt.getStartDate(),
-                projekt.getEndDate()
-        );
+        createAll(List.of(projekt));
     }
 
     // 2. GET ALL
     public List<Projekt> getAll() {
-        String sql = "SELECT * FROM project";
-        return jdbc.query(sql, (rs, rowNum) -> {
-            Projekt p = new Projekt();
-            p.setProjectId(rs.getInt("project_id"));
-            p.setName(rs.getString("name"));
-            p.setDescription(rs.getString("description"));
-            p.setStartDate(rs.getDate("start_date") != null ? rs.getDate("start_date").toLocalDate() : null);
-            p.setEndDate(rs.getDate("end_date") != null ? rs.getDate("end_date").toLocalDate() : null);
-            return p;
-        });
+        String sql = "SELECT " + COLUMNS + " FROM project";
+        return cache.get(sql, new Object[0], READS, QueryCache.listOf(Projekt::copy),
+                () -> jdbc.query(sql, ROW_MAPPER));
     }
 
     // 3. GET BY ID
@@ -47,30 +61,78 @@ public class ProjektRepository {
 
     // 4. UPDATE
     public void update(Projekt p) {
-        String sql = "UPDATE project SET name = ?, description = ?, start_date = ?, end_date = ? WHERE project_id = ?";
-        jdbc.update(sql,
+        jdbc.update(UPDATE_SQL,
                 p.getName(),
                 p.getDescription(),
                 p.getStartDate(),
                 p.getEndDate(),
+                p.getCalendarId(),
                 p.getProjectId());
+        cache.invalidate(READS);
     }
 
     // 5. DELETE
     public void delete(int id) {
         String sql = "DELETE FROM project WHERE project_id = ?";
         jdbc.update(sql, id);
+        cache.invalidate(DELETE_WRITES);
+    }
+
+    // 6. BATCH CREATE, returns generated IDs in input order
+    public int[] createAll(List<Projekt> projekter) {
+        if (projekter.isEmpty()) {
+            return new int[0];
+        }
+        int[] ids = BatchSupport.insert(jdbc, INSERT_SQL, "project_id", projekter, (ps, p) -> {
+            ps.setString(1, p.getName());
+            ps.setString(2, p.getDescription());
+            BatchSupport.setDate(ps, 3, p.getStartDate());
+            BatchSupport.setDate(ps, 4, p.getEndDate());
+            ps.setString(5, p.getCalendarId());
+        });
+        for (int i = 0; i < ids.length; i++) {
+            projekter.get(i).setProjectId(ids[i]);
+        }
+        cache.invalidate(READS);
+        return ids;
+    }
+
+    // 7. BATCH UPDATE
+    public void updateAll(List<Projekt> projekter) {
+        if (projekter.isEmpty()) {
+            return;
+        }
+        BatchSupport.update(jdbc, UPDATE_SQL, projekter, (ps, p) -> {
+            ps.setString(1, p.getName());
+            ps.setString(2, p.getDescription());
+            BatchSupport.setDate(ps, 3, p.getStartDate());
+            BatchSupport.setDate(ps, 4, p.getEndDate());
+            ps.setString(5, p.getCalendarId());
+            ps.setInt(6, p.getProjectId());
+        });
+        cache.invalidate(READS);
+    }
+
+    // 8. BATCH DELETE
+    public void deleteAll(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        BatchSupport.deleteByIds(jdbc, "project", "project_id", ids);
+        cache.invalidate(DELETE_WRITES);
     }
 
     public Projekt findById(int projectId) {
-        String sql = "SELECT * FROM project WHERE project_id = ?";
-        return jdbc.queryForObject(sql, (rs, rowNum) -> {
-            Projekt p = new Projekt();
-            p.setProjectId(rs.getInt("project_id"));
-            p.setName(rs.getString("name"));
-            p.setDescription(rs.getString("description"));
-            p.setStartDate(rs.getDate("start_date") != null ? rs.getDate("start_date").toLocalDate() : null);
-            p.setEndDate(rs.getDate("end_date") != null ? rs.getDate("end_date").toLocalDate() : null);
-            return p;
-        }, projectId);
-    }}
+        String sql = "SELECT " + COLUMNS + " FROM project WHERE project_id = ?";
+        return cache.get(sql, new Object[]{projectId}, READS, Projekt::copy,
+                () -> jdbc.queryForObject(sql, ROW_MAPPER, projectId));
+    }
+
+    // 9. KEYSET PAGE ordered by project_id; lastId 0 gives the first page
+    public List<Projekt> findAfter(int lastId, int limit) {
+        String sql = "SELECT " + COLUMNS + " FROM project WHERE project_id > ? ORDER BY project_id LIMIT ?";
+        return cache.get(sql, new Object[]{lastId, limit}, READS, QueryCache.listOf(Projekt::copy),
+                () -> jdbc.query(sql, ROW_MAPPER, lastId, limit));
+    }
+}
+
@@ -0,0 +1,224 @@
+package dk.eak.kalkulation.repository;
+
+import dk.eak.kalkulation.datasource.ReplicaContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Bounded LRU cache for repository query results.
+ * <p>
+ * Entries are keyed by SQL and parameters and tagged with the tables the query
+ * reads. Every table has a generation counter; a write bumps the counters of the
+ * tables it touches, and an entry whose tag generations are out of date counts
+ * as a miss. A write to time_entry therefore never evicts project queries.
+ * <p>
+ * Model objects are mutable, so results are copied on the way in and out.
+ * <p>
+ * With a read replica, a result read from the replica is not stored while one
+ * of its tables was written less than the replica lag ago: the replica may not
+ * have the write yet, and the entry would look current.
+ */
+@Component
+public class QueryCache {
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> lastWrites = new ConcurrentHashMap<>();
+    private volatile long replicaLagNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Key, Entry> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public QueryCache(@Value("${kalkulation.cache.enabled:true}") boolean enabled,
+                      @Value("${kalkulation.cache.max-entries:10000}") int maxEntries) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > QueryCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Get a cached result or load it.
+     *
+     * @param sql the query, used as part of the key
+     * @param params the query parameters
+     * @param tables the tables the query reads
+     * @param copier copies a result so callers cannot change the cached value
+     * @param loader runs the query
+     * @return a copy of the cached or loaded result
+     */
+    public <T> T get(String sql, Object[] params, String[] tables, UnaryOperator<T> copier, Supplier<T> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Key key = new Key(sql, Arrays.asList(params.clone()));
+        long[] current = currentGenerations(tables);
+
+        lock.lock();
+        try {
+            Entry e = entries.get(key);
+            if (e != null && Arrays.equals(e.generations, current)) {
+                hits.increment();
+                @SuppressWarnings("unchecked")
+                T value = (T) e.value;
+                return copier.apply(value);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        misses.increment();
+        // generations were read before the query, so a concurrent write marks this entry stale
+        T value = loader.get();
+        if (ReplicaContext.isOnReplica() && writtenWithinLag(tables)) {
+            return value;
+        }
+        lock.lock();
+        try {
+            entries.put(key, new Entry(copier.apply(value), current));
+        } finally {
+            lock.unlock();
+        }
+        return value;
+    }
+
+    /**
+     * Mark every cached query that reads one of the tables as stale.
+     * Inside a transaction the tables are invalidated again after it completes,
+     * so readers cannot cache rows that were not committed yet.
+     *
+     * @param tables the written tables
+     */
+    public void invalidate(String... tables) {
+        bump(tables);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    bump(tables);
+                }
+            });
+        }
+    }
+
+    /**
+     * How far a read replica may lag behind the primary; 0 (the default) when
+     * there is no replica.
+     */
+    public void setReplicaLagMillis(long millis) {
+        this.replicaLagNanos = TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    /** Drop all entries. */
+    public void clear() {
+        lock.lock();
+        try {
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Long> stats() {
+        lock.lock();
+        int size;
+        try {
+            size = entries.size();
+        } finally {
+            lock.unlock();
+        }
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("size", (long) size);
+        stats.put("maxEntries", (long) maxEntries);
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("evictions", evictions.sum());
+        stats.put("invalidations", invalidations.sum());
+        return stats;
+    }
+
+    /**
+     * Copy every element of a list.
+     */
+    public static <T> UnaryOperator<List<T>> listOf(Function<T, T> copier) {
+        return list -> {
+            List<T> copy = new ArrayList<>(list.size());
+            for (T t : list) {
+                copy.add(copier.apply(t));
+            }
+            return copy;
+        };
+    }
+
+    // ===== helpers =====
+    private void bump(String[] tables) {
+        long now = System.nanoTime();
+        for (String t : tables) {
+            generation(t).incrementAndGet();
+            lastWrites.computeIfAbsent(t, k -> new AtomicLong()).set(now);
+            invalidations.increment();
+        }
+    }
+
+    private boolean writtenWithinLag(String[] tables) {
+        long lag = replicaLagNanos;
+        if (lag == 0) {
+            return false;
+        }
+        long now = System.nanoTime();
+        for (String t : tables) {
+            AtomicLong last = lastWrites.get(t);
+            if (last != null && now - last.get() < lag) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long[] currentGenerations(String[] tables) {
+        long[] gens = new long[tables.length];
+        for (int i = 0; i < tables.length; i++) {
+            gens[i] = generation(tables[i]).get();
+        }
+        return gens;
+    }
+
+    private AtomicLong generation(String table) {
+        return generations.computeIfAbsent(table, t -> new AtomicLong());
+    }
+
+    private record Key(String sql, List<Object> params) {
+    }
+
+    private record Entry(Object value, long[] generations) {
+    }
+}
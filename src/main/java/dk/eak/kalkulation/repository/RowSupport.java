@@ -0,0 +1,27 @@
+package dk.eak.kalkulation.repository;
+
+import dk.eak.kalkulation.util.DateCache;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+/**
+ * Column readers for the row mappers. Each repository selects an explicit
+ * column list and its mapper reads by index, so no column name is resolved per row.
+ */
+final class RowSupport {
+
+    private RowSupport() {
+    }
+
+    // Read as LocalDate directly (no java.sql.Date in between) and share the instance
+    static LocalDate date(ResultSet rs, int column) throws SQLException {
+        return DateCache.of(rs.getObject(column, LocalDate.class));
+    }
+
+    static Integer nullableInt(ResultSet rs, int column) throws SQLException {
+        int v = rs.getInt(column);
+        return rs.wasNull() ? null : v;
+    }
+}
@@ -0,0 +1,19 @@
+package dk.eak.kalkulation.repository;
+
+/**
+ * Table names used to tag cached queries.
+ */
+public final class Tables {
+
+    public static final String PROJECT = "project";
+    public static final String DELPROJEKT = "delprojekt";
+    public static final String OPGAVE = "opgave";
+    public static final String TIME_ENTRY = "time_entry";
+    public static final String OPGAVE_DEPENDENCY = "opgave_dependency";
+    public static final String OPGAVE_HOURS = "opgave_hours";
+    public static final String DELPROJEKT_HOURS = "delprojekt_hours";
+    public static final String PROJECT_HOURS = "project_hours";
+
+    private Tables() {
+    }
+}
@@ -1,26 +1,76 @@
 package dk.eak.kalkulation.repository;
 
 import dk.eak.kalkulation.model.TimeEntry;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
 import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Repository
 public class TimeEntryRepository {
+    private static final String[] READS = {Tables.TIME_ENTRY};
+    private static final String[] SUM_READS = {Tables.TIME_ENTRY, Tables.OPGAVE};
+
+    // Column order read by ROW_MAPPER
+    static final String COLUMNS = "time_entry_id, opgave_id, work_date, hours";
+    static final RowMapper<TimeEntry> ROW_MAPPER = (rs, rowNum) -> {
+        TimeEntry t = new TimeEntry();
+        t.setTimeEntryId(rs.getInt(1));
+        t.setOpgaveId(rs.getInt(2));
+        t.setWorkDate(RowSupport.date(rs, 3));
+        t.setHours(rs.getInt(4));
+        return t;
+    };
+
+    private static final String INSERT_SQL = "INSERT INTO time_entry (opgave_id, work_date, hours, idempotency_key) VALUES (?,?,?,?)";
+    private static final String IMPORT_SQL = "INSERT INTO time_entry (opgave_id, work_date, hours) VALUES (?,?,?)";
+    private static final String UPDATE_SQL = "UPDATE time_entry SET opgave_id = ?, work_date = ?, hours = ? WHERE time_entry_id = ?";
+
     private final JdbcTemplate jdbc;
+    private final QueryCache cache;
 
-    public TimeEntryRepository(JdbcTemplate jdbc) { this.jdbc = jdbc; }
+    public TimeEntryRepository(JdbcTemplate jdbc, QueryCache cache) {
+        this.jdbc = jdbc;
+        this.cache = cache;
+    }
 
     public List<TimeEntry> findByOpgaveId(int opgaveId) {
-        String sql = "SELECT * FROM time_entry WHERE opgave_id = ? ORDER BY work_date, time_entry_id";
-        return jdbc.query(sql, (rs, rn) -> mapTimeEntry(rs), opgaveId);
+        String sql = "SELECT " + COLUMNS + " FROM time_entry WHERE opgave_id = ? ORDER BY work_date, time_entry_id";
+        return cache.get(sql, new Object[]{opgaveId}, READS, QueryCache.listOf(TimeEntry::copy),
+                () -> jdbc.query(sql, ROW_MAPPER, opgaveId));
+    }
+
+    // Keyset page ordered by (work_date, time_entry_id); lastWorkDate null gives the first page.
+    // Seeks through idx_time_entry_opgave_date, so a late page costs the same as the first.
+    public List<TimeEntry> findByOpgaveIdAfter(int opgaveId, LocalDate lastWorkDate, int lastId, int limit) {
+        if (lastWorkDate == null) {
+            String sql = "SELECT " + COLUMNS + " FROM time_entry WHERE opgave_id = ? ORDER BY work_date, time_entry_id LIMIT ?";
+            return cache.get(sql, new Object[]{opgaveId, limit}, READS, QueryCache.listOf(TimeEntry::copy),
+                    () -> jdbc.query(sql, ROW_MAPPER, opgaveId, limit));
+        }
+        String sql = "SELECT " + COLUMNS + " FROM time_entry WHERE opgave_id = ?"
+                + " AND (work_date > ? OR (work_date = ? AND time_entry_id > ?))"
+                + " ORDER BY work_date, time_entry_id LIMIT ?";
+        Date last = Date.valueOf(lastWorkDate);
+        return cache.get(sql, new Object[]{opgaveId, last, lastId, limit}, READS, QueryCache.listOf(TimeEntry::copy),
+                () -> jdbc.query(sql, ROW_MAPPER, opgaveId, last, last, lastId, limit));
     }
 
     public TimeEntry findById(int timeEntryId) {
-        String sql = "SELECT * FROM time_entry WHERE time_entry_id = ?";
-        return jdbc.queryForObject(sql, (rs, rn) -> mapTimeEntry(rs), timeEntryId);
+        String sql = "SELECT " + COLUMNS + " FROM time_entry WHERE time_entry_id = ?";
+        return cache.get(sql, new Object[]{timeEntryId}, READS, TimeEntry::copy,
+                () -> jdbc.queryForObject(sql, ROW_MAPPER, timeEntryId));
     }
 
     public int sumHoursByProjektId(int projektId) {
@@ -30,32 +80,151 @@ public class TimeEntryRepository {
           JOIN opgave o ON o.opgave_id = te.opgave_id
           WHERE o.project_id = ?
         """;
-        Integer v = jdbc.queryForObject(sql, Integer.class, projektId);
+        Integer v = cache.get(sql, new Object[]{projektId}, SUM_READS, i -> i,
+                () -> jdbc.queryForObject(sql, Integer.class, projektId));
         return v == null ? 0 : v;
     }
 
+    // Streams registered hours per day for a project, ordered by date, one row per day
+    public void forEachDailyTotal(int projektId, DailyHours consumer) {
+        String sql = """
+          SELECT te.work_date, SUM(te.hours) AS total
+          FROM time_entry te
+          JOIN opgave o ON o.opgave_id = te.opgave_id
+          WHERE o.project_id = ?
+          GROUP BY te.work_date
+          ORDER BY te.work_date
+        """;
+        jdbc.query(sql, rs -> {
+            consumer.accept(rs.getObject(1, LocalDate.class).toEpochDay(), rs.getInt(2));
+        }, projektId);
+    }
+
+    @FunctionalInterface
+    public interface DailyHours {
+        void accept(long epochDay, int hours);
+    }
+
+    // Uncached: used by batch writes to load the rows before changing them
+    public List<TimeEntry> findByIds(Collection<Integer> ids) {
+        List<Integer> all = new ArrayList<>(ids);
+        List<TimeEntry> result = new ArrayList<>(all.size());
+        for (int from = 0; from < all.size(); from += BatchSupport.CHUNK_SIZE) {
+            List<Integer> chunk = all.subList(from, Math.min(from + BatchSupport.CHUNK_SIZE, all.size()));
+            String sql = "SELECT " + COLUMNS + " FROM time_entry WHERE time_entry_id IN (" + BatchSupport.placeholders(chunk.size()) + ")";
+            result.addAll(jdbc.query(sql, ROW_MAPPER, chunk.toArray()));
+        }
+        return result;
+    }
+
+    // Uncached: IDs of the entries created with these keys; a key without a row is left out.
+    // Seeks through uq_time_entry_idempotency_key.
+    public Map<String, Integer> findIdsByIdempotencyKeys(Collection<String> keys) {
+        List<String> all = new ArrayList<>(keys);
+        Map<String, Integer> result = new HashMap<>();
+        for (int from = 0; from < all.size(); from += BatchSupport.CHUNK_SIZE) {
+            List<String> chunk = all.subList(from, Math.min(from + BatchSupport.CHUNK_SIZE, all.size()));
+            String sql = "SELECT idempotency_key, time_entry_id FROM time_entry WHERE idempotency_key IN ("
+                    + BatchSupport.placeholders(chunk.size()) + ")";
+            jdbc.query(sql, rs -> {
+                result.put(rs.getString(1), rs.getInt(2));
+            }, chunk.toArray());
+        }
+        return result;
+    }
+
+    // The newest keys and their IDs, oldest first; for warming the recent-keys window
+    public Map<String, Integer> findRecentIdempotencyKeys(int limit) {
+        String sql = """
+          SELECT idempotency_key, time_entry_id
+          FROM time_entry
+          WHERE idempotency_key IS NOT NULL
+          ORDER BY time_entry_id DESC
+          LIMIT ?
+        """;
+        List<Map.Entry<String, Integer>> newestFirst = jdbc.query(sql,
+                (rs, rowNum) -> Map.entry(rs.getString(1), rs.getInt(2)), limit);
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (int i = newestFirst.size() - 1; i >= 0; i--) {
+            result.put(newestFirst.get(i).getKey(), newestFirst.get(i).getValue());
+        }
+        return result;
+    }
+
+    // Sets the generated ID on the time entry
     public void create(TimeEntry t) {
-        String sql = "INSERT INTO time_entry (opgave_id, work_date, hours) VALUES (?,?,?)";
-        jdbc.update(sql, t.getOpgaveId(), Date.valueOf(t.getWorkDate()), t.getHours());
+        createAll(List.of(t));
     }
 
     public void update(TimeEntry t) {
-        String sql = "UPDATE time_entry SET opgave_id = ?, work_date = ?, hours = ? WHERE time_entry_id = ?";
-        jdbc.update(sql, t.getOpgaveId(), Date.valueOf(t.getWorkDate()), t.getHours(), t.getTimeEntryId());
+        jdbc.update(UPDATE_SQL, t.getOpgaveId(), Date.valueOf(t.getWorkDate()), t.getHours(), t.getTimeEntryId());
+        cache.invalidate(READS);
     }
 
     public void delete(int timeEntryId) {
         jdbc.update("DELETE FROM time_entry WHERE time_entry_id = ?", timeEntryId);
+        cache.invalidate(READS);
     }
 
-    // Helper method to map ResultSet to TimeEntry
-    private TimeEntry mapTimeEntry(java.sql.ResultSet rs) throws java.sql.SQLException {
-        TimeEntry t = new TimeEntry();
-        t.setTimeEntryId(rs.getInt("time_entry_id"));
-        t.setOpgaveId(rs.getInt("opgave_id"));
-        t.setWorkDate(rs.getDate("work_date").toLocalDate());
-        t.setHours(rs.getInt("hours"));
-        return t;
+    // Returns generated IDs in input order
+    public int[] createAll(List<TimeEntry> entries) {
+        if (entries.isEmpty()) {
+            return new int[0];
+        }
+        int[] ids = BatchSupport.insert(jdbc, INSERT_SQL, "time_entry_id", entries, (ps, t) -> {
+            BatchSupport.setInt(ps, 1, t.getOpgaveId());
+            BatchSupport.setDate(ps, 2, t.getWorkDate());
+            BatchSupport.setInt(ps, 3, t.getHours());
+            BatchSupport.setString(ps, 4, t.getIdempotencyKey());
+        });
+        for (int i = 0; i < ids.length; i++) {
+            entries.get(i).setTimeEntryId(ids[i]);
+        }
+        cache.invalidate(READS);
+        return ids;
+    }
+
+    public void updateAll(List<TimeEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        BatchSupport.update(jdbc, UPDATE_SQL, entries, (ps, t) -> {
+            BatchSupport.setInt(ps, 1, t.getOpgaveId());
+            BatchSupport.setDate(ps, 2, t.getWorkDate());
+            BatchSupport.setInt(ps, 3, t.getHours());
+            BatchSupport.setInt(ps, 4, t.getTimeEntryId());
+        });
+        cache.invalidate(READS);
+    }
+
+    public void deleteAll(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        BatchSupport.deleteByIds(jdbc, "time_entry", "time_entry_id", ids);
+        cache.invalidate(READS);
+    }
+
+    // Bulk import: rows in primitive columns, no generated keys. Hour rollups are not touched;
+    // the caller rebuilds them when the import is done.
+    public void insertRows(int[] opgaveIds, int[] epochDays, int[] hours, int count) {
+        if (count == 0) {
+            return;
+        }
+        jdbc.batchUpdate(IMPORT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setInt(1, opgaveIds[i]);
+                ps.setDate(2, Date.valueOf(LocalDate.ofEpochDay(epochDays[i])));
+                ps.setInt(3, hours[i]);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return count;
+            }
+        });
+        cache.invalidate(READS);
     }
 }
 
@@ -0,0 +1,76 @@
+package dk.eak.kalkulation.scenario;
+
+import dk.eak.kalkulation.model.Projekt;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable copy of one project's Projekt, DelProjekt and Opgave rows plus the
+ * registered hours per opgave. Loaded once from the database and shared by every
+ * {@link Scenario} built on it.
+ */
+public final class ProjectSnapshot {
+
+    private final int projectId;
+    private final String name;
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final String calendarId;
+    private final Map<Integer, String> delProjektNames;
+    private final TaskNode[] tasks;
+    private final int[] ids;
+
+    public ProjectSnapshot(Projekt projekt, Map<Integer, String> delProjektNames, List<TaskNode> tasks) {
+        this.projectId = projekt.getProjectId();
+        this.name = projekt.getName();
+        this.startDate = projekt.getStartDate();
+        this.endDate = projekt.getEndDate();
+        this.calendarId = projekt.getCalendarId();
+        this.delProjektNames = Map.copyOf(delProjektNames);
+        this.tasks = tasks.toArray(new TaskNode[0]);
+        Arrays.sort(this.tasks, Comparator.comparingInt(TaskNode::getOpgaveId));
+        this.ids = new int[this.tasks.length];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = this.tasks[i].getOpgaveId();
+        }
+    }
+
+    public int getProjectId() { return projectId; }
+
+    public String getName() { return name; }
+
+    public LocalDate getStartDate() { return startDate; }
+
+    public LocalDate getEndDate() { return endDate; }
+
+    public String getCalendarId() { return calendarId; }
+
+    public Map<Integer, String> getDelProjektNames() { return delProjektNames; }
+
+    public int size() { return tasks.length; }
+
+    /** Opgaver ordered by ID; the list cannot be modified. */
+    public List<TaskNode> tasks() {
+        return Collections.unmodifiableList(Arrays.asList(tasks));
+    }
+
+    TaskNode taskAt(int index) {
+        return tasks[index];
+    }
+
+    /**
+     * Look up an opgave by ID.
+     *
+     * @param opgaveId the opgave ID
+     * @return the node, or null if the opgave is not in this project
+     */
+    public TaskNode task(int opgaveId) {
+        int i = Arrays.binarySearch(ids, opgaveId);
+        return i >= 0 ? tasks[i] : null;
+    }
+}
@@ -0,0 +1,227 @@
+package dk.eak.kalkulation.scenario;
+
+import dk.eak.kalkulation.calendar.WorkCalendar;
+import dk.eak.kalkulation.model.ProjectMetrics;
+import dk.eak.kalkulation.model.Projekt;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What-if view of a {@link ProjectSnapshot}.
+ * <p>
+ * A scenario is immutable: every edit returns a new scenario holding the shared
+ * snapshot plus a small overlay of changed opgaver and project dates. Unchanged
+ * opgaver are never copied, so many scenarios of the same project cost little
+ * more than their edits. Evaluation reads only memory.
+ */
+public final class Scenario {
+
+    private final ProjectSnapshot base;
+    private final Map<Integer, TaskNode> changed;
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final List<String> edits;
+
+    private Scenario(ProjectSnapshot base, Map<Integer, TaskNode> changed,
+                     LocalDate startDate, LocalDate endDate, List<String> edits) {
+        this.base = base;
+        this.changed = changed;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.edits = edits;
+    }
+
+    /**
+     * Start a scenario with no edits.
+     *
+     * @param base the loaded project
+     * @return scenario equal to the base
+     */
+    public static Scenario of(ProjectSnapshot base) {
+        return new Scenario(base, Map.of(), base.getStartDate(), base.getEndDate(), List.of());
+    }
+
+    /**
+     * Set the estimate of one opgave.
+     *
+     * @param opgaveId the opgave ID
+     * @param hours new estimate
+     * @return new scenario
+     */
+    public Scenario withEstimatedHours(int opgaveId, int hours) {
+        if (hours < 0) {
+            throw new IllegalArgumentException("Estimated hours must be non-negative");
+        }
+        TaskNode t = require(opgaveId);
+        return withTask(t.withEstimatedHours(hours), "Opgave " + opgaveId + " estimate " + hours + " h");
+    }
+
+    /**
+     * Change the estimate of one opgave by a percentage.
+     *
+     * @param opgaveId the opgave ID
+     * @param percent change in percent, e.g. -20 for 20% less
+     * @return new scenario
+     */
+    public Scenario scaleEstimate(int opgaveId, double percent) {
+        TaskNode t = require(opgaveId);
+        return withTask(t.withEstimatedHours(scale(t.getEstimatedHours(), percent)),
+                "Opgave " + opgaveId + " estimate " + signed(percent) + "%");
+    }
+
+    /**
+     * Change the estimate of every opgave in a delprojekt by a percentage.
+     *
+     * @param delProjektId the delprojekt ID
+     * @param percent change in percent
+     * @return new scenario
+     */
+    public Scenario scaleDelProjekt(int delProjektId, double percent) {
+        if (!base.getDelProjektNames().containsKey(delProjektId)) {
+            throw new IllegalArgumentException("DelProjekt " + delProjektId + " is not in the project");
+        }
+        Map<Integer, TaskNode> next = new HashMap<>(changed);
+        for (int i = 0; i < base.size(); i++) {
+            TaskNode t = task(base.taskAt(i).getOpgaveId());
+            if (!t.isRemoved() && Integer.valueOf(delProjektId).equals(t.getDelProjektId())) {
+                next.put(t.getOpgaveId(), t.withEstimatedHours(scale(t.getEstimatedHours(), percent)));
+            }
+        }
+        return new Scenario(base, Collections.unmodifiableMap(next), startDate, endDate,
+                append("DelProjekt " + delProjektId + " estimates " + signed(percent) + "%"));
+    }
+
+    /**
+     * Leave one opgave out of the project.
+     *
+     * @param opgaveId the opgave ID
+     * @return new scenario
+     */
+    public Scenario withoutOpgave(int opgaveId) {
+        return withTask(require(opgaveId).asRemoved(), "Opgave " + opgaveId + " removed");
+    }
+
+    /**
+     * Move the project end date.
+     *
+     * @param date new end date
+     * @return new scenario
+     */
+    public Scenario withEndDate(LocalDate date) {
+        if (date == null) {
+            throw new IllegalArgumentException("End date cannot be null");
+        }
+        if (startDate != null && date.isBefore(startDate)) {
+            throw new IllegalArgumentException("End date cannot be before start date");
+        }
+        return new Scenario(base, changed, startDate, date, append("End date " + date));
+    }
+
+    /**
+     * Move the project end date by a number of calendar days.
+     *
+     * @param days days to add, negative to move it earlier
+     * @return new scenario
+     */
+    public Scenario shiftEndDate(int days) {
+        if (endDate == null) {
+            throw new IllegalArgumentException("Project has no end date");
+        }
+        return withEndDate(endDate.plusDays(days));
+    }
+
+    /**
+     * Current version of an opgave in this scenario.
+     *
+     * @param opgaveId the opgave ID
+     * @return the node, or null if it is not in the project
+     */
+    public TaskNode task(int opgaveId) {
+        TaskNode t = changed.get(opgaveId);
+        return t != null ? t : base.task(opgaveId);
+    }
+
+    /**
+     * Run the project formulas against this scenario.
+     *
+     * @param calendar the project's work calendar
+     * @return metrics as {@code CalculationService} would compute them for the edited data
+     */
+    public ProjectMetrics evaluate(WorkCalendar calendar) {
+        int estimated = 0;
+        int registered = 0;
+        for (int i = 0; i < base.size(); i++) {
+            TaskNode t = base.taskAt(i);
+            TaskNode c = changed.get(t.getOpgaveId());
+            if (c != null) {
+                t = c;
+            }
+            if (t.isRemoved()) {
+                continue;
+            }
+            estimated += t.getEstimatedHours();
+            registered += t.getRegisteredHours();
+        }
+        return new ProjectMetrics(toProjekt(), estimated, registered,
+                calendar.workingDaysBetween(startDate, endDate));
+    }
+
+    /** The project row with the scenario's dates. */
+    public Projekt toProjekt() {
+        Projekt p = new Projekt();
+        p.setProjectId(base.getProjectId());
+        p.setName(base.getName());
+        p.setStartDate(startDate);
+        p.setEndDate(endDate);
+        p.setCalendarId(base.getCalendarId());
+        return p;
+    }
+
+    public ProjectSnapshot getBase() { return base; }
+
+    public LocalDate getStartDate() { return startDate; }
+
+    public LocalDate getEndDate() { return endDate; }
+
+    /** Human readable list of the edits, oldest first. */
+    public List<String> getEdits() { return edits; }
+
+    /** Number of opgaver held in the overlay instead of shared with the snapshot. */
+    public int overlaySize() { return changed.size(); }
+
+    // ===== helpers =====
+    private Scenario withTask(TaskNode t, String edit) {
+        Map<Integer, TaskNode> next = new HashMap<>(changed);
+        next.put(t.getOpgaveId(), t);
+        return new Scenario(base, Collections.unmodifiableMap(next), startDate, endDate, append(edit));
+    }
+
+    private TaskNode require(int opgaveId) {
+        TaskNode t = task(opgaveId);
+        if (t == null || t.isRemoved()) {
+            throw new IllegalArgumentException("Opgave " + opgaveId + " is not in the scenario");
+        }
+        return t;
+    }
+
+    private List<String> append(String edit) {
+        List<String> next = new ArrayList<>(edits.size() + 1);
+        next.addAll(edits);
+        next.add(edit);
+        return Collections.unmodifiableList(next);
+    }
+
+    private static int scale(int hours, double percent) {
+        return (int) Math.max(Math.round(hours * (1 + percent / 100.0)), 0);
+    }
+
+    private static String signed(double percent) {
+        String s = percent == Math.rint(percent) ? String.valueOf((long) percent) : String.valueOf(percent);
+        return percent > 0 ? "+" + s : s;
+    }
+}
@@ -0,0 +1,61 @@
+package dk.eak.kalkulation.scenario;
+
+import java.time.LocalDate;
+
+/**
+ * Immutable opgave in a {@link ProjectSnapshot}, with the hours registered on it
+ * at the time the snapshot was loaded.
+ */
+public final class TaskNode {
+
+    private final int opgaveId;
+    private final Integer delProjektId;
+    private final String name;
+    private final int estimatedHours;
+    private final int registeredHours;
+    private final LocalDate deadline;
+    private final boolean removed;
+
+    public TaskNode(int opgaveId, Integer delProjektId, String name, int estimatedHours,
+                    int registeredHours, LocalDate deadline) {
+        this(opgaveId, delProjektId, name, estimatedHours, registeredHours, deadline, false);
+    }
+
+    private TaskNode(int opgaveId, Integer delProjektId, String name, int estimatedHours,
+                     int registeredHours, LocalDate deadline, boolean removed) {
+        this.opgaveId = opgaveId;
+        this.delProjektId = delProjektId;
+        this.name = name;
+        this.estimatedHours = estimatedHours;
+        this.registeredHours = registeredHours;
+        this.deadline = deadline;
+        this.removed = removed;
+    }
+
+    public TaskNode withEstimatedHours(int hours) {
+        return new TaskNode(opgaveId, delProjektId, name, hours, registeredHours, deadline, removed);
+    }
+
+    public TaskNode withDeadline(LocalDate date) {
+        return new TaskNode(opgaveId, delProjektId, name, estimatedHours, registeredHours, date, removed);
+    }
+
+    /** Tombstone used by a scenario to drop the opgave. */
+    public TaskNode asRemoved() {
+        return new TaskNode(opgaveId, delProjektId, name, estimatedHours, registeredHours, deadline, true);
+    }
+
+    public int getOpgaveId() { return opgaveId; }
+
+    public Integer getDelProjektId() { return delProjektId; }
+
+    public String getName() { return name; }
+
+    public int getEstimatedHours() { return estimatedHours; }
+
+    public int getRegisteredHours() { return registeredHours; }
+
+    public LocalDate getDeadline() { return deadline; }
+
+    public boolean isRemoved() { return removed; }
+}
@@ -0,0 +1,223 @@
+package dk.eak.kalkulation.schedule;
+
+import java.util.Arrays;
+
+/**
+ * Levels the remaining hours of many tasks onto a fixed daily capacity.
+ * <p>
+ * Days are working-day offsets from the planning start. Two profiles are built:
+ * <ul>
+ *   <li>required: every task spread evenly from its release day up to its deadline,
+ *       accumulated with a difference array. Days above capacity are hotspots.</li>
+ *   <li>planned: day by day, released tasks are served earliest deadline first from a
+ *       primitive binary heap until the day's capacity is used. Hours done after a
+ *       task's deadline are counted as late.</li>
+ * </ul>
+ * Both passes are O(days + tasks log tasks).
+ */
+public final class CapacityPlanner {
+
+    /** Deadline value for tasks without a deadline; they are served last. */
+    public static final int NO_DEADLINE = Integer.MAX_VALUE;
+
+    private static final double EPSILON = 1e-9;
+
+    private CapacityPlanner() {
+    }
+
+    /**
+     * Level tasks onto a daily capacity.
+     *
+     * @param release first working day each task may be worked on
+     * @param deadline working day offset by which each task must be done (exclusive),
+     *                 or {@link #NO_DEADLINE}
+     * @param hours remaining hours per task
+     * @param capacityPerDay hours available per working day, must be positive
+     * @param maxDays upper bound for the planning horizon
+     * @return the load profiles
+     */
+    public static Result level(int[] release, int[] deadline, int[] hours, double capacityPerDay, int maxDays) {
+        int n = release.length;
+        if (deadline.length != n || hours.length != n) {
+            throw new IllegalArgumentException("Release, deadline and hours must have the same length");
+        }
+        if (capacityPerDay <= 0) {
+            throw new IllegalArgumentException("Capacity per day must be positive");
+        }
+
+        long total = 0;
+        int lastRelease = 0;
+        int lastDeadline = 0;
+        for (int t = 0; t < n; t++) {
+            total += hours[t];
+            lastRelease = Math.max(lastRelease, release[t]);
+            if (deadline[t] != NO_DEADLINE) {
+                lastDeadline = Math.max(lastDeadline, deadline[t]);
+            }
+        }
+        long needed = lastRelease + (long) Math.ceil(total / capacityPerDay) + 1;
+        int days = (int) Math.min(Math.max(needed, lastDeadline), maxDays);
+
+        double[] required = required(release, deadline, hours, days);
+        double[] planned = new double[days];
+        double[] late = new double[days];
+        int[] finish = new int[n];
+        Arrays.fill(finish, -1);
+
+        // tasks bucketed by release day (counting sort)
+        int[] start = new int[days + 1];
+        for (int t = 0; t < n; t++) {
+            start[Math.min(release[t], days - 1) + 1]++;
+        }
+        for (int d = 0; d < days; d++) {
+            start[d + 1] += start[d];
+        }
+        int[] byRelease = new int[n];
+        int[] fill = new int[days];
+        for (int t = 0; t < n; t++) {
+            int d = Math.min(release[t], days - 1);
+            byRelease[start[d] + fill[d]++] = t;
+        }
+
+        double[] left = new double[n];
+        for (int t = 0; t < n; t++) {
+            left[t] = hours[t];
+        }
+        DeadlineHeap heap = new DeadlineHeap(deadline, n);
+        for (int d = 0; d < days; d++) {
+            for (int k = start[d]; k < start[d + 1]; k++) {
+                int t = byRelease[k];
+                if (left[t] > EPSILON) {
+                    heap.push(t);
+                } else {
+                    finish[t] = d;
+                }
+            }
+            double cap = capacityPerDay;
+            while (cap > EPSILON && !heap.isEmpty()) {
+                int t = heap.peek();
+                double take = Math.min(cap, left[t]);
+                left[t] -= take;
+                cap -= take;
+                planned[d] += take;
+                if (d >= deadline[t]) {
+                    late[d] += take;
+                }
+                if (left[t] <= EPSILON) {
+                    heap.pop();
+                    finish[t] = d + 1;
+                }
+            }
+        }
+        return new Result(required, planned, late, finish);
+    }
+
+    // Even spread from release to deadline via a difference array; overdue tasks land on their release day
+    private static double[] required(int[] release, int[] deadline, int[] hours, int days) {
+        double[] diff = new double[days + 1];
+        for (int t = 0; t < release.length; t++) {
+            if (deadline[t] == NO_DEADLINE || release[t] >= days) {
+                continue;
+            }
+            int from = release[t];
+            int to = Math.min(Math.max(deadline[t], from + 1), days);
+            double perDay = hours[t] / (double) (Math.max(deadline[t], from + 1) - from);
+            diff[from] += perDay;
+            diff[to] -= perDay;
+        }
+        double[] required = new double[days];
+        double running = 0;
+        for (int d = 0; d < days; d++) {
+            running += diff[d];
+            required[d] = running;
+        }
+        return required;
+    }
+
+    /**
+     * Output of {@link #level}. Arrays are indexed by working-day offset.
+     */
+    public static final class Result {
+        private final double[] required;
+        private final double[] planned;
+        private final double[] late;
+        private final int[] finish;
+
+        Result(double[] required, double[] planned, double[] late, int[] finish) {
+            this.required = required;
+            this.planned = planned;
+            this.late = late;
+            this.finish = finish;
+        }
+
+        public int days() { return required.length; }
+
+        /** Hours needed per day to meet every deadline with an even pace. */
+        public double[] required() { return required; }
+
+        /** Hours done per day when leveled to capacity. */
+        public double[] planned() { return planned; }
+
+        /** Part of the planned hours done after the task's deadline. */
+        public double[] late() { return late; }
+
+        /** Offset after the last day worked per task, -1 if not done within the horizon. */
+        public int[] finish() { return finish; }
+    }
+
+    // Binary min-heap of task indices ordered by deadline, ties by index
+    private static final class DeadlineHeap {
+        private final int[] deadline;
+        private final int[] heap;
+        private int size;
+
+        DeadlineHeap(int[] deadline, int capacity) {
+            this.deadline = deadline;
+            this.heap = new int[Math.max(capacity, 1)];
+        }
+
+        boolean isEmpty() { return size == 0; }
+
+        int peek() { return heap[0]; }
+
+        void push(int t) {
+            int i = size++;
+            heap[i] = t;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!less(heap[i], heap[parent])) {
+                    break;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        void pop() {
+            heap[0] = heap[--size];
+            int i = 0;
+            while (true) {
+                int l = 2 * i + 1;
+                if (l >= size) {
+                    break;
+                }
+                int c = l + 1 < size && less(heap[l + 1], heap[l]) ? l + 1 : l;
+                if (!less(heap[c], heap[i])) {
+                    break;
+                }
+                swap(i, c);
+                i = c;
+            }
+        }
+
+        private boolean less(int a, int b) {
+            return deadline[a] != deadline[b] ? deadline[a] < deadline[b] : a < b;
+        }
+
+        private void swap(int i, int j) {
+            int tmp = heap[i];
+            heap[i] = heap[j];
+            heap[j] = tmp;
+        }
+    }
+}
@@ -0,0 +1,394 @@
+package dk.eak.kalkulation.schedule;
+
+import dk.eak.kalkulation.util.IntIntMap;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Critical path network of the opgaver in one project.
+ * <p>
+ * Times are whole working days counted from the schedule start: a task with
+ * earliest start 2 and duration 3 occupies working days 2, 3 and 4 and has
+ * earliest finish 5. Adjacency is stored in CSR arrays and all passes walk a
+ * precomputed topological order, so a full pass is O(tasks + dependencies).
+ * {@link #update} re-propagates only from the changed task and stops where
+ * values no longer change. Not thread-safe.
+ */
+public final class TaskGraph {
+
+    /** Deadline value for tasks without a deadline. */
+    public static final int NO_DEADLINE = Integer.MAX_VALUE;
+
+    private static final int NONE = -1;
+
+    private final int n;
+    private final int[] ids;
+    private final IntIntMap index;
+    private final int[] succStart;
+    private final int[] succ;
+    private final int[] predStart;
+    private final int[] pred;
+    private final int[] topoPos;
+    private final int[] topo;
+    private final int[] duration;
+    private final int[] deadline;
+    private final int[] es;
+    private final int[] ef;
+    private final int[] ls;
+    private final int[] lf;
+    private final int[] mark;
+    private int epoch;
+    private int makespan;
+
+    private TaskGraph(int[] ids, int[] durations, int[] deadlines, int[] edgeFrom, int[] edgeTo) {
+        this.n = ids.length;
+        this.ids = ids.clone();
+        this.duration = durations.clone();
+        this.deadline = deadlines.clone();
+        this.index = new IntIntMap(n);
+        for (int i = 0; i < n; i++) {
+            index.put(ids[i], i);
+        }
+
+        // keep only edges between known tasks
+        int m = 0;
+        int[] from = new int[edgeFrom.length];
+        int[] to = new int[edgeFrom.length];
+        for (int k = 0; k < edgeFrom.length; k++) {
+            int f = index.get(edgeFrom[k], NONE);
+            int t = index.get(edgeTo[k], NONE);
+            if (f != NONE && t != NONE) {
+                from[m] = f;
+                to[m] = t;
+                m++;
+            }
+        }
+        succStart = new int[n + 1];
+        predStart = new int[n + 1];
+        succ = new int[m];
+        pred = new int[m];
+        csr(from, to, m, succStart, succ);
+        csr(to, from, m, predStart, pred);
+
+        topo = new int[n];
+        topoPos = new int[n];
+        sortTopologically();
+
+        es = new int[n];
+        ef = new int[n];
+        ls = new int[n];
+        lf = new int[n];
+        mark = new int[n];
+        forwardAll();
+        backwardAll();
+    }
+
+    /**
+     * Build the network and run a full forward and backward pass.
+     * Dependencies pointing to IDs outside the task list are ignored.
+     *
+     * @param ids opgave IDs
+     * @param durations working days per task, same order as the IDs
+     * @param deadlines last allowed finish per task in working days, or {@link #NO_DEADLINE}
+     * @param dependsOn the prerequisite opgave of each dependency
+     * @param dependent the opgave that waits, same order as {@code dependsOn}
+     * @return the computed network
+     * @throws IllegalArgumentException if the dependencies contain a cycle
+     */
+    public static TaskGraph build(int[] ids, int[] durations, int[] deadlines, int[] dependsOn, int[] dependent) {
+        if (ids.length != durations.length || ids.length != deadlines.length) {
+            throw new IllegalArgumentException("IDs, durations and deadlines must have the same length");
+        }
+        if (dependsOn.length != dependent.length) {
+            throw new IllegalArgumentException("Dependency arrays must have the same length");
+        }
+        return new TaskGraph(ids, durations, deadlines, dependsOn, dependent);
+    }
+
+    /**
+     * Change the duration and deadline of one task and recompute what depends on it.
+     *
+     * @param id the opgave ID
+     * @param newDuration working days
+     * @param newDeadline last allowed finish in working days, or {@link #NO_DEADLINE}
+     * @return number of tasks whose times were recomputed
+     */
+    public int update(int id, int newDuration, int newDeadline) {
+        int v = indexOf(id);
+        deadline[v] = newDeadline;
+        if (duration[v] == newDuration) {
+            return 0;
+        }
+        duration[v] = newDuration;
+
+        int before = makespan;
+        int touched = forwardFrom(v);
+        if (makespan != before) {
+            backwardAll();
+            return touched + n;
+        }
+        return touched + backwardFrom(v);
+    }
+
+    /**
+     * Check if a task is reachable from another along dependencies,
+     * i.e. if {@code toId} (transitively) waits for {@code fromId}.
+     *
+     * @param fromId the prerequisite opgave ID
+     * @param toId the dependent opgave ID
+     * @return true if there is a path
+     */
+    public boolean reaches(int fromId, int toId) {
+        int from = indexOf(fromId);
+        int target = indexOf(toId);
+        int stamp = nextEpoch();
+        int[] stack = new int[n];
+        int top = 0;
+        stack[top++] = from;
+        mark[from] = stamp;
+        while (top > 0) {
+            int u = stack[--top];
+            if (u == target) {
+                return true;
+            }
+            for (int k = succStart[u]; k < succStart[u + 1]; k++) {
+                int s = succ[k];
+                if (mark[s] != stamp) {
+                    mark[s] = stamp;
+                    stack[top++] = s;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * One critical path from a start task to the project finish.
+     *
+     * @return opgave IDs in execution order, empty for an empty project
+     */
+    public List<Integer> criticalPath() {
+        List<Integer> path = new ArrayList<>();
+        int u = NONE;
+        for (int i = 0; i < n && u == NONE; i++) {
+            int v = topo[i];
+            if (es[v] == 0 && slackAt(v) == 0 && predStart[v] == predStart[v + 1]) {
+                u = v;
+            }
+        }
+        while (u != NONE) {
+            path.add(ids[u]);
+            int next = NONE;
+            for (int k = succStart[u]; k < succStart[u + 1] && next == NONE; k++) {
+                int s = succ[k];
+                if (slackAt(s) == 0 && es[s] == ef[u]) {
+                    next = s;
+                }
+            }
+            u = next;
+        }
+        return path;
+    }
+
+    public int size() { return n; }
+
+    /** Finish of the whole project in working days. */
+    public int makespan() { return makespan; }
+
+    public boolean contains(int id) { return index.containsKey(id); }
+
+    public int duration(int id) { return duration[indexOf(id)]; }
+
+    public int deadline(int id) { return deadline[indexOf(id)]; }
+
+    public int earliestStart(int id) { return es[indexOf(id)]; }
+
+    public int earliestFinish(int id) { return ef[indexOf(id)]; }
+
+    public int latestStart(int id) { return ls[indexOf(id)]; }
+
+    public int latestFinish(int id) { return lf[indexOf(id)]; }
+
+    public int slack(int id) { return slackAt(indexOf(id)); }
+
+    public boolean isCritical(int id) { return slackAt(indexOf(id)) == 0; }
+
+    /** True if the task cannot finish by its deadline even when started as early as possible. */
+    public boolean isLate(int id) {
+        int v = indexOf(id);
+        return ef[v] > deadline[v];
+    }
+
+    // ===== passes =====
+    private void forwardAll() {
+        makespan = 0;
+        for (int v : topo) {
+            es[v] = maxPredFinish(v);
+            ef[v] = es[v] + duration[v];
+            makespan = Math.max(makespan, ef[v]);
+        }
+    }
+
+    private void backwardAll() {
+        for (int i = n - 1; i >= 0; i--) {
+            int v = topo[i];
+            lf[v] = minSuccStart(v);
+            ls[v] = lf[v] - duration[v];
+        }
+    }
+
+    private int forwardFrom(int v) {
+        PriorityQueue<Integer> queue = new PriorityQueue<>(Comparator.comparingInt(u -> topoPos[u]));
+        int stamp = nextEpoch();
+        queue.add(v);
+        mark[v] = stamp;
+        boolean shrunk = false;
+        int touched = 0;
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            touched++;
+            int newEs = maxPredFinish(u);
+            if (u != v && newEs == es[u]) {
+                continue;
+            }
+            int newEf = newEs + duration[u];
+            int oldEf = ef[u];
+            es[u] = newEs;
+            ef[u] = newEf;
+            if (newEf == oldEf) {
+                continue;
+            }
+            if (newEf > makespan) {
+                makespan = newEf;
+            } else if (oldEf == makespan) {
+                shrunk = true;
+            }
+            for (int k = succStart[u]; k < succStart[u + 1]; k++) {
+                int s = succ[k];
+                if (mark[s] != stamp) {
+                    mark[s] = stamp;
+                    queue.add(s);
+                }
+            }
+        }
+        if (shrunk) {
+            int max = 0;
+            for (int i = 0; i < n; i++) {
+                max = Math.max(max, ef[i]);
+            }
+            makespan = max;
+        }
+        return touched;
+    }
+
+    private int backwardFrom(int v) {
+        PriorityQueue<Integer> queue = new PriorityQueue<>(Comparator.comparingInt(u -> -topoPos[u]));
+        int stamp = nextEpoch();
+        queue.add(v);
+        mark[v] = stamp;
+        int touched = 0;
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            touched++;
+            int newLf = minSuccStart(u);
+            if (u != v && newLf == lf[u]) {
+                continue;
+            }
+            int newLs = newLf - duration[u];
+            int oldLs = ls[u];
+            lf[u] = newLf;
+            ls[u] = newLs;
+            if (newLs == oldLs) {
+                continue;
+            }
+            for (int k = predStart[u]; k < predStart[u + 1]; k++) {
+                int p = pred[k];
+                if (mark[p] != stamp) {
+                    mark[p] = stamp;
+                    queue.add(p);
+                }
+            }
+        }
+        return touched;
+    }
+
+    // ===== helpers =====
+    private int maxPredFinish(int v) {
+        int max = 0;
+        for (int k = predStart[v]; k < predStart[v + 1]; k++) {
+            max = Math.max(max, ef[pred[k]]);
+        }
+        return max;
+    }
+
+    private int minSuccStart(int v) {
+        int min = makespan;
+        for (int k = succStart[v]; k < succStart[v + 1]; k++) {
+            min = Math.min(min, ls[succ[k]]);
+        }
+        return min;
+    }
+
+    private int slackAt(int v) {
+        return ls[v] - es[v];
+    }
+
+    private int indexOf(int id) {
+        int v = index.get(id, NONE);
+        if (v == NONE) {
+            throw new IllegalArgumentException("Unknown opgave ID " + id);
+        }
+        return v;
+    }
+
+    private int nextEpoch() {
+        return ++epoch;
+    }
+
+    // Kahn's algorithm; ties keep the input order so the result is stable
+    private void sortTopologically() {
+        int[] inDegree = new int[n];
+        for (int v = 0; v < n; v++) {
+            inDegree[v] = predStart[v + 1] - predStart[v];
+        }
+        int head = 0;
+        int tail = 0;
+        for (int v = 0; v < n; v++) {
+            if (inDegree[v] == 0) {
+                topo[tail++] = v;
+            }
+        }
+        while (head < tail) {
+            int u = topo[head++];
+            for (int k = succStart[u]; k < succStart[u + 1]; k++) {
+                int s = succ[k];
+                if (--inDegree[s] == 0) {
+                    topo[tail++] = s;
+                }
+            }
+        }
+        if (tail != n) {
+            throw new IllegalArgumentException("Dependencies contain a cycle");
+        }
+        for (int i = 0; i < n; i++) {
+            topoPos[topo[i]] = i;
+        }
+    }
+
+    private static void csr(int[] from, int[] to, int m, int[] start, int[] targets) {
+        for (int k = 0; k < m; k++) {
+            start[from[k] + 1]++;
+        }
+        for (int v = 0; v < start.length - 1; v++) {
+            start[v + 1] += start[v];
+        }
+        int[] fill = new int[start.length - 1];
+        for (int k = 0; k < m; k++) {
+            int f = from[k];
+            targets[start[f] + fill[f]++] = to[k];
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package dk.eak.kalkulation.service;
+
+import dk.eak.kalkulation.calendar.WorkCalendar;
+import dk.eak.kalkulation.model.Burndown;
+import dk.eak.kalkulation.model.ProjectMetrics;
+import dk.eak.kalkulation.model.Projekt;
+import dk.eak.kalkulation.repository.TimeEntryRepository;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Service layer for burndown charts.
+ * Streams the daily hour totals of a project once, in date order, into primitive
+ * arrays indexed by epoch day, so memory is one int per day in the project span.
+ */
+@Service
+public class BurndownService {
+
+    private final TimeEntryRepository timeRepo;
+    private final CalculationService calc;
+
+    public BurndownService(TimeEntryRepository timeRepo, CalculationService calc) {
+        this.timeRepo = timeRepo;
+        this.calc = calc;
+    }
+
+    /**
+     * Build the burndown series for a project.
+     *
+     * @param projektId the project ID
+     * @param granularity daily or weekly points
+     * @return the burndown series
+     */
+    public Burndown burndown(int projektId, Burndown.Granularity granularity) {
+        if (projektId <= 0) {
+            throw new IllegalArgumentException("Project ID must be valid");
+        }
+        if (granularity == null) {
+            throw new IllegalArgumentException("Granularity cannot be null");
+        }
+        ProjectMetrics m = calc.metrics(projektId);
+        Projekt p = m.getProjekt();
+        DailySeries daily = new DailySeries(p.getStartDate());
+        timeRepo.forEachDailyTotal(projektId, daily::add);
+
+        long first = daily.firstEpochDay();
+        long last = daily.lastEpochDay(p.getEndDate());
+        if (first > last) {
+            return new Burndown(projektId, granularity, null, m.getEstimatedHours(),
+                    new int[0], new int[0], new double[0]);
+        }
+        int step = granularity == Burndown.Granularity.WEEKLY ? 7 : 1;
+        if (step == 7) {
+            first -= Math.floorMod(first + 3, 7); // back to Monday
+        }
+        int points = (int) ((last - first) / step) + 1;
+
+        int[] cumulative = new int[points];
+        int[] remaining = new int[points];
+        for (int i = 0; i < points; i++) {
+            long bucketEnd = Math.min(first + (long) (i + 1) * step - 1, last);
+            cumulative[i] = daily.cumulativeUpTo(bucketEnd);
+            remaining[i] = Math.max(m.getEstimatedHours() - cumulative[i], 0);
+        }
+
+        double[] ideal = idealLine(p, calc.calendarFor(p), m.getEstimatedHours(), first, step, points, last);
+        return new Burndown(projektId, granularity, LocalDate.ofEpochDay(first), m.getEstimatedHours(),
+                cumulative, remaining, ideal);
+    }
+
+    // ===== helpers =====
+    private static double[] idealLine(Projekt p, WorkCalendar calendar, int estimated,
+                                      long first, int step, int points, long last) {
+        if (p.getStartDate() == null || p.getEndDate() == null) {
+            return new double[0];
+        }
+        int total = calendar.workingDaysBetween(p.getStartDate(), p.getEndDate());
+        double[] ideal = new double[points];
+        if (total == 0) {
+            return ideal;
+        }
+        for (int i = 0; i < points; i++) {
+            LocalDate bucketEnd = LocalDate.ofEpochDay(Math.min(first + (long) (i + 1) * step - 1, last));
+            int elapsed = calendar.workingDaysBetween(p.getStartDate(), bucketEnd);
+            ideal[i] = estimated * Math.max(0.0, 1.0 - elapsed / (double) total);
+        }
+        return ideal;
+    }
+
+    /**
+     * Hours per day as a growable int array starting at the first day seen.
+     * Rows arrive in date order, so the prefix sums are built while reading.
+     */
+    private static final class DailySeries {
+
+        private final long projectStart;
+        private long origin = Long.MIN_VALUE;
+        private int[] cumulative = new int[64];
+        private int length;
+
+        DailySeries(LocalDate projectStart) {
+            this.projectStart = projectStart != null ? projectStart.toEpochDay() : Long.MAX_VALUE;
+        }
+
+        void add(long epochDay, int hours) {
+            if (origin == Long.MIN_VALUE) {
+                origin = Math.min(epochDay, projectStart);
+            }
+            int index = (int) (epochDay - origin);
+            if (index >= cumulative.length) {
+                cumulative = Arrays.copyOf(cumulative, Math.max(index + 1, cumulative.length * 2));
+            }
+            int previous = length > 0 ? cumulative[length - 1] : 0;
+            for (int i = length; i < index; i++) {
+                cumulative[i] = previous;
+            }
+            cumulative[index] = previous + hours;
+            length = index + 1;
+        }
+
+        long firstEpochDay() {
+            return origin != Long.MIN_VALUE ? origin : projectStart;
+        }
+
+        long lastEpochDay(LocalDate projectEnd) {
+            long lastEntry = length > 0 ? origin + length - 1 : Long.MIN_VALUE;
+            long end = projectEnd != null ? projectEnd.toEpochDay() : Long.MIN_VALUE;
+            long last = Math.max(lastEntry, end);
+            return last == Long.MIN_VALUE ? firstEpochDay() - 1 : last;
+        }
+
+        int cumulativeUpTo(long epochDay) {
+            if (length == 0 || epochDay < origin) {
+                return 0;
+            }
+            int index = (int) Math.min(epochDay - origin, length - 1);
+            return cumulative[index];
+        }
+    }
+}
@@ -1,14 +1,23 @@
 package dk.eak.kalkulation.service;
 
+import dk.eak.kalkulation.calendar.WorkCalendar;
+import dk.eak.kalkulation.calendar.WorkCalendarRegistry;
 import dk.eak.kalkulation.model.Opgave;
+import dk.eak.kalkulation.model.ProjectMetrics;
 import dk.eak.kalkulation.model.Projekt;
+import dk.eak.kalkulation.repository.CalculationRepository;
 import dk.eak.kalkulation.repository.OpgaveRepository;
+import dk.eak.kalkulation.repository.ParallelQueries;
 import dk.eak.kalkulation.repository.TimeEntryRepository;
+import dk.eak.kalkulation.util.IntIntMap;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * Service layer for project calculations.
@@ -19,10 +28,87 @@ public class CalculationService {
 
     private final OpgaveRepository opgaveRepo;
     private final TimeEntryRepository timeRepo;
+    private final CalculationRepository calcRepo;
+    private final WorkCalendarRegistry calendars;
+    private final ParallelQueries parallel;
 
-    public CalculationService(OpgaveRepository opgaveRepo, TimeEntryRepository timeRepo) {
+    public CalculationService(OpgaveRepository opgaveRepo,
+                              TimeEntryRepository timeRepo,
+                              CalculationRepository calcRepo,
+                              WorkCalendarRegistry calendars,
+                              ParallelQueries parallel) {
         this.opgaveRepo = opgaveRepo;
         this.timeRepo = timeRepo;
+        this.calcRepo = calcRepo;
+        this.calendars = calendars;
+        this.parallel = parallel;
+    }
+
+    /**
+     * Get all calculated figures for a project with one database round trip.
+     *
+     * @param projektId the project ID
+     * @return metrics snapshot for the project
+     */
+    @Transactional(readOnly = true)
+    public ProjectMetrics metrics(int projektId) {
+        if (projektId <= 0) {
+            throw new IllegalArgumentException("Project ID must be valid");
+        }
+        ProjectMetrics m = calcRepo.findMetrics(projektId);
+        Projekt p = m.getProjekt();
+        return m.withWorkingDays(calendarFor(p).workingDaysBetween(p.getStartDate(), p.getEndDate()));
+    }
+
+    /**
+     * Get metrics for every project. Uses three queries no matter how many projects exist.
+     *
+     * @return metrics per project, ordered by project ID
+     */
+    @Transactional(readOnly = true)
+    public List<ProjectMetrics> metricsForAll() {
+        return loadMetrics(null);
+    }
+
+    /**
+     * Get metrics for a set of projects. Uses three queries no matter how many IDs are given.
+     *
+     * @param projectIds the project IDs
+     * @return metrics for the projects that exist, ordered by project ID
+     */
+    @Transactional(readOnly = true)
+    public List<ProjectMetrics> metricsFor(Collection<Integer> projectIds) {
+        if (projectIds == null) {
+            throw new IllegalArgumentException("Project IDs cannot be null");
+        }
+        if (projectIds.isEmpty()) {
+            return List.of();
+        }
+        return loadMetrics(projectIds);
+    }
+
+    private List<ProjectMetrics> loadMetrics(Collection<Integer> projectIds) {
+        List<Projekt> projects;
+        IntIntMap estimated;
+        IntIntMap registered;
+        // independent queries: run them side by side
+        try (ParallelQueries.Scope scope = parallel.open()) {
+            Supplier<List<Projekt>> p = scope.fork(() -> calcRepo.findProjects(projectIds));
+            Supplier<IntIntMap> e = scope.fork(() -> calcRepo.sumEstimatedByProject(projectIds));
+            Supplier<IntIntMap> r = scope.fork(() -> calcRepo.sumRegisteredByProject(projectIds));
+            scope.join();
+            projects = p.get();
+            estimated = e.get();
+            registered = r.get();
+        }
+
+        List<ProjectMetrics> result = new ArrayList<>(projects.size());
+        for (Projekt p : projects) {
+            int id = p.getProjectId();
+            int days = calendarFor(p).workingDaysBetween(p.getStartDate(), p.getEndDate());
+            result.add(new ProjectMetrics(p, estimated.get(id, 0), registered.get(id, 0), days));
+        }
+        return result;
     }
 
     /**
@@ -31,6 +117,7 @@ public class CalculationService {
      * @param projektId the project ID
      * @return total estimated hours
      */
+    @Transactional(readOnly = true)
     public int totalEstimatedHours(int projektId) {
         if (projektId <= 0) {
             throw new IllegalArgumentException("Project ID must be valid");
@@ -47,6 +134,7 @@ public class CalculationService {
      * @param projektId the project ID
      * @return total registered hours
      */
+    @Transactional(readOnly = true)
     public int totalRegisteredHours(int projektId) {
         if (projektId <= 0) {
             throw new IllegalArgumentException("Project ID must be valid");
@@ -60,6 +148,7 @@ public class CalculationService {
      * @param projektId the project ID
      * @return remaining hours (estimated - registered, minimum 0)
      */
+    @Transactional(readOnly = true)
     public int remainingEstimatedHours(int projektId) {
         if (projektId <= 0) {
             throw new IllegalArgumentException("Project ID must be valid");
@@ -70,30 +159,25 @@ public class CalculationService {
     }
 
     /**
-     * Calculate number of working days between two dates (excludes weekends).
+     * Calculate number of working days between two dates on the default calendar
+     * (excludes weekends and public holidays).
      *
      * @param start the start date (inclusive)
      * @param endInclusive the end date (inclusive)
      * @return number of working days
      */
     public int workingDaysBetween(LocalDate start, LocalDate endInclusive) {
-        if (start == null || endInclusive == null) {
-            return 0;
-        }
-        if (endInclusive.isBefore(start)) {
-            return 0;
-        }
+        return calendars.getDefault().workingDaysBetween(start, endInclusive);
+    }
 
-        int count = 0;
-        LocalDate d = start;
-        while (!d.isAfter(endInclusive)) {
-            DayOfWeek w = d.getDayOfWeek();
-            if (w != DayOfWeek.SATURDAY && w != DayOfWeek.SUNDAY) {
-                count++;
-            }
-            d = d.plusDays(1);
-        }
-        return count;
+    /**
+     * Get the work calendar selected for a project.
+     *
+     * @param p the project
+     * @return the project's calendar, or the default calendar
+     */
+    public WorkCalendar calendarFor(Projekt p) {
+        return calendars.get(p != null ? p.getCalendarId() : null);
     }
 
     /**
@@ -102,11 +186,12 @@ public class CalculationService {
      * @param p the project
      * @return hours per working day needed
      */
+    @Transactional(readOnly = true)
     public double requiredHoursPerWorkday(Projekt p) {
         if (p == null || p.getStartDate() == null || p.getEndDate() == null) {
             return 0.0;
         }
-        int days = workingDaysBetween(p.getStartDate(), p.getEndDate());
+        int days = calendarFor(p).workingDaysBetween(p.getStartDate(), p.getEndDate());
         if (days == 0) {
             return 0.0;
         }
@@ -120,6 +205,7 @@ public class CalculationService {
      * @param projektId the project ID
      * @return progress percentage (0-100)
      */
+    @Transactional(readOnly = true)
     public double getProgressPercentage(int projektId) {
         if (projektId <= 0) {
             throw new IllegalArgumentException("Project ID must be valid");
@@ -0,0 +1,148 @@
+package dk.eak.kalkulation.service;
+
+import dk.eak.kalkulation.calendar.WorkCalendar;
+import dk.eak.kalkulation.calendar.WorkCalendarRegistry;
+import dk.eak.kalkulation.model.LoadProfile;
+import dk.eak.kalkulation.repository.CalculationRepository;
+import dk.eak.kalkulation.schedule.CapacityPlanner;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Service layer for portfolio capacity planning.
+ * Loads every open opgave with one query and levels the remaining hours onto the
+ * team's daily capacity on the default work calendar.
+ */
+@Service
+public class CapacityService {
+
+    /** Ten years of working days; work beyond that is reported as late. */
+    static final int MAX_DAYS = 2600;
+
+    private final CalculationRepository calcRepo;
+    private final WorkCalendarRegistry calendars;
+    private final double defaultCapacity;
+
+    public CapacityService(CalculationRepository calcRepo,
+                           WorkCalendarRegistry calendars,
+                           @Value("${kalkulation.capacity.hours-per-day:37}") double defaultCapacity) {
+        this.calcRepo = calcRepo;
+        this.calendars = calendars;
+        this.defaultCapacity = defaultCapacity;
+    }
+
+    public double getDefaultCapacity() {
+        return defaultCapacity;
+    }
+
+    /**
+     * Level the open work of all projects from today.
+     *
+     * @param capacityPerDay team hours per working day
+     * @return load profile with hotspots and late opgaver
+     */
+    public LoadProfile plan(double capacityPerDay) {
+        return plan(capacityPerDay, LocalDate.now());
+    }
+
+    LoadProfile plan(double capacityPerDay, LocalDate today) {
+        if (capacityPerDay <= 0) {
+            throw new IllegalArgumentException("Capacity per day must be positive");
+        }
+        WorkCalendar cal = calendars.getDefault();
+
+        Tasks tasks = new Tasks();
+        calcRepo.forEachOpenTask((id, projectId, remaining, start, deadline) -> {
+            int release = start != null && start.isAfter(today)
+                    ? cal.workingDaysBetween(today, start.minusDays(1)) : 0;
+            int due = deadline != null ? cal.workingDaysBetween(today, deadline) : CapacityPlanner.NO_DEADLINE;
+            tasks.add(id, release, due, remaining);
+        });
+
+        CapacityPlanner.Result r = CapacityPlanner.level(
+                tasks.release(), tasks.deadline(), tasks.hours(), capacityPerDay, MAX_DAYS);
+
+        LocalDate[] dates = new LocalDate[r.days()];
+        LocalDate d = today;
+        for (int k = 0; k < dates.length; d = d.plusDays(1)) {
+            if (cal.isWorkingDay(d)) {
+                dates[k++] = d;
+            }
+        }
+
+        List<Integer> late = new ArrayList<>();
+        int[] finish = r.finish();
+        for (int t = 0; t < tasks.size; t++) {
+            if (finish[t] < 0 || finish[t] > tasks.deadline[t]) {
+                late.add(tasks.ids[t]);
+            }
+        }
+        LocalDate finishDate = null;
+        for (int k = dates.length - 1; k >= 0 && finishDate == null; k--) {
+            if (r.planned()[k] > 0) {
+                finishDate = dates[k];
+            }
+        }
+        return new LoadProfile(today, capacityPerDay, dates, r.required(), r.planned(), r.late(),
+                hotspots(r.required(), capacityPerDay, dates), late, finishDate);
+    }
+
+    // Runs of days with required load above capacity
+    private static List<LoadProfile.Hotspot> hotspots(double[] required, double capacity, LocalDate[] dates) {
+        List<LoadProfile.Hotspot> result = new ArrayList<>();
+        int runStart = -1;
+        double peak = 0;
+        double excess = 0;
+        for (int d = 0; d <= required.length; d++) {
+            boolean over = d < required.length && required[d] > capacity + 1e-9;
+            if (over) {
+                if (runStart < 0) {
+                    runStart = d;
+                    peak = 0;
+                    excess = 0;
+                }
+                peak = Math.max(peak, required[d]);
+                excess += required[d] - capacity;
+            } else if (runStart >= 0) {
+                result.add(new LoadProfile.Hotspot(dates[runStart], dates[d - 1], peak, excess));
+                runStart = -1;
+            }
+        }
+        return result;
+    }
+
+    // Growable columns of the open tasks
+    private static final class Tasks {
+        private int[] ids = new int[64];
+        private int[] release = new int[64];
+        private int[] deadline = new int[64];
+        private int[] hours = new int[64];
+        private int size;
+
+        void add(int id, int rel, int due, int h) {
+            if (size == ids.length) {
+                int cap = size * 2;
+                ids = Arrays.copyOf(ids, cap);
+                release = Arrays.copyOf(release, cap);
+                deadline = Arrays.copyOf(deadline, cap);
+                hours = Arrays.copyOf(hours, cap);
+            }
+            ids[size] = id;
+            release[size] = rel;
+            deadline[size] = due;
+            hours[size] = h;
+            size++;
+        }
+
+        int[] release() { return Arrays.copyOf(release, size); }
+
+        int[] deadline() { return Arrays.copyOf(deadline, size); }
+
+        int[] hours() { return Arrays.copyOf(hours, size); }
+    }
+}
@@ -3,8 +3,12 @@ package dk.eak.kalkulation.service;
 import dk.eak.kalkulation.model.DelProjekt;
 import dk.eak.kalkulation.repository.DelProjektRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Service layer for DelProjekt operations.
@@ -14,9 +18,11 @@ import java.util.List;
 public class DelProjektService {
 
     private final DelProjektRepository repository;
+    private final ProjectVersionService versions;
 
-    public DelProjektService(DelProjektRepository repository) {
+    public DelProjektService(DelProjektRepository repository, ProjectVersionService versions) {
         this.repository = repository;
+        this.versions = versions;
     }
 
     /**
@@ -45,16 +51,9 @@ public class DelProjektService {
      * @param delProjekt the subproject to create
      */
     public void create(DelProjekt delProjekt) {
-        if (delProjekt == null) {
-            throw new IllegalArgumentException("DelProjekt cannot be null");
-        }
-        if (delProjekt.getProjectId() == null || delProjekt.getProjectId() <= 0) {
-            throw new IllegalArgumentException("Project ID must be valid");
-        }
-        if (delProjekt.getName() == null || delProjekt.getName().trim().isEmpty()) {
-            throw new IllegalArgumentException("Name cannot be empty");
-        }
+        validateForCreate(delProjekt);
         repository.create(delProjekt);
+        versions.touch(delProjekt.getProjectId());
     }
 
     /**
@@ -63,16 +62,11 @@ public class DelProjektService {
      * @param delProjekt the subproject to update
      */
     public void update(DelProjekt delProjekt) {
-        if (delProjekt == null) {
-            throw new IllegalArgumentException("DelProjekt cannot be null");
-        }
-        if (delProjekt.getDelProjektId() == null || delProjekt.getDelProjektId() <= 0) {
-            throw new IllegalArgumentException("DelProjekt ID must be valid");
-        }
-        if (delProjekt.getName() == null || delProjekt.getName().trim().isEmpty()) {
-            throw new IllegalArgumentException("Name cannot be empty");
-        }
+        validateForUpdate(delProjekt);
+        DelProjekt before = repository.findById(delProjekt.getDelProjektId());
         repository.update(delProjekt);
+        // the subproject may have moved to another project
+        versions.touch(before != null ? before.getProjectId() : null, delProjekt.getProjectId());
     }
 
     /**
@@ -84,6 +78,92 @@ public class DelProjektService {
         if (delProjektId <= 0) {
             throw new IllegalArgumentException("DelProjekt ID must be valid");
         }
+        DelProjekt before = repository.findById(delProjektId);
         repository.delete(delProjektId);
+        if (before != null) {
+            versions.touch(before.getProjectId());
+        }
+    }
+
+    /**
+     * Create many subprojects in one transaction. The whole batch is validated first.
+     *
+     * @param delProjekter the subprojects to create
+     * @return generated IDs in input order
+     */
+    @Transactional
+    public int[] createAll(List<DelProjekt> delProjekter) {
+        if (delProjekter == null) {
+            throw new IllegalArgumentException("DelProjekter cannot be null");
+        }
+        delProjekter.forEach(this::validateForCreate);
+        int[] ids = repository.createAll(delProjekter);
+        versions.touch(delProjekter.stream().map(DelProjekt::getProjectId).toList());
+        return ids;
+    }
+
+    /**
+     * Update many subprojects in one transaction. The whole batch is validated first.
+     *
+     * @param delProjekter the subprojects to update
+     */
+    @Transactional
+    public void updateAll(List<DelProjekt> delProjekter) {
+        if (delProjekter == null) {
+            throw new IllegalArgumentException("DelProjekter cannot be null");
+        }
+        Set<Integer> ids = new LinkedHashSet<>();
+        for (DelProjekt d : delProjekter) {
+            validateForUpdate(d);
+            if (!ids.add(d.getDelProjektId())) {
+                throw new IllegalArgumentException("DelProjekt ID " + d.getDelProjektId() + " is in the batch twice");
+            }
+        }
+        repository.updateAll(delProjekter);
+        // a batch can move subprojects between projects; no need to load them all first
+        versions.touchAll();
+    }
+
+    /**
+     * Delete many subprojects in one transaction.
+     *
+     * @param delProjektIds the subproject IDs to delete
+     */
+    @Transactional
+    public void deleteAll(Collection<Integer> delProjektIds) {
+        if (delProjektIds == null) {
+            throw new IllegalArgumentException("DelProjekt IDs cannot be null");
+        }
+        for (Integer id : delProjektIds) {
+            if (id == null || id <= 0) {
+                throw new IllegalArgumentException("DelProjekt ID must be valid");
+            }
+        }
+        repository.deleteAll(new LinkedHashSet<>(delProjektIds));
+        versions.touchAll();
+    }
+
+    private void validateForCreate(DelProjekt delProjekt) {
+        if (delProjekt == null) {
+            throw new IllegalArgumentException("DelProjekt cannot be null");
+        }
+        if (delProjekt.getProjectId() == null || delProjekt.getProjectId() <= 0) {
+            throw new IllegalArgumentException("Project ID must be valid");
+        }
+        if (delProjekt.getName() == null || delProjekt.getName().trim().isEmpty()) {
+            throw new IllegalArgumentException("Name cannot be empty");
+        }
+    }
+
+    private void validateForUpdate(DelProjekt delProjekt) {
+        if (delProjekt == null) {
+            throw new IllegalArgumentException("DelProjekt cannot be null");
+        }
+        if (delProjekt.getDelProjektId() == null || delProjekt.getDelProjektId() <= 0) {
+            throw new IllegalArgumentException("DelProjekt ID must be valid");
+        }
+        if (delProjekt.getName() == null || delProjekt.getName().trim().isEmpty()) {
+            throw new IllegalArgumentException("Name cannot be empty");
+        }
     }
 }
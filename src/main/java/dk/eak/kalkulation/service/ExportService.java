@@ -0,0 +1,126 @@
+package dk.eak.kalkulation.service;
+
+import dk.eak.kalkulation.export.ExportFormat;
+import dk.eak.kalkulation.export.RecordWriter;
+import dk.eak.kalkulation.repository.ExportRepository;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Service layer for the CSV/JSON exports.
+ * Rows go from the database cursor straight to the output stream; nothing is
+ * collected in between, so memory use is the same for ten rows or ten million.
+ * The header is flushed before the query runs so the client gets the first
+ * bytes right away. Time entry CSV starts with opgave_id, work_date, hours and
+ * can be read back by the timesheet import.
+ */
+@Service
+public class ExportService {
+
+    static final String[] TIME_ENTRY_COLUMNS = {"opgave_id", "work_date", "hours", "time_entry_id", "project_id"};
+    static final String[] OPGAVE_COLUMNS = {"opgave_id", "project_id", "delprojekt_id", "name", "description",
+            "estimated_hours", "deadline"};
+
+    private final ExportRepository repo;
+
+    public ExportService(ExportRepository repo) {
+        this.repo = repo;
+    }
+
+    /**
+     * Check the project before a response is started.
+     *
+     * @param projectId the project ID, or null for the whole database
+     */
+    public void validate(Integer projectId) {
+        if (projectId == null) {
+            return;
+        }
+        if (projectId <= 0) {
+            throw new IllegalArgumentException("Project ID must be valid");
+        }
+        if (!repo.projectExists(projectId)) {
+            throw new IllegalArgumentException("Project not found");
+        }
+    }
+
+    /**
+     * Stream time entries.
+     *
+     * @param projectId the project ID, or null for all projects
+     * @param format CSV or JSON
+     * @param out the target stream; flushed but not closed
+     */
+    public void exportTimeEntries(Integer projectId, ExportFormat format, OutputStream out) throws IOException {
+        validate(projectId);
+        Writer writer = writer(out);
+        RecordWriter records = format.writer(writer);
+        records.begin(TIME_ENTRY_COLUMNS);
+        writer.flush();
+        stream(() -> repo.forEachTimeEntry(projectId, (opgaveId, workDate, hours, timeEntryId, projId) -> {
+            try {
+                records.beginRow();
+                records.value(opgaveId);
+                records.value(workDate);
+                records.value(hours);
+                records.value(timeEntryId);
+                records.value(projId);
+                records.endRow();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+        records.end();
+    }
+
+    /**
+     * Stream opgaver.
+     *
+     * @param projectId the project ID, or null for all projects
+     * @param format CSV or JSON
+     * @param out the target stream; flushed but not closed
+     */
+    public void exportOpgaver(Integer projectId, ExportFormat format, OutputStream out) throws IOException {
+        validate(projectId);
+        Writer writer = writer(out);
+        RecordWriter records = format.writer(writer);
+        records.begin(OPGAVE_COLUMNS);
+        writer.flush();
+        stream(() -> repo.forEachOpgave(projectId, (opgaveId, projId, delProjektId, name, description, est, deadline) -> {
+            try {
+                records.beginRow();
+                records.value(opgaveId);
+                records.value(projId);
+                records.value(delProjektId);
+                records.value(name);
+                records.value(description);
+                records.value(est);
+                records.value(deadline);
+                records.endRow();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+        records.end();
+    }
+
+    // Row callbacks cannot throw IOException; unwrap it again here
+    private static void stream(Runnable query) throws IOException {
+        try {
+            query.run();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static Writer writer(OutputStream out) {
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 8192);
+    }
+}
@@ -0,0 +1,186 @@
+package dk.eak.kalkulation.service;
+
+import dk.eak.kalkulation.calendar.WorkCalendar;
+import dk.eak.kalkulation.forecast.MonteCarloSimulator;
+import dk.eak.kalkulation.model.Forecast;
+import dk.eak.kalkulation.model.ProjectMetrics;
+import dk.eak.kalkulation.model.Projekt;
+import dk.eak.kalkulation.repository.CalculationRepository;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Service layer for completion forecasts.
+ * Fits the estimate error (log of actual/estimate) on tasks of finished projects,
+ * then simulates the remaining work of a project with {@link MonteCarloSimulator}.
+ * The fit scans every finished task, so it is kept until any project changes
+ * ({@link ProjectVersionService#mark()}) or the day changes.
+ */
+@Service
+public class ForecastService {
+
+    public static final int DEFAULT_ITERATIONS = 20_000;
+    public static final int MAX_ITERATIONS = 1_000_000;
+
+    /** Fewer finished tasks than this and the default spread is used. */
+    static final int MIN_HISTORY = 5;
+    static final double DEFAULT_SIGMA = 0.3;
+    /** Danish full-time working day, used when nothing better is known. */
+    static final double DEFAULT_HOURS_PER_WORKDAY = 7.4;
+    /** Simulated durations are capped at about 100 years of working days. */
+    static final int MAX_WORKING_DAYS = 100 * 260;
+    private static final long SEED = 0x5DEECE66DL;
+
+    private final CalculationRepository calcRepo;
+    private final CalculationService calc;
+    private final ProjectVersionService versions;
+    private final MonteCarloSimulator simulator = new MonteCarloSimulator();
+    private volatile History history;
+
+    public ForecastService(CalculationRepository calcRepo, CalculationService calc,
+                           ProjectVersionService versions) {
+        this.calcRepo = calcRepo;
+        this.calc = calc;
+        this.versions = versions;
+    }
+
+    /**
+     * Forecast when a project will be done, counted from today.
+     *
+     * @param projektId the project ID
+     * @param iterations number of simulated runs
+     * @return P50/P80/P95 completion dates and the chance of meeting the end date
+     */
+    public Forecast forecast(int projektId, int iterations) {
+        return forecast(projektId, iterations, LocalDate.now());
+    }
+
+    Forecast forecast(int projektId, int iterations, LocalDate today) {
+        if (projektId <= 0) {
+            throw new IllegalArgumentException("Project ID must be valid");
+        }
+        if (iterations <= 0 || iterations > MAX_ITERATIONS) {
+            throw new IllegalArgumentException("Iterations must be between 1 and " + MAX_ITERATIONS);
+        }
+        ProjectMetrics m = calc.metrics(projektId);
+        Projekt p = m.getProjekt();
+        WorkCalendar cal = calc.calendarFor(p);
+
+        TaskArrays tasks = new TaskArrays();
+        calcRepo.forEachTaskHours(projektId, (id, est, reg) -> tasks.add(est, reg));
+
+        History h = history(today);
+        boolean fitted = h.count() >= MIN_HISTORY;
+        double mu = fitted ? h.mu() : 0.0;
+        double sigma = fitted ? h.sigma() : DEFAULT_SIGMA;
+
+        LocalDate from = p.getStartDate() != null && p.getStartDate().isAfter(today) ? p.getStartDate() : today;
+        double rate = hoursPerWorkday(m, cal, today);
+
+        int[] days = simulator.simulate(tasks.estimated(), tasks.registered(), mu, sigma, rate,
+                iterations, SEED ^ projektId);
+
+        double onTime = 0.0;
+        if (p.getEndDate() != null) {
+            int available = cal.workingDaysBetween(from, p.getEndDate());
+            onTime = countAtMost(days, available) / (double) days.length;
+        }
+        return new Forecast(projektId, iterations, fitted ? h.count() : 0, rate, from, p.getEndDate(),
+                cal.plusWorkingDays(from, Math.min(MonteCarloSimulator.percentile(days, 50), MAX_WORKING_DAYS)),
+                cal.plusWorkingDays(from, Math.min(MonteCarloSimulator.percentile(days, 80), MAX_WORKING_DAYS)),
+                cal.plusWorkingDays(from, Math.min(MonteCarloSimulator.percentile(days, 95), MAX_WORKING_DAYS)),
+                onTime);
+    }
+
+    // The fit of the finished tasks; the mark is read first, so a change during the scan refits next time
+    private History history(LocalDate today) {
+        long mark = versions.mark();
+        History h = history;
+        if (h != null && h.mark() == mark && h.today().equals(today)) {
+            return h;
+        }
+        LogRatioStats stats = new LogRatioStats();
+        calcRepo.forEachFinishedTaskHours(today, (id, est, reg) -> stats.add(est, reg));
+        h = new History(mark, today, stats.count, stats.mean(), stats.stdDev());
+        history = h;
+        return h;
+    }
+
+    // Observed pace so far, else the planned pace, else one full-time person
+    private static double hoursPerWorkday(ProjectMetrics m, WorkCalendar cal, LocalDate today) {
+        Projekt p = m.getProjekt();
+        if (p.getStartDate() != null && m.getRegisteredHours() > 0) {
+            LocalDate until = today.minusDays(1);
+            if (p.getEndDate() != null && p.getEndDate().isBefore(until)) {
+                until = p.getEndDate();
+            }
+            int elapsed = cal.workingDaysBetween(p.getStartDate(), until);
+            if (elapsed > 0) {
+                return m.getRegisteredHours() / (double) elapsed;
+            }
+        }
+        if (m.getWorkingDays() > 0 && m.getEstimatedHours() > 0) {
+            return m.getEstimatedHours() / (double) m.getWorkingDays();
+        }
+        return DEFAULT_HOURS_PER_WORKDAY;
+    }
+
+    private static int countAtMost(int[] sorted, int value) {
+        int i = Arrays.binarySearch(sorted, value + 1);
+        if (i < 0) {
+            return -i - 1;
+        }
+        while (i > 0 && sorted[i - 1] == value + 1) {
+            i--;
+        }
+        return i;
+    }
+
+    // Growable pair of int arrays for the tasks of one project
+    private static final class TaskArrays {
+        private int[] estimated = new int[16];
+        private int[] registered = new int[16];
+        private int size;
+
+        void add(int est, int reg) {
+            if (size == estimated.length) {
+                estimated = Arrays.copyOf(estimated, size * 2);
+                registered = Arrays.copyOf(registered, size * 2);
+            }
+            estimated[size] = est;
+            registered[size] = reg;
+            size++;
+        }
+
+        int[] estimated() { return Arrays.copyOf(estimated, size); }
+
+        int[] registered() { return Arrays.copyOf(registered, size); }
+    }
+
+    private record History(long mark, LocalDate today, int count, double mu, double sigma) {
+    }
+
+    // Running mean and variance (Welford) of ln(actual / estimate)
+    private static final class LogRatioStats {
+        private int count;
+        private double mean;
+        private double m2;
+
+        void add(int est, int reg) {
+            if (est <= 0 || reg <= 0) {
+                return;
+            }
+            double x = Math.log(reg / (double) est);
+            count++;
+            double delta = x - mean;
+            mean += delta / count;
+            m2 += delta * (x - mean);
+        }
+
+        double mean() { return mean; }
+
+        double stdDev() { return count > 1 ? Math.sqrt(m2 / (count - 1)) : 0.0; }
+    }
+}
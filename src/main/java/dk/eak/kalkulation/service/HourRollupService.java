@@ -0,0 +1,265 @@
+package dk.eak.kalkulation.service;
+
+import dk.eak.kalkulation.model.Opgave;
+import dk.eak.kalkulation.model.RollupDrift;
+import dk.eak.kalkulation.model.TimeEntry;
+import dk.eak.kalkulation.repository.HourRollupRepository;
+import dk.eak.kalkulation.repository.OpgaveRepository;
+import dk.eak.kalkulation.util.IntIntMap;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Service layer for the registered-hour rollup tables.
+ * Called by the write paths in TimeEntryService and OpgaveService inside their
+ * transactions, and by the rebuild/verify command.
+ */
+@Service
+public class HourRollupService {
+
+    private final HourRollupRepository rollups;
+    private final OpgaveRepository opgaveRepo;
+    private final ProjectVersionService versions;
+
+    public HourRollupService(HourRollupRepository rollups, OpgaveRepository opgaveRepo,
+                             ProjectVersionService versions) {
+        this.rollups = rollups;
+        this.opgaveRepo = opgaveRepo;
+        this.versions = versions;
+    }
+
+    /**
+     * Get registered hours for a project from the rollup table.
+     *
+     * @param projectId the project ID
+     * @return registered hours
+     */
+    public int projectHours(int projectId) {
+        return rollups.projectHours(projectId);
+    }
+
+    /**
+     * Register that a time entry was created.
+     *
+     * @param t the new time entry
+     */
+    public void onTimeEntryCreated(TimeEntry t) {
+        addHours(opgaveRepo.findById(t.getOpgaveId()), t.getHours());
+    }
+
+    /**
+     * Register that a time entry was changed. Handles a move to another task.
+     *
+     * @param before the stored time entry before the update
+     * @param after the updated time entry
+     */
+    public void onTimeEntryUpdated(TimeEntry before, TimeEntry after) {
+        if (before == null || after == null) {
+            return;
+        }
+        if (Objects.equals(before.getOpgaveId(), after.getOpgaveId())) {
+            int delta = after.getHours() - before.getHours();
+            if (delta != 0) {
+                addHours(opgaveRepo.findById(after.getOpgaveId()), delta);
+            }
+            return;
+        }
+        addHours(opgaveRepo.findById(before.getOpgaveId()), -before.getHours());
+        addHours(opgaveRepo.findById(after.getOpgaveId()), after.getHours());
+    }
+
+    /**
+     * Register that a time entry was deleted.
+     *
+     * @param before the stored time entry before the delete
+     */
+    public void onTimeEntryDeleted(TimeEntry before) {
+        if (before == null) {
+            return;
+        }
+        addHours(opgaveRepo.findById(before.getOpgaveId()), -before.getHours());
+    }
+
+    /**
+     * Register many created time entries with one rollup write per touched row.
+     *
+     * @param created the new time entries
+     */
+    public void onTimeEntriesCreated(List<TimeEntry> created) {
+        IntIntMap deltas = new IntIntMap(created.size());
+        for (TimeEntry t : created) {
+            deltas.add(t.getOpgaveId(), t.getHours());
+        }
+        addHours(deltas);
+    }
+
+    /**
+     * Register many changed time entries with one rollup write per touched row.
+     *
+     * @param before the stored time entries before the update
+     * @param after the updated time entries
+     */
+    public void onTimeEntriesUpdated(List<TimeEntry> before, List<TimeEntry> after) {
+        IntIntMap deltas = new IntIntMap(after.size());
+        for (TimeEntry t : before) {
+            deltas.add(t.getOpgaveId(), -t.getHours());
+        }
+        for (TimeEntry t : after) {
+            deltas.add(t.getOpgaveId(), t.getHours());
+        }
+        addHours(deltas);
+    }
+
+    /**
+     * Register many deleted time entries with one rollup write per touched row.
+     *
+     * @param before the stored time entries before the delete
+     */
+    public void onTimeEntriesDeleted(List<TimeEntry> before) {
+        IntIntMap deltas = new IntIntMap(before.size());
+        for (TimeEntry t : before) {
+            deltas.add(t.getOpgaveId(), -t.getHours());
+        }
+        addHours(deltas);
+    }
+
+    /**
+     * Move the hours of a task when it changes project or subproject.
+     *
+     * @param before the stored task before the update
+     * @param after the updated task
+     */
+    public void onOpgaveUpdated(Opgave before, Opgave after) {
+        if (before == null || after == null) {
+            return;
+        }
+        boolean projectChanged = !Objects.equals(before.getProject_id(), after.getProject_id());
+        boolean delProjektChanged = !Objects.equals(before.getDelProjektId(), after.getDelProjektId());
+        if (!projectChanged && !delProjektChanged) {
+            return;
+        }
+        int hours = rollups.opgaveHours(before.getOpgaveId());
+        if (hours == 0) {
+            return;
+        }
+        if (projectChanged) {
+            rollups.addToProject(before.getProject_id(), -hours);
+            rollups.addToProject(after.getProject_id(), hours);
+        }
+        if (delProjektChanged) {
+            if (before.getDelProjektId() != null) {
+                rollups.addToDelProjekt(before.getDelProjektId(), -hours);
+            }
+            if (after.getDelProjektId() != null) {
+                rollups.addToDelProjekt(after.getDelProjektId(), hours);
+            }
+        }
+    }
+
+    /**
+     * Remove the hours of a task that is about to be deleted (its time entries cascade).
+     *
+     * @param before the stored task before the delete
+     */
+    public void onOpgaveDeleted(Opgave before) {
+        if (before == null) {
+            return;
+        }
+        int hours = rollups.opgaveHours(before.getOpgaveId());
+        if (hours == 0) {
+            return;
+        }
+        rollups.addToProject(before.getProject_id(), -hours);
+        if (before.getDelProjektId() != null) {
+            rollups.addToDelProjekt(before.getDelProjektId(), -hours);
+        }
+    }
+
+    /**
+     * Recompute all rollup tables from time_entry.
+     */
+    @Transactional
+    public void rebuild() {
+        rollups.rebuild();
+        versions.touchAll();
+    }
+
+    /**
+     * Compare the rollup tables with totals recomputed from time_entry.
+     *
+     * @return every row that differs, empty if the tables are correct
+     */
+    @Transactional(readOnly = true)
+    public List<RollupDrift> verify() {
+        List<RollupDrift> drift = new ArrayList<>();
+        for (String table : List.of(HourRollupRepository.OPGAVE,
+                HourRollupRepository.DELPROJEKT,
+                HourRollupRepository.PROJECT)) {
+            compare(table, rollups.storedTotals(table), rollups.actualTotals(table), drift);
+        }
+        return drift;
+    }
+
+    // ===== helpers =====
+    private void addHours(Opgave o, int delta) {
+        if (o == null || delta == 0) {
+            return;
+        }
+        rollups.addToOpgave(o.getOpgaveId(), delta);
+        rollups.addToProject(o.getProject_id(), delta);
+        if (o.getDelProjektId() != null) {
+            rollups.addToDelProjekt(o.getDelProjektId(), delta);
+        }
+    }
+
+    // Hour deltas per opgave, summed up to delprojekt and project before writing
+    private void addHours(IntIntMap opgaveDeltas) {
+        List<Integer> ids = new ArrayList<>(opgaveDeltas.size());
+        opgaveDeltas.forEach((id, delta) -> {
+            if (delta != 0) {
+                ids.add(id);
+            }
+        });
+        if (ids.isEmpty()) {
+            return;
+        }
+        IntIntMap delProjektDeltas = new IntIntMap();
+        IntIntMap projectDeltas = new IntIntMap();
+        for (Opgave o : opgaveRepo.findByIds(ids)) {
+            int delta = opgaveDeltas.get(o.getOpgaveId(), 0);
+            rollups.addToOpgave(o.getOpgaveId(), delta);
+            projectDeltas.add(o.getProject_id(), delta);
+            if (o.getDelProjektId() != null) {
+                delProjektDeltas.add(o.getDelProjektId(), delta);
+            }
+        }
+        delProjektDeltas.forEach((id, delta) -> {
+            if (delta != 0) {
+                rollups.addToDelProjekt(id, delta);
+            }
+        });
+        projectDeltas.forEach((id, delta) -> {
+            if (delta != 0) {
+                rollups.addToProject(id, delta);
+            }
+        });
+    }
+
+    private static void compare(String table, IntIntMap stored, IntIntMap actual, List<RollupDrift> drift) {
+        stored.forEach((id, hours) -> {
+            int expected = actual.get(id, 0);
+            if (hours != expected) {
+                drift.add(new RollupDrift(table, id, hours, expected));
+            }
+        });
+        actual.forEach((id, hours) -> {
+            if (!stored.containsKey(id) && hours != 0) {
+                drift.add(new RollupDrift(table, id, 0, hours));
+            }
+        });
+    }
+}
@@ -0,0 +1,222 @@
+package dk.eak.kalkulation.service;
+
+import dk.eak.kalkulation.repository.TimeEntryRepository;
+import dk.eak.kalkulation.util.BloomFilter;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The recent idempotency keys of created time entries, so that most duplicate
+ * checks are answered without a query.
+ * <p>
+ * An LRU map holds the newest keys with the IDs of their entries: a retry
+ * soon after the first try finds its entry there. A Bloom filter holds every
+ * key of the window: a key it has not seen is new for certain and goes
+ * straight to the insert. Only a key the filter may have seen but the map has
+ * dropped, or a false positive (about 1%), is looked up through
+ * uq_time_entry_idempotency_key.
+ * <p>
+ * The filter keeps two generations of {@code recent-keys} keys and drops the
+ * older when the newer is full. Both are filled from the newest rows at
+ * startup. A key can still exist outside the window: older than it, or written
+ * by another instance. Then the unique index rejects the insert, and
+ * {@link #suspect} puts the key in the filter so the retry looks it up.
+ * <p>
+ * Keys are remembered when their transaction commits, so a rolled back insert
+ * is never replayed. Entries removed by deleting their task or project are not
+ * tracked; a retry for them replays the old ID.
+ */
+@Service
+public class IdempotencyKeys implements SmartInitializingSingleton {
+
+    /** Longest key a client may send; the column is VARCHAR(64). */
+    public static final int MAX_LENGTH = 64;
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final TimeEntryRepository repository;
+    private final int window;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, Integer> recent;
+    private BloomFilter current;
+    private BloomFilter previous;
+
+    private final LongAdder recentHits = new LongAdder();
+    private final LongAdder newKeys = new LongAdder();
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder replays = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    public IdempotencyKeys(TimeEntryRepository repository,
+                           @Value("${kalkulation.idempotency.recent-keys:100000}") int window) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("Recent keys must be positive");
+        }
+        this.repository = repository;
+        this.window = window;
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+                return size() > IdempotencyKeys.this.window;
+            }
+        };
+        this.current = new BloomFilter(window, FALSE_POSITIVE_RATE);
+        this.previous = new BloomFilter(window, FALSE_POSITIVE_RATE);
+    }
+
+    /**
+     * Fill the window from the newest rows; runs after SchemaMigrator has added the column.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        add(repository.findRecentIdempotencyKeys(window));
+    }
+
+    /**
+     * Find the time entries already created with some keys.
+     *
+     * @param keys the keys to check
+     * @return time entry ID by key, for the keys that have an entry
+     */
+    public Map<String, Integer> find(Collection<String> keys) {
+        Map<String, Integer> found = new HashMap<>();
+        List<String> maybe = new ArrayList<>();
+        lock.lock();
+        try {
+            for (String key : keys) {
+                Integer id = recent.get(key);
+                if (id != null) {
+                    recentHits.increment();
+                    found.put(key, id);
+                } else if (current.mightContain(key) || previous.mightContain(key)) {
+                    maybe.add(key);
+                } else {
+                    newKeys.increment();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (maybe.isEmpty()) {
+            return found;
+        }
+
+        lookups.add(maybe.size());
+        Map<String, Integer> stored = repository.findIdsByIdempotencyKeys(maybe);
+        replays.add(stored.size());
+        falsePositives.add(maybe.size() - stored.size());
+        lock.lock();
+        try {
+            recent.putAll(stored);
+        } finally {
+            lock.unlock();
+        }
+        found.putAll(stored);
+        return found;
+    }
+
+    /**
+     * Remember the keys of new time entries once their transaction commits.
+     *
+     * @param created time entry ID by key
+     */
+    public void remember(Map<String, Integer> created) {
+        if (created.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            add(created);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                add(created);
+            }
+        });
+    }
+
+    /**
+     * Mark keys that may exist although the window does not know them, e.g.
+     * after the unique index rejected them; the next {@link #find} looks them up.
+     *
+     * @param keys the keys
+     */
+    public void suspect(Collection<String> keys) {
+        lock.lock();
+        try {
+            keys.forEach(this::putBloom);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forget the keys of deleted time entries; a retry with one of them creates a new entry.
+     *
+     * @param timeEntryIds the deleted IDs
+     */
+    public void forget(Collection<Integer> timeEntryIds) {
+        lock.lock();
+        try {
+            if (!recent.isEmpty()) {
+                recent.values().removeIf(timeEntryIds::contains);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Long> stats() {
+        lock.lock();
+        int size;
+        try {
+            size = recent.size();
+        } finally {
+            lock.unlock();
+        }
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("recent", (long) size);
+        stats.put("window", (long) window);
+        stats.put("recentHits", recentHits.sum());
+        stats.put("newKeys", newKeys.sum());
+        stats.put("lookups", lookups.sum());
+        stats.put("replays", replays.sum());
+        stats.put("falsePositives", falsePositives.sum());
+        return stats;
+    }
+
+    // ===== helpers =====
+    private void add(Map<String, Integer> created) {
+        lock.lock();
+        try {
+            created.forEach((key, id) -> {
+                putBloom(key);
+                recent.put(key, id);
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Caller holds the lock
+    private void putBloom(String key) {
+        if (current.size() >= window) {
+            previous = current;
+            current = new BloomFilter(window, FALSE_POSITIVE_RATE);
+        }
+        current.put(key);
+    }
+}
@@ -0,0 +1,328 @@
+package dk.eak.kalkulation.service;
+
+import dk.eak.kalkulation.datasource.ReplicaContext;
+import dk.eak.kalkulation.model.ProjectMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Service layer for the live dashboards: project metrics pushed as Server-Sent Events.
+ * <p>
+ * Committed changes (see {@link ProjectVersionService}) mark projects as dirty.
+ * The first change opens a short window; when it closes, the metrics of all
+ * dirty projects that someone watches are computed in one batch, so a burst of
+ * writes costs one computation. Each event is serialised once and the same
+ * bytes go to every subscriber of that project. The portfolio stream gets the
+ * metrics of all projects as one event.
+ * <p>
+ * An idle connection holds no thread (async request). Sends run on virtual
+ * threads, one subscriber at a time, and always send the newest event: a slow
+ * client skips states in between instead of holding up the others.
+ * <p>
+ * A flush follows a commit by the coalescing window only, which may be less
+ * than the replica lag, so it reads from the primary.
+ */
+@Service
+public class LiveMetricsService implements ProjectVersionService.ChangeListener, InitializingBean, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(LiveMetricsService.class);
+
+    /** Name of the events with metrics. */
+    public static final String EVENT = "metrics";
+
+    // Keeps proxies from closing idle connections
+    private static final Set<DataWithMediaType> HEARTBEAT = SseEmitter.event().comment("ping").build();
+
+    private final CalculationService calc;
+    private final ProjectVersionService versions;
+    private final JsonMapper json;
+    private final long coalesceMillis;
+    private final long heartbeatSeconds;
+    private final long timeoutMillis;
+    private final ScheduledExecutorService timer;
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<Integer, Set<Subscriber>> byProject = new ConcurrentHashMap<>();
+    private final Set<Subscriber> portfolio = ConcurrentHashMap.newKeySet();
+    private final Set<Integer> dirty = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean dirtyAll = new AtomicBoolean();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    @Autowired
+    public LiveMetricsService(CalculationService calc,
+                              ProjectVersionService versions,
+                              JsonMapper json,
+                              @Value("${kalkulation.live.coalesce-millis:500}") long coalesceMillis,
+                              @Value("${kalkulation.live.heartbeat-seconds:25}") long heartbeatSeconds,
+                              @Value("${kalkulation.live.timeout-minutes:30}") long timeoutMinutes) {
+        if (coalesceMillis < 0 || heartbeatSeconds < 0 || timeoutMinutes < 0) {
+            throw new IllegalArgumentException("Live dashboard settings cannot be negative");
+        }
+        this.calc = calc;
+        this.versions = versions;
+        this.json = json;
+        this.coalesceMillis = coalesceMillis;
+        this.heartbeatSeconds = heartbeatSeconds;
+        this.timeoutMillis = TimeUnit.MINUTES.toMillis(timeoutMinutes);
+        this.timer = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("live-metrics").daemon().factory());
+    }
+
+    /**
+     * Start listening and the heartbeat once constructed, so no other thread sees a half-built service.
+     */
+    @Override
+    public void afterPropertiesSet() {
+        if (heartbeatSeconds > 0) {
+            timer.scheduleAtFixedRate(this::heartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+        }
+        versions.addListener(this);
+    }
+
+    /**
+     * Open a stream with the metrics of one project.
+     * The current metrics are sent at once, then again after each committed change.
+     *
+     * @param projectId the project ID
+     * @return the stream to return from the handler
+     */
+    public SseEmitter subscribeProject(int projectId) {
+        ProjectMetrics current = calc.metrics(projectId);
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        subscribe(projectId, emitter, event(current));
+        return emitter;
+    }
+
+    /**
+     * Open a stream with the metrics of all projects.
+     * Each event carries the whole list, ordered by project ID.
+     *
+     * @return the stream to return from the handler
+     */
+    public SseEmitter subscribePortfolio() {
+        List<ProjectMetrics> current = calc.metricsForAll();
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        subscribe(null, emitter, event(current));
+        return emitter;
+    }
+
+    /**
+     * Number of open streams, for one project or (null) the portfolio.
+     */
+    public int subscribers(Integer projectId) {
+        Set<Subscriber> subs = projectId == null ? portfolio : byProject.get(projectId);
+        return subs == null ? 0 : subs.size();
+    }
+
+    @Override
+    public void projectsChanged(Collection<Integer> projectIds) {
+        dirty.addAll(projectIds);
+        schedule();
+    }
+
+    @Override
+    public void allProjectsChanged() {
+        dirtyAll.set(true);
+        schedule();
+    }
+
+    @Override
+    public void destroy() {
+        timer.shutdownNow();
+        byProject.values().forEach(subs -> subs.forEach(Subscriber::close));
+        portfolio.forEach(Subscriber::close);
+        senders.shutdown();
+    }
+
+    // ===== package-private for tests =====
+
+    void subscribe(Integer projectId, SseEmitter emitter, Set<DataWithMediaType> first) {
+        Subscriber s = new Subscriber(projectId, emitter);
+        if (projectId == null) {
+            portfolio.add(s);
+        } else {
+            byProject.compute(projectId, (id, subs) -> {
+                Set<Subscriber> set = subs != null ? subs : ConcurrentHashMap.newKeySet();
+                set.add(s);
+                return set;
+            });
+        }
+        emitter.onCompletion(s::ended);
+        emitter.onTimeout(s::ended);
+        emitter.onError(e -> s.ended());
+        s.offer(first);
+    }
+
+    /**
+     * Compute and push the metrics of the projects that changed since the last flush.
+     */
+    void flush() {
+        scheduled.set(false);
+        boolean all = dirtyAll.getAndSet(false);
+        Set<Integer> changed = new HashSet<>();
+        for (Iterator<Integer> it = dirty.iterator(); it.hasNext(); ) {
+            changed.add(it.next());
+            it.remove();
+        }
+        Set<Integer> wanted = new HashSet<>(byProject.keySet());
+        if (!all) {
+            wanted.retainAll(changed);
+        }
+        boolean toPortfolio = !portfolio.isEmpty() && (all || !changed.isEmpty());
+        if (wanted.isEmpty() && !toPortfolio) {
+            return;
+        }
+
+        List<ProjectMetrics> metrics;
+        ReplicaContext.pin();
+        try {
+            metrics = toPortfolio ? calc.metricsForAll() : calc.metricsFor(wanted);
+        } finally {
+            ReplicaContext.unpin();
+        }
+        for (ProjectMetrics m : metrics) {
+            Set<Subscriber> subs = wanted.contains(m.getProjectId()) ? byProject.get(m.getProjectId()) : null;
+            if (subs != null && !subs.isEmpty()) {
+                Set<DataWithMediaType> event = event(m);
+                subs.forEach(s -> s.offer(event));
+            }
+        }
+        if (toPortfolio) {
+            Set<DataWithMediaType> event = event(metrics);
+            portfolio.forEach(s -> s.offer(event));
+        }
+    }
+
+    // ===== helpers =====
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                timer.schedule(this::flushLogged, coalesceMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // shutting down
+            }
+        }
+    }
+
+    private void flushLogged() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Could not push live metrics", e);
+        }
+    }
+
+    private void heartbeat() {
+        byProject.values().forEach(subs -> subs.forEach(Subscriber::ping));
+        portfolio.forEach(Subscriber::ping);
+    }
+
+    private Set<DataWithMediaType> event(Object data) {
+        String body = json.writeValueAsString(data);
+        return Collections.unmodifiableSet(SseEmitter.event().name(EVENT).data(body).build());
+    }
+
+    private void remove(Subscriber s) {
+        if (s.projectId == null) {
+            portfolio.remove(s);
+        } else {
+            byProject.computeIfPresent(s.projectId, (id, subs) -> {
+                subs.remove(s);
+                return subs.isEmpty() ? null : subs;
+            });
+        }
+    }
+
+    /**
+     * One open stream. Only the newest event waits; at most one virtual thread sends.
+     */
+    private final class Subscriber {
+
+        private final Integer projectId;
+        private final SseEmitter emitter;
+        private final AtomicReference<Set<DataWithMediaType>> next = new AtomicReference<>();
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private volatile boolean closed;
+
+        Subscriber(Integer projectId, SseEmitter emitter) {
+            this.projectId = projectId;
+            this.emitter = emitter;
+        }
+
+        void offer(Set<DataWithMediaType> event) {
+            next.set(event);
+            wake();
+        }
+
+        void ping() {
+            if (next.compareAndSet(null, HEARTBEAT)) {
+                wake();
+            }
+        }
+
+        // the stream ended on its own
+        void ended() {
+            closed = true;
+            remove(this);
+        }
+
+        void close() {
+            if (!closed) {
+                ended();
+                emitter.complete();
+            }
+        }
+
+        private void wake() {
+            if (!closed && sending.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    sending.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                Set<DataWithMediaType> event;
+                while (!closed && (event = next.getAndSet(null)) != null) {
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // client went away
+                close();
+            } finally {
+                sending.set(false);
+            }
+            // an offer may have come after the last getAndSet but before sending was cleared
+            if (next.get() != null) {
+                wake();
+            }
+        }
+    }
+}
@@ -1,10 +1,19 @@
 package dk.eak.kalkulation.service;
 
+import dk.eak.kalkulation.model.KeysetPage;
 import dk.eak.kalkulation.model.Opgave;
 import dk.eak.kalkulation.repository.OpgaveRepository;
+import dk.eak.kalkulation.util.PageCursor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Service layer for Opgave (Task) operations.
@@ -14,9 +23,13 @@ import java.util.List;
 public class OpgaveService {
 
     private final OpgaveRepository repo;
+    private final HourRollupService rollups;
+    private final ProjectVersionService versions;
 
-    public OpgaveService(OpgaveRepository repo) {
+    public OpgaveService(OpgaveRepository repo, HourRollupService rollups, ProjectVersionService versions) {
         this.repo = repo;
+        this.rollups = rollups;
+        this.versions = versions;
     }
 
     /**
@@ -25,6 +38,7 @@ public class OpgaveService {
      * @param projectId the project ID
      * @return list of tasks
      */
+    @Transactional(readOnly = true)
     public List<Opgave> getByProjectId(int projectId) {
         if (projectId <= 0) {
             throw new IllegalArgumentException("Project ID must be valid");
@@ -32,12 +46,32 @@ public class OpgaveService {
         return repo.findByProjectId(projectId);
     }
 
+    /**
+     * Get one page of tasks for a project, ordered by ID.
+     *
+     * @param projectId the project ID
+     * @param cursor next-page cursor of the previous page, or null for the first page
+     * @param size rows per page
+     * @return the page
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<Opgave> getPageByProjectId(int projectId, String cursor, int size) {
+        if (projectId <= 0) {
+            throw new IllegalArgumentException("Project ID must be valid");
+        }
+        KeysetPage.checkSize(size);
+        int lastId = cursor == null || cursor.isEmpty() ? 0 : (int) PageCursor.decode(cursor, 1)[0];
+        return KeysetPage.of(repo.findByProjectIdAfter(projectId, lastId, size + 1), size,
+                o -> PageCursor.encode(o.getOpgaveId()));
+    }
+
     /**
      * Get a task by ID.
      *
      * @param opgaveId the task ID
      * @return the task
      */
+    @Transactional(readOnly = true)
     public Opgave getById(int opgaveId) {
         if (opgaveId <= 0) {
             throw new IllegalArgumentException("Opgave ID must be valid");
@@ -51,6 +85,7 @@ public class OpgaveService {
      * @param delProjektId the subproject ID
      * @return list of tasks
      */
+    @Transactional(readOnly = true)
     public List<Opgave> getByDelProjektId(int delProjektId) {
         if (delProjektId <= 0) {
             throw new IllegalArgumentException("DelProjekt ID must be valid");
@@ -66,6 +101,7 @@ public class OpgaveService {
     public void create(Opgave opgave) {
         validateOpgave(opgave);
         repo.create(opgave);
+        versions.touch(opgave.getProject_id());
     }
 
     /**
@@ -73,12 +109,16 @@ public class OpgaveService {
      *
      * @param opgave the task to update
      */
+    @Transactional
     public void update(Opgave opgave) {
         validateOpgave(opgave);
         if (opgave.getOpgaveId() == null || opgave.getOpgaveId() <= 0) {
             throw new IllegalArgumentException("Opgave ID must be valid");
         }
+        Opgave before = repo.findById(opgave.getOpgaveId());
         repo.update(opgave);
+        rollups.onOpgaveUpdated(before, opgave);
+        versions.touch(before != null ? before.getProject_id() : null, opgave.getProject_id());
     }
 
     /**
@@ -86,11 +126,113 @@ public class OpgaveService {
      *
      * @param opgaveId the task ID to delete
      */
+    @Transactional
     public void delete(int opgaveId) {
         if (opgaveId <= 0) {
             throw new IllegalArgumentException("Opgave ID must be valid");
         }
+        Opgave before = repo.findById(opgaveId);
+        rollups.onOpgaveDeleted(before);
         repo.delete(opgaveId);
+        if (before != null) {
+            versions.touch(before.getProject_id());
+        }
+    }
+
+    /**
+     * Create many tasks in one transaction. The whole batch is validated first.
+     *
+     * @param opgaver the tasks to create
+     * @return generated IDs in input order
+     */
+    @Transactional
+    public int[] createAll(List<Opgave> opgaver) {
+        if (opgaver == null) {
+            throw new IllegalArgumentException("Opgaver cannot be null");
+        }
+        opgaver.forEach(this::validateOpgave);
+        int[] ids = repo.createAll(opgaver);
+        versions.touch(projects(opgaver));
+        return ids;
+    }
+
+    /**
+     * Update many tasks in one transaction. The whole batch is validated first.
+     *
+     * @param opgaver the tasks to update
+     */
+    @Transactional
+    public void updateAll(List<Opgave> opgaver) {
+        if (opgaver == null) {
+            throw new IllegalArgumentException("Opgaver cannot be null");
+        }
+        List<Integer> ids = new ArrayList<>(opgaver.size());
+        for (Opgave o : opgaver) {
+            validateOpgave(o);
+            ids.add(o.getOpgaveId());
+        }
+        Map<Integer, Opgave> before = load(batchIds(ids));
+        repo.updateAll(opgaver);
+        for (Opgave o : opgaver) {
+            rollups.onOpgaveUpdated(before.get(o.getOpgaveId()), o);
+        }
+        Set<Integer> projects = projects(before.values());
+        projects.addAll(projects(opgaver));
+        versions.touch(projects);
+    }
+
+    /**
+     * Delete many tasks in one transaction.
+     *
+     * @param opgaveIds the task IDs to delete
+     */
+    @Transactional
+    public void deleteAll(Collection<Integer> opgaveIds) {
+        Set<Integer> ids = batchIds(opgaveIds);
+        Collection<Opgave> before = load(ids).values();
+        for (Opgave o : before) {
+            rollups.onOpgaveDeleted(o);
+        }
+        repo.deleteAll(ids);
+        versions.touch(projects(before));
+    }
+
+    // Projects of some tasks, for the version touch
+    private static Set<Integer> projects(Collection<Opgave> opgaver) {
+        Set<Integer> ids = new LinkedHashSet<>();
+        for (Opgave o : opgaver) {
+            ids.add(o.getProject_id());
+        }
+        return ids;
+    }
+
+    // Stored rows of a batch; every ID must exist
+    private Map<Integer, Opgave> load(Set<Integer> ids) {
+        Map<Integer, Opgave> byId = new HashMap<>();
+        for (Opgave o : repo.findByIds(ids)) {
+            byId.put(o.getOpgaveId(), o);
+        }
+        if (byId.size() != ids.size()) {
+            throw new IllegalArgumentException("Opgave not found");
+        }
+        return byId;
+    }
+
+    // IDs of a batch: all valid and none twice
+    private static Set<Integer> batchIds(Collection<Integer> ids) {
+        if (ids == null) {
+            throw new IllegalArgumentException("Opgave IDs cannot be null");
+        }
+        Set<Integer> unique = new LinkedHashSet<>();
+        for (Integer id : ids) {
+            if (id == null || id <= 0) {
+                throw new IllegalArgumentException("Opgave ID must be valid");
+            }
+            if (!unique.add(id)) {
+                throw new IllegalArgumentException("Opgave ID " + id + " is in the batch twice");
+            }
+        }
+        return unique;
     }
 
     /**
@@ -0,0 +1,245 @@
+package dk.eak.kalkulation.service;
+
+import dk.eak.kalkulation.model.Opgave;
+import dk.eak.kalkulation.repository.OpgaveRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Change version per project, for conditional GETs of the project pages.
+ * <p>
+ * Every write to a project, its delprojekter, opgaver or time entries touches
+ * the project. A touch takes the next number of one counter shared by all
+ * projects, so versions only grow. Writes whose projects are not known (rollup
+ * rebuilds and imports) touch all projects at once. Versions live in memory;
+ * the ETag also carries the start time of the application, so tags from
+ * before a restart never match.
+ * <p>
+ * Like {@code QueryCache.invalidate}, a touch inside a transaction is repeated
+ * after the transaction completes, so a page rendered from rows that were not
+ * yet committed cannot keep the new tag.
+ * <p>
+ * Listeners hear about a touch once its transaction has committed (at once
+ * outside a transaction); rolled back writes are not reported.
+ */
+@Service
+public class ProjectVersionService {
+
+    private final OpgaveRepository opgaveRepo;
+    private final Clock clock;
+    private final String epoch;
+    private final AtomicLong counter = new AtomicLong();
+    private final Map<Integer, Stamp> stamps = new ConcurrentHashMap<>();
+    private volatile Stamp all;
+    private volatile long replicaLagNanos;
+    private final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    public ProjectVersionService(OpgaveRepository opgaveRepo) {
+        this(opgaveRepo, Clock.systemUTC());
+    }
+
+    ProjectVersionService(OpgaveRepository opgaveRepo, Clock clock) {
+        this.opgaveRepo = opgaveRepo;
+        this.clock = clock;
+        this.epoch = Long.toString(clock.millis(), 36);
+        this.all = new Stamp(0, clock.millis(), System.nanoTime());
+    }
+
+    /**
+     * Mark projects as changed.
+     *
+     * @param projectIds the changed projects; null entries are ignored
+     */
+    public void touch(Integer... projectIds) {
+        touch(Arrays.asList(projectIds));
+    }
+
+    /**
+     * Mark projects as changed.
+     *
+     * @param projectIds the changed projects; null entries are ignored
+     */
+    public void touch(Collection<Integer> projectIds) {
+        List<Integer> ids = projectIds.stream().filter(Objects::nonNull).distinct().toList();
+        if (ids.isEmpty()) {
+            return;
+        }
+        bump(ids);
+        afterCompletion(() -> bump(ids), () -> listeners.forEach(l -> l.projectsChanged(ids)));
+    }
+
+    /**
+     * Mark the projects of some tasks as changed, e.g. after writing their time entries.
+     *
+     * @param opgaveIds the tasks that were written to
+     */
+    public void touchOpgaver(Collection<Integer> opgaveIds) {
+        if (opgaveIds.isEmpty()) {
+            return;
+        }
+        List<Integer> projectIds = new ArrayList<>();
+        for (Opgave o : opgaveRepo.findByIds(opgaveIds)) {
+            projectIds.add(o.getProject_id());
+        }
+        touch(projectIds);
+    }
+
+    /**
+     * Mark every project as changed.
+     */
+    public void touchAll() {
+        bumpAll();
+        afterCompletion(this::bumpAll, () -> listeners.forEach(ChangeListener::allProjectsChanged));
+    }
+
+    /**
+     * Be told about committed changes.
+     *
+     * @param listener called on the committing thread; must not block
+     */
+    public void addListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * The current version of a project.
+     *
+     * @param projectId the project ID
+     * @return a number that grows with every change
+     */
+    public long version(int projectId) {
+        return stamp(projectId).version;
+    }
+
+    /**
+     * When a project last changed, or when the application started.
+     *
+     * @param projectId the project ID
+     * @return epoch millis
+     */
+    public long lastModified(int projectId) {
+        return stamp(projectId).millis;
+    }
+
+    /**
+     * A strong ETag for one view of a project.
+     * With a read replica, null while the project changed less than the replica
+     * lag ago: the page may be rendered from rows without the change, and must
+     * not be cached under the new version.
+     *
+     * @param view name of the page, so pages of one project get different tags
+     * @param projectId the project ID
+     * @return the quoted ETag, or null when the page should not be validated
+     */
+    public String etag(String view, int projectId) {
+        String tag = tag(projectId, Long.MAX_VALUE);
+        return tag == null ? null : "\"" + view + "-" + tag + "\"";
+    }
+
+    /**
+     * The newest version handed out so far. Read it before loading the rows
+     * of something that is cached under {@link #tag}.
+     */
+    public long mark() {
+        return counter.get();
+    }
+
+    /**
+     * Identifies the current state of a project, e.g. in a cache key.
+     * Null when the project changed after {@code mark} (the rows may have been
+     * read before the change) or, with a read replica, less than the replica
+     * lag ago.
+     *
+     * @param projectId the project ID
+     * @param mark {@link #mark()} from before the rows were read
+     * @return a tag that changes with every change of the project, or null
+     */
+    public String tag(int projectId, long mark) {
+        Stamp s = stamp(projectId);
+        if (s.version > mark) {
+            return null;
+        }
+        long lag = replicaLagNanos;
+        // version 0: not changed since start
+        if (lag > 0 && s.version > 0 && System.nanoTime() - s.nanos < lag) {
+            return null;
+        }
+        return projectId + "-" + epoch + "-" + s.version;
+    }
+
+    /**
+     * How far a read replica may lag behind the primary; 0 (the default) when
+     * there is no replica.
+     */
+    public void setReplicaLagMillis(long millis) {
+        this.replicaLagNanos = TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    // ===== helpers =====
+    private Stamp stamp(int projectId) {
+        Stamp own = stamps.get(projectId);
+        Stamp floor = all;
+        return own == null || floor.version > own.version ? floor : own;
+    }
+
+    private void bump(List<Integer> projectIds) {
+        Stamp s = next();
+        for (Integer id : projectIds) {
+            // concurrent touches may arrive out of order; keep the newest
+            stamps.merge(id, s, (a, b) -> a.version >= b.version ? a : b);
+        }
+    }
+
+    private void bumpAll() {
+        all = next();
+    }
+
+    private Stamp next() {
+        return new Stamp(counter.incrementAndGet(), clock.millis(), System.nanoTime());
+    }
+
+    // Inside a transaction: repeat the bump when it completes and notify only if it committed
+    private static void afterCompletion(Runnable bump, Runnable notify) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            notify.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                bump.run();
+                if (status == STATUS_COMMITTED) {
+                    notify.run();
+                }
+            }
+        });
+    }
+
+    /**
+     * Told about committed project changes.
+     */
+    public interface ChangeListener {
+
+        void projectsChanged(Collection<Integer> projectIds);
+
+        void allProjectsChanged();
+    }
+
+    private record Stamp(long version, long millis, long nanos) {
+    }
+}
@@ -1,11 +1,20 @@
 package dk.eak.kalkulation.service;
 
+import dk.eak.kalkulation.model.KeysetPage;
+import dk.eak.kalkulation.model.ProjectTree;
 import dk.eak.kalkulation.model.Projekt;
+import dk.eak.kalkulation.repository.ProjectTreeRepository;
 import dk.eak.kalkulation.repository.ProjektRepository;
+import dk.eak.kalkulation.util.PageCursor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Service layer for Projekt operations.
@@ -15,9 +24,13 @@ import java.util.List;
 public class ProjektService {
 
     private final ProjektRepository repo;
+    private final ProjectTreeRepository treeRepo;
+    private final ProjectVersionService versions;
 
-    public ProjektService(ProjektRepository repo) {
+    public ProjektService(ProjektRepository repo, ProjectTreeRepository treeRepo, ProjectVersionService versions) {
         this.repo = repo;
+        this.treeRepo = treeRepo;
+        this.versions = versions;
     }
 
     /**
@@ -25,16 +38,32 @@ public class ProjektService {
      *
      * @return list of all projects
      */
+    @Transactional(readOnly = true)
     public List<Projekt> getAll() {
         return repo.getAll();
     }
 
+    /**
+     * Get one page of projects, ordered by ID.
+     *
+     * @param cursor next-page cursor of the previous page, or null for the first page
+     * @param size rows per page
+     * @return the page
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<Projekt> getPage(String cursor, int size) {
+        KeysetPage.checkSize(size);
+        int lastId = cursor == null || cursor.isEmpty() ? 0 : (int) PageCursor.decode(cursor, 1)[0];
+        return KeysetPage.of(repo.findAfter(lastId, size + 1), size, p -> PageCursor.encode(p.getProjectId()));
+    }
+
     /**
      * Get a project by ID.
      *
      * @param id the project ID
      * @return the project
      */
+    @Transactional(readOnly = true)
     public Projekt getById(int id) {
         if (id <= 0) {
             throw new IllegalArgumentException("Project ID must be valid");
@@ -42,6 +71,24 @@ public class ProjektService {
         return repo.getById(id);
     }
 
+    /**
+     * Get a project with its delprojekter, opgaver and registered hours.
+     *
+     * @param id the project ID
+     * @return the project tree
+     */
+    @Transactional(readOnly = true)
+    public ProjectTree getTree(int id) {
+        if (id <= 0) {
+            throw new IllegalArgumentException("Project ID must be valid");
+        }
+        ProjectTree tree = treeRepo.findByProjectId(id);
+        if (tree == null) {
+            throw new IllegalArgumentException("Project not found");
+        }
+        return tree;
+    }
+
     /**
      * Create a new project.
      *
@@ -50,6 +97,7 @@ public class ProjektService {
     public void create(Projekt projekt) {
         validateProjekt(projekt);
         repo.create(projekt);
+        versions.touch(projekt.getProjectId());
     }
 
     /**
@@ -63,6 +111,7 @@ public class ProjektService {
             throw new IllegalArgumentException("Project ID must be valid");
         }
         repo.update(projekt);
+        versions.touch(projekt.getProjectId());
     }
 
     /**
@@ -75,6 +124,68 @@ public class ProjektService {
             throw new IllegalArgumentException("Project ID must be valid");
         }
         repo.delete(id);
+        versions.touch(id);
+    }
+
+    /**
+     * Create many projects in one transaction. The whole batch is validated first.
+     *
+     * @param projekter the projects to create
+     * @return generated IDs in input order
+     */
+    @Transactional
+    public int[] createAll(List<Projekt> projekter) {
+        if (projekter == null) {
+            throw new IllegalArgumentException("Projekter cannot be null");
+        }
+        projekter.forEach(this::validateProjekt);
+        int[] ids = repo.createAll(projekter);
+        versions.touch(Arrays.stream(ids).boxed().toList());
+        return ids;
+    }
+
+    /**
+     * Update many projects in one transaction. The whole batch is validated first.
+     *
+     * @param projekter the projects to update
+     */
+    @Transactional
+    public void updateAll(List<Projekt> projekter) {
+        if (projekter == null) {
+            throw new IllegalArgumentException("Projekter cannot be null");
+        }
+        Set<Integer> ids = new LinkedHashSet<>();
+        for (Projekt p : projekter) {
+            validateProjekt(p);
+            if (p.getProjectId() <= 0) {
+                throw new IllegalArgumentException("Project ID must be valid");
+            }
+            if (!ids.add(p.getProjectId())) {
+                throw new IllegalArgumentException("Project ID " + p.getProjectId() + " is in the batch twice");
+            }
+        }
+        repo.updateAll(projekter);
+        versions.touch(ids);
+    }
+
+    /**
+     * Delete many projects in one transaction.
+     *
+     * @param ids the project IDs to delete
+     */
+    @Transactional
+    public void deleteAll(Collection<Integer> ids) {
+        if (ids == null) {
+            throw new IllegalArgumentException("Project IDs cannot be null");
+        }
+        for (Integer id : ids) {
+            if (id == null || id <= 0) {
+                throw new IllegalArgumentException("Project ID must be valid");
+            }
+        }
+        Set<Integer> batch = new LinkedHashSet<>(ids);
+        repo.deleteAll(batch);
+        versions.touch(batch);
     }
 
     /**
@@ -0,0 +1,226 @@
+package dk.eak.kalkulation.service;
+
+import dk.eak.kalkulation.calendar.WorkCalendar;
+import dk.eak.kalkulation.calendar.WorkCalendarRegistry;
+import dk.eak.kalkulation.model.DelProjekt;
+import dk.eak.kalkulation.model.Opgave;
+import dk.eak.kalkulation.model.Projekt;
+import dk.eak.kalkulation.model.ScenarioResult;
+import dk.eak.kalkulation.repository.CalculationRepository;
+import dk.eak.kalkulation.repository.DelProjektRepository;
+import dk.eak.kalkulation.repository.OpgaveRepository;
+import dk.eak.kalkulation.repository.ProjektRepository;
+import dk.eak.kalkulation.scenario.ProjectSnapshot;
+import dk.eak.kalkulation.scenario.Scenario;
+import dk.eak.kalkulation.scenario.TaskNode;
+import dk.eak.kalkulation.util.IntIntMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.UnaryOperator;
+
+/**
+ * Service layer for what-if scenarios.
+ * A project is loaded once into a {@link ProjectSnapshot}; every scenario of that
+ * project shares it and only keeps its own edits. Evaluating a scenario never
+ * touches the database. The least recently used scenarios are dropped when more
+ * than the configured number are open.
+ * <p>
+ * A snapshot is kept with the {@link ProjectVersionService#tag} of the project
+ * it was loaded at; a new scenario reuses it only while the project has not
+ * changed since. The least recently used snapshots are dropped too.
+ */
+@Service
+public class ScenarioService {
+
+    private final ProjektRepository projektRepo;
+    private final DelProjektRepository delProjektRepo;
+    private final OpgaveRepository opgaveRepo;
+    private final CalculationRepository calcRepo;
+    private final WorkCalendarRegistry calendars;
+    private final ProjectVersionService versions;
+    private final Map<Integer, Loaded> snapshots;
+    private final Map<String, Scenario> scenarios;
+
+    private record Loaded(String tag, ProjectSnapshot snapshot) {
+    }
+
+    public ScenarioService(ProjektRepository projektRepo,
+                           DelProjektRepository delProjektRepo,
+                           OpgaveRepository opgaveRepo,
+                           CalculationRepository calcRepo,
+                           WorkCalendarRegistry calendars,
+                           ProjectVersionService versions,
+                           @Value("${kalkulation.scenario.max-open:500}") int maxOpen,
+                           @Value("${kalkulation.scenario.max-snapshots:50}") int maxSnapshots) {
+        this.projektRepo = projektRepo;
+        this.delProjektRepo = delProjektRepo;
+        this.opgaveRepo = opgaveRepo;
+        this.calcRepo = calcRepo;
+        this.calendars = calendars;
+        this.versions = versions;
+        this.snapshots = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Loaded> eldest) {
+                return size() > maxSnapshots;
+            }
+        };
+        this.scenarios = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Scenario> eldest) {
+                return size() > maxOpen;
+            }
+        };
+    }
+
+    /**
+     * Open a new scenario for a project.
+     *
+     * @param projektId the project ID
+     * @param reload load the project again instead of reusing the loaded snapshot
+     * @return the unedited scenario
+     */
+    public ScenarioResult create(int projektId, boolean reload) {
+        if (projektId <= 0) {
+            throw new IllegalArgumentException("Project ID must be valid");
+        }
+        ProjectSnapshot snapshot = reload ? null : current(projektId);
+        if (snapshot == null) {
+            long mark = versions.mark();
+            snapshot = load(projektId);
+            String tag = versions.tag(projektId, mark);
+            synchronized (snapshots) {
+                if (tag != null) {
+                    snapshots.put(projektId, new Loaded(tag, snapshot));
+                } else {
+                    snapshots.remove(projektId);
+                }
+            }
+        }
+        String id = UUID.randomUUID().toString();
+        Scenario s = Scenario.of(snapshot);
+        synchronized (scenarios) {
+            scenarios.put(id, s);
+        }
+        return result(id, s);
+    }
+
+    /**
+     * Evaluate an open scenario.
+     *
+     * @param scenarioId the scenario ID
+     * @return base and scenario metrics
+     */
+    public ScenarioResult get(String scenarioId) {
+        return result(scenarioId, find(scenarioId));
+    }
+
+    /**
+     * The project an open scenario was made from.
+     *
+     * @param scenarioId the scenario ID
+     * @return the project ID
+     */
+    public int projectOf(String scenarioId) {
+        return find(scenarioId).getBase().getProjectId();
+    }
+
+    public ScenarioResult setEstimate(String scenarioId, int opgaveId, int hours) {
+        return edit(scenarioId, s -> s.withEstimatedHours(opgaveId, hours));
+    }
+
+    public ScenarioResult scaleEstimate(String scenarioId, int opgaveId, double percent) {
+        return edit(scenarioId, s -> s.scaleEstimate(opgaveId, percent));
+    }
+
+    public ScenarioResult scaleDelProjekt(String scenarioId, int delProjektId, double percent) {
+        return edit(scenarioId, s -> s.scaleDelProjekt(delProjektId, percent));
+    }
+
+    public ScenarioResult removeOpgave(String scenarioId, int opgaveId) {
+        return edit(scenarioId, s -> s.withoutOpgave(opgaveId));
+    }
+
+    public ScenarioResult setEndDate(String scenarioId, LocalDate endDate) {
+        return edit(scenarioId, s -> s.withEndDate(endDate));
+    }
+
+    public ScenarioResult shiftEndDate(String scenarioId, int days) {
+        return edit(scenarioId, s -> s.shiftEndDate(days));
+    }
+
+    /**
+     * Close a scenario.
+     *
+     * @param scenarioId the scenario ID
+     */
+    public void discard(String scenarioId) {
+        synchronized (scenarios) {
+            scenarios.remove(scenarioId);
+        }
+    }
+
+    // ===== helpers =====
+    private ScenarioResult edit(String scenarioId, UnaryOperator<Scenario> change) {
+        Scenario next;
+        synchronized (scenarios) {
+            next = change.apply(find(scenarioId));
+            scenarios.put(scenarioId, next);
+        }
+        return result(scenarioId, next);
+    }
+
+    private Scenario find(String scenarioId) {
+        Scenario s;
+        synchronized (scenarios) {
+            s = scenarios.get(scenarioId);
+        }
+        if (s == null) {
+            throw new IllegalArgumentException("Unknown scenario " + scenarioId);
+        }
+        return s;
+    }
+
+    private ScenarioResult result(String id, Scenario s) {
+        WorkCalendar cal = calendars.get(s.getBase().getCalendarId());
+        return new ScenarioResult(id, s.getBase().getProjectId(), s.getEdits(),
+                Scenario.of(s.getBase()).evaluate(cal), s.evaluate(cal));
+    }
+
+    // The kept snapshot, if the project has not changed since it was loaded
+    private ProjectSnapshot current(int projektId) {
+        Loaded loaded;
+        synchronized (snapshots) {
+            loaded = snapshots.get(projektId);
+        }
+        if (loaded == null || !loaded.tag().equals(versions.tag(projektId, Long.MAX_VALUE))) {
+            return null;
+        }
+        return loaded.snapshot();
+    }
+
+    private ProjectSnapshot load(int projektId) {
+        Projekt p = projektRepo.findById(projektId);
+        Map<Integer, String> delProjekter = new HashMap<>();
+        for (DelProjekt dp : delProjektRepo.findByProjektId(projektId)) {
+            delProjekter.put(dp.getDelProjektId(), dp.getName() != null ? dp.getName() : "");
+        }
+        IntIntMap registered = new IntIntMap();
+        calcRepo.forEachTaskHours(projektId, (id, est, reg) -> registered.put(id, reg));
+        List<Opgave> opgaver = opgaveRepo.findByProjectId(projektId);
+        List<TaskNode> tasks = new ArrayList<>(opgaver.size());
+        for (Opgave o : opgaver) {
+            tasks.add(new TaskNode(o.getOpgaveId(), o.getDelProjektId(), o.getName(),
+                    o.getEstimatedHours() != null ? o.getEstimatedHours() : 0,
+                    registered.get(o.getOpgaveId(), 0), o.getDeadline()));
+        }
+        return new ProjectSnapshot(p, delProjekter, tasks);
+    }
+}
@@ -0,0 +1,322 @@
+package dk.eak.kalkulation.service;
+
+import dk.eak.kalkulation.calendar.WorkCalendar;
+import dk.eak.kalkulation.model.Opgave;
+import dk.eak.kalkulation.model.OpgaveDependency;
+import dk.eak.kalkulation.model.Projekt;
+import dk.eak.kalkulation.model.Schedule;
+import dk.eak.kalkulation.model.ScheduledTask;
+import dk.eak.kalkulation.repository.CalculationRepository;
+import dk.eak.kalkulation.repository.OpgaveDependencyRepository;
+import dk.eak.kalkulation.repository.OpgaveRepository;
+import dk.eak.kalkulation.schedule.TaskGraph;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Service layer for deadline-driven scheduling.
+ * Keeps one {@link TaskGraph} per project in memory. On each request the task rows
+ * are re-read with one query; when only hours or deadlines changed the graph is
+ * updated incrementally, when tasks or dependencies changed it is rebuilt.
+ * The graphs of the {@code max-graphs} most recently scheduled projects are kept.
+ * <p>
+ * Scheduling and dependency changes of a project run under its lock (one of
+ * {@link #LOCK_STRIPES}, picked by project ID), so two concurrent adds cannot
+ * both pass the cycle check and a graph is never built from dependencies that
+ * are being changed. The map itself is only locked to get or put an entry.
+ */
+@Service
+public class ScheduleService {
+
+    static final int LOCK_STRIPES = 64;
+
+    private final CalculationRepository calcRepo;
+    private final OpgaveRepository opgaveRepo;
+    private final OpgaveDependencyRepository dependencyRepo;
+    private final CalculationService calc;
+    private final double hoursPerWorkday;
+    private final Map<Integer, Entry> graphs;
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    public ScheduleService(CalculationRepository calcRepo,
+                           OpgaveRepository opgaveRepo,
+                           OpgaveDependencyRepository dependencyRepo,
+                           CalculationService calc,
+                           @Value("${kalkulation.schedule.hours-per-day:7.4}") double hoursPerWorkday,
+                           @Value("${kalkulation.schedule.max-graphs:100}") int maxGraphs) {
+        if (hoursPerWorkday <= 0) {
+            throw new IllegalArgumentException("Hours per workday must be positive");
+        }
+        if (maxGraphs <= 0) {
+            throw new IllegalArgumentException("Max graphs must be positive");
+        }
+        this.graphs = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+                return size() > maxGraphs;
+            }
+        };
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.calcRepo = calcRepo;
+        this.opgaveRepo = opgaveRepo;
+        this.dependencyRepo = dependencyRepo;
+        this.calc = calc;
+        this.hoursPerWorkday = hoursPerWorkday;
+    }
+
+    /**
+     * Schedule the remaining work of a project from today.
+     *
+     * @param projektId the project ID
+     * @return earliest/latest dates, slack and the critical path
+     */
+    public Schedule schedule(int projektId) {
+        return schedule(projektId, LocalDate.now());
+    }
+
+    Schedule schedule(int projektId, LocalDate today) {
+        if (projektId <= 0) {
+            throw new IllegalArgumentException("Project ID must be valid");
+        }
+        Projekt p = calc.metrics(projektId).getProjekt();
+        WorkCalendar cal = calc.calendarFor(p);
+        LocalDate from = p.getStartDate() != null && p.getStartDate().isAfter(today) ? p.getStartDate() : today;
+
+        Rows rows = new Rows();
+        calcRepo.forEachTaskPlan(projektId, (id, name, est, reg, deadline) -> {
+            int remaining = Math.max(est - reg, 0);
+            int days = (int) Math.ceil(remaining / hoursPerWorkday);
+            int due = deadline != null ? cal.workingDaysBetween(from, deadline) : TaskGraph.NO_DEADLINE;
+            rows.add(id, name, remaining, days, due, deadline);
+        });
+
+        ReentrantLock lock = lockFor(projektId);
+        lock.lock();
+        try {
+            Entry entry;
+            synchronized (graphs) {
+                entry = graphs.get(projektId);
+            }
+            Entry e = refresh(projektId, entry, from, rows);
+            if (e != entry) {
+                synchronized (graphs) {
+                    graphs.put(projektId, e);
+                }
+            }
+            return toSchedule(projektId, from, cal, rows, e.graph);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get the dependencies between the opgaver of a project.
+     *
+     * @param projektId the project ID
+     * @return list of dependencies
+     */
+    public List<OpgaveDependency> getDependencies(int projektId) {
+        if (projektId <= 0) {
+            throw new IllegalArgumentException("Project ID must be valid");
+        }
+        return dependencyRepo.findByProjectId(projektId);
+    }
+
+    /**
+     * Make an opgave wait for another opgave in the same project.
+     *
+     * @param opgaveId the opgave that waits
+     * @param dependsOnId the opgave that must be done first
+     */
+    public void addDependency(int opgaveId, int dependsOnId) {
+        if (opgaveId <= 0 || dependsOnId <= 0) {
+            throw new IllegalArgumentException("Opgave ID must be valid");
+        }
+        if (opgaveId == dependsOnId) {
+            throw new IllegalArgumentException("An opgave cannot depend on itself");
+        }
+        Opgave o = opgaveRepo.findById(opgaveId);
+        Opgave prerequisite = opgaveRepo.findById(dependsOnId);
+        if (!o.getProject_id().equals(prerequisite.getProject_id())) {
+            throw new IllegalArgumentException("Opgaver must belong to the same project");
+        }
+        // check against the stored dependencies and insert under the project's lock; drop the graph
+        int projektId = o.getProject_id();
+        ReentrantLock lock = lockFor(projektId);
+        lock.lock();
+        try {
+            List<OpgaveDependency> deps = dependencyRepo.findByProjectId(projektId);
+            for (OpgaveDependency d : deps) {
+                if (d.getOpgaveId() == opgaveId && d.getDependsOnId() == dependsOnId) {
+                    throw new IllegalArgumentException("Dependency already exists");
+                }
+            }
+            if (reaches(deps, dependsOnId, opgaveId)) {
+                throw new IllegalArgumentException("Dependency would create a cycle");
+            }
+            try {
+                dependencyRepo.create(new OpgaveDependency(opgaveId, dependsOnId));
+            } catch (DuplicateKeyException e) {
+                throw new IllegalArgumentException("Dependency already exists");
+            }
+            evict(projektId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Remove a dependency.
+     *
+     * @param opgaveId the opgave that waits
+     * @param dependsOnId the opgave it waited for
+     */
+    public void removeDependency(int opgaveId, int dependsOnId) {
+        if (opgaveId <= 0 || dependsOnId <= 0) {
+            throw new IllegalArgumentException("Opgave ID must be valid");
+        }
+        int projektId = opgaveRepo.findById(opgaveId).getProject_id();
+        ReentrantLock lock = lockFor(projektId);
+        lock.lock();
+        try {
+            dependencyRepo.delete(opgaveId, dependsOnId);
+            evict(projektId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock lockFor(int projektId) {
+        return locks[Math.floorMod(projektId, locks.length)];
+    }
+
+    private void evict(int projektId) {
+        synchronized (graphs) {
+            graphs.remove(projektId);
+        }
+    }
+
+    // True if opgave 'from' waits, directly or through others, for opgave 'to'
+    private static boolean reaches(List<OpgaveDependency> deps, int from, int to) {
+        Map<Integer, List<Integer>> waitsFor = new HashMap<>();
+        for (OpgaveDependency d : deps) {
+            waitsFor.computeIfAbsent(d.getOpgaveId(), k -> new ArrayList<>()).add(d.getDependsOnId());
+        }
+        Deque<Integer> stack = new ArrayDeque<>(List.of(from));
+        Set<Integer> seen = new HashSet<>();
+        while (!stack.isEmpty()) {
+            int id = stack.pop();
+            if (id == to) {
+                return true;
+            }
+            if (seen.add(id)) {
+                stack.addAll(waitsFor.getOrDefault(id, List.of()));
+            }
+        }
+        return false;
+    }
+
+    // Incremental update when the task set is unchanged, otherwise a rebuild
+    private Entry refresh(int projektId, Entry entry, LocalDate from, Rows rows) {
+        if (entry != null && entry.from.equals(from) && Arrays.equals(entry.ids, rows.ids())) {
+            for (int i = 0; i < rows.size; i++) {
+                entry.graph.update(rows.ids[i], rows.days[i], rows.due[i]);
+            }
+            return entry;
+        }
+        List<OpgaveDependency> deps = dependencyRepo.findByProjectId(projektId);
+        int[] dependsOn = new int[deps.size()];
+        int[] dependent = new int[deps.size()];
+        for (int k = 0; k < deps.size(); k++) {
+            dependsOn[k] = deps.get(k).getDependsOnId();
+            dependent[k] = deps.get(k).getOpgaveId();
+        }
+        int[] ids = rows.ids();
+        TaskGraph graph = TaskGraph.build(ids, Arrays.copyOf(rows.days, rows.size),
+                Arrays.copyOf(rows.due, rows.size), dependsOn, dependent);
+        return new Entry(from, ids, graph);
+    }
+
+    private Schedule toSchedule(int projektId, LocalDate from, WorkCalendar cal, Rows rows, TaskGraph g) {
+        // date of every working-day offset, walked once
+        LocalDate[] workdays = new LocalDate[g.makespan() + 1];
+        LocalDate d = from;
+        for (int k = 0; k < workdays.length; d = d.plusDays(1)) {
+            if (cal.isWorkingDay(d)) {
+                workdays[k++] = d;
+            }
+        }
+        List<ScheduledTask> tasks = new ArrayList<>(rows.size);
+        for (int i = 0; i < rows.size; i++) {
+            int id = rows.ids[i];
+            int es = g.earliestStart(id);
+            int ls = g.latestStart(id);
+            tasks.add(new ScheduledTask(id, rows.names[i], rows.remaining[i], g.duration(id),
+                    workdays[es], workdays[Math.max(g.earliestFinish(id) - 1, es)],
+                    workdays[ls], workdays[Math.max(g.latestFinish(id) - 1, ls)],
+                    g.slack(id), rows.deadlines[i], g.isCritical(id), g.isLate(id)));
+        }
+        LocalDate finish = workdays[Math.max(g.makespan() - 1, 0)];
+        return new Schedule(projektId, from, finish, hoursPerWorkday, tasks, g.criticalPath());
+    }
+
+    private static final class Entry {
+        private final LocalDate from;
+        private final int[] ids;
+        private final TaskGraph graph;
+
+        Entry(LocalDate from, int[] ids, TaskGraph graph) {
+            this.from = from;
+            this.ids = ids;
+            this.graph = graph;
+        }
+    }
+
+    // Growable columns of the task rows of one project
+    private static final class Rows {
+        private int[] ids = new int[16];
+        private String[] names = new String[16];
+        private int[] remaining = new int[16];
+        private int[] days = new int[16];
+        private int[] due = new int[16];
+        private LocalDate[] deadlines = new LocalDate[16];
+        private int size;
+
+        void add(int id, String name, int remainingHours, int durationDays, int dueDays, LocalDate deadline) {
+            if (size == ids.length) {
+                int cap = size * 2;
+                ids = Arrays.copyOf(ids, cap);
+                names = Arrays.copyOf(names, cap);
+                remaining = Arrays.copyOf(remaining, cap);
+                days = Arrays.copyOf(days, cap);
+                due = Arrays.copyOf(due, cap);
+                deadlines = Arrays.copyOf(deadlines, cap);
+            }
+            ids[size] = id;
+            names[size] = name;
+            remaining[size] = remainingHours;
+            days[size] = durationDays;
+            due[size] = dueDays;
+            deadlines[size] = deadline;
+            size++;
+        }
+
+        int[] ids() { return Arrays.copyOf(ids, size); }
+    }
+}
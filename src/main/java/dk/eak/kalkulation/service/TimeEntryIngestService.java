@@ -0,0 +1,236 @@
+package dk.eak.kalkulation.service;
+
+import dk.eak.kalkulation.model.TimeEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Group commit for single time entries, e.g. the hours form at month end.
+ * <p>
+ * With {@code kalkulation.ingest.enabled}, a validated entry goes into a
+ * bounded queue and the request waits. One writer thread takes what has
+ * queued up, at most {@code max-batch} entries or what arrives within
+ * {@code linger-millis} of the first, and writes them with
+ * {@link TimeEntryService#createAll} in one transaction. Each request returns
+ * once its batch has committed, so hundreds of concurrent entries cost a few
+ * commits instead of one each.
+ * <p>
+ * If a batch fails (e.g. an opgave was deleted meanwhile), its entries are
+ * written one by one, so only the bad entry fails; an entry whose idempotency
+ * key was taken meanwhile gets the ID of the first entry. When the queue is full, a
+ * request waits up to {@code enqueue-timeout-millis} for room and then fails; it
+ * waits up to {@code commit-timeout-millis} for its batch. Both failures are an
+ * {@link IllegalStateException}: the entry may be retried with the same
+ * idempotency key. Switched off, entries are written directly as before.
+ */
+@Service
+public class TimeEntryIngestService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(TimeEntryIngestService.class);
+
+    private final TimeEntryService timeService;
+    private final boolean enabled;
+    private final int maxBatch;
+    private final long lingerNanos;
+    private final long enqueueTimeoutMillis;
+    private final long commitTimeoutMillis;
+    private final BlockingQueue<Pending> queue;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    private final LongAdder entries = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    public TimeEntryIngestService(TimeEntryService timeService,
+                                  @Value("${kalkulation.ingest.enabled:false}") boolean enabled,
+                                  @Value("${kalkulation.ingest.max-batch:500}") int maxBatch,
+                                  @Value("${kalkulation.ingest.linger-millis:5}") long lingerMillis,
+                                  @Value("${kalkulation.ingest.queue-capacity:10000}") int queueCapacity,
+                                  @Value("${kalkulation.ingest.enqueue-timeout-millis:1000}") long enqueueTimeoutMillis,
+                                  @Value("${kalkulation.ingest.commit-timeout-millis:30000}") long commitTimeoutMillis) {
+        if (maxBatch <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Batch size and queue capacity must be positive");
+        }
+        if (lingerMillis < 0 || enqueueTimeoutMillis < 0) {
+            throw new IllegalArgumentException("Linger and enqueue timeout cannot be negative");
+        }
+        if (commitTimeoutMillis <= 0) {
+            throw new IllegalArgumentException("Commit timeout must be positive");
+        }
+        this.timeService = timeService;
+        this.enabled = enabled;
+        this.maxBatch = maxBatch;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+        this.enqueueTimeoutMillis = enqueueTimeoutMillis;
+        this.commitTimeoutMillis = commitTimeoutMillis;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        if (enabled) {
+            writer = Thread.ofPlatform().name("time-entry-writer").daemon().start(this::run);
+        } else {
+            writer = null;
+        }
+    }
+
+    /**
+     * Create a time entry; returns once it is committed.
+     *
+     * @param timeEntry the time entry to create; gets its generated ID
+     * @throws IllegalStateException if the queue stayed full or the batch did not commit in time
+     */
+    public void create(TimeEntry timeEntry) {
+        if (!enabled) {
+            createOrReplay(timeEntry);
+            return;
+        }
+        TimeEntryService.validateTimeEntry(timeEntry);
+        Pending p = new Pending(timeEntry);
+        try {
+            if (!running || !queue.offer(p, enqueueTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("Time entry queue is full");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing a time entry", e);
+        }
+        try {
+            p.done.get(commitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException r) {
+                throw r;
+            }
+            throw new IllegalStateException("Time entry writer failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Time entry was not committed within " + commitTimeoutMillis
+                    + " ms; it may still be written");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a time entry to commit", e);
+        }
+    }
+
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("queued", (long) queue.size());
+        stats.put("entries", entries.sum());
+        stats.put("batches", batches.sum());
+        stats.put("fallbacks", fallbacks.sum());
+        return stats;
+    }
+
+    /**
+     * Stop taking entries, write what is queued and stop the writer.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        }
+    }
+
+    // ===== helpers =====
+    private void run() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < maxBatch) {
+                    queue.drainTo(batch, maxBatch - batch.size());
+                    long wait = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatch || wait <= 0) {
+                        break;
+                    }
+                    Pending next = queue.poll(wait, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                write(batch);
+            } catch (InterruptedException e) {
+                // only destroy() stops the writer; entries taken so far are not written
+                IllegalStateException stopped = new IllegalStateException("Time entry writer was interrupted");
+                batch.forEach(p -> p.done.completeExceptionally(stopped));
+            } catch (RuntimeException | Error e) {
+                log.error("Time entry writer failed", e);
+                batch.forEach(p -> p.done.completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+        // queued after the last batch
+        for (Pending p; (p = queue.poll()) != null; ) {
+            p.done.completeExceptionally(new IllegalStateException("Time entry writer has stopped"));
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        List<TimeEntry> rows = new ArrayList<>(batch.size());
+        batch.forEach(p -> rows.add(p.entry));
+        try {
+            timeService.createAll(rows);
+            batches.increment();
+            entries.add(batch.size());
+            batch.forEach(p -> p.done.complete(null));
+        } catch (RuntimeException e) {
+            // one bad entry rolls back the batch: write them one by one so only it fails
+            fallbacks.increment();
+            for (Pending p : batch) {
+                p.entry.setTimeEntryId(null);
+                try {
+                    createOrReplay(p.entry);
+                    entries.increment();
+                    p.done.complete(null);
+                } catch (RuntimeException ex) {
+                    p.done.completeExceptionally(ex);
+                }
+            }
+        }
+    }
+
+    // A retry racing its first try loses on the unique index; once that has
+    // committed, creating again finds the first entry and returns its ID
+    private void createOrReplay(TimeEntry timeEntry) {
+        try {
+            timeService.create(timeEntry);
+        } catch (DuplicateKeyException e) {
+            if (timeEntry.getIdempotencyKey() == null) {
+                throw e;
+            }
+            timeEntry.setTimeEntryId(null);
+            timeService.create(timeEntry);
+        }
+    }
+
+    private static final class Pending {
+
+        private final TimeEntry entry;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Pending(TimeEntry entry) {
+            this.entry = entry;
+        }
+    }
+}
@@ -1,11 +1,21 @@
 package dk.eak.kalkulation.service;
 
+import dk.eak.kalkulation.model.KeysetPage;
 import dk.eak.kalkulation.model.TimeEntry;
 import dk.eak.kalkulation.repository.TimeEntryRepository;
+import dk.eak.kalkulation.util.PageCursor;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Service layer for TimeEntry operations.
@@ -15,9 +25,16 @@ import java.util.List;
 public class TimeEntryService {
 
     private final TimeEntryRepository repository;
+    private final HourRollupService rollups;
+    private final ProjectVersionService versions;
+    private final IdempotencyKeys keys;
 
-    public TimeEntryService(TimeEntryRepository repository) {
+    public TimeEntryService(TimeEntryRepository repository, HourRollupService rollups,
+                            ProjectVersionService versions, IdempotencyKeys keys) {
         this.repository = repository;
+        this.rollups = rollups;
+        this.versions = versions;
+        this.keys = keys;
     }
 
     /**
@@ -26,6 +43,7 @@ public class TimeEntryService {
      * @param opgaveId the task ID
      * @return list of time entries
      */
+    @Transactional(readOnly = true)
     public List<TimeEntry> getByOpgaveId(int opgaveId) {
         if (opgaveId <= 0) {
             throw new IllegalArgumentException("Opgave ID must be valid");
@@ -33,12 +51,38 @@ public class TimeEntryService {
         return repository.findByOpgaveId(opgaveId);
     }
 
+    /**
+     * Get one page of time entries for a task, ordered by date.
+     *
+     * @param opgaveId the task ID
+     * @param cursor next-page cursor of the previous page, or null for the first page
+     * @param size rows per page
+     * @return the page
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<TimeEntry> getPageByOpgaveId(int opgaveId, String cursor, int size) {
+        if (opgaveId <= 0) {
+            throw new IllegalArgumentException("Opgave ID must be valid");
+        }
+        KeysetPage.checkSize(size);
+        LocalDate lastWorkDate = null;
+        int lastId = 0;
+        if (cursor != null && !cursor.isEmpty()) {
+            long[] key = PageCursor.decode(cursor, 2);
+            lastWorkDate = LocalDate.ofEpochDay(key[0]);
+            lastId = (int) key[1];
+        }
+        return KeysetPage.of(repository.findByOpgaveIdAfter(opgaveId, lastWorkDate, lastId, size + 1), size,
+                t -> PageCursor.encode(t.getWorkDate().toEpochDay(), t.getTimeEntryId()));
+    }
+
     /**
      * Get a time entry by ID.
      *
      * @param timeEntryId the time entry ID
      * @return the time entry
      */
+    @Transactional(readOnly = true)
     public TimeEntry getById(int timeEntryId) {
         if (timeEntryId <= 0) {
             throw new IllegalArgumentException("Time Entry ID must be valid");
@@ -52,6 +96,7 @@ public class TimeEntryService {
      * @param projektId the project ID
      * @return total hours
      */
+    @Transactional(readOnly = true)
     public int getTotalHoursByProject(int projektId) {
         if (projektId <= 0) {
             throw new IllegalArgumentException("Projekt ID must be valid");
@@ -60,13 +105,35 @@ public class TimeEntryService {
     }
 
     /**
-     * Create a new time entry.
+     * Create a new time entry. If an entry was already created with its
+     * idempotency key, nothing is written and it gets the ID of that entry.
      *
      * @param timeEntry the time entry to create
+     * @throws org.springframework.dao.DuplicateKeyException if an entry with the key
+     *         was created meanwhile; a retry gets its ID
      */
+    @Transactional
     public void create(TimeEntry timeEntry) {
         validateTimeEntry(timeEntry);
-        repository.create(timeEntry);
+        String key = timeEntry.getIdempotencyKey();
+        if (key != null) {
+            Integer id = keys.find(List.of(key)).get(key);
+            if (id != null) {
+                timeEntry.setTimeEntryId(id);
+                return;
+            }
+        }
+        try {
+            repository.create(timeEntry);
+        } catch (DuplicateKeyException e) {
+            suspect(List.of(timeEntry));
+            throw e;
+        }
+        if (key != null) {
+            keys.remember(Map.of(key, timeEntry.getTimeEntryId()));
+        }
+        rollups.onTimeEntryCreated(timeEntry);
+        versions.touchOpgaver(opgaver(List.of(timeEntry)));
     }
 
     /**
@@ -74,12 +141,16 @@ public class TimeEntryService {
      *
      * @param timeEntry the time entry to update
      */
+    @Transactional
     public void update(TimeEntry timeEntry) {
         validateTimeEntry(timeEntry);
         if (timeEntry.getTimeEntryId() == null || timeEntry.getTimeEntryId() <= 0) {
             throw new IllegalArgumentException("Time Entry ID must be valid");
         }
+        TimeEntry before = repository.findById(timeEntry.getTimeEntryId());
         repository.update(timeEntry);
+        rollups.onTimeEntryUpdated(before, timeEntry);
+        versions.touchOpgaver(opgaver(before != null ? List.of(before, timeEntry) : List.of(timeEntry)));
     }
 
     /**
@@ -87,11 +158,169 @@ public class TimeEntryService {
      *
      * @param timeEntryId the time entry ID to delete
      */
+    @Transactional
     public void delete(int timeEntryId) {
         if (timeEntryId <= 0) {
             throw new IllegalArgumentException("Time Entry ID must be valid");
         }
+        TimeEntry before = repository.findById(timeEntryId);
         repository.delete(timeEntryId);
+        keys.forget(List.of(timeEntryId));
+        rollups.onTimeEntryDeleted(before);
+        if (before != null) {
+            versions.touchOpgaver(opgaver(List.of(before)));
+        }
+    }
+
+    /**
+     * Create many time entries in one transaction. The whole batch is validated first.
+     * Entries whose idempotency key already has an entry are not written again;
+     * they get the ID of that entry.
+     *
+     * @param entries the time entries to create
+     * @return generated IDs in input order
+     * @throws org.springframework.dao.DuplicateKeyException if an entry with one of the
+     *         keys was created meanwhile; a retry gets its ID
+     */
+    @Transactional
+    public int[] createAll(List<TimeEntry> entries) {
+        if (entries == null) {
+            throw new IllegalArgumentException("Time entries cannot be null");
+        }
+        Set<String> batchKeys = new HashSet<>();
+        for (TimeEntry t : entries) {
+            validateTimeEntry(t);
+            if (t.getIdempotencyKey() != null && !batchKeys.add(t.getIdempotencyKey())) {
+                throw new IllegalArgumentException("Idempotency key " + t.getIdempotencyKey() + " is in the batch twice");
+            }
+        }
+        Map<String, Integer> replayed = batchKeys.isEmpty() ? Map.of() : keys.find(batchKeys);
+        if (replayed.isEmpty()) {
+            return insert(entries);
+        }
+
+        List<TimeEntry> fresh = new ArrayList<>(entries.size() - replayed.size());
+        for (TimeEntry t : entries) {
+            if (t.getIdempotencyKey() == null || !replayed.containsKey(t.getIdempotencyKey())) {
+                fresh.add(t);
+            }
+        }
+        int[] freshIds = fresh.isEmpty() ? new int[0] : insert(fresh);
+        int[] ids = new int[entries.size()];
+        int next = 0;
+        for (int i = 0; i < ids.length; i++) {
+            TimeEntry t = entries.get(i);
+            Integer id = t.getIdempotencyKey() != null ? replayed.get(t.getIdempotencyKey()) : null;
+            if (id != null) {
+                t.setTimeEntryId(id);
+                ids[i] = id;
+            } else {
+                ids[i] = freshIds[next++];
+            }
+        }
+        return ids;
+    }
+
+    // Insert new entries and update rollups, versions and the recent keys
+    private int[] insert(List<TimeEntry> entries) {
+        int[] ids;
+        try {
+            ids = repository.createAll(entries);
+        } catch (DuplicateKeyException e) {
+            suspect(entries);
+            throw e;
+        }
+        remember(entries, ids);
+        rollups.onTimeEntriesCreated(entries);
+        versions.touchOpgaver(opgaver(entries));
+        return ids;
+    }
+
+    /**
+     * Update many time entries in one transaction. The whole batch is validated first.
+     *
+     * @param entries the time entries to update
+     */
+    @Transactional
+    public void updateAll(List<TimeEntry> entries) {
+        if (entries == null) {
+            throw new IllegalArgumentException("Time entries cannot be null");
+        }
+        Set<Integer> ids = new HashSet<>();
+        for (TimeEntry t : entries) {
+            validateTimeEntry(t);
+            if (t.getTimeEntryId() == null || t.getTimeEntryId() <= 0) {
+                throw new IllegalArgumentException("Time Entry ID must be valid");
+            }
+            if (!ids.add(t.getTimeEntryId())) {
+                throw new IllegalArgumentException("Time Entry ID " + t.getTimeEntryId() + " is in the batch twice");
+            }
+        }
+        List<TimeEntry> before = repository.findByIds(ids);
+        if (before.size() != ids.size()) {
+            throw new IllegalArgumentException("Time entry not found");
+        }
+        repository.updateAll(entries);
+        rollups.onTimeEntriesUpdated(before, entries);
+        Set<Integer> opgaver = opgaver(before);
+        opgaver.addAll(opgaver(entries));
+        versions.touchOpgaver(opgaver);
+    }
+
+    /**
+     * Delete many time entries in one transaction.
+     *
+     * @param timeEntryIds the IDs to delete
+     */
+    @Transactional
+    public void deleteAll(Collection<Integer> timeEntryIds) {
+        if (timeEntryIds == null) {
+            throw new IllegalArgumentException("Time entry IDs cannot be null");
+        }
+        Set<Integer> ids = new HashSet<>();
+        for (Integer id : timeEntryIds) {
+            if (id == null || id <= 0) {
+                throw new IllegalArgumentException("Time Entry ID must be valid");
+            }
+            ids.add(id);
+        }
+        List<TimeEntry> before = repository.findByIds(ids);
+        repository.deleteAll(ids);
+        keys.forget(ids);
+        rollups.onTimeEntriesDeleted(before);
+        versions.touchOpgaver(opgaver(before));
+    }
+
+    // Tasks of some time entries, for the version touch
+    private static Set<Integer> opgaver(List<TimeEntry> entries) {
+        Set<Integer> ids = new HashSet<>();
+        for (TimeEntry t : entries) {
+            ids.add(t.getOpgaveId());
+        }
+        return ids;
+    }
+
+    // Keys of new time entries, for the recent-keys window
+    private void remember(List<TimeEntry> created, int[] ids) {
+        Map<String, Integer> byKey = new HashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            String key = created.get(i).getIdempotencyKey();
+            if (key != null) {
+                byKey.put(key, ids[i]);
+            }
+        }
+        keys.remember(byKey);
+    }
+
+    // The unique index rejected one of these keys; let the retry look them up
+    private void suspect(List<TimeEntry> rejected) {
+        List<String> batchKeys = new ArrayList<>();
+        for (TimeEntry t : rejected) {
+            if (t.getIdempotencyKey() != null) {
+                batchKeys.add(t.getIdempotencyKey());
+            }
+        }
+        keys.suspect(batchKeys);
     }
 
     /**
@@ -99,7 +328,7 @@ public class TimeEntryService {
      *
      * @param timeEntry the time entry to validate
      */
-    private void validateTimeEntry(TimeEntry timeEntry) {
+    static void validateTimeEntry(TimeEntry timeEntry) {
         if (timeEntry == null) {
             throw new IllegalArgumentException("TimeEntry cannot be null");
         }
@@ -118,5 +347,9 @@ public class TimeEntryService {
         if (timeEntry.getHours() > 24) {
             throw new IllegalArgumentException("Hours cannot exceed 24 per day");
         }
+        String key = timeEntry.getIdempotencyKey();
+        if (key != null && (key.isBlank() || key.length() > IdempotencyKeys.MAX_LENGTH)) {
+            throw new IllegalArgumentException("Idempotency key must be 1 to " + IdempotencyKeys.MAX_LENGTH + " characters");
+        }
     }
 }
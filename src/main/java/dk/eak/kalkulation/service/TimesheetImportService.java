@@ -0,0 +1,74 @@
+package dk.eak.kalkulation.service;
+
+import dk.eak.kalkulation.importer.TimesheetImporter;
+import dk.eak.kalkulation.model.ImportReport;
+import dk.eak.kalkulation.repository.OpgaveRepository;
+import dk.eak.kalkulation.repository.TimeEntryRepository;
+import dk.eak.kalkulation.util.IntIntMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Service layer for importing historical timesheets from CSV.
+ * Opgave IDs are checked against all opgaver loaded once into memory, rows are
+ * written with batched inserts and the hour rollups are rebuilt at the end.
+ * The import is not one transaction: on failure, batches already written stay,
+ * and the rollups are rebuilt for them all the same.
+ */
+@Service
+public class TimesheetImportService {
+
+    static final int BATCH_ROWS = 1000;
+
+    private final OpgaveRepository opgaveRepo;
+    private final TimeEntryRepository timeEntryRepo;
+    private final HourRollupService rollups;
+    private final TimesheetImporter importer;
+
+    public TimesheetImportService(OpgaveRepository opgaveRepo,
+                                  TimeEntryRepository timeEntryRepo,
+                                  HourRollupService rollups,
+                                  @Value("${kalkulation.import.threads:0}") int threads,
+                                  @Value("${kalkulation.import.queue-capacity:64}") int queueCapacity) {
+        this.opgaveRepo = opgaveRepo;
+        this.timeEntryRepo = timeEntryRepo;
+        this.rollups = rollups;
+        this.importer = new TimesheetImporter(threads > 0 ? threads : Runtime.getRuntime().availableProcessors(),
+                queueCapacity, BATCH_ROWS, TimesheetImporter.DEFAULT_CHUNK_BYTES);
+    }
+
+    /**
+     * Import time entries from a CSV file with columns opgave_id, work_date, hours.
+     *
+     * @param file the CSV file
+     * @return counts, throughput and rejected rows
+     * @throws IOException if the file cannot be read
+     */
+    public ImportReport importFile(Path file) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("File cannot be null");
+        }
+        if (!Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("File not found: " + file);
+        }
+        IntIntMap opgaver = opgaveRepo.projectIdsByOpgave();
+        AtomicBoolean written = new AtomicBoolean();
+        try {
+            return importer.run(file, opgaver::containsKey, LocalDate.now(), batch -> {
+                timeEntryRepo.insertRows(batch.opgaveIds(), batch.epochDays(), batch.hours(), batch.size());
+                written.set(true);
+            });
+        } finally {
+            // each batch commits on its own, so a failed import still needs the rollups rebuilt
+            if (written.get()) {
+                rollups.rebuild();
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package dk.eak.kalkulation.util;
+
+import java.util.Arrays;
+
+/**
+ * Bloom filter over strings: a set that can answer "definitely not added" or
+ * "probably added", in a fixed number of bits.
+ * Sized for an expected number of keys and a false positive rate; beyond that
+ * the rate grows. Keys cannot be removed. Not thread-safe.
+ */
+public final class BloomFilter {
+
+    private final long[] bits;
+    private final int bitCount;
+    private final int hashes;
+    private int size;
+
+    public BloomFilter(int expectedKeys, double falsePositiveRate) {
+        if (expectedKeys <= 0) {
+            throw new IllegalArgumentException("Expected keys must be positive");
+        }
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1");
+        }
+        // m = -n ln p / (ln 2)^2, k = m/n ln 2
+        double m = -expectedKeys * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        bits = new long[(int) Math.max(1, (Math.ceil(m) + 63) / 64)];
+        bitCount = bits.length * 64;
+        hashes = Math.max(1, (int) Math.round(m / expectedKeys * Math.log(2)));
+    }
+
+    public void put(String key) {
+        long h = hash(key);
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 32);
+        for (int i = 0; i < hashes; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bitCount);
+            bits[bit >>> 6] |= 1L << bit;
+        }
+        size++;
+    }
+
+    public boolean mightContain(String key) {
+        long h = hash(key);
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 32);
+        for (int i = 0; i < hashes; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Number of keys put, counting repeats. */
+    public int size() {
+        return size;
+    }
+
+    public int hashCount() {
+        return hashes;
+    }
+
+    public void clear() {
+        Arrays.fill(bits, 0L);
+        size = 0;
+    }
+
+    // 64-bit FNV-1a over the chars, finished with the murmur3 mixer so both halves are usable
+    private static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
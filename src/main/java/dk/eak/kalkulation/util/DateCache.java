@@ -0,0 +1,49 @@
+package dk.eak.kalkulation.util;
+
+import java.time.LocalDate;
+
+/**
+ * Shared LocalDate instances by epoch day, for 1970-01-01 up to 2099-12-31.
+ * Mapped rows hold one instance per distinct date instead of one per row,
+ * which keeps the result lists in the query cache small. Slots are filled on
+ * first use; two threads racing on a slot only create equal instances.
+ */
+public final class DateCache {
+
+    private static final int DAYS = (int) LocalDate.of(2100, 1, 1).toEpochDay();
+    private static final LocalDate[] DATES = new LocalDate[DAYS];
+
+    private DateCache() {
+    }
+
+    public static LocalDate ofEpochDay(long epochDay) {
+        if (epochDay < 0 || epochDay >= DAYS) {
+            return LocalDate.ofEpochDay(epochDay);
+        }
+        LocalDate d = DATES[(int) epochDay];
+        if (d == null) {
+            d = LocalDate.ofEpochDay(epochDay);
+            DATES[(int) epochDay] = d;
+        }
+        return d;
+    }
+
+    /**
+     * @return the shared instance equal to the date, or the date itself outside the cached range
+     */
+    public static LocalDate of(LocalDate date) {
+        if (date == null) {
+            return null;
+        }
+        long epochDay = date.toEpochDay();
+        if (epochDay < 0 || epochDay >= DAYS) {
+            return date;
+        }
+        LocalDate d = DATES[(int) epochDay];
+        if (d == null) {
+            DATES[(int) epochDay] = date;
+            return date;
+        }
+        return d;
+    }
+}
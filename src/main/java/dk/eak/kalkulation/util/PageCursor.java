@@ -0,0 +1,59 @@
+package dk.eak.kalkulation.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque cursor tokens for keyset pagination.
+ * A token holds the sort key of the last row on a page (e.g. work date as epoch
+ * day plus ID); the next page seeks past it through the index instead of skipping
+ * rows with OFFSET, so every page costs the same.
+ */
+public final class PageCursor {
+
+    private PageCursor() {
+    }
+
+    /**
+     * Encode sort key values into a URL-safe token.
+     *
+     * @param keys the sort key of the last row
+     * @return the token
+     */
+    public static String encode(long... keys) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < keys.length; i++) {
+            if (i > 0) {
+                sb.append(':');
+            }
+            sb.append(keys[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sb.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Decode a token made by {@link #encode}.
+     *
+     * @param token the token from the request
+     * @param parts number of key values expected
+     * @return the key values
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static long[] decode(String token, int parts) {
+        try {
+            String text = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII);
+            String[] fields = text.split(":", -1);
+            if (fields.length != parts) {
+                throw new IllegalArgumentException("Invalid page cursor");
+            }
+            long[] keys = new long[parts];
+            for (int i = 0; i < parts; i++) {
+                keys[i] = Long.parseLong(fields[i]);
+            }
+            return keys;
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException and bad Base64 are both IllegalArgumentExceptions
+            throw new IllegalArgumentException("Invalid page cursor", e);
+        }
+    }
+}
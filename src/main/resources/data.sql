@@ -12,3 +12,13 @@ VALUES
     (1, '2025-12-01', 2),
     (1, '2025-12-02', 1),
     (2, '2025-12-05', 3);
+
+-- Rollups for the rows above
+INSERT INTO opgave_hours (opgave_id, hours)
+SELECT opgave_id, SUM(hours) FROM time_entry GROUP BY opgave_id;
+INSERT INTO delprojekt_hours (delprojekt_id, hours)
+SELECT o.delprojekt_id, SUM(te.hours) FROM time_entry te JOIN opgave o ON o.opgave_id = te.opgave_id
+WHERE o.delprojekt_id IS NOT NULL GROUP BY o.delprojekt_id;
+INSERT INTO project_hours (project_id, hours)
+SELECT o.project_id, SUM(te.hours) FROM time_entry te JOIN opgave o ON o.opgave_id = te.opgave_id
+GROUP BY o.project_id;
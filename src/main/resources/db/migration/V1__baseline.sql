@@ -0,0 +1,92 @@
+-- Tables as they were before versioned migrations.
+-- IF NOT EXISTS lets this run on a database that was created from schema.sql.
+
+CREATE TABLE IF NOT EXISTS project (
+                                       project_id INT AUTO_INCREMENT PRIMARY KEY,
+                                       name VARCHAR(100) NOT NULL,
+                                       description VARCHAR(500),
+                                       start_date DATE,
+                                       end_date DATE,
+                                       calendar_id VARCHAR(20) NULL
+);
+
+CREATE TABLE IF NOT EXISTS delprojekt (
+                                          delprojekt_id INT AUTO_INCREMENT PRIMARY KEY,
+                                          project_id INT NOT NULL,
+                                          name VARCHAR(255),
+                                          description VARCHAR(255),
+                                          CONSTRAINT fk_delprojekt_project
+                                              FOREIGN KEY (project_id)
+                                                  REFERENCES project(project_id)
+                                                  ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS opgave (
+                                      opgave_id INT AUTO_INCREMENT PRIMARY KEY,
+                                      project_id INT NOT NULL,
+                                      delprojekt_id INT NULL,
+                                      name VARCHAR(120) NOT NULL,
+                                      description VARCHAR(500),
+                                      estimated_hours INT DEFAULT 0,
+                                      deadline DATE NULL,
+                                      CONSTRAINT fk_opgave_project
+                                          FOREIGN KEY (project_id)
+                                              REFERENCES project(project_id)
+                                              ON DELETE CASCADE,
+                                      CONSTRAINT fk_opgave_delprojekt
+                                          FOREIGN KEY (delprojekt_id)
+                                              REFERENCES delprojekt(delprojekt_id)
+                                              ON DELETE SET NULL
+);
+
+CREATE TABLE IF NOT EXISTS time_entry (
+                                          time_entry_id INT AUTO_INCREMENT PRIMARY KEY,
+                                          opgave_id INT NOT NULL,
+                                          work_date DATE NOT NULL,
+                                          hours INT NOT NULL,
+                                          CONSTRAINT fk_time_opgave
+                                              FOREIGN KEY (opgave_id)
+                                                  REFERENCES opgave(opgave_id)
+                                                  ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS opgave_dependency (
+                                                 opgave_id INT NOT NULL,
+                                                 depends_on_id INT NOT NULL,
+                                                 PRIMARY KEY (opgave_id, depends_on_id),
+                                                 CONSTRAINT fk_dependency_opgave
+                                                     FOREIGN KEY (opgave_id)
+                                                         REFERENCES opgave(opgave_id)
+                                                         ON DELETE CASCADE,
+                                                 CONSTRAINT fk_dependency_depends_on
+                                                     FOREIGN KEY (depends_on_id)
+                                                         REFERENCES opgave(opgave_id)
+                                                         ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS opgave_hours (
+                                            opgave_id INT PRIMARY KEY,
+                                            hours INT NOT NULL DEFAULT 0,
+                                            CONSTRAINT fk_opgave_hours_opgave
+                                                FOREIGN KEY (opgave_id)
+                                                    REFERENCES opgave(opgave_id)
+                                                    ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS delprojekt_hours (
+                                                delprojekt_id INT PRIMARY KEY,
+                                                hours INT NOT NULL DEFAULT 0,
+                                                CONSTRAINT fk_delprojekt_hours_delprojekt
+                                                    FOREIGN KEY (delprojekt_id)
+                                                        REFERENCES delprojekt(delprojekt_id)
+                                                        ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS project_hours (
+                                             project_id INT PRIMARY KEY,
+                                             hours INT NOT NULL DEFAULT 0,
+                                             CONSTRAINT fk_project_hours_project
+                                                 FOREIGN KEY (project_id)
+                                                     REFERENCES project(project_id)
+                                                     ON DELETE CASCADE
+);
@@ -0,0 +1,10 @@
+-- Access paths for the repository queries; IndexCheck lists each query with
+-- the index it should use (run with --kalkulation.schema.command=explain).
+--
+-- Lookups of opgaver and delprojekter by project_id or delprojekt_id use the
+-- indexes that H2 and MySQL create for the foreign keys. Those already end in
+-- the primary key, so they also serve ORDER BY id and keyset pages.
+
+-- time entries of an opgave by date, in keyset page order; hours is included
+-- so the hour sums read the index alone
+CREATE INDEX idx_time_entry_opgave_date ON time_entry (opgave_id, work_date, time_entry_id, hours);
@@ -0,0 +1,8 @@
+-- Optional key chosen by the client when it creates a time entry. A retry
+-- with the same key gets the first entry back instead of a duplicate row;
+-- the unique index is the guarantee, IdempotencyKeys only saves the lookups.
+-- NULL (no key) may occur any number of times on both H2 and MySQL.
+
+ALTER TABLE time_entry ADD COLUMN idempotency_key VARCHAR(64) NULL;
+
+CREATE UNIQUE INDEX uq_time_entry_idempotency_key ON time_entry (idempotency_key);
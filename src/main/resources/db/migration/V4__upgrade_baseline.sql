@@ -0,0 +1,21 @@
+-- V1 creates the tables with IF NOT EXISTS, so on a database that was
+-- created from the old schema.sql it left project without calendar_id and
+-- the rollup tables empty. Add the column (skipped when it is there) and
+-- fill the rollups from time_entry, as HourRollupRepository.rebuild does.
+
+ALTER TABLE project ADD COLUMN calendar_id VARCHAR(20) NULL;
+
+DELETE FROM opgave_hours;
+DELETE FROM delprojekt_hours;
+DELETE FROM project_hours;
+
+INSERT INTO opgave_hours (opgave_id, hours)
+SELECT te.opgave_id, SUM(te.hours) FROM time_entry te GROUP BY te.opgave_id;
+
+INSERT INTO delprojekt_hours (delprojekt_id, hours)
+SELECT o.delprojekt_id, SUM(te.hours) FROM time_entry te JOIN opgave o ON o.opgave_id = te.opgave_id
+WHERE o.delprojekt_id IS NOT NULL GROUP BY o.delprojekt_id;
+
+INSERT INTO project_hours (project_id, hours)
+SELECT o.project_id, SUM(te.hours) FROM time_entry te JOIN opgave o ON o.opgave_id = te.opgave_id
+GROUP BY o.project_id;
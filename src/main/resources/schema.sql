@@ -1,3 +1,11 @@
+-- Drops and recreates everything; used for the in-memory databases only.
+-- Persistent databases are upgraded by the scripts in db/migration, which must
+-- end up with the same tables and indexes as this file.
+
+DROP TABLE IF EXISTS opgave_dependency;
+DROP TABLE IF EXISTS opgave_hours;
+DROP TABLE IF EXISTS delprojekt_hours;
+DROP TABLE IF EXISTS project_hours;
 DROP TABLE IF EXISTS time_entry;
 DROP TABLE IF EXISTS opgave;
 DROP TABLE IF EXISTS delprojekt;
@@ -8,7 +16,8 @@ CREATE TABLE project (
                          name VARCHAR(100) NOT NULL,
                          description VARCHAR(500),
                          start_date DATE,
-                         end_date DATE
+                         end_date DATE,
+                         calendar_id VARCHAR(20) NULL
 );
 
 CREATE TABLE delprojekt (
@@ -45,8 +54,59 @@ CREATE TABLE time_entry (
                             opgave_id INT NOT NULL,
                             work_date DATE NOT NULL,
                             hours INT NOT NULL,
+                            idempotency_key VARCHAR(64) NULL,
                             CONSTRAINT fk_time_opgave
                                 FOREIGN KEY (opgave_id)
                                     REFERENCES opgave(opgave_id)
                                     ON DELETE CASCADE
 );
+
+-- time entries of an opgave by date; see db/migration/V2__indexes.sql
+CREATE INDEX idx_time_entry_opgave_date ON time_entry (opgave_id, work_date, time_entry_id, hours);
+
+-- one row per client retry key; see db/migration/V3__time_entry_idempotency_key.sql
+CREATE UNIQUE INDEX uq_time_entry_idempotency_key ON time_entry (idempotency_key);
+
+-- opgave_id cannot start before depends_on_id is done
+CREATE TABLE opgave_dependency (
+                                   opgave_id INT NOT NULL,
+                                   depends_on_id INT NOT NULL,
+                                   PRIMARY KEY (opgave_id, depends_on_id),
+                                   CONSTRAINT fk_dependency_opgave
+                                       FOREIGN KEY (opgave_id)
+                                           REFERENCES opgave(opgave_id)
+                                           ON DELETE CASCADE,
+                                   CONSTRAINT fk_dependency_depends_on
+                                       FOREIGN KEY (depends_on_id)
+                                           REFERENCES opgave(opgave_id)
+                                           ON DELETE CASCADE
+);
+
+-- Registered hours rolled up per opgave, delprojekt and project.
+-- Maintained by the services; rebuild with --kalkulation.rollup.command=rebuild
+CREATE TABLE opgave_hours (
+                              opgave_id INT PRIMARY KEY,
+                              hours INT NOT NULL DEFAULT 0,
+                              CONSTRAINT fk_opgave_hours_opgave
+                                  FOREIGN KEY (opgave_id)
+                                      REFERENCES opgave(opgave_id)
+                                      ON DELETE CASCADE
+);
+
+CREATE TABLE delprojekt_hours (
+                                  delprojekt_id INT PRIMARY KEY,
+                                  hours INT NOT NULL DEFAULT 0,
+                                  CONSTRAINT fk_delprojekt_hours_delprojekt
+                                      FOREIGN KEY (delprojekt_id)
+                                          REFERENCES delprojekt(delprojekt_id)
+                                          ON DELETE CASCADE
+);
+
+CREATE TABLE project_hours (
+                               project_id INT PRIMARY KEY,
+                               hours INT NOT NULL DEFAULT 0,
+                               CONSTRAINT fk_project_hours_project
+                                   FOREIGN KEY (project_id)
+                                       REFERENCES project(project_id)
+                                       ON DELETE CASCADE
+);
@@ -1,5 +1,6 @@
 package dk.eak.kalkulation;
 
+import dk.eak.kalkulation.model.ProjectMetrics;
 import dk.eak.kalkulation.model.Projekt;
 import dk.eak.kalkulation.repository.ProjektRepository;
 import dk.eak.kalkulation.service.CalculationService;
@@ -10,6 +11,8 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -115,6 +118,41 @@ class CalculationServiceIT {
         assertTrue(progress >= 0.0 && progress <= 100.0);
     }
 
+    @Test
+    @DisplayName("Should return the same figures from the metrics snapshot")
+    void testMetrics_MatchesSingleCalculations() {
+        // Arrange
+        Projekt p = projektRepo.findById(1);
+
+        // Act
+        ProjectMetrics m = calc.metrics(1);
+
+        // Assert
+        assertEquals(p.getName(), m.getProjekt().getName());
+        assertEquals(calc.totalEstimatedHours(1), m.getEstimatedHours());
+        assertEquals(calc.totalRegisteredHours(1), m.getRegisteredHours());
+        assertEquals(calc.remainingEstimatedHours(1), m.getRemainingHours());
+        assertEquals(calc.requiredHoursPerWorkday(p), m.getRequiredHoursPerWorkday(), 0.0001);
+        assertEquals(calc.getProgressPercentage(1), m.getProgressPercentage(), 0.0001);
+    }
+
+    @Test
+    @DisplayName("Should return the same figures in the portfolio as per project")
+    void testMetricsForAll_MatchesSingleProject() {
+        // Act
+        List<ProjectMetrics> all = calc.metricsForAll();
+        List<ProjectMetrics> some = calc.metricsFor(List.of(2));
+
+        // Assert
+        ProjectMetrics first = all.stream().filter(m -> m.getProjectId() == 1).findFirst().orElseThrow();
+        ProjectMetrics single = calc.metrics(1);
+        assertEquals(single.getEstimatedHours(), first.getEstimatedHours());
+        assertEquals(single.getRegisteredHours(), first.getRegisteredHours());
+        assertEquals(single.getWorkingDays(), first.getWorkingDays());
+        assertEquals(1, some.size());
+        assertEquals(2, some.get(0).getProjectId());
+    }
+
     @Test
     @DisplayName("Should throw exception with invalid project ID")
     void testInvalidProjectId_Throws() {
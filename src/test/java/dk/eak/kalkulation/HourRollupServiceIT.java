@@ -0,0 +1,93 @@
+package dk.eak.kalkulation;
+
+import dk.eak.kalkulation.model.Opgave;
+import dk.eak.kalkulation.model.TimeEntry;
+import dk.eak.kalkulation.repository.HourRollupRepository;
+import dk.eak.kalkulation.repository.OpgaveRepository;
+import dk.eak.kalkulation.service.HourRollupService;
+import dk.eak.kalkulation.service.OpgaveService;
+import dk.eak.kalkulation.service.TimeEntryService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the hour rollup tables.
+ * Tests that service writes keep the rollups equal to time_entry.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@DisplayName("HourRollupService Integration Tests")
+class HourRollupServiceIT {
+
+    @Autowired
+    private HourRollupService rollups;
+
+    @Autowired
+    private HourRollupRepository rollupRepository;
+
+    @Autowired
+    private TimeEntryService timeEntryService;
+
+    @Autowired
+    private OpgaveService opgaveService;
+
+    @Autowired
+    private OpgaveRepository opgaveRepository;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Test
+    @DisplayName("Should keep rollups in sync across create, update, move and delete")
+    void testRollupsStayInSync() {
+        // Arrange - project 1 has 20 registered hours in the test data
+        assertEquals(20, rollups.projectHours(1));
+        int maxId = jdbc.queryForObject("SELECT MAX(time_entry_id) FROM time_entry", Integer.class);
+        jdbc.execute("ALTER TABLE time_entry ALTER COLUMN time_entry_id RESTART WITH " + (maxId + 1));
+
+        TimeEntry t = new TimeEntry();
+        t.setOpgaveId(1);
+        t.setWorkDate(LocalDate.now().minusDays(1));
+        t.setHours(4);
+
+        // Act
+        timeEntryService.create(t);
+        assertEquals(24, rollups.projectHours(1));
+
+        Opgave moved = opgaveRepository.findById(1);
+        moved.setProject_id(2);
+        moved.setDelProjektId(3);
+        opgaveService.update(moved);
+
+        timeEntryService.delete(1);
+
+        // Assert
+        assertEquals(15, rollups.projectHours(1));
+        assertEquals(16, rollups.projectHours(2));
+        assertEquals(16, rollupRepository.delProjektHours(3));
+        assertTrue(rollups.verify().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should detect drift and repair it with rebuild")
+    void testVerifyAndRebuild() {
+        // Arrange
+        jdbc.update("UPDATE project_hours SET hours = 999 WHERE project_id = 1");
+
+        // Act & Assert
+        assertEquals(1, rollups.verify().size());
+        rollups.rebuild();
+        assertTrue(rollups.verify().isEmpty());
+        assertEquals(20, rollups.projectHours(1));
+    }
+}
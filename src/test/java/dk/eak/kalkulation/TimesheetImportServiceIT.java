@@ -0,0 +1,71 @@
+package dk.eak.kalkulation;
+
+import dk.eak.kalkulation.repository.TimeEntryRepository;
+import dk.eak.kalkulation.service.HourRollupService;
+import dk.eak.kalkulation.service.TimesheetImportService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doCallRealMethod;
+
+/**
+ * Integration tests for the timesheet import.
+ * Tests that the hour rollups match time_entry after an import that fails halfway.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@DisplayName("TimesheetImportService Integration Tests")
+class TimesheetImportServiceIT {
+
+    @Autowired
+    private TimesheetImportService importService;
+
+    @Autowired
+    private HourRollupService rollups;
+
+    @MockitoSpyBean
+    private TimeEntryRepository timeEntryRepository;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Should rebuild the rollups for the batches written before the import failed")
+    void testImportFile_WriterFailsOnSecondBatch() throws IOException {
+        // Arrange - 1500 rows are two batches; the second insert fails
+        doCallRealMethod()
+                .doThrow(new DataAccessResourceFailureException("Disk full"))
+                .when(timeEntryRepository).insertRows(any(), any(), any(), anyInt());
+        StringBuilder csv = new StringBuilder("opgave_id,work_date,hours\n");
+        LocalDate day = LocalDate.of(2025, 1, 1);
+        for (int i = 0; i < 1500; i++) {
+            csv.append(1).append(',').append(day.plusDays(i % 300)).append(",1\n");
+        }
+        Path file = dir.resolve("timesheets.csv");
+        Files.writeString(file, csv);
+        int before = rollups.projectHours(1);
+
+        // Act
+        assertThrows(DataAccessResourceFailureException.class, () -> importService.importFile(file));
+
+        // Assert
+        assertEquals(before + 1000, rollups.projectHours(1));
+        assertTrue(rollups.verify().isEmpty());
+    }
+}
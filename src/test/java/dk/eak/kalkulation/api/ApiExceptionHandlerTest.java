@@ -0,0 +1,52 @@
+package dk.eak.kalkulation.api;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ApiExceptionHandler.
+ * Tests which duplicate keys are answered as an idempotent request in progress.
+ */
+@DisplayName("ApiExceptionHandler Unit Tests")
+class ApiExceptionHandlerTest {
+
+    private final ApiExceptionHandler handler = new ApiExceptionHandler();
+
+    @Test
+    @DisplayName("Should ask for a retry when the idempotency key index is violated")
+    void testInProgress_IdempotencyKey() {
+        // Arrange
+        DuplicateKeyException e = new DuplicateKeyException("insert failed", new SQLIntegrityConstraintViolationException(
+                "Unique index or primary key violation: \"PUBLIC.UQ_TIME_ENTRY_IDEMPOTENCY_KEY ON PUBLIC.TIME_ENTRY(IDEMPOTENCY_KEY)\""));
+
+        // Act
+        ResponseEntity<Map<String, String>> response = handler.inProgress(e);
+
+        // Assert
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals("Idempotency key is in use by a request in progress; retry it", response.getBody().get("error"));
+    }
+
+    @Test
+    @DisplayName("Should answer a generic conflict for any other unique constraint")
+    void testInProgress_OtherConstraint() {
+        // Arrange
+        DuplicateKeyException e = new DuplicateKeyException("insert failed", new SQLIntegrityConstraintViolationException(
+                "Duplicate entry '1-2' for key 'opgave_dependency.PRIMARY'"));
+
+        // Act
+        ResponseEntity<Map<String, String>> response = handler.inProgress(e);
+
+        // Assert
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals("Request conflicts with existing data", response.getBody().get("error"));
+    }
+}
@@ -0,0 +1,173 @@
+package dk.eak.kalkulation.api;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+/**
+ * Integration tests for the /api/v1 REST layer.
+ * Tests reads, bulk writes and errors against test-data.sql with H2 in-memory database.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@DisplayName("REST API Integration Tests")
+class ApiIT {
+
+    private static final JsonMapper JSON = JsonMapper.builder().build();
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        mvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    @Test
+    @DisplayName("Should page projects and keep only the requested fields")
+    void testProjects_PageAndFields() throws Exception {
+        // Act
+        JsonNode first = call(get("/api/v1/projekter").param("size", "1").param("fields", "id,name"), 200);
+        JsonNode second = call(get("/api/v1/projekter").param("size", "1")
+                .param("after", first.get("next").asString()), 200);
+
+        // Assert
+        assertEquals(1, first.get("items").size());
+        JsonNode p = first.get("items").get(0);
+        assertEquals(1, p.get("id").asInt());
+        assertEquals("Test Project 1", p.get("name").asString());
+        assertFalse(p.has("description"));
+        assertEquals(2, second.get("items").get(0).get("id").asInt());
+        assertTrue(second.get("items").get(0).has("startDate"));
+    }
+
+    @Test
+    @DisplayName("Should return a project and its metrics, smaller than the details page")
+    void testProject_GetAndMetrics() throws Exception {
+        // Act
+        String json = mvc.perform(get("/api/v1/projekter/1")).andReturn().getResponse().getContentAsString();
+        String html = mvc.perform(get("/projekter/1")).andReturn().getResponse().getContentAsString();
+        JsonNode metrics = call(get("/api/v1/projekter/1/metrics"), 200);
+        JsonNode some = call(get("/api/v1/projekter/metrics").param("ids", "1,2").param("fields", "projectId"), 200);
+
+        // Assert
+        assertEquals("Test Project 1", JSON.readTree(json).get("name").asString());
+        assertTrue(json.length() * 5 < html.length());
+        assertEquals(50, metrics.get("estimatedHours").asInt());
+        assertEquals(20, metrics.get("registeredHours").asInt());
+        assertEquals(2, some.size());
+        assertEquals(2, some.get(1).get("projectId").asInt());
+        assertEquals(1, some.get(1).size());
+    }
+
+    @Test
+    @DisplayName("Should create, update and delete time entries in bulk")
+    void testTimeEntries_Bulk() throws Exception {
+        // Arrange
+        int before = hoursOfOpgave(4);
+        int pageBefore = call(get("/api/v1/opgaver/4/timer"), 200).get("items").size();
+
+        // Act - create
+        JsonNode created = call(post("/api/v1/timer").contentType(MediaType.APPLICATION_JSON).content("""
+                [{"opgaveId": 4, "workDate": "2026-02-06", "hours": 3},
+                 {"opgaveId": 4, "workDate": "2026-02-07", "hours": 4}]
+                """), 201);
+        int id1 = created.get("ids").get(0).asInt();
+        int id2 = created.get("ids").get(1).asInt();
+
+        // Assert
+        assertEquals(before + 7, hoursOfOpgave(4));
+
+        // Act - update
+        call(put("/api/v1/timer").contentType(MediaType.APPLICATION_JSON).content(
+                "[{\"id\": " + id1 + ", \"opgaveId\": 4, \"workDate\": \"2026-02-06\", \"hours\": 1}]"), 204);
+
+        // Assert
+        assertEquals(before + 5, hoursOfOpgave(4));
+
+        // Act - delete
+        call(delete("/api/v1/timer").param("ids", id1 + "," + id2), 204);
+
+        // Assert
+        assertEquals(before, hoursOfOpgave(4));
+        assertEquals(pageBefore, call(get("/api/v1/opgaver/4/timer"), 200).get("items").size());
+    }
+
+    @Test
+    @DisplayName("Should return the first IDs when a create is retried with the same keys")
+    void testTimeEntries_IdempotentRetry() throws Exception {
+        // Arrange
+        int before = hoursOfOpgave(4);
+        String body = """
+                [{"opgaveId": 4, "workDate": "2026-02-06", "hours": 3, "idempotencyKey": "timer-app-1"},
+                 {"opgaveId": 4, "workDate": "2026-02-07", "hours": 4, "idempotencyKey": "timer-app-2"}]
+                """;
+        JsonNode first = call(post("/api/v1/timer").contentType(MediaType.APPLICATION_JSON).content(body), 201);
+
+        // Act - the same request again, then one new entry with an old key
+        JsonNode retry = call(post("/api/v1/timer").contentType(MediaType.APPLICATION_JSON).content(body), 201);
+        JsonNode mixed = call(post("/api/v1/timer").contentType(MediaType.APPLICATION_JSON).content("""
+                [{"opgaveId": 4, "workDate": "2026-02-07", "hours": 4, "idempotencyKey": "timer-app-2"},
+                 {"opgaveId": 4, "workDate": "2026-02-08", "hours": 1, "idempotencyKey": "timer-app-3"}]
+                """), 201);
+
+        // Assert
+        assertEquals(first.get("ids"), retry.get("ids"));
+        assertEquals(first.get("ids").get(1), mixed.get("ids").get(0));
+        assertEquals(before + 8, hoursOfOpgave(4));
+        assertEquals(3, jdbc.queryForObject(
+                "SELECT COUNT(*) FROM time_entry WHERE idempotency_key LIKE 'timer-app-%'", Integer.class));
+    }
+
+    @Test
+    @DisplayName("Should answer errors as JSON with a status code")
+    void testErrors() throws Exception {
+        // Act & Assert
+        assertTrue(call(get("/api/v1/opgaver/999"), 404).has("error"));
+        assertTrue(call(get("/api/v1/projekter/1").param("fields", "id,budget"), 400)
+                .get("error").asString().startsWith("Unknown field: budget"));
+        assertEquals("Hours cannot exceed 24 per day", call(post("/api/v1/timer")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"opgaveId\": 4, \"workDate\": \"2026-02-06\", \"hours\": 30}]"), 400)
+                .get("error").asString());
+        assertEquals("Bulk request cannot be empty", call(post("/api/v1/opgaver")
+                .contentType(MediaType.APPLICATION_JSON).content("[]"), 400).get("error").asString());
+        assertEquals("Malformed JSON body", call(post("/api/v1/opgaver")
+                .contentType(MediaType.APPLICATION_JSON).content("{not json"), 400).get("error").asString());
+    }
+
+    // ===== Helper methods =====
+
+    private JsonNode call(RequestBuilder request, int expectedStatus) throws Exception {
+        var response = mvc.perform(request).andReturn().getResponse();
+        String body = response.getContentAsString();
+        assertEquals(expectedStatus, response.getStatus(), body);
+        return body.isEmpty() ? null : JSON.readTree(body);
+    }
+
+    private int hoursOfOpgave(int opgaveId) {
+        return jdbc.queryForObject("SELECT COALESCE(SUM(hours), 0) FROM time_entry WHERE opgave_id = ?",
+                Integer.class, opgaveId);
+    }
+}
@@ -0,0 +1,58 @@
+package dk.eak.kalkulation.api;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for Fields.
+ * Tests sparse fieldset selection on DTO records.
+ */
+@DisplayName("Fields Unit Tests")
+class FieldsTest {
+
+    private final TimeEntryDto entry = new TimeEntryDto(7, 3, LocalDate.of(2026, 2, 3), 5, null);
+
+    @Test
+    @DisplayName("Should return the record itself when no fields are given")
+    void testSelect_All() {
+        // Act & Assert
+        assertSame(entry, TimeEntryDto.FIELDS.select(null).apply(entry));
+        assertSame(entry, TimeEntryDto.FIELDS.select(" ").apply(entry));
+    }
+
+    @Test
+    @DisplayName("Should keep only the chosen fields in request order")
+    void testSelect_Some() {
+        // Act
+        Object result = TimeEntryDto.FIELDS.select("hours, id,hours").apply(entry);
+
+        // Assert
+        assertEquals(Map.of("hours", 5, "id", 7), result);
+        assertEquals(List.of("hours", "id"), List.copyOf(((Map<?, ?>) result).keySet()));
+    }
+
+    @Test
+    @DisplayName("Should leave out chosen fields that are null")
+    void testSelect_SkipsNull() {
+        // Arrange
+        DelProjektDto dp = new DelProjektDto(1, 2, "Design", null);
+
+        // Act & Assert
+        assertEquals(Map.of("name", "Design"), DelProjektDto.FIELDS.select("name,description").apply(dp));
+    }
+
+    @Test
+    @DisplayName("Should reject unknown fields")
+    void testSelect_Unknown() {
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> TimeEntryDto.FIELDS.select("id,minutes"));
+        assertTrue(exception.getMessage().startsWith("Unknown field: minutes"));
+    }
+}
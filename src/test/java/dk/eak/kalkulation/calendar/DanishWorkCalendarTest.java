@@ -0,0 +1,88 @@
+package dk.eak.kalkulation.calendar;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for DanishWorkCalendar.
+ * Tests Easter computation, holidays and closed-form working day counts.
+ */
+@DisplayName("DanishWorkCalendar Unit Tests")
+class DanishWorkCalendarTest {
+
+    private final DanishWorkCalendar calendar = new DanishWorkCalendar();
+
+    @Test
+    @DisplayName("Should compute Easter Sunday")
+    void testEasterSunday() {
+        assertEquals(LocalDate.of(2024, 3, 31), DanishWorkCalendar.easterSunday(2024));
+        assertEquals(LocalDate.of(2025, 4, 20), DanishWorkCalendar.easterSunday(2025));
+        assertEquals(LocalDate.of(2026, 4, 5), DanishWorkCalendar.easterSunday(2026));
+        assertEquals(LocalDate.of(2038, 4, 25), DanishWorkCalendar.easterSunday(2038));
+    }
+
+    @Test
+    @DisplayName("Should treat public holidays as non-working days")
+    void testIsWorkingDay_Holidays() {
+        assertFalse(calendar.isWorkingDay(LocalDate.of(2026, 1, 1)));   // Nytårsdag
+        assertFalse(calendar.isWorkingDay(LocalDate.of(2026, 4, 2)));   // Skærtorsdag
+        assertFalse(calendar.isWorkingDay(LocalDate.of(2026, 5, 14)));  // Kristi himmelfartsdag
+        assertFalse(calendar.isWorkingDay(LocalDate.of(2026, 5, 25)));  // 2. pinsedag
+        assertFalse(calendar.isWorkingDay(LocalDate.of(2026, 12, 24))); // Juleaften
+        assertTrue(calendar.isWorkingDay(LocalDate.of(2026, 2, 2)));    // ordinary Monday
+        assertFalse(calendar.isWorkingDay(LocalDate.of(2026, 2, 7)));   // Saturday
+    }
+
+    @Test
+    @DisplayName("Should only include Store bededag before 2024")
+    void testStoreBededag() {
+        assertFalse(calendar.isWorkingDay(LocalDate.of(2023, 5, 5)));
+        assertTrue(calendar.isWorkingDay(LocalDate.of(2024, 4, 26)));
+    }
+
+    @Test
+    @DisplayName("Should count known working days around Easter, Whitsun and Christmas")
+    void testWorkingDaysBetween_KnownRanges() {
+        // 22 weekdays minus Skærtorsdag, Langfredag, 2. påskedag
+        assertEquals(19, calendar.workingDaysBetween(LocalDate.of(2026, 4, 1), LocalDate.of(2026, 4, 30)));
+        // 21 weekdays minus Kristi himmelfartsdag, 2. pinsedag
+        assertEquals(19, calendar.workingDaysBetween(LocalDate.of(2026, 5, 1), LocalDate.of(2026, 5, 31)));
+        // 23 weekdays minus Juleaften, 1. juledag (2. juledag is a Saturday)
+        assertEquals(21, calendar.workingDaysBetween(LocalDate.of(2026, 12, 1), LocalDate.of(2026, 12, 31)));
+        // across New Year: 15 weekdays minus 24., 25., 26. December and Nytårsdag
+        assertEquals(11, calendar.workingDaysBetween(LocalDate.of(2025, 12, 22), LocalDate.of(2026, 1, 9)));
+    }
+
+    @Test
+    @DisplayName("Should count known working days over whole and multi-year ranges")
+    void testWorkingDaysBetween_Years() {
+        assertEquals(251, calendar.workingDaysBetween(LocalDate.of(2023, 1, 1), LocalDate.of(2023, 12, 31)));
+        assertEquals(252, calendar.workingDaysBetween(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31)));
+        assertEquals(252, calendar.workingDaysBetween(LocalDate.of(2026, 1, 1), LocalDate.of(2026, 12, 31)));
+        assertEquals(1378, calendar.workingDaysBetween(LocalDate.of(2019, 11, 13), LocalDate.of(2025, 5, 5)));
+    }
+
+    @Test
+    @DisplayName("Should find the n-th working day across holidays")
+    void testPlusWorkingDays() {
+        assertEquals(LocalDate.of(2026, 4, 1), calendar.plusWorkingDays(LocalDate.of(2026, 4, 1), 1));
+        // Wed Apr 1 counts; Skærtorsdag, Langfredag, the weekend and 2. påskedag are skipped
+        assertEquals(LocalDate.of(2026, 4, 7), calendar.plusWorkingDays(LocalDate.of(2026, 4, 1), 2));
+        assertEquals(LocalDate.of(2026, 4, 30), calendar.plusWorkingDays(LocalDate.of(2026, 4, 1), 19));
+        assertEquals(LocalDate.of(2026, 2, 7), calendar.plusWorkingDays(LocalDate.of(2026, 2, 7), 0));
+        assertEquals(LocalDate.of(2026, 2, 9), calendar.plusWorkingDays(LocalDate.of(2026, 2, 7), 1));
+        assertEquals(LocalDate.of(2026, 12, 31), calendar.plusWorkingDays(LocalDate.of(2026, 1, 1), 252));
+    }
+
+    @Test
+    @DisplayName("Should return zero for empty or missing ranges")
+    void testWorkingDaysBetween_Empty() {
+        assertEquals(0, calendar.workingDaysBetween(null, LocalDate.now()));
+        assertEquals(0, calendar.workingDaysBetween(LocalDate.of(2026, 2, 10), LocalDate.of(2026, 2, 5)));
+        assertEquals(0, calendar.workingDaysBetween(LocalDate.of(2026, 2, 7), LocalDate.of(2026, 2, 8)));
+    }
+}
@@ -0,0 +1,72 @@
+package dk.eak.kalkulation.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the calculation page endpoints.
+ * Tests request handling against test-data.sql with H2 in-memory database.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@DisplayName("Calculation Controller Integration Tests")
+class CalculationControllerIT {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        mvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    @Test
+    @DisplayName("Should accept the granularity in any case")
+    void testBurndown_Granularity() throws Exception {
+        // Act & Assert
+        String weekly = mvc.perform(get("/projekter/1/calc/burndown").param("granularity", "Weekly"))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        assertTrue(weekly.contains("WEEKLY"));
+    }
+
+    @Test
+    @DisplayName("Should answer an unknown granularity with 400 and the allowed values")
+    void testBurndown_UnknownGranularity() throws Exception {
+        // Act
+        MvcResult result = mvc.perform(get("/projekter/1/calc/burndown").param("granularity", "foo"))
+                .andExpect(status().isBadRequest()).andReturn();
+
+        // Assert
+        assertEquals("Unknown granularity: foo (allowed: daily, weekly)", result.getResponse().getErrorMessage());
+    }
+
+    @Test
+    @DisplayName("Should answer an iteration count out of range with 400")
+    void testForecast_IterationsOutOfRange() throws Exception {
+        // Act
+        MvcResult zero = mvc.perform(get("/projekter/1/calc/forecast").param("iterations", "0"))
+                .andExpect(status().isBadRequest()).andReturn();
+        mvc.perform(get("/projekter/1/calc/forecast").param("iterations", "1000001"))
+                .andExpect(status().isBadRequest());
+
+        // Assert
+        assertEquals("Iterations must be between 1 and 1000000", zero.getResponse().getErrorMessage());
+        mvc.perform(get("/projekter/1/calc/forecast").param("iterations", "100")).andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,69 @@
+package dk.eak.kalkulation.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the tasks page of a delprojekt.
+ * The page shares tasks.html with the paged opgave list but has no page of its own.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@DisplayName("DelProjektTasksController Integration Tests")
+class DelProjektTasksControllerIT {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        mvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    @Test
+    @DisplayName("Should list the opgaver of the delprojekt without page links")
+    void testTasksForDelprojekt() throws Exception {
+        // Act
+        String html = page("/delprojekter/1/tasks");
+
+        // Assert
+        assertTrue(html.contains("Task 1-1"));
+        assertTrue(html.contains("Task 1-2"));
+        assertFalse(html.contains("Task 1-3"));
+        assertFalse(html.contains("Next page"));
+    }
+
+    @Test
+    @DisplayName("Should render an empty list for a delprojekt without opgaver")
+    void testTasksForDelprojekt_Empty() throws Exception {
+        // Act
+        String html = page("/delprojekter/99/tasks");
+
+        // Assert
+        assertTrue(html.contains("<h1>Tasks</h1>"));
+        assertFalse(html.contains("Task 1-1"));
+    }
+
+    // ===== Helper methods =====
+
+    private String page(String url) throws Exception {
+        return mvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+}
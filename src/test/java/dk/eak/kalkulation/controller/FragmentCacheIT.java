@@ -0,0 +1,123 @@
+package dk.eak.kalkulation.controller;
+
+import dk.eak.kalkulation.model.Opgave;
+import dk.eak.kalkulation.model.Projekt;
+import dk.eak.kalkulation.service.OpgaveService;
+import dk.eak.kalkulation.service.ProjektService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the rendered-fragment cache.
+ * Tests cached pages against test-data.sql with H2 in-memory database.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@DisplayName("Fragment Cache Integration Tests")
+class FragmentCacheIT {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private FragmentCache fragments;
+
+    @Autowired
+    private ProjektService projektService;
+
+    @Autowired
+    private OpgaveService opgaveService;
+
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        mvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    @Test
+    @DisplayName("Should serve the same page from the cached fragments")
+    void testPages_Cached() throws Exception {
+        for (String url : new String[]{"/projekter", "/projekter/1", "/opgaver/1", "/delprojekter/1/tasks"}) {
+            // Arrange
+            String first = page(url);
+            long hits = fragments.stats().get("hits");
+
+            // Act
+            String second = page(url);
+
+            // Assert
+            assertEquals(first, second, url);
+            assertEquals(hits + 1, fragments.stats().get("hits"), url);
+        }
+        String list = page("/projekter");
+        assertTrue(list.contains("Test Project 1"));
+        assertTrue(list.contains("href=\"/projekter/rediger/1\""));
+    }
+
+    @Test
+    @DisplayName("Should render the list again after a project is renamed")
+    void testProjectList_InvalidatedByUpdate() throws Exception {
+        // Arrange
+        page("/projekter");
+        Projekt projekt = projektService.getById(1);
+        projekt.setName("Renamed Project");
+
+        // Act
+        projektService.update(projekt);
+
+        // Assert
+        String list = page("/projekter");
+        assertTrue(list.contains("Renamed Project"));
+        assertFalse(list.contains("Test Project 1"));
+    }
+
+    @Test
+    @DisplayName("Should render the project table again after a task is added")
+    void testDetails_InvalidatedByNewTask() throws Exception {
+        // Arrange
+        page("/projekter/1");
+        page("/projekter/2");
+        long hits = fragments.stats().get("hits");
+
+        // Act
+        opgaveService.create(createTestOpgave(1, 2, "Fresh Task"));
+
+        // Assert
+        assertTrue(page("/projekter/1").contains("Fresh Task"));
+        page("/projekter/2");
+        assertEquals(hits + 1, fragments.stats().get("hits"));
+    }
+
+    // ===== Helper methods =====
+
+    private String page(String url) throws Exception {
+        return mvc.perform(get(url)).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+    }
+
+    private Opgave createTestOpgave(int projectId, int delProjektId, String name) {
+        Opgave opgave = new Opgave();
+        opgave.setProject_id(projectId);
+        opgave.setDelProjektId(delProjektId);
+        opgave.setName(name);
+        opgave.setDescription("Test description");
+        opgave.setEstimatedHours(8);
+        opgave.setDeadline(LocalDate.of(2026, 2, 20));
+        return opgave;
+    }
+}
@@ -0,0 +1,115 @@
+package dk.eak.kalkulation.controller;
+
+import dk.eak.kalkulation.model.TimeEntry;
+import dk.eak.kalkulation.service.CalculationService;
+import dk.eak.kalkulation.service.TimeEntryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * Integration tests for the live metrics streams.
+ * Tests Server-Sent Events against test-data.sql with H2 in-memory database.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@DisplayName("Live Metrics Integration Tests")
+class LiveMetricsIT {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private TimeEntryService timeEntryService;
+
+    @Autowired
+    private CalculationService calculationService;
+
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        mvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    @Test
+    @DisplayName("Should push new project metrics after time entries are registered")
+    void testProjectStream_PushesAfterCommit() throws Exception {
+        // Arrange
+        MockHttpServletResponse response = open("/projekter/1/calc/live");
+        int registered = calculationService.metrics(1).getRegisteredHours();
+        assertTrue(response.getContentAsString().contains("\"registeredHours\":" + registered));
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            timeEntryService.create(createTestTimeEntry(4, 1));
+        }
+
+        // Assert
+        assertTrue(await(response, "\"registeredHours\":" + (registered + 5)));
+    }
+
+    @Test
+    @DisplayName("Should push the portfolio after a change to any project")
+    void testPortfolioStream_PushesAfterCommit() throws Exception {
+        // Arrange
+        MockHttpServletResponse response = open("/projekter/calc/live");
+        int events = count(response.getContentAsString(), "event:metrics");
+
+        // Act
+        timeEntryService.create(createTestTimeEntry(4, 2));
+
+        // Assert
+        for (int i = 0; i < 100 && count(response.getContentAsString(), "event:metrics") == events; i++) {
+            Thread.sleep(50);
+        }
+        assertEquals(events + 1, count(response.getContentAsString(), "event:metrics"));
+    }
+
+    // ===== Helper methods =====
+
+    private MockHttpServletResponse open(String url) throws Exception {
+        MvcResult result = mvc.perform(get(url)).andExpect(request().asyncStarted()).andReturn();
+        MockHttpServletResponse response = result.getResponse();
+        assertTrue(await(response, "event:metrics"));
+        return response;
+    }
+
+    private static boolean await(MockHttpServletResponse response, String text) throws Exception {
+        for (int i = 0; i < 100; i++) {
+            if (response.getContentAsString().contains(text)) {
+                return true;
+            }
+            Thread.sleep(50);
+        }
+        return false;
+    }
+
+    private static int count(String content, String text) {
+        return content.split(text, -1).length - 1;
+    }
+
+    private TimeEntry createTestTimeEntry(int opgaveId, int hours) {
+        TimeEntry timeEntry = new TimeEntry();
+        timeEntry.setOpgaveId(opgaveId);
+        timeEntry.setWorkDate(LocalDate.of(2026, 2, 6));
+        timeEntry.setHours(hours);
+        return timeEntry;
+    }
+}
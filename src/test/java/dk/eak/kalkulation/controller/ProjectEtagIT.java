@@ -0,0 +1,97 @@
+package dk.eak.kalkulation.controller;
+
+import dk.eak.kalkulation.model.TimeEntry;
+import dk.eak.kalkulation.service.TimeEntryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the conditional GETs of the project pages.
+ * Tests ETags against test-data.sql with H2 in-memory database.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@DisplayName("Project ETag Integration Tests")
+class ProjectEtagIT {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private TimeEntryService timeEntryService;
+
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        mvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    @Test
+    @DisplayName("Should answer 304 for an unchanged project page")
+    void testDetails_NotModified() throws Exception {
+        // Arrange
+        String etag = etagOf("/projekter/1");
+
+        // Act
+        MvcResult result = mvc.perform(get("/projekter/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified()).andReturn();
+
+        // Assert
+        assertEquals("", result.getResponse().getContentAsString());
+        assertNotNull(result.getResponse().getHeader(HttpHeaders.LAST_MODIFIED));
+    }
+
+    @Test
+    @DisplayName("Should send the new page after a time entry is registered on the project")
+    void testCalc_ChangedByTimeEntry() throws Exception {
+        // Arrange
+        String details = etagOf("/projekter/1");
+        String calc = etagOf("/projekter/1/calc");
+        String other = etagOf("/projekter/2/calc");
+
+        // Act
+        timeEntryService.create(createTestTimeEntry(4, 3));
+
+        // Assert
+        mvc.perform(get("/projekter/1").header(HttpHeaders.IF_NONE_MATCH, details)).andExpect(status().isOk());
+        mvc.perform(get("/projekter/1/calc").header(HttpHeaders.IF_NONE_MATCH, calc)).andExpect(status().isOk());
+        mvc.perform(get("/projekter/2/calc").header(HttpHeaders.IF_NONE_MATCH, other))
+                .andExpect(status().isNotModified());
+    }
+
+    // ===== Helper methods =====
+
+    private String etagOf(String url) throws Exception {
+        MvcResult result = mvc.perform(get(url)).andExpect(status().isOk()).andReturn();
+        assertEquals("no-cache, private", result.getResponse().getHeader(HttpHeaders.CACHE_CONTROL));
+        String etag = result.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        return etag;
+    }
+
+    private TimeEntry createTestTimeEntry(int opgaveId, int hours) {
+        TimeEntry timeEntry = new TimeEntry();
+        timeEntry.setOpgaveId(opgaveId);
+        timeEntry.setWorkDate(LocalDate.of(2026, 2, 6));
+        timeEntry.setHours(hours);
+        return timeEntry;
+    }
+}
@@ -0,0 +1,80 @@
+package dk.eak.kalkulation.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import tools.jackson.databind.json.JsonMapper;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the what-if scenario endpoints.
+ * Tests that a scenario is only reachable under its own project, against test-data.sql.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@DisplayName("ScenarioController Integration Tests")
+class ScenarioControllerIT {
+
+    private static final JsonMapper JSON = JsonMapper.builder().build();
+
+    @Autowired
+    private WebApplicationContext context;
+
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        mvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    @Test
+    @DisplayName("Should not find a scenario under another project")
+    void testScenario_OtherProject() throws Exception {
+        // Arrange
+        String id = open(2);
+
+        // Act & Assert
+        mvc.perform(get("/projekter/1/scenarier/" + id)).andExpect(status().isNotFound());
+        mvc.perform(post("/projekter/1/scenarier/" + id + "/opgaver/5").param("hours", "1"))
+                .andExpect(status().isNotFound());
+        mvc.perform(delete("/projekter/1/scenarier/" + id)).andExpect(status().isNotFound());
+        mvc.perform(get("/projekter/2/scenarier/" + id)).andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("Should answer an unknown scenario with 404 and invalid edits with 400")
+    void testScenario_Errors() throws Exception {
+        // Arrange
+        String id = open(1);
+
+        // Act & Assert
+        mvc.perform(get("/projekter/1/scenarier/missing")).andExpect(status().isNotFound());
+        mvc.perform(post("/projekter/1/scenarier/" + id + "/opgaver/1").param("hours", "-5"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(post("/projekter/1/scenarier/" + id + "/opgaver/5").param("percent", "10"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(post("/projekter/1/scenarier/" + id + "/opgaver/1")).andExpect(status().isBadRequest());
+        mvc.perform(post("/projekter/1/scenarier/" + id + "/delprojekter/3").param("percent", "10"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // ===== Helper methods =====
+
+    private String open(int projectId) throws Exception {
+        String body = mvc.perform(post("/projekter/" + projectId + "/scenarier"))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        return JSON.readTree(body).get("scenarioId").asString();
+    }
+}
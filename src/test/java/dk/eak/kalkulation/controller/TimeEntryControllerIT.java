@@ -0,0 +1,96 @@
+package dk.eak.kalkulation.controller;
+
+import dk.eak.kalkulation.service.TimeEntryIngestService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the hours form of an opgave.
+ * Tests form posts against test-data.sql with H2 in-memory database.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@DisplayName("TimeEntryController Integration Tests")
+class TimeEntryControllerIT {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoSpyBean
+    private TimeEntryIngestService ingest;
+
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        mvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    @Test
+    @DisplayName("Should post the hours form and its delete buttons to the opgaver routes")
+    void testList_FormActions() throws Exception {
+        // Act & Assert
+        mvc.perform(get("/opgaver/1/time"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("action=\"/opgaver/1/time\"")))
+                .andExpect(content().string(containsString("/opgaver/1/time/1/delete")))
+                .andExpect(content().string(not(containsString("/tasks/1/time"))));
+    }
+
+    @Test
+    @DisplayName("Should add the hours once when the form is submitted again with the same key")
+    void testCreate_Resubmit() throws Exception {
+        // Act
+        for (int i = 0; i < 2; i++) {
+            mvc.perform(post("/opgaver/1/time")
+                            .param("workDate", "2026-02-06")
+                            .param("hours", "2")
+                            .param("idempotencyKey", "form-1"))
+                    .andExpect(status().is3xxRedirection())
+                    .andExpect(redirectedUrl("/opgaver/1/time"));
+        }
+
+        // Assert
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM time_entry WHERE idempotency_key = 'form-1'", Integer.class));
+    }
+
+    @Test
+    @DisplayName("Should answer 503 when the entry cannot be queued or committed in time")
+    void testCreate_Unavailable() throws Exception {
+        // Arrange
+        doThrow(new IllegalStateException("Time entry queue is full")).when(ingest).create(any());
+
+        // Act & Assert
+        mvc.perform(post("/opgaver/1/time")
+                        .param("workDate", "2026-02-06")
+                        .param("hours", "2")
+                        .param("idempotencyKey", "form-1"))
+                .andExpect(status().isServiceUnavailable());
+    }
+}
@@ -0,0 +1,183 @@
+package dk.eak.kalkulation.datasource;
+
+import dk.eak.kalkulation.repository.QueryCache;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ReplicaRoutingDataSource, PrimaryPinFilter and the replica
+ * handling in QueryCache, with two H2 databases standing in for primary and replica.
+ */
+@DisplayName("Replica routing Unit Tests")
+class ReplicaRoutingTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-06-01T10:00:00Z"), ZoneOffset.UTC);
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+        DataSource routing = ReplicaRoutingDataSource.create(primary.getDataSource(), replica.getDataSource());
+        jdbc = new JdbcTemplate(routing);
+        DataSourceTransactionManager tm = new DataSourceTransactionManager(routing);
+        readOnly = new TransactionTemplate(tm);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(tm);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReplicaContext.unpin();
+        primary.execute("SHUTDOWN");
+        replica.execute("SHUTDOWN");
+    }
+
+    @Test
+    @DisplayName("Should send read-only transactions to the replica")
+    void testRoute_ReadOnly() {
+        // Act & Assert
+        assertEquals("replica", readOnly.execute(s -> whereAmI()));
+        assertFalse(ReplicaContext.isOnReplica());
+    }
+
+    @Test
+    @DisplayName("Should send writes and reads outside a transaction to the primary")
+    void testRoute_Primary() {
+        // Act
+        readWrite.executeWithoutResult(s -> jdbc.update("INSERT INTO marker VALUES ('written')"));
+
+        // Assert
+        assertEquals("primary", whereAmI());
+        assertEquals("primary", readWrite.execute(s -> whereAmI()));
+        assertEquals(2, primary.queryForObject("SELECT COUNT(*) FROM marker", Integer.class));
+        assertEquals(1, replica.queryForObject("SELECT COUNT(*) FROM marker", Integer.class));
+    }
+
+    @Test
+    @DisplayName("Should send read-only transactions to the primary while pinned")
+    void testRoute_Pinned() {
+        // Arrange
+        ReplicaContext.pin();
+
+        // Act & Assert
+        assertEquals("primary", readOnly.execute(s -> whereAmI()));
+    }
+
+    @Test
+    @DisplayName("Should pin a POST and set the window cookie")
+    void testFilter_WritePinsRequest() throws Exception {
+        // Arrange
+        PrimaryPinFilter filter = new PrimaryPinFilter(5000, CLOCK);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/projekter/opret");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        List<String> seen = new ArrayList<>();
+
+        // Act
+        filter.doFilter(request, response, (req, res) -> seen.add(readOnly.execute(s -> whereAmI())));
+
+        // Assert
+        assertEquals(List.of("primary"), seen);
+        assertEquals(Long.toString(CLOCK.millis() + 5000), response.getCookie(PrimaryPinFilter.COOKIE).getValue());
+        assertFalse(ReplicaContext.isPinned());
+    }
+
+    @Test
+    @DisplayName("Should pin a GET that redirects, and a GET with an unexpired cookie")
+    void testFilter_RedirectAndCookie() throws Exception {
+        // Arrange
+        PrimaryPinFilter filter = new PrimaryPinFilter(5000, CLOCK);
+        MockHttpServletResponse deleted = new MockHttpServletResponse();
+        List<String> seen = new ArrayList<>();
+
+        // Act - GET delete link that redirects, then the page it redirects to
+        filter.doFilter(new MockHttpServletRequest("GET", "/projekter/slet/1"), deleted,
+                (req, res) -> ((jakarta.servlet.http.HttpServletResponse) res).sendRedirect("/projekter"));
+        MockHttpServletRequest next = new MockHttpServletRequest("GET", "/projekter");
+        next.setCookies(deleted.getCookie(PrimaryPinFilter.COOKIE));
+        filter.doFilter(next, new MockHttpServletResponse(), (req, res) -> seen.add(readOnly.execute(s -> whereAmI())));
+        MockHttpServletRequest plain = new MockHttpServletRequest("GET", "/projekter");
+        filter.doFilter(plain, new MockHttpServletResponse(), (req, res) -> seen.add(readOnly.execute(s -> whereAmI())));
+
+        // Assert
+        assertEquals("/projekter", deleted.getRedirectedUrl());
+        assertEquals(List.of("primary", "replica"), seen);
+    }
+
+    @Test
+    @DisplayName("Should ignore expired cookies and cookies beyond one window")
+    void testFilter_IgnoresBadCookies() throws Exception {
+        // Arrange
+        PrimaryPinFilter filter = new PrimaryPinFilter(5000, CLOCK);
+        List<String> seen = new ArrayList<>();
+
+        // Act
+        for (String value : new String[]{Long.toString(CLOCK.millis() - 1), Long.toString(CLOCK.millis() + 60_000), "x"}) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/projekter");
+            request.setCookies(new Cookie(PrimaryPinFilter.COOKIE, value));
+            filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> seen.add(readOnly.execute(s -> whereAmI())));
+        }
+
+        // Assert
+        assertEquals(List.of("replica", "replica", "replica"), seen);
+    }
+
+    @Test
+    @DisplayName("Should not cache replica results for tables written within the lag")
+    void testQueryCache_ReplicaLag() {
+        // Arrange
+        QueryCache cache = new QueryCache(true, 100);
+        cache.setReplicaLagMillis(60_000);
+        String[] tables = {"marker"};
+        cache.invalidate(tables);
+        int[] loads = new int[1];
+
+        // Act - two reads on the replica, then two on the primary
+        for (TransactionTemplate tx : new TransactionTemplate[]{readOnly, readOnly, readWrite, readWrite}) {
+            tx.execute(s -> cache.get("SELECT name FROM marker", new Object[0], tables, v -> v, () -> {
+                loads[0]++;
+                return whereAmI();
+            }));
+        }
+
+        // Assert - replica results were not stored; the first primary result was
+        assertEquals(3, loads[0]);
+    }
+
+    // ===== Helper methods =====
+
+    private String whereAmI() {
+        return jdbc.queryForObject("SELECT name FROM marker ORDER BY name LIMIT 1", String.class);
+    }
+
+    private static JdbcTemplate database(String name) {
+        JdbcTemplate db = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:routing_" + name + ";DB_CLOSE_DELAY=-1", "sa", ""));
+        db.execute("CREATE TABLE marker (name VARCHAR(20))");
+        db.update("INSERT INTO marker VALUES (?)", name);
+        return db;
+    }
+}
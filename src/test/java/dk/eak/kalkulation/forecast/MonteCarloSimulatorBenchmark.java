@@ -0,0 +1,56 @@
+package dk.eak.kalkulation.forecast;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Throughput check for the forecaster: 100k iterations over a 60-task project
+ * must stay under the interactive budget. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@DisplayName("MonteCarloSimulator Benchmark")
+class MonteCarloSimulatorBenchmark {
+
+    private static final int ITERATIONS = 100_000;
+    private static final int TASKS = 60;
+    private static final long BUDGET_MILLIS = 200;
+
+    @Test
+    @DisplayName("100k iterations should take less than 200 ms")
+    void benchmark100kIterations() {
+        // Arrange
+        SplittableRandom rnd = new SplittableRandom(7);
+        int[] est = new int[TASKS];
+        int[] reg = new int[TASKS];
+        for (int i = 0; i < TASKS; i++) {
+            est[i] = 4 + rnd.nextInt(60);
+            reg[i] = rnd.nextInt(est[i]);
+        }
+        MonteCarloSimulator simulator = new MonteCarloSimulator();
+        for (int i = 0; i < 10; i++) {
+            simulator.simulate(est, reg, 0.1, 0.35, 30.0, ITERATIONS, i); // warm-up
+        }
+
+        // Act
+        long[] runs = new long[15];
+        for (int i = 0; i < runs.length; i++) {
+            long t0 = System.nanoTime();
+            simulator.simulate(est, reg, 0.1, 0.35, 30.0, ITERATIONS, 100 + i);
+            runs[i] = System.nanoTime() - t0;
+        }
+        Arrays.sort(runs);
+        long medianMillis = runs[runs.length / 2] / 1_000_000;
+        System.out.printf("MonteCarloSimulator: %d iterations x %d tasks, median %d ms, best %d ms, %d cores%n",
+                ITERATIONS, TASKS, medianMillis, runs[0] / 1_000_000,
+                Runtime.getRuntime().availableProcessors());
+
+        // Assert
+        assertTrue(medianMillis < BUDGET_MILLIS, "median " + medianMillis + " ms");
+    }
+}
@@ -0,0 +1,67 @@
+package dk.eak.kalkulation.forecast;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for MonteCarloSimulator.
+ */
+@DisplayName("MonteCarloSimulator Unit Tests")
+class MonteCarloSimulatorTest {
+
+    private final MonteCarloSimulator simulator = new MonteCarloSimulator();
+
+    @Test
+    @DisplayName("Should give exact result when estimates have no spread")
+    void testSimulate_NoSpread() {
+        // Act - 30 + 10 estimated, 5 registered, 7 hours per day
+        int[] days = simulator.simulate(new int[]{30, 10}, new int[]{5, 0}, 0.0, 0.0, 7.0, 5000, 1L);
+
+        // Assert - 35 hours left -> 5 working days in every run
+        assertEquals(5000, days.length);
+        assertEquals(5, days[0]);
+        assertEquals(5, days[days.length - 1]);
+    }
+
+    @Test
+    @DisplayName("Should be deterministic for a seed regardless of pool size")
+    void testSimulate_Deterministic() {
+        // Arrange
+        int[] est = {40, 16, 8, 24};
+        int[] reg = {10, 0, 8, 0};
+        MonteCarloSimulator single = new MonteCarloSimulator(new ForkJoinPool(1));
+
+        // Act
+        int[] a = simulator.simulate(est, reg, 0.1, 0.4, 6.0, 20_000, 42L);
+        int[] b = single.simulate(est, reg, 0.1, 0.4, 6.0, 20_000, 42L);
+
+        // Assert
+        assertArrayEquals(a, b);
+        assertTrue(MonteCarloSimulator.percentile(a, 50) <= MonteCarloSimulator.percentile(a, 80));
+        assertTrue(MonteCarloSimulator.percentile(a, 80) <= MonteCarloSimulator.percentile(a, 95));
+    }
+
+    @Test
+    @DisplayName("Should use nearest-rank percentiles")
+    void testPercentile() {
+        int[] sorted = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+
+        assertEquals(5, MonteCarloSimulator.percentile(sorted, 50));
+        assertEquals(8, MonteCarloSimulator.percentile(sorted, 80));
+        assertEquals(10, MonteCarloSimulator.percentile(sorted, 95));
+        assertEquals(1, MonteCarloSimulator.percentile(sorted, 0));
+    }
+
+    @Test
+    @DisplayName("Should reject non-positive throughput")
+    void testSimulate_InvalidRate() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            simulator.simulate(new int[]{1}, new int[]{0}, 0, 0, 0, 10, 1L);
+        });
+        assertEquals("Hours per workday must be positive", exception.getMessage());
+    }
+}
@@ -0,0 +1,143 @@
+package dk.eak.kalkulation.importer;
+
+import dk.eak.kalkulation.model.ImportReport.RejectedRow;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TimesheetCsvParser.
+ */
+@DisplayName("TimesheetCsvParser Unit Tests")
+class TimesheetCsvParserTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 6, 1);
+
+    @Test
+    @DisplayName("Should decode dates to the same epoch days as LocalDate")
+    void testEpochDay_MatchesLocalDate() {
+        // Act & Assert
+        for (LocalDate d = LocalDate.of(1899, 12, 1); d.isBefore(LocalDate.of(2101, 3, 1)); d = d.plusDays(1)) {
+            assertEquals(d.toEpochDay(), TimesheetCsvParser.epochDay(d.getYear(), d.getMonthValue(), d.getDayOfMonth()));
+        }
+    }
+
+    @Test
+    @DisplayName("Should skip BOM and header and parse comma, semicolon, quotes and CRLF")
+    void testParse_Formats() {
+        // Arrange
+        String csv = "\uFEFFopgave_id,work_date,hours\r\n"
+                + "1,2026-02-03,3\r\n"
+                + "2;2026-02-04;7;extra comment\n"
+                + "\"3\",\"2026-02-05\",\"8\"\n"
+                + "\n"
+                + " 1 , 2026-02-06 , 2";
+        TimesheetCsvParser parser = parser(1000);
+        List<RowBatch> batches = new ArrayList<>();
+
+        // Act
+        parse(parser, csv, true, batches);
+
+        // Assert
+        assertEquals(1, batches.size());
+        RowBatch b = batches.get(0);
+        assertEquals(4, b.size());
+        assertArrayEquals(new int[]{1, 2, 3, 1}, slice(b.opgaveIds(), 4));
+        assertArrayEquals(new int[]{3, 7, 8, 2}, slice(b.hours(), 4));
+        assertEquals(LocalDate.of(2026, 2, 4).toEpochDay(), b.epochDays()[1]);
+        assertEquals(6, parser.lines());
+        assertEquals(4, parser.rows());
+        assertEquals(0, parser.rejectedCount());
+    }
+
+    @Test
+    @DisplayName("Should reject invalid rows with reason and chunk line number")
+    void testParse_Rejects() {
+        // Arrange
+        String csv = "1,2026-02-03,3\n"
+                + "x,2026-02-03,3\n"
+                + "9,2026-02-03,3\n"
+                + "1,2026-02-30,3\n"
+                + "1,2027-01-01,3\n"
+                + "1,2026-02-03,0\n"
+                + "1,2026-02-03,25\n"
+                + "1,2026-02-03,7.5\n";
+        TimesheetCsvParser parser = parser(1000);
+        List<RowBatch> batches = new ArrayList<>();
+
+        // Act
+        parse(parser, csv, false, batches);
+
+        // Assert
+        assertEquals(1, batches.get(0).size());
+        assertEquals(7, parser.rejectedCount());
+        List<RejectedRow> rejected = parser.rejected();
+        assertEquals(2, rejected.get(0).getLine());
+        assertEquals("Invalid opgave ID", rejected.get(0).getReason());
+        assertEquals("x,2026-02-03,3", rejected.get(0).getText());
+        assertEquals("Unknown opgave ID 9", rejected.get(1).getReason());
+        assertEquals("Invalid work date", rejected.get(2).getReason());
+        assertEquals("Work date cannot be in the future", rejected.get(3).getReason());
+        assertEquals("Hours must be greater than 0", rejected.get(4).getReason());
+        assertEquals("Hours cannot exceed 24 per day", rejected.get(5).getReason());
+        assertEquals("Invalid hours", rejected.get(6).getReason());
+    }
+
+    @Test
+    @DisplayName("Should not treat the first line of a later chunk as header")
+    void testParse_NoHeaderOutsideFirstChunk() {
+        // Arrange
+        TimesheetCsvParser parser = parser(1000);
+
+        // Act
+        parse(parser, "opgave_id,work_date,hours\n", false, new ArrayList<>());
+
+        // Assert
+        assertEquals(1, parser.rejectedCount());
+    }
+
+    @Test
+    @DisplayName("Should hand over full batches as they fill up")
+    void testParse_BatchSize() {
+        // Arrange
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 7; i++) {
+            csv.append("1,2026-01-0").append(i + 1).append(",1\n");
+        }
+        List<RowBatch> batches = new ArrayList<>();
+
+        // Act
+        parse(parser(3), csv.toString(), true, batches);
+
+        // Assert
+        assertEquals(3, batches.size());
+        assertEquals(3, batches.get(0).size());
+        assertEquals(1, batches.get(2).size());
+    }
+
+    // Helper methods
+    private TimesheetCsvParser parser(int batchRows) {
+        return new TimesheetCsvParser(id -> id >= 1 && id <= 3, TODAY, batchRows, 100);
+    }
+
+    private void parse(TimesheetCsvParser parser, String csv, boolean fileStart, List<RowBatch> out) {
+        try {
+            parser.parse(ByteBuffer.wrap(csv.getBytes(StandardCharsets.UTF_8)), fileStart, out::add);
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private int[] slice(int[] values, int n) {
+        int[] result = new int[n];
+        System.arraycopy(values, 0, result, 0, n);
+        return result;
+    }
+}
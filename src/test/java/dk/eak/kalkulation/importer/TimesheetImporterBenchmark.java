@@ -0,0 +1,114 @@
+package dk.eak.kalkulation.importer;
+
+import com.zaxxer.hikari.HikariDataSource;
+import dk.eak.kalkulation.model.ImportReport;
+import dk.eak.kalkulation.repository.QueryCache;
+import dk.eak.kalkulation.repository.TimeEntryRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Throughput of the import pipeline in rows/sec: the parse stage alone, with a
+ * writer that only sums the rows, and the whole import into an in-memory H2
+ * time_entry table through {@link TimeEntryRepository#insertRows} (without the
+ * rollup rebuild). Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@DisplayName("TimesheetImporter Benchmark")
+class TimesheetImporterBenchmark {
+
+    private static final int ROWS = 3_000_000;
+    private static final int IMPORT_ROWS = 500_000;
+    private static final LocalDate TODAY = LocalDate.of(2026, 6, 1);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Should report parse rows/sec for one thread and all cores")
+    void benchmarkParseThroughput() throws IOException {
+        // Arrange
+        Path file = write("timesheets.csv", ROWS);
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        // Act & Assert
+        for (int threads : new int[]{1, cores}) {
+            TimesheetImporter importer = new TimesheetImporter(threads, 64, 1000, 8 << 20);
+            long best = Long.MAX_VALUE;
+            for (int run = 0; run < 5; run++) {
+                long[] sum = new long[1];
+                ImportReport report = importer.run(file, id -> id <= 50_000, TODAY, batch -> sum[0] += batch.size());
+                assertEquals(ROWS, sum[0]);
+                best = Math.min(best, report.getElapsedMillis());
+            }
+            System.out.printf("TimesheetImporter parse: %d rows, %.1f MB, %d threads, best %d ms, %d rows/sec%n",
+                    ROWS, Files.size(file) / 1e6, threads, best, ROWS * 1000L / Math.max(best, 1));
+        }
+    }
+
+    @Test
+    @DisplayName("Should report import rows/sec into H2")
+    void benchmarkImportThroughput() throws IOException {
+        // Arrange
+        Path file = write("import.csv", IMPORT_ROWS);
+        int cores = Runtime.getRuntime().availableProcessors();
+        try (HikariDataSource ds = new HikariDataSource()) {
+            ds.setJdbcUrl("jdbc:h2:mem:import;DB_CLOSE_DELAY=-1");
+            ds.setUsername("sa");
+            JdbcTemplate jdbc = new JdbcTemplate(ds);
+            // time_entry as in schema.sql, without the foreign key to opgave
+            jdbc.execute("""
+                CREATE TABLE time_entry (
+                    time_entry_id INT AUTO_INCREMENT PRIMARY KEY,
+                    opgave_id INT NOT NULL,
+                    work_date DATE NOT NULL,
+                    hours INT NOT NULL,
+                    idempotency_key VARCHAR(64) NULL)""");
+            jdbc.execute("CREATE INDEX idx_time_entry_opgave_date ON time_entry (opgave_id, work_date, time_entry_id, hours)");
+            jdbc.execute("CREATE UNIQUE INDEX uq_time_entry_idempotency_key ON time_entry (idempotency_key)");
+            TimeEntryRepository repository = new TimeEntryRepository(jdbc, new QueryCache(false, 1));
+            TimesheetImporter importer = new TimesheetImporter(cores, 64, 1000, 8 << 20);
+
+            // Act & Assert
+            long best = Long.MAX_VALUE;
+            for (int run = 0; run < 3; run++) {
+                jdbc.execute("TRUNCATE TABLE time_entry");
+                ImportReport report = importer.run(file, id -> id <= 50_000, TODAY,
+                        batch -> repository.insertRows(batch.opgaveIds(), batch.epochDays(), batch.hours(), batch.size()));
+                assertEquals(IMPORT_ROWS, report.getRowsImported());
+                best = Math.min(best, report.getElapsedMillis());
+            }
+            assertEquals(IMPORT_ROWS, jdbc.queryForObject("SELECT COUNT(*) FROM time_entry", Integer.class));
+            System.out.printf("TimesheetImporter import: %d rows, %d threads, best %d ms, %d rows/sec%n",
+                    IMPORT_ROWS, cores, best, IMPORT_ROWS * 1000L / Math.max(best, 1));
+        }
+    }
+
+    // ===== Helper methods =====
+
+    private Path write(String name, int rows) throws IOException {
+        Path file = dir.resolve(name);
+        SplittableRandom rnd = new SplittableRandom(11);
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("opgave_id,work_date,hours\n");
+            for (int i = 0; i < rows; i++) {
+                LocalDate d = LocalDate.of(2015, 1, 1).plusDays(rnd.nextInt(4000));
+                out.write((1 + rnd.nextInt(50_000)) + "," + d + "," + (1 + rnd.nextInt(10)) + "\n");
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,146 @@
+package dk.eak.kalkulation.importer;
+
+import dk.eak.kalkulation.model.ImportReport;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TimesheetImporter.
+ */
+@DisplayName("TimesheetImporter Unit Tests")
+class TimesheetImporterTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 6, 1);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Should split only at line boundaries")
+    void testSplit_LineBoundaries() throws IOException {
+        // Arrange
+        Path file = write("1,2026-01-01,1\n22,2026-01-02,2\n333,2026-01-03,3\n");
+        byte[] bytes = Files.readAllBytes(file);
+
+        // Act
+        long[] bounds;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            bounds = new TimesheetImporter(1, 1, 10, 8).split(ch);
+        }
+
+        // Assert
+        assertEquals(0, bounds[0]);
+        assertEquals(bytes.length, bounds[bounds.length - 1]);
+        for (int i = 1; i < bounds.length - 1; i++) {
+            assertEquals('\n', bytes[(int) bounds[i] - 1]);
+        }
+        assertEquals(4, bounds.length);
+    }
+
+    @Test
+    @DisplayName("Should import every row across many small chunks with a tiny queue")
+    void testRun_ManyChunks() throws IOException {
+        // Arrange
+        StringBuilder csv = new StringBuilder("opgave_id;work_date;hours\n");
+        long expectedHours = 0;
+        for (int i = 0; i < 5000; i++) {
+            int hours = 1 + i % 8;
+            csv.append(1 + i % 3).append(';').append(LocalDate.of(2025, 1, 1).plusDays(i % 365)).append(';')
+                    .append(hours).append('\n');
+            expectedHours += hours;
+        }
+        Path file = write(csv.toString());
+        AtomicLong rows = new AtomicLong();
+        AtomicLong hours = new AtomicLong();
+
+        // Act
+        ImportReport report = new TimesheetImporter(4, 1, 64, 512).run(file, id -> id <= 3, TODAY, batch -> {
+            rows.addAndGet(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                hours.addAndGet(batch.hours()[i]);
+            }
+        });
+
+        // Assert
+        assertEquals(5000, report.getRowsRead());
+        assertEquals(5000, report.getRowsImported());
+        assertEquals(0, report.getRowsRejected());
+        assertEquals(5000, rows.get());
+        assertEquals(expectedHours, hours.get());
+    }
+
+    @Test
+    @DisplayName("Should report rejected rows with their line number in the file")
+    void testRun_RejectedLineNumbers() throws IOException {
+        // Arrange
+        StringBuilder csv = new StringBuilder("opgave_id,work_date,hours\n");
+        for (int i = 0; i < 300; i++) {
+            csv.append(i == 150 || i == 299 ? 9 : 1).append(",2026-01-05,2\n");
+        }
+        Path file = write(csv.toString());
+
+        // Act
+        ImportReport report = new TimesheetImporter(3, 2, 16, 100).run(file, id -> id == 1, TODAY, batch -> { });
+
+        // Assert
+        assertEquals(300, report.getRowsRead());
+        assertEquals(298, report.getRowsImported());
+        assertEquals(2, report.getRowsRejected());
+        assertEquals(152, report.getRejected().get(0).getLine());
+        assertEquals(301, report.getRejected().get(1).getLine());
+        assertEquals("Unknown opgave ID 9", report.getRejected().get(1).getReason());
+    }
+
+    @Test
+    @DisplayName("Should stop and rethrow when the writer fails")
+    void testRun_WriterFails() throws IOException {
+        // Arrange
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            csv.append("1,2026-01-05,2\n");
+        }
+        Path file = write(csv.toString());
+        TimesheetImporter importer = new TimesheetImporter(2, 1, 10, 256);
+
+        // Act & Assert - without waiting for parsers blocked on the full queue
+        IllegalStateException exception = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> assertThrows(IllegalStateException.class,
+                        () -> importer.run(file, id -> true, TODAY, batch -> {
+                            throw new IllegalStateException("database down");
+                        })));
+        assertEquals("database down", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should handle an empty file")
+    void testRun_EmptyFile() throws IOException {
+        // Act
+        ImportReport report = new TimesheetImporter(2, 1, 10, 256).run(write(""), id -> true, TODAY, batch -> {
+            fail("no rows expected");
+        });
+
+        // Assert
+        assertEquals(0, report.getRowsRead());
+        assertTrue(report.getRejected().isEmpty());
+    }
+
+    // Helper methods
+    private Path write(String csv) throws IOException {
+        Path file = dir.resolve("timesheets.csv");
+        Files.writeString(file, csv, StandardCharsets.UTF_8);
+        return file;
+    }
+}
@@ -0,0 +1,273 @@
+package dk.eak.kalkulation.migration;
+
+import dk.eak.kalkulation.migration.SchemaMigrator.Migration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SchemaMigrator and IndexCheck, on throwaway H2 databases.
+ */
+@DisplayName("SchemaMigrator Unit Tests")
+class SchemaMigratorTest {
+
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    private final List<JdbcTemplate> opened = new ArrayList<>();
+    private JdbcTemplate jdbc;
+    private List<Migration> migrations;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = database();
+        migrations = SchemaMigrator.load(SchemaMigrator.LOCATION);
+    }
+
+    @AfterEach
+    void tearDown() {
+        opened.forEach(db -> db.execute("SHUTDOWN"));
+    }
+
+    @Test
+    @DisplayName("Should find the versioned scripts on the classpath")
+    void testLoad() {
+        // Act
+        List<Integer> versions = migrations.stream().map(Migration::getVersion).sorted().toList();
+
+        // Assert
+        assertEquals(List.of(1, 2, 3, 4), versions);
+        assertTrue(migrations.stream().allMatch(m -> !m.getStatements().isEmpty()));
+    }
+
+    @Test
+    @DisplayName("Should build the same tables and indexes as schema.sql")
+    void testMigrate_MatchesSchemaSql() throws IOException {
+        // Arrange
+        JdbcTemplate reference = database();
+        runScript(reference, "schema.sql");
+
+        // Act
+        List<Integer> applied = migrator(jdbc).migrate(migrations);
+
+        // Assert
+        assertEquals(List.of(1, 2, 3, 4), applied);
+        assertEquals(describe(reference), describe(jdbc));
+    }
+
+    @Test
+    @DisplayName("Should apply nothing the second time")
+    void testMigrate_Idempotent() {
+        // Arrange
+        migrator(jdbc).migrate(migrations);
+
+        // Act
+        List<Integer> applied = migrator(jdbc).migrate(migrations);
+
+        // Assert
+        assertTrue(applied.isEmpty());
+        assertEquals(4, jdbc.queryForObject("SELECT COUNT(*) FROM schema_version", Integer.class));
+    }
+
+    @Test
+    @DisplayName("Should upgrade an unversioned database in place and keep its rows")
+    void testMigrate_ExistingDatabase() throws IOException {
+        // Arrange - a database created from schema.sql before migrations existed
+        JdbcTemplate reference = database();
+        runScript(reference, "schema.sql");
+        runScript(jdbc, "schema-baseline.sql");
+        jdbc.update("INSERT INTO project (name) VALUES ('Eksisterende')");
+        jdbc.update("INSERT INTO delprojekt (project_id, name) VALUES (1, 'Delprojekt')");
+        jdbc.update("INSERT INTO opgave (project_id, delprojekt_id, name) VALUES (1, 1, 'Opgave')");
+        jdbc.update("INSERT INTO time_entry (opgave_id, work_date, hours) VALUES (1, DATE '2025-01-06', 4)");
+        jdbc.update("INSERT INTO time_entry (opgave_id, work_date, hours) VALUES (1, DATE '2025-01-07', 3)");
+
+        // Act
+        List<Integer> applied = migrator(jdbc).migrate(migrations);
+
+        // Assert
+        assertEquals(List.of(1, 2, 3, 4), applied);
+        assertEquals(describe(reference), describe(jdbc));
+        assertEquals("Eksisterende", jdbc.queryForObject("SELECT name FROM project", String.class));
+        assertNull(jdbc.queryForObject("SELECT calendar_id FROM project", String.class));
+        assertEquals(7, jdbc.queryForObject("SELECT hours FROM opgave_hours WHERE opgave_id = 1", Integer.class));
+        assertEquals(7, jdbc.queryForObject("SELECT hours FROM delprojekt_hours WHERE delprojekt_id = 1", Integer.class));
+        assertEquals(7, jdbc.queryForObject("SELECT hours FROM project_hours WHERE project_id = 1", Integer.class));
+    }
+
+    @Test
+    @DisplayName("Should apply only migrations that are newer than the database")
+    void testMigrate_NewVersionOnly() {
+        // Arrange
+        migrator(jdbc).migrate(List.of(migration(1)));
+
+        // Act
+        List<Integer> applied = migrator(jdbc).migrate(migrations);
+
+        // Assert
+        assertEquals(List.of(2, 3, 4), applied);
+        assertTrue(describe(jdbc).contains("TIME_ENTRY.IDX_TIME_ENTRY_OPGAVE_DATE(OPGAVE_ID,WORK_DATE,TIME_ENTRY_ID,HOURS)"));
+    }
+
+    @Test
+    @DisplayName("Should finish a migration whose column was added before it failed")
+    void testMigrate_ColumnAlreadyThere() {
+        // Arrange - MySQL commits the ALTER even when the next statement fails
+        migrator(jdbc).migrate(List.of(migration(1), migration(2)));
+        jdbc.execute("ALTER TABLE time_entry ADD COLUMN idempotency_key VARCHAR(64) NULL");
+
+        // Act
+        List<Integer> applied = migrator(jdbc).migrate(migrations);
+
+        // Assert
+        assertEquals(List.of(3, 4), applied);
+        assertTrue(describe(jdbc).contains("TIME_ENTRY.UQ_TIME_ENTRY_IDEMPOTENCY_KEY(IDEMPOTENCY_KEY)"));
+    }
+
+    @Test
+    @DisplayName("Should refuse to start when an applied migration has been edited")
+    void testMigrate_ChangedChecksum() {
+        // Arrange
+        migrator(jdbc).migrate(migrations);
+        Migration edited = new Migration(1, "baseline", "CREATE TABLE IF NOT EXISTS other (id INT);");
+
+        // Act & Assert
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> migrator(jdbc).migrate(List.of(edited)));
+        assertEquals("Migration V1 has changed since it was applied", ex.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should refuse migrations on a database that schema.sql rebuilds at startup")
+    void testScriptInitCheck() {
+        // Arrange
+        SchemaMigrator.ScriptInitCheck check = new SchemaMigrator.ScriptInitCheck();
+        check.setEnvironment(new MockEnvironment()
+                .withProperty("kalkulation.migrations.enabled", "true")
+                .withProperty("spring.sql.init.mode", "always"));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> check.postProcessBeanFactory(null));
+        assertDoesNotThrow(() -> SchemaMigrator.checkScriptInit(true, "never"));
+        assertDoesNotThrow(() -> SchemaMigrator.checkScriptInit(true, null));
+        assertDoesNotThrow(() -> SchemaMigrator.checkScriptInit(false, "always"));
+    }
+
+    @Test
+    @DisplayName("Should use the intended index for every hot query")
+    void testIndexCheck_AllHotQueries() {
+        // Arrange
+        migrator(jdbc).migrate(migrations);
+
+        // Act & Assert
+        for (IndexCheck check : IndexCheck.HOT_QUERIES) {
+            String plan = check.explain(jdbc);
+            assertTrue(check.isUsedBy(plan), check.getName() + " should use " + check.getIndex() + ":\n" + plan);
+        }
+    }
+
+    @Test
+    @DisplayName("Should split scripts on semicolons and drop comment lines")
+    void testSplit() {
+        // Act
+        List<String> statements = Migration.split("""
+                -- first; with a semicolon
+                CREATE TABLE a (id INT);
+
+                  -- indented comment
+                CREATE INDEX idx_a ON a (id);
+                """);
+
+        // Assert
+        assertEquals(List.of("CREATE TABLE a (id INT)", "CREATE INDEX idx_a ON a (id)"), statements);
+    }
+
+    // ===== Helper methods =====
+
+    private JdbcTemplate database() {
+        String url = "jdbc:h2:mem:migration" + DATABASES.incrementAndGet() + ";DB_CLOSE_DELAY=-1";
+        JdbcTemplate db = new JdbcTemplate(new DriverManagerDataSource(url, "sa", ""));
+        opened.add(db);
+        return db;
+    }
+
+    private static SchemaMigrator migrator(JdbcTemplate db) {
+        return new SchemaMigrator(db, true);
+    }
+
+    private Migration migration(int version) {
+        return migrations.stream().filter(m -> m.getVersion() == version).findFirst().orElseThrow();
+    }
+
+    private static void runScript(JdbcTemplate db, String resource) throws IOException {
+        String script = new ClassPathResource(resource).getContentAsString(StandardCharsets.UTF_8);
+        Migration.split(script).forEach(db::execute);
+    }
+
+    // Tables with their columns, and the secondary indexes with their columns
+    private static Set<String> describe(JdbcTemplate db) {
+        return db.execute((ConnectionCallback<Set<String>>) con -> {
+            DatabaseMetaData meta = con.getMetaData();
+            Set<String> out = new TreeSet<>();
+            List<String> tables = new ArrayList<>();
+            try (ResultSet rs = meta.getTables(null, "PUBLIC", "%", new String[] {"TABLE"})) {
+                while (rs.next()) {
+                    if (!rs.getString("TABLE_NAME").equals("SCHEMA_VERSION")) {
+                        tables.add(rs.getString("TABLE_NAME"));
+                    }
+                }
+            }
+            for (String table : tables) {
+                try (ResultSet rs = meta.getColumns(null, "PUBLIC", table, "%")) {
+                    while (rs.next()) {
+                        out.add(table + "." + rs.getString("COLUMN_NAME") + " " + rs.getString("TYPE_NAME")
+                                + " " + rs.getString("IS_NULLABLE"));
+                    }
+                }
+                StringBuilder index = new StringBuilder();
+                String current = null;
+                try (ResultSet rs = meta.getIndexInfo(null, "PUBLIC", table, false, false)) {
+                    while (rs.next()) {
+                        // H2 numbers the foreign key indexes: FK_OPGAVE_PROJECT_INDEX_8
+                        String name = rs.getString("INDEX_NAME").replaceFirst("_INDEX_\\w+$", "");
+                        if (name.startsWith("PRIMARY_KEY")) {
+                            continue;
+                        }
+                        if (!name.equals(current)) {
+                            if (current != null) {
+                                out.add(index.append(')').toString());
+                            }
+                            current = name;
+                            index.setLength(0);
+                            index.append(table).append('.').append(name).append('(');
+                        } else {
+                            index.append(',');
+                        }
+                        index.append(rs.getString("COLUMN_NAME"));
+                    }
+                }
+                if (current != null) {
+                    out.add(index.append(')').toString());
+                }
+            }
+            return out;
+        });
+    }
+}
@@ -0,0 +1,105 @@
+package dk.eak.kalkulation.repository;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Latency of a composite page with three independent queries (5, 10 and 20 ms)
+ * against an in-memory H2 database behind a Hikari pool of 10: requests on a
+ * Tomcat-sized platform thread pool running the queries one after another,
+ * against requests on virtual threads with {@link ParallelQueries}.
+ * Reports p50/p99 ms per page. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@DisplayName("ParallelQueries Benchmark")
+class ParallelQueriesBenchmark {
+
+    private static final int POOL = 10;
+    private static final int CLIENTS = 4;
+    private static final int REQUESTS = 400;
+    private static final int[] QUERY_MILLIS = {5, 10, 20};
+
+    @Test
+    @DisplayName("Should report page latency for platform/sequential and virtual/parallel")
+    void benchmarkPageLatency() throws Exception {
+        // Arrange
+        try (HikariDataSource ds = new HikariDataSource()) {
+            ds.setJdbcUrl("jdbc:h2:mem:parallel;DB_CLOSE_DELAY=-1");
+            ds.setUsername("sa");
+            ds.setMaximumPoolSize(POOL);
+            JdbcTemplate jdbc = new JdbcTemplate(ds);
+            jdbc.execute("CREATE ALIAS IF NOT EXISTS SLEEP FOR 'java.lang.Thread.sleep(long)'");
+            ParallelQueries parallel = new ParallelQueries(new DataSourceTransactionManager(ds), ds, true, 0, POOL);
+
+            // Act & Assert
+            try {
+                measure("platform, sequential", Executors.newFixedThreadPool(200), jdbc, ParallelQueries.sequential());
+                measure("virtual, sequential", Executors.newVirtualThreadPerTaskExecutor(), jdbc, ParallelQueries.sequential());
+                measure("virtual, parallel", Executors.newVirtualThreadPerTaskExecutor(), jdbc, parallel);
+            } finally {
+                parallel.destroy();
+            }
+        }
+    }
+
+    // ===== Helper methods =====
+
+    private static void measure(String label, ExecutorService requests, JdbcTemplate jdbc,
+                                ParallelQueries parallel) throws Exception {
+        // warm up the pool and the JIT
+        for (int i = 0; i < 20; i++) {
+            page(jdbc, parallel);
+        }
+        long[] nanos = new long[REQUESTS];
+        long start = System.nanoTime();
+        try (requests) {
+            // CLIENTS pages in flight at any time
+            for (int batch = 0; batch < REQUESTS; batch += CLIENTS) {
+                List<Future<Long>> pages = new ArrayList<>(CLIENTS);
+                for (int c = 0; c < CLIENTS; c++) {
+                    pages.add(requests.submit(() -> {
+                        long t = System.nanoTime();
+                        assertEquals(QUERY_MILLIS.length, page(jdbc, parallel));
+                        return System.nanoTime() - t;
+                    }));
+                }
+                for (int c = 0; c < CLIENTS; c++) {
+                    nanos[batch + c] = pages.get(c).get();
+                }
+            }
+        }
+        long total = System.nanoTime() - start;
+        Arrays.sort(nanos);
+        System.out.printf("ParallelQueries %-22s %d pages, p50 %.1f ms, p99 %.1f ms, %.0f pages/sec%n",
+                label, REQUESTS, nanos[REQUESTS / 2] / 1e6, nanos[REQUESTS * 99 / 100] / 1e6,
+                REQUESTS * 1e9 / total);
+    }
+
+    private static int page(JdbcTemplate jdbc, ParallelQueries parallel) {
+        List<Supplier<Integer>> results = new ArrayList<>();
+        try (ParallelQueries.Scope scope = parallel.open()) {
+            for (int millis : QUERY_MILLIS) {
+                results.add(scope.fork(() -> {
+                    jdbc.execute("CALL SLEEP(" + millis + ")");
+                    return 1;
+                }));
+            }
+            scope.join();
+        }
+        return results.stream().mapToInt(Supplier::get).sum();
+    }
+}
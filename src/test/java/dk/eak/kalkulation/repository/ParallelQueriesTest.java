@@ -0,0 +1,246 @@
+package dk.eak.kalkulation.repository;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for ParallelQueries.
+ * Tests fan-out to virtual threads, the connection limit and cancellation.
+ */
+@DisplayName("ParallelQueries Unit Tests")
+class ParallelQueriesTest {
+
+    private ParallelQueries parallel;
+
+    @AfterEach
+    void tearDown() {
+        if (parallel != null) {
+            parallel.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("Should run independent queries at the same time")
+    void testJoin_Concurrent() {
+        // Arrange
+        parallel = create(4);
+        CountDownLatch both = new CountDownLatch(2);
+
+        // Act
+        Supplier<Boolean> a;
+        Supplier<Boolean> b;
+        try (ParallelQueries.Scope scope = parallel.open()) {
+            a = scope.fork(() -> meet(both));
+            b = scope.fork(() -> meet(both));
+            scope.join();
+        }
+
+        // Assert
+        assertTrue(a.get());
+        assertTrue(b.get());
+    }
+
+    @Test
+    @DisplayName("Should run the first query and those without a free connection on the caller")
+    void testFork_ConnectionLimit() {
+        // Arrange
+        parallel = create(1);
+        Thread caller = Thread.currentThread();
+        CountDownLatch joined = new CountDownLatch(1);
+
+        // Act
+        Supplier<Thread> first;
+        Supplier<Thread> second;
+        Supplier<Thread> third;
+        try (ParallelQueries.Scope scope = parallel.open()) {
+            first = scope.fork(() -> {
+                joined.countDown();
+                return Thread.currentThread();
+            });
+            // holds the only connection permit until join runs the first query
+            second = scope.fork(() -> {
+                await(joined);
+                return Thread.currentThread();
+            });
+            third = scope.fork(Thread::currentThread);
+            scope.join();
+        }
+
+        // Assert
+        assertSame(caller, first.get());
+        assertTrue(second.get().isVirtual());
+        assertSame(caller, third.get());
+    }
+
+    @Test
+    @DisplayName("Should not wait for connections held by the callers when the pool is smaller than the load")
+    void testJoin_PoolSmallerThanCallers() throws Exception {
+        // Arrange - 2 connections, both held by callers in read-only transactions when they fork
+        try (HikariDataSource ds = new HikariDataSource()) {
+            ds.setJdbcUrl("jdbc:h2:mem:parallel-pool;DB_CLOSE_DELAY=-1");
+            ds.setUsername("sa");
+            ds.setMaximumPoolSize(2);
+            ds.setConnectionTimeout(2_000);
+            JdbcTemplate jdbc = new JdbcTemplate(ds);
+            jdbc.execute("CREATE ALIAS IF NOT EXISTS SLEEP FOR 'java.lang.Thread.sleep(long)'");
+            DataSourceTransactionManager tm = new DataSourceTransactionManager(ds);
+            parallel = new ParallelQueries(tm, ds, true, 2, 2);
+            TransactionTemplate readOnly = new TransactionTemplate(tm);
+            readOnly.setReadOnly(true);
+            CountDownLatch holding = new CountDownLatch(2);
+
+            // Act
+            List<Future<Integer>> pages = new ArrayList<>();
+            try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int c = 0; c < 2; c++) {
+                    pages.add(callers.submit(() -> readOnly.execute(status -> {
+                        meet(holding);
+                        try (ParallelQueries.Scope scope = parallel.open()) {
+                            List<Supplier<Integer>> queries = new ArrayList<>();
+                            for (int q = 0; q < 2; q++) {
+                                queries.add(scope.fork(() -> jdbc.queryForObject("SELECT 1 FROM (SELECT SLEEP(50))", Integer.class)));
+                            }
+                            scope.join();
+                            return queries.stream().mapToInt(Supplier::get).sum();
+                        }
+                    })));
+                }
+            }
+
+            // Assert - a fork waiting for a caller's connection would time out after 2 s
+            for (Future<Integer> page : pages) {
+                assertEquals(2, page.get());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should run everything on the caller inside a read-write transaction")
+    void testOpen_ReadWriteTransaction() {
+        // Arrange
+        parallel = create(4);
+        Thread caller = Thread.currentThread();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            // Act
+            Supplier<Thread> second;
+            try (ParallelQueries.Scope scope = parallel.open()) {
+                scope.fork(Thread::currentThread);
+                second = scope.fork(Thread::currentThread);
+                scope.join();
+            }
+
+            // Assert
+            assertSame(caller, second.get());
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+    }
+
+    @Test
+    @DisplayName("Should rethrow a failed query and cancel the others")
+    void testJoin_FailureCancels() {
+        // Arrange
+        parallel = create(4);
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        long start = System.nanoTime();
+
+        // Act
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> {
+            try (ParallelQueries.Scope scope = parallel.open()) {
+                scope.fork(() -> {
+                    await(started);
+                    throw new IllegalArgumentException("Bad query");
+                });
+                scope.fork(() -> {
+                    started.countDown();
+                    try {
+                        Thread.sleep(10_000);
+                    } catch (InterruptedException ie) {
+                        interrupted.set(true);
+                    }
+                    return 0;
+                });
+                scope.join();
+            }
+        });
+
+        // Assert
+        assertEquals("Bad query", e.getMessage());
+        assertTrue(interrupted.get());
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+    }
+
+    @Test
+    @DisplayName("Should run queries in order on the caller when sequential")
+    void testSequential() {
+        // Arrange
+        parallel = ParallelQueries.sequential();
+        Thread caller = Thread.currentThread();
+
+        // Act
+        Supplier<Thread> second;
+        try (ParallelQueries.Scope scope = parallel.open()) {
+            scope.fork(Thread::currentThread);
+            second = scope.fork(Thread::currentThread);
+            scope.join();
+        }
+
+        // Assert
+        assertSame(caller, second.get());
+    }
+
+    @Test
+    @DisplayName("Should not give a result before join")
+    void testGet_BeforeJoin() {
+        // Arrange
+        parallel = create(4);
+
+        // Act & Assert
+        try (ParallelQueries.Scope scope = parallel.open()) {
+            Supplier<Integer> result = scope.fork(() -> 1);
+            assertThrows(IllegalStateException.class, result::get);
+        }
+    }
+
+    // ===== Helper methods =====
+
+    private static ParallelQueries create(int maxConnections) {
+        return new ParallelQueries(mock(PlatformTransactionManager.class), mock(DataSource.class), true, maxConnections, 10);
+    }
+
+    private static boolean meet(CountDownLatch latch) {
+        latch.countDown();
+        return await(latch);
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
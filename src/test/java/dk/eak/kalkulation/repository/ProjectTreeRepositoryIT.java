@@ -0,0 +1,58 @@
+package dk.eak.kalkulation.repository;
+
+import dk.eak.kalkulation.model.ProjectTree;
+import dk.eak.kalkulation.model.ProjectTree.DelProjektNode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for ProjectTreeRepository.
+ * Tests the tree assembled from test-data.sql with H2 in-memory database.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@DisplayName("ProjectTreeRepository Integration Tests")
+class ProjectTreeRepositoryIT {
+
+    @Autowired
+    private ProjectTreeRepository treeRepository;
+
+    @Test
+    @DisplayName("Should load delprojekter, opgaver and hours of a project")
+    void testFindByProjectId_Success() {
+        // Act
+        ProjectTree tree = treeRepository.findByProjectId(1);
+
+        // Assert
+        assertEquals("Test Project 1", tree.getProject().getName());
+        List<DelProjektNode> delprojekter = tree.getDelprojekter();
+        assertEquals(2, delprojekter.size());
+        assertEquals("Test SubProject 1", delprojekter.get(0).getDelProjekt().getName());
+        assertEquals(List.of(1, 2), delprojekter.get(0).getOpgaver().stream()
+                .map(n -> n.getOpgave().getOpgaveId()).toList());
+        assertEquals(10, delprojekter.get(0).getRegisteredHours());
+        assertEquals(25, delprojekter.get(0).getEstimatedHours());
+        assertEquals(8, delprojekter.get(1).getRegisteredHours());
+        assertEquals(1, tree.getUnassigned().size());
+        assertEquals("Task 1-4", tree.getUnassigned().get(0).getOpgave().getName());
+        assertEquals(20, tree.getRegisteredHours());
+        assertEquals(50, tree.getEstimatedHours());
+        assertEquals(4, tree.getOpgaveCount());
+    }
+
+    @Test
+    @DisplayName("Should return null for a project that does not exist")
+    void testFindByProjectId_NotFound() {
+        // Act & Assert
+        assertNull(treeRepository.findByProjectId(999));
+    }
+}
@@ -0,0 +1,82 @@
+package dk.eak.kalkulation.repository;
+
+import dk.eak.kalkulation.model.Projekt;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for QueryCache.
+ * Tests table-tagged invalidation, LRU eviction and copying of cached values.
+ */
+@DisplayName("QueryCache Unit Tests")
+class QueryCacheTest {
+
+    private static final String[] PROJECT = {Tables.PROJECT};
+    private static final String[] TIME = {Tables.TIME_ENTRY};
+
+    @Test
+    @DisplayName("Should serve repeated queries from the cache")
+    void testGet_Hit() {
+        QueryCache cache = new QueryCache(true, 100);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("q", new Object[]{1}, PROJECT, i -> i, loads::incrementAndGet);
+        int second = cache.get("q", new Object[]{1}, PROJECT, i -> i, loads::incrementAndGet);
+
+        assertEquals(1, second);
+        assertEquals(1, loads.get());
+        assertEquals(1L, cache.stats().get("hits"));
+        assertEquals(1L, cache.stats().get("misses"));
+    }
+
+    @Test
+    @DisplayName("Should only invalidate entries tagged with the written table")
+    void testInvalidate_OnlyTaggedTables() {
+        QueryCache cache = new QueryCache(true, 100);
+        AtomicInteger projectLoads = new AtomicInteger();
+        AtomicInteger timeLoads = new AtomicInteger();
+
+        cache.get("p", new Object[0], PROJECT, i -> i, projectLoads::incrementAndGet);
+        cache.get("t", new Object[0], TIME, i -> i, timeLoads::incrementAndGet);
+        cache.invalidate(Tables.TIME_ENTRY);
+        cache.get("p", new Object[0], PROJECT, i -> i, projectLoads::incrementAndGet);
+        cache.get("t", new Object[0], TIME, i -> i, timeLoads::incrementAndGet);
+
+        assertEquals(1, projectLoads.get());
+        assertEquals(2, timeLoads.get());
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used entry when full")
+    void testEviction_Lru() {
+        QueryCache cache = new QueryCache(true, 2);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("a", new Object[0], PROJECT, i -> i, loads::incrementAndGet);
+        cache.get("b", new Object[0], PROJECT, i -> i, loads::incrementAndGet);
+        cache.get("a", new Object[0], PROJECT, i -> i, loads::incrementAndGet); // a is now most recent
+        cache.get("c", new Object[0], PROJECT, i -> i, loads::incrementAndGet); // evicts b
+        cache.get("a", new Object[0], PROJECT, i -> i, loads::incrementAndGet);
+        cache.get("b", new Object[0], PROJECT, i -> i, loads::incrementAndGet);
+
+        assertEquals(4, loads.get());
+        assertTrue(cache.stats().get("evictions") >= 1);
+    }
+
+    @Test
+    @DisplayName("Should not let callers change cached objects")
+    void testGet_ReturnsCopies() {
+        QueryCache cache = new QueryCache(true, 100);
+        Projekt p = new Projekt();
+        p.setName("Original");
+
+        cache.get("p", new Object[0], PROJECT, Projekt::copy, () -> p).setName("Changed");
+        Projekt cached = cache.get("p", new Object[0], PROJECT, Projekt::copy, () -> null);
+
+        assertEquals("Original", cached.getName());
+    }
+}
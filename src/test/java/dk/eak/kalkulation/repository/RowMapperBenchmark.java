@@ -0,0 +1,90 @@
+package dk.eak.kalkulation.repository;
+
+import dk.eak.kalkulation.migration.SchemaMigrator;
+import dk.eak.kalkulation.model.TimeEntry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Per-row cost of mapping time entries from an in-memory H2 database: the old
+ * {@code SELECT *} with lookups by column name against the explicit column list
+ * read by index. Reports ns/row and allocated bytes/row.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@DisplayName("RowMapper Benchmark")
+class RowMapperBenchmark {
+
+    private static final int ROWS = 200_000;
+    private static final int RUNS = 7;
+
+    // The mapper as it was before explicit columns
+    private static final RowMapper<TimeEntry> BY_NAME = (rs, rowNum) -> {
+        TimeEntry t = new TimeEntry();
+        t.setTimeEntryId(rs.getInt("time_entry_id"));
+        t.setOpgaveId(rs.getInt("opgave_id"));
+        t.setWorkDate(rs.getDate("work_date").toLocalDate());
+        t.setHours(rs.getInt("hours"));
+        return t;
+    };
+
+    @Test
+    @DisplayName("Should report per-row cost by name and by index")
+    void benchmarkMapping() {
+        // Arrange
+        JdbcTemplate jdbc = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:rowmapper;DB_CLOSE_DELAY=-1", "sa", ""));
+        new SchemaMigrator(jdbc, true).migrate(SchemaMigrator.load(SchemaMigrator.LOCATION));
+        jdbc.update("INSERT INTO project (name) VALUES ('Benchmark')");
+        jdbc.update("INSERT INTO opgave (project_id, name) VALUES (1, 'Benchmark')");
+        SplittableRandom rnd = new SplittableRandom(5);
+        List<Object[]> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(new Object[]{1, Date.valueOf(LocalDate.of(2020, 1, 1).plusDays(rnd.nextInt(2000))),
+                    1 + rnd.nextInt(8)});
+        }
+        jdbc.batchUpdate("INSERT INTO time_entry (opgave_id, work_date, hours) VALUES (?, ?, ?)", rows);
+
+        // Act & Assert
+        try {
+            measure("by name (SELECT *)", jdbc, "SELECT * FROM time_entry", BY_NAME);
+            measure("by index (COLUMNS)", jdbc, "SELECT " + TimeEntryRepository.COLUMNS + " FROM time_entry",
+                    TimeEntryRepository.ROW_MAPPER);
+        } finally {
+            jdbc.execute("SHUTDOWN");
+        }
+    }
+
+    // ===== Helper methods =====
+
+    private static void measure(String label, JdbcTemplate jdbc, String sql, RowMapper<TimeEntry> mapper) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long bestNanos = Long.MAX_VALUE;
+        long bestBytes = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            long bytes = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            List<TimeEntry> result = jdbc.query(sql, mapper);
+            long nanos = System.nanoTime() - start;
+            bytes = threads.getCurrentThreadAllocatedBytes() - bytes;
+            assertEquals(ROWS, result.size());
+            bestNanos = Math.min(bestNanos, nanos);
+            bestBytes = Math.min(bestBytes, bytes);
+        }
+        System.out.printf("RowMapper %-20s %d rows, %.0f ns/row, %d bytes/row%n",
+                label, ROWS, (double) bestNanos / ROWS, bestBytes / ROWS);
+    }
+}
@@ -305,4 +305,71 @@ class TimeEntryRepositoryIT {
         List<TimeEntry> originalTaskEntries = timeEntryRepository.findByOpgaveId(originalOpgaveId);
         assertFalse(originalTaskEntries.stream().anyMatch(te -> te.getTimeEntryId() == 1));
     }
+
+    @Test
+    @DisplayName("Should batch insert, update and delete with generated IDs in input order")
+    void testBatchCrud() {
+        // Arrange
+        TimeEntry first = new TimeEntry();
+        first.setOpgaveId(1);
+        first.setWorkDate(LocalDate.of(2026, 3, 2));
+        first.setHours(1);
+        TimeEntry second = new TimeEntry();
+        second.setOpgaveId(2);
+        second.setWorkDate(LocalDate.of(2026, 3, 3));
+        second.setHours(2);
+
+        // Act
+        int[] ids = timeEntryRepository.createAll(List.of(first, second));
+
+        // Assert
+        assertEquals(2, ids.length);
+        assertEquals(ids[0], first.getTimeEntryId());
+        assertEquals(ids[1], second.getTimeEntryId());
+        assertEquals(2, timeEntryRepository.findById(ids[1]).getOpgaveId());
+
+        // Update
+        first.setHours(4);
+        second.setHours(5);
+        timeEntryRepository.updateAll(List.of(first, second));
+        assertEquals(4, timeEntryRepository.findById(ids[0]).getHours());
+        assertEquals(5, timeEntryRepository.findById(ids[1]).getHours());
+
+        // Delete
+        timeEntryRepository.deleteAll(List.of(ids[0], ids[1]));
+        assertTrue(timeEntryRepository.findByIds(List.of(ids[0], ids[1])).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should walk keyset pages in date and ID order without gaps or repeats")
+    void testFindByOpgaveIdAfter_Pages() {
+        // Arrange - same date twice so the ID breaks the tie
+        List<TimeEntry> created = new java.util.ArrayList<>();
+        for (LocalDate d : List.of(LocalDate.of(2026, 1, 7), LocalDate.of(2026, 1, 5),
+                LocalDate.of(2026, 1, 6), LocalDate.of(2026, 1, 6), LocalDate.of(2026, 1, 8))) {
+            TimeEntry t = new TimeEntry();
+            t.setOpgaveId(5);
+            t.setWorkDate(d);
+            t.setHours(1);
+            created.add(t);
+        }
+        int[] ids = timeEntryRepository.createAll(created);
+        List<TimeEntry> expected = timeEntryRepository.findByOpgaveId(5);
+
+        // Act
+        List<TimeEntry> walked = new java.util.ArrayList<>();
+        List<TimeEntry> page = timeEntryRepository.findByOpgaveIdAfter(5, null, 0, 2);
+        while (!page.isEmpty()) {
+            walked.addAll(page);
+            TimeEntry last = page.get(page.size() - 1);
+            page = timeEntryRepository.findByOpgaveIdAfter(5, last.getWorkDate(), last.getTimeEntryId(), 2);
+        }
+
+        // Assert
+        assertEquals(expected.stream().map(TimeEntry::getTimeEntryId).toList(),
+                walked.stream().map(TimeEntry::getTimeEntryId).toList());
+
+        // Cleanup
+        timeEntryRepository.deleteAll(java.util.Arrays.stream(ids).boxed().toList());
+    }
 }
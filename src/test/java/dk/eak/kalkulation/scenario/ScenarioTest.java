@@ -0,0 +1,111 @@
+package dk.eak.kalkulation.scenario;
+
+import dk.eak.kalkulation.calendar.WeekdayWorkCalendar;
+import dk.eak.kalkulation.model.ProjectMetrics;
+import dk.eak.kalkulation.model.Projekt;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for Scenario.
+ */
+@DisplayName("Scenario Unit Tests")
+class ScenarioTest {
+
+    private final WeekdayWorkCalendar calendar = new WeekdayWorkCalendar();
+    private ProjectSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        Projekt p = new Projekt();
+        p.setProjectId(1);
+        p.setName("Website");
+        p.setStartDate(LocalDate.of(2026, 3, 2));
+        p.setEndDate(LocalDate.of(2026, 3, 13)); // 10 working days
+        snapshot = new ProjectSnapshot(p, Map.of(7, "Backend"), List.of(
+                new TaskNode(1, 7, "API", 50, 10, null),
+                new TaskNode(2, 7, "DB", 30, 0, null),
+                new TaskNode(3, null, "UI", 20, 0, null)));
+    }
+
+    @Test
+    @DisplayName("Should evaluate like the project formulas without edits")
+    void testEvaluate_Base() {
+        ProjectMetrics m = Scenario.of(snapshot).evaluate(calendar);
+
+        assertEquals(100, m.getEstimatedHours());
+        assertEquals(10, m.getRegisteredHours());
+        assertEquals(10, m.getWorkingDays());
+        assertEquals(9.0, m.getRequiredHoursPerWorkday(), 0.0001);
+    }
+
+    @Test
+    @DisplayName("Should cut an estimate and move the end date")
+    void testEvaluate_Edits() {
+        // Act - API -20%, end date two weeks later
+        Scenario s = Scenario.of(snapshot).scaleEstimate(1, -20).shiftEndDate(14);
+        ProjectMetrics m = s.evaluate(calendar);
+
+        // Assert
+        assertEquals(90, m.getEstimatedHours());
+        assertEquals(20, m.getWorkingDays());
+        assertEquals(4.0, m.getRequiredHoursPerWorkday(), 0.0001);
+        assertEquals(List.of("Opgave 1 estimate -20%", "End date 2026-03-27"), s.getEdits());
+    }
+
+    @Test
+    @DisplayName("Should leave the parent scenario and snapshot untouched")
+    void testEdits_CopyOnWrite() {
+        // Arrange
+        Scenario parent = Scenario.of(snapshot).withEstimatedHours(3, 40);
+
+        // Act
+        Scenario child = parent.withoutOpgave(2);
+
+        // Assert
+        assertEquals(1, parent.overlaySize());
+        assertEquals(2, child.overlaySize());
+        assertEquals(120, parent.evaluate(calendar).getEstimatedHours());
+        assertEquals(90, child.evaluate(calendar).getEstimatedHours());
+        assertEquals(20, snapshot.task(3).getEstimatedHours());
+        assertSame(snapshot.task(1), child.task(1));
+    }
+
+    @Test
+    @DisplayName("Should scale every opgave in a delprojekt")
+    void testScaleDelProjekt() {
+        Scenario s = Scenario.of(snapshot).scaleDelProjekt(7, 10);
+
+        assertEquals(55, s.task(1).getEstimatedHours());
+        assertEquals(33, s.task(2).getEstimatedHours());
+        assertEquals(20, s.task(3).getEstimatedHours());
+    }
+
+    @Test
+    @DisplayName("Should reject edits of unknown or removed opgaver")
+    void testEdit_UnknownOpgave() {
+        Scenario s = Scenario.of(snapshot).withoutOpgave(2);
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            s.scaleEstimate(2, 10);
+        });
+        assertEquals("Opgave 2 is not in the scenario", exception.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> s.withEstimatedHours(99, 1));
+    }
+
+    @Test
+    @DisplayName("Should reject end date before start date")
+    void testWithEndDate_BeforeStart() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            Scenario.of(snapshot).withEndDate(LocalDate.of(2026, 1, 1));
+        });
+        assertEquals("End date cannot be before start date", exception.getMessage());
+    }
+}
@@ -0,0 +1,95 @@
+package dk.eak.kalkulation.schedule;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CapacityPlanner.
+ */
+@DisplayName("CapacityPlanner Unit Tests")
+class CapacityPlannerTest {
+
+    private static final int N = CapacityPlanner.NO_DEADLINE;
+
+    @Test
+    @DisplayName("Should spread required hours evenly up to the deadline")
+    void testLevel_RequiredProfile() {
+        // Arrange - 20 h due in 4 days, 6 h due in 2 days
+        CapacityPlanner.Result r = CapacityPlanner.level(
+                new int[]{0, 0}, new int[]{4, 2}, new int[]{20, 6}, 10.0, 100);
+
+        // Assert
+        assertArrayEquals(new double[]{8, 8, 5, 5}, r.required(), 0.0001);
+    }
+
+    @Test
+    @DisplayName("Should serve earliest deadline first within capacity")
+    void testLevel_EarliestDeadlineFirst() {
+        // Arrange - task 0 due day 3, task 1 due day 1, both 8 h, capacity 6 h
+        CapacityPlanner.Result r = CapacityPlanner.level(
+                new int[]{0, 0}, new int[]{3, 1}, new int[]{8, 8}, 6.0, 100);
+
+        // Assert - task 1 gets day 0 and 2 h of day 1 (late), task 0 finishes day 2
+        assertEquals(2, r.finish()[1]);
+        assertEquals(3, r.finish()[0]);
+        assertEquals(2.0, r.late()[1], 0.0001);
+        assertEquals(6.0, r.planned()[0], 0.0001);
+        assertEquals(4.0, r.planned()[2], 0.0001);
+    }
+
+    @Test
+    @DisplayName("Should not start tasks before their release day")
+    void testLevel_Release() {
+        CapacityPlanner.Result r = CapacityPlanner.level(
+                new int[]{2}, new int[]{N}, new int[]{5}, 8.0, 100);
+
+        assertEquals(0.0, r.planned()[0], 0.0001);
+        assertEquals(5.0, r.planned()[2], 0.0001);
+        assertEquals(3, r.finish()[0]);
+    }
+
+    @Test
+    @DisplayName("Should plan every hour and never exceed capacity")
+    void testLevel_ConservesHours() {
+        // Arrange - 5000 tasks over a multi-year horizon
+        SplittableRandom rnd = new SplittableRandom(11);
+        int n = 5000;
+        int[] release = new int[n];
+        int[] deadline = new int[n];
+        int[] hours = new int[n];
+        long total = 0;
+        for (int t = 0; t < n; t++) {
+            release[t] = rnd.nextInt(500);
+            deadline[t] = rnd.nextInt(4) == 0 ? N : release[t] + rnd.nextInt(200);
+            hours[t] = 1 + rnd.nextInt(80);
+            total += hours[t];
+        }
+
+        // Act
+        CapacityPlanner.Result r = CapacityPlanner.level(release, deadline, hours, 300.0, 5000);
+
+        // Assert
+        double sum = 0;
+        for (double h : r.planned()) {
+            assertTrue(h <= 300.0 + 1e-6);
+            sum += h;
+        }
+        assertEquals(total, sum, 1e-3);
+        for (int f : r.finish()) {
+            assertTrue(f > 0);
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject non-positive capacity")
+    void testLevel_InvalidCapacity() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            CapacityPlanner.level(new int[0], new int[0], new int[0], 0, 10);
+        });
+        assertEquals("Capacity per day must be positive", exception.getMessage());
+    }
+}
@@ -0,0 +1,129 @@
+package dk.eak.kalkulation.schedule;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TaskGraph.
+ */
+@DisplayName("TaskGraph Unit Tests")
+class TaskGraphTest {
+
+    private static final int N = TaskGraph.NO_DEADLINE;
+
+    @Test
+    @DisplayName("Should compute earliest/latest times, slack and critical path")
+    void testBuild_DiamondNetwork() {
+        // Arrange - 1 -> {2, 3} -> 4, durations 2, 5, 1, 3
+        TaskGraph g = TaskGraph.build(
+                new int[]{1, 2, 3, 4}, new int[]{2, 5, 1, 3}, new int[]{N, N, 4, N},
+                new int[]{1, 1, 2, 3}, new int[]{2, 3, 4, 4});
+
+        // Assert
+        assertEquals(10, g.makespan());
+        assertEquals(2, g.earliestStart(2));
+        assertEquals(7, g.earliestStart(4));
+        assertEquals(6, g.latestStart(3));
+        assertEquals(4, g.slack(3));
+        assertTrue(g.isCritical(2));
+        assertFalse(g.isCritical(3));
+        assertEquals(List.of(1, 2, 4), g.criticalPath());
+        assertFalse(g.isLate(3)); // finishes day 3, deadline 4
+    }
+
+    @Test
+    @DisplayName("Should flag tasks that cannot finish before their deadline")
+    void testIsLate() {
+        // Arrange - task 2 waits 4 days for task 1, has 3 days of work and a deadline of 5
+        TaskGraph g = TaskGraph.build(new int[]{1, 2}, new int[]{4, 3}, new int[]{N, 5},
+                new int[]{1}, new int[]{2});
+
+        // Assert
+        assertTrue(g.isLate(2));
+        assertFalse(g.isLate(1));
+    }
+
+    @Test
+    @DisplayName("Should reject dependency cycles")
+    void testBuild_Cycle() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            TaskGraph.build(new int[]{1, 2, 3}, new int[]{1, 1, 1}, new int[]{N, N, N},
+                    new int[]{1, 2, 3}, new int[]{2, 3, 1});
+        });
+        assertEquals("Dependencies contain a cycle", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should find transitive dependencies")
+    void testReaches() {
+        TaskGraph g = TaskGraph.build(new int[]{1, 2, 3}, new int[]{1, 1, 1}, new int[]{N, N, N},
+                new int[]{1, 2}, new int[]{2, 3});
+
+        assertTrue(g.reaches(1, 3));
+        assertFalse(g.reaches(3, 1));
+    }
+
+    @Test
+    @DisplayName("Should only touch the downstream subgraph on update")
+    void testUpdate_TouchesOnlyAffectedTasks() {
+        // Arrange - two independent chains 1->2->3 (long) and 4->5 (short)
+        TaskGraph g = TaskGraph.build(
+                new int[]{1, 2, 3, 4, 5}, new int[]{5, 5, 5, 1, 1}, new int[]{N, N, N, N, N},
+                new int[]{1, 2, 4}, new int[]{2, 3, 5});
+
+        // Act - growing task 4 does not move the project finish
+        int touched = g.update(4, 3, N);
+
+        // Assert - forward 4, 5 and backward 4
+        assertEquals(3, touched);
+        assertEquals(3, g.earliestStart(5));
+        assertEquals(15, g.makespan());
+        assertEquals(11, g.slack(5));
+    }
+
+    @Test
+    @DisplayName("Incremental updates should match a full rebuild")
+    void testUpdate_MatchesRebuild() {
+        // Arrange - random DAG of 2000 tasks, edges only from lower to higher index
+        SplittableRandom rnd = new SplittableRandom(3);
+        int n = 2000;
+        int[] ids = new int[n];
+        int[] dur = new int[n];
+        int[] due = new int[n];
+        int m = 6000;
+        int[] from = new int[m];
+        int[] to = new int[m];
+        for (int i = 0; i < n; i++) {
+            ids[i] = i + 1;
+            dur[i] = rnd.nextInt(10);
+            due[i] = rnd.nextBoolean() ? N : rnd.nextInt(100);
+        }
+        for (int k = 0; k < m; k++) {
+            int a = rnd.nextInt(n - 1);
+            from[k] = ids[a];
+            to[k] = ids[a + 1 + rnd.nextInt(Math.min(50, n - a - 1))];
+        }
+        TaskGraph g = TaskGraph.build(ids, dur, due, from, to);
+
+        // Act
+        for (int i = 0; i < 200; i++) {
+            int v = rnd.nextInt(n);
+            dur[v] = rnd.nextInt(10);
+            g.update(ids[v], dur[v], due[v]);
+        }
+        TaskGraph expected = TaskGraph.build(ids, dur, due, from, to);
+
+        // Assert
+        assertEquals(expected.makespan(), g.makespan());
+        for (int id : ids) {
+            assertEquals(expected.earliestStart(id), g.earliestStart(id));
+            assertEquals(expected.latestStart(id), g.latestStart(id));
+            assertEquals(expected.isLate(id), g.isLate(id));
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package dk.eak.kalkulation.service;
+
+import dk.eak.kalkulation.calendar.DanishWorkCalendar;
+import dk.eak.kalkulation.calendar.WeekdayWorkCalendar;
+import dk.eak.kalkulation.model.Burndown;
+import dk.eak.kalkulation.model.ProjectMetrics;
+import dk.eak.kalkulation.model.Projekt;
+import dk.eak.kalkulation.repository.TimeEntryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for BurndownService.
+ * Tests cumulative, remaining and ideal series built from streamed daily totals.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BurndownService Unit Tests")
+class BurndownServiceTest {
+
+    @Mock
+    private TimeEntryRepository timeEntryRepository;
+
+    @Mock
+    private CalculationService calculationService;
+
+    private BurndownService burndownService;
+
+    @BeforeEach
+    void setUp() {
+        burndownService = new BurndownService(timeEntryRepository, calculationService);
+    }
+
+    @Test
+    @DisplayName("Should build daily cumulative and remaining hours")
+    void testBurndown_Daily() {
+        // Arrange - Mon Feb 2 to Fri Feb 6, 2026, 20 estimated hours
+        arrangeProject(LocalDate.of(2026, 2, 2), LocalDate.of(2026, 2, 6), 20);
+        stream(LocalDate.of(2026, 2, 2), 3, LocalDate.of(2026, 2, 4), 5);
+
+        // Act
+        Burndown b = burndownService.burndown(1, Burndown.Granularity.DAILY);
+
+        // Assert
+        assertEquals(LocalDate.of(2026, 2, 2), b.getStartDate());
+        assertArrayEquals(new int[]{3, 3, 8, 8, 8}, b.getCumulativeHours());
+        assertArrayEquals(new int[]{17, 17, 12, 12, 12}, b.getRemainingHours());
+        assertArrayEquals(new double[]{16, 12, 8, 4, 0}, b.getIdealRemainingHours(), 0.0001);
+        assertEquals("2026-02-06", b.getLabels()[4]);
+    }
+
+    @Test
+    @DisplayName("Should bucket weekly from Monday and include entries after the end date")
+    void testBurndown_Weekly() {
+        // Arrange - Wed Feb 4 to Fri Feb 13, 2026
+        arrangeProject(LocalDate.of(2026, 2, 4), LocalDate.of(2026, 2, 13), 10);
+        stream(LocalDate.of(2026, 2, 5), 4, LocalDate.of(2026, 2, 18), 2);
+
+        // Act
+        Burndown b = burndownService.burndown(1, Burndown.Granularity.WEEKLY);
+
+        // Assert
+        assertEquals(LocalDate.of(2026, 2, 2), b.getStartDate());
+        assertArrayEquals(new int[]{4, 4, 6}, b.getCumulativeHours());
+        assertArrayEquals(new int[]{6, 6, 4}, b.getRemainingHours());
+    }
+
+    @Test
+    @DisplayName("Should return empty series for project without dates or entries")
+    void testBurndown_Empty() {
+        // Arrange
+        arrangeProject(null, null, 10);
+
+        // Act
+        Burndown b = burndownService.burndown(1, Burndown.Granularity.DAILY);
+
+        // Assert
+        assertEquals(0, b.getCumulativeHours().length);
+        assertNull(b.getStartDate());
+    }
+
+    @Test
+    @DisplayName("Should throw exception with invalid project ID")
+    void testBurndown_InvalidId() {
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            burndownService.burndown(0, Burndown.Granularity.DAILY);
+        });
+        assertEquals("Project ID must be valid", exception.getMessage());
+        verifyNoInteractions(timeEntryRepository);
+    }
+
+    // Helper methods
+    private void arrangeProject(LocalDate start, LocalDate end, int estimated) {
+        Projekt p = new Projekt();
+        p.setProjectId(1);
+        p.setStartDate(start);
+        p.setEndDate(end);
+        when(calculationService.metrics(1)).thenReturn(new ProjectMetrics(p, estimated, 0));
+        lenient().when(calculationService.calendarFor(p)).thenReturn(new WeekdayWorkCalendar());
+    }
+
+    private void stream(Object... dayAndHours) {
+        doAnswer(inv -> {
+            TimeEntryRepository.DailyHours consumer = inv.getArgument(1);
+            for (int i = 0; i < dayAndHours.length; i += 2) {
+                consumer.accept(((LocalDate) dayAndHours[i]).toEpochDay(), (Integer) dayAndHours[i + 1]);
+            }
+            return null;
+        }).when(timeEntryRepository).forEachDailyTotal(eq(1), any());
+    }
+}
@@ -1,9 +1,16 @@
 package dk.eak.kalkulation.service;
 
+import dk.eak.kalkulation.calendar.DanishWorkCalendar;
+import dk.eak.kalkulation.calendar.WeekdayWorkCalendar;
+import dk.eak.kalkulation.calendar.WorkCalendarRegistry;
 import dk.eak.kalkulation.model.Opgave;
+import dk.eak.kalkulation.model.ProjectMetrics;
 import dk.eak.kalkulation.model.Projekt;
+import dk.eak.kalkulation.repository.CalculationRepository;
 import dk.eak.kalkulation.repository.OpgaveRepository;
+import dk.eak.kalkulation.repository.ParallelQueries;
 import dk.eak.kalkulation.repository.TimeEntryRepository;
+import dk.eak.kalkulation.util.IntIntMap;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -32,11 +39,16 @@ class CalculationServiceTest {
     @Mock
     private TimeEntryRepository timeEntryRepository;
 
+    @Mock
+    private CalculationRepository calculationRepository;
+
     private CalculationService calculationService;
 
     @BeforeEach
     void setUp() {
-        calculationService = new CalculationService(opgaveRepository, timeEntryRepository);
+        calculationService = new CalculationService(opgaveRepository, timeEntryRepository, calculationRepository,
+                new WorkCalendarRegistry(List.of(new WeekdayWorkCalendar(), new DanishWorkCalendar()), DanishWorkCalendar.ID),
+                ParallelQueries.sequential());
     }
 
     @Test
@@ -155,6 +167,41 @@ class CalculationServiceTest {
         assertEquals(5, result); // Excludes Saturday and Sunday
     }
 
+    @Test
+    @DisplayName("Should exclude Danish public holidays from working days")
+    void testWorkingDaysBetween_EasterWeek() {
+        // Arrange - Mar 30 - Apr 10, 2026 (Skærtorsdag, Langfredag, 2. påskedag)
+        LocalDate start = LocalDate.of(2026, 3, 30);
+        LocalDate end = LocalDate.of(2026, 4, 10);
+
+        // Act
+        int result = calculationService.workingDaysBetween(start, end);
+
+        // Assert
+        assertEquals(7, result); // 10 weekdays - 3 holidays
+    }
+
+    @Test
+    @DisplayName("Should use the project's own calendar for required hours")
+    void testRequiredHoursPerWorkday_ProjectCalendar() {
+        // Arrange - Dec 21-25, 2026 (Mon-Fri with Christmas)
+        Projekt projekt = new Projekt();
+        projekt.setProjectId(1);
+        projekt.setStartDate(LocalDate.of(2026, 12, 21));
+        projekt.setEndDate(LocalDate.of(2026, 12, 25));
+        projekt.setCalendarId(WeekdayWorkCalendar.ID);
+
+        Opgave opgave = createTestOpgave(1, 50);
+        when(opgaveRepository.findByProjectId(1)).thenReturn(Arrays.asList(opgave));
+        when(timeEntryRepository.sumHoursByProjektId(1)).thenReturn(0);
+
+        // Act
+        double result = calculationService.requiredHoursPerWorkday(projekt);
+
+        // Assert
+        assertEquals(10.0, result); // 50 hours / 5 weekdays, holidays ignored
+    }
+
     @Test
     @DisplayName("Should return zero when start date is null")
     void testWorkingDaysBetween_NullStart() {
@@ -292,6 +339,96 @@ class CalculationServiceTest {
         verify(opgaveRepository, never()).findByProjectId(anyInt());
     }
 
+    @Test
+    @DisplayName("Should build project metrics from one aggregate query")
+    void testMetrics_Success() {
+        // Arrange
+        Projekt projekt = new Projekt();
+        projekt.setProjectId(1);
+        projekt.setStartDate(LocalDate.of(2026, 2, 2)); // Monday
+        projekt.setEndDate(LocalDate.of(2026, 2, 6));   // Friday (5 working days)
+        when(calculationRepository.findMetrics(1)).thenReturn(new ProjectMetrics(projekt, 80, 30));
+
+        // Act
+        ProjectMetrics result = calculationService.metrics(1);
+
+        // Assert
+        assertEquals(80, result.getEstimatedHours());
+        assertEquals(30, result.getRegisteredHours());
+        assertEquals(50, result.getRemainingHours());
+        assertEquals(37.5, result.getProgressPercentage());
+        assertEquals(10.0, result.getRequiredHoursPerWorkday());
+        verify(calculationRepository, times(1)).findMetrics(1);
+        verifyNoInteractions(opgaveRepository, timeEntryRepository);
+    }
+
+    @Test
+    @DisplayName("Should return zero required hours when project has no dates")
+    void testMetrics_NoDates() {
+        // Arrange
+        Projekt projekt = new Projekt();
+        projekt.setProjectId(1);
+        when(calculationRepository.findMetrics(1)).thenReturn(new ProjectMetrics(projekt, 40, 50));
+
+        // Act
+        ProjectMetrics result = calculationService.metrics(1);
+
+        // Assert
+        assertEquals(0, result.getRemainingHours());
+        assertEquals(100.0, result.getProgressPercentage());
+        assertEquals(0.0, result.getRequiredHoursPerWorkday());
+    }
+
+    @Test
+    @DisplayName("Should throw exception when getting metrics with invalid project ID")
+    void testMetrics_InvalidId() {
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            calculationService.metrics(0);
+        });
+        assertEquals("Project ID must be valid", exception.getMessage());
+        verify(calculationRepository, never()).findMetrics(anyInt());
+    }
+
+    @Test
+    @DisplayName("Should join portfolio totals by project ID")
+    void testMetricsForAll_Success() {
+        // Arrange
+        Projekt p1 = new Projekt();
+        p1.setProjectId(1);
+        Projekt p2 = new Projekt();
+        p2.setProjectId(2);
+        IntIntMap estimated = new IntIntMap();
+        estimated.put(1, 40);
+        estimated.put(2, 10);
+        IntIntMap registered = new IntIntMap();
+        registered.put(1, 10); // project 2 has no time entries
+        when(calculationRepository.findProjects(null)).thenReturn(Arrays.asList(p1, p2));
+        when(calculationRepository.sumEstimatedByProject(null)).thenReturn(estimated);
+        when(calculationRepository.sumRegisteredByProject(null)).thenReturn(registered);
+
+        // Act
+        List<ProjectMetrics> result = calculationService.metricsForAll();
+
+        // Assert
+        assertEquals(2, result.size());
+        assertEquals(30, result.get(0).getRemainingHours());
+        assertEquals(25.0, result.get(0).getProgressPercentage());
+        assertEquals(0, result.get(1).getRegisteredHours());
+        assertEquals(10, result.get(1).getRemainingHours());
+    }
+
+    @Test
+    @DisplayName("Should not query when no project IDs are given")
+    void testMetricsFor_Empty() {
+        // Act
+        List<ProjectMetrics> result = calculationService.metricsFor(List.of());
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(calculationRepository);
+    }
+
     // Helper method to create test Opgave
     private Opgave createTestOpgave(int id, Integer estimatedHours) {
         Opgave opgave = new Opgave();
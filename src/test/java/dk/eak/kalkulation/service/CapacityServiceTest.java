@@ -0,0 +1,95 @@
+package dk.eak.kalkulation.service;
+
+import dk.eak.kalkulation.calendar.WeekdayWorkCalendar;
+import dk.eak.kalkulation.calendar.WorkCalendarRegistry;
+import dk.eak.kalkulation.model.LoadProfile;
+import dk.eak.kalkulation.repository.CalculationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for CapacityService.
+ * Tests date conversion, hotspots and late opgaver.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CapacityService Unit Tests")
+class CapacityServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 5); // Thursday
+
+    @Mock
+    private CalculationRepository calculationRepository;
+
+    private CapacityService capacityService;
+
+    @BeforeEach
+    void setUp() {
+        WorkCalendarRegistry calendars = new WorkCalendarRegistry(List.of(new WeekdayWorkCalendar()), WeekdayWorkCalendar.ID);
+        capacityService = new CapacityService(calculationRepository, calendars, 37.0);
+    }
+
+    @Test
+    @DisplayName("Should find hotspot and late opgave when deadlines crowd")
+    void testPlan_Hotspot() {
+        // Arrange - 30 h due Fri Mar 6 (2 days) and 10 h without deadline, capacity 10 h/day
+        doAnswer(inv -> {
+            CalculationRepository.OpenTask consumer = inv.getArgument(0);
+            consumer.accept(1, 1, 30, null, LocalDate.of(2026, 3, 6));
+            consumer.accept(2, 1, 10, null, null);
+            return null;
+        }).when(calculationRepository).forEachOpenTask(any());
+
+        // Act
+        LoadProfile p = capacityService.plan(10.0, TODAY);
+
+        // Assert
+        assertEquals(TODAY, p.getDates()[0]);
+        assertEquals(LocalDate.of(2026, 3, 9), p.getDates()[2]); // skips the weekend
+        assertEquals(1, p.getHotspots().size());
+        assertEquals(LocalDate.of(2026, 3, 6), p.getHotspots().get(0).getEndDate());
+        assertEquals(10.0, p.getHotspots().get(0).getExcessHours(), 0.0001);
+        assertEquals(List.of(1), p.getLateOpgaveIds());
+        assertEquals(LocalDate.of(2026, 3, 10), p.getFinishDate());
+    }
+
+    @Test
+    @DisplayName("Should release tasks from the project start date")
+    void testPlan_FutureStart() {
+        // Arrange - project starts Mon Mar 9
+        doAnswer(inv -> {
+            CalculationRepository.OpenTask consumer = inv.getArgument(0);
+            consumer.accept(1, 1, 5, LocalDate.of(2026, 3, 9), null);
+            return null;
+        }).when(calculationRepository).forEachOpenTask(any());
+
+        // Act
+        LoadProfile p = capacityService.plan(37.0, TODAY);
+
+        // Assert
+        assertEquals(0.0, p.getPlannedHours()[0], 0.0001);
+        assertEquals(5.0, p.getPlannedHours()[2], 0.0001);
+        assertTrue(p.getHotspots().isEmpty());
+        assertTrue(p.getLateOpgaveIds().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should throw exception with non-positive capacity")
+    void testPlan_InvalidCapacity() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            capacityService.plan(0);
+        });
+        assertEquals("Capacity per day must be positive", exception.getMessage());
+        verifyNoInteractions(calculationRepository);
+    }
+}
@@ -26,11 +26,14 @@ class DelProjektServiceTest {
     @Mock
     private DelProjektRepository delProjektRepository;
 
+    @Mock
+    private ProjectVersionService projectVersionService;
+
     private DelProjektService delProjektService;
 
     @BeforeEach
     void setUp() {
-        delProjektService = new DelProjektService(delProjektRepository);
+        delProjektService = new DelProjektService(delProjektRepository, projectVersionService);
     }
 
     @Test
@@ -184,6 +187,37 @@ class DelProjektServiceTest {
         verify(delProjektRepository, never()).delete(anyInt());
     }
 
+    @Test
+    @DisplayName("Should create a batch of subprojects")
+    void testCreateAll_Success() {
+        // Arrange
+        List<DelProjekt> batch = List.of(
+                createTestDelProjekt(0, 1, "Design", "First"),
+                createTestDelProjekt(0, 1, "Build", "Second"));
+        when(delProjektRepository.createAll(batch)).thenReturn(new int[]{3, 4});
+
+        // Act
+        int[] ids = delProjektService.createAll(batch);
+
+        // Assert
+        assertArrayEquals(new int[]{3, 4}, ids);
+    }
+
+    @Test
+    @DisplayName("Should reject a batch with an empty name before writing")
+    void testCreateAll_EmptyName() {
+        // Arrange
+        List<DelProjekt> batch = List.of(
+                createTestDelProjekt(0, 1, "Design", "First"),
+                createTestDelProjekt(0, 1, " ", "Second"));
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> delProjektService.createAll(batch));
+        assertEquals("Name cannot be empty", exception.getMessage());
+        verify(delProjektRepository, never()).createAll(any());
+    }
+
     // Helper method to create test DelProjekt
     private DelProjekt createTestDelProjekt(int id, int projectId, String name, String description) {
         DelProjekt delProjekt = new DelProjekt();
@@ -0,0 +1,161 @@
+package dk.eak.kalkulation.service;
+
+import dk.eak.kalkulation.export.ExportFormat;
+import dk.eak.kalkulation.repository.ExportRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ExportService.
+ * Tests CSV/JSON formatting and that rows are streamed rather than collected.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ExportService Unit Tests")
+class ExportServiceTest {
+
+    @Mock
+    private ExportRepository exportRepository;
+
+    private ExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new ExportService(exportRepository);
+    }
+
+    @Test
+    @DisplayName("Should write time entries as CSV that the import can read back")
+    void testExportTimeEntries_Csv() throws IOException {
+        // Arrange
+        when(exportRepository.projectExists(1)).thenReturn(true);
+        doAnswer(inv -> {
+            ExportRepository.TimeEntryRow row = inv.getArgument(1);
+            row.accept(3, LocalDate.of(2026, 2, 3), 5, 10, 1);
+            row.accept(4, LocalDate.of(2026, 2, 4), 2, 11, 1);
+            return null;
+        }).when(exportRepository).forEachTimeEntry(eq(1), any());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        exportService.exportTimeEntries(1, ExportFormat.CSV, out);
+
+        // Assert
+        assertEquals("opgave_id,work_date,hours,time_entry_id,project_id\n"
+                + "3,2026-02-03,5,10,1\n"
+                + "4,2026-02-04,2,11,1\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Should quote and escape text in CSV and JSON")
+    void testExportOpgaver_Escaping() throws IOException {
+        // Arrange
+        doAnswer(inv -> {
+            ExportRepository.OpgaveRow row = inv.getArgument(1);
+            row.accept(1, 2, null, "Design, \"v2\"", "line1\nline2", 40, LocalDate.of(2026, 3, 1));
+            return null;
+        }).when(exportRepository).forEachOpgave(isNull(), any());
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+
+        // Act
+        exportService.exportOpgaver(null, ExportFormat.CSV, csv);
+        exportService.exportOpgaver(null, ExportFormat.JSON, json);
+
+        // Assert
+        assertTrue(csv.toString(StandardCharsets.UTF_8)
+                .endsWith("1,2,,\"Design, \"\"v2\"\"\",\"line1\nline2\",40,2026-03-01\n"));
+        assertEquals("[\n{\"opgave_id\":1,\"project_id\":2,\"delprojekt_id\":null,\"name\":\"Design, \\\"v2\\\"\","
+                + "\"description\":\"line1\\nline2\",\"estimated_hours\":40,\"deadline\":\"2026-03-01\"}\n]\n",
+                json.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Should write an empty JSON array when there are no rows")
+    void testExportTimeEntries_EmptyJson() throws IOException {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        exportService.exportTimeEntries(null, ExportFormat.JSON, out);
+
+        // Assert
+        assertEquals("[]\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Should send the header before the query runs and stream many rows")
+    void testExportTimeEntries_Streams() throws IOException {
+        // Arrange
+        CountingStream out = new CountingStream();
+        long[] bytesBeforeQuery = new long[1];
+        doAnswer(inv -> {
+            bytesBeforeQuery[0] = out.count;
+            ExportRepository.TimeEntryRow row = inv.getArgument(1);
+            for (int i = 0; i < 200_000; i++) {
+                row.accept(1 + i % 50, LocalDate.of(2026, 1, 1), 7, i + 1, 1);
+            }
+            return null;
+        }).when(exportRepository).forEachTimeEntry(isNull(), any());
+
+        // Act
+        exportService.exportTimeEntries(null, ExportFormat.CSV, out);
+
+        // Assert
+        assertTrue(bytesBeforeQuery[0] > 0);
+        assertTrue(out.count > 200_000L * 20);
+        assertTrue(out.writes > 100, "output should be written in chunks, not at the end");
+    }
+
+    @Test
+    @DisplayName("Should throw exception for unknown project before writing")
+    void testExport_ProjectNotFound() {
+        // Arrange
+        when(exportRepository.projectExists(99)).thenReturn(false);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> exportService.exportOpgaver(99, ExportFormat.CSV, out));
+        assertEquals("Project not found", exception.getMessage());
+        assertEquals(0, out.size());
+    }
+
+    @Test
+    @DisplayName("Should reject unknown formats")
+    void testFormat_Unknown() {
+        // Act & Assert
+        assertEquals(ExportFormat.JSON, ExportFormat.parse("JSON"));
+        assertThrows(IllegalArgumentException.class, () -> ExportFormat.parse("xml"));
+    }
+
+    // Helper methods
+    private static final class CountingStream extends OutputStream {
+        long count;
+        int writes;
+
+        @Override
+        public void write(int b) {
+            count++;
+            writes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+            writes++;
+        }
+    }
+}
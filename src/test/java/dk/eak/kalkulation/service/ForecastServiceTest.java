@@ -0,0 +1,162 @@
+package dk.eak.kalkulation.service;
+
+import dk.eak.kalkulation.calendar.WeekdayWorkCalendar;
+import dk.eak.kalkulation.model.Forecast;
+import dk.eak.kalkulation.model.ProjectMetrics;
+import dk.eak.kalkulation.model.Projekt;
+import dk.eak.kalkulation.repository.CalculationRepository;
+import dk.eak.kalkulation.repository.OpgaveRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ForecastService.
+ * Tests throughput selection, history fitting and date conversion.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ForecastService Unit Tests")
+class ForecastServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 2); // Monday
+
+    @Mock
+    private CalculationRepository calculationRepository;
+
+    @Mock
+    private CalculationService calculationService;
+
+    @Mock
+    private OpgaveRepository opgaveRepository;
+
+    private ProjectVersionService versions;
+
+    private ForecastService forecastService;
+
+    @BeforeEach
+    void setUp() {
+        versions = new ProjectVersionService(opgaveRepository, Clock.systemUTC());
+        forecastService = new ForecastService(calculationRepository, calculationService, versions);
+    }
+
+    @Test
+    @DisplayName("Should forecast from observed pace when estimates are exact")
+    void testForecast_ObservedPace() {
+        // Arrange - started Mon Feb 23, 5 working days elapsed, 20 h registered -> 4 h/day
+        Projekt p = arrangeProject(LocalDate.of(2026, 2, 23), LocalDate.of(2026, 3, 13), 60, 20, 15);
+        arrangeTasks(1, new int[]{40, 20}, new int[]{20, 0});
+        arrangeHistory(6, 10, 10); // actual == estimate, no spread
+
+        // Act
+        Forecast f = forecastService.forecast(1, 1000, TODAY);
+
+        // Assert - 40 h left / 4 h per day = 10 working days -> Fri Mar 13
+        assertEquals(4.0, f.getHoursPerWorkday(), 0.0001);
+        assertEquals(6, f.getHistorySamples());
+        assertEquals(TODAY, f.getFromDate());
+        assertEquals(LocalDate.of(2026, 3, 13), f.getP50Date());
+        assertEquals(LocalDate.of(2026, 3, 13), f.getP95Date());
+        assertEquals(1.0, f.getOnTimeProbability(), 0.0001);
+        assertEquals(p.getEndDate(), f.getEndDate());
+    }
+
+    @Test
+    @DisplayName("Should use planned pace and default spread without history")
+    void testForecast_PlannedPace() {
+        // Arrange - starts in the future, 10 working days, 50 h planned -> 5 h/day
+        arrangeProject(LocalDate.of(2026, 3, 9), LocalDate.of(2026, 3, 20), 50, 0, 10);
+        arrangeTasks(1, new int[]{50}, new int[]{0});
+        arrangeHistory(0, 0, 0);
+
+        // Act
+        Forecast f = forecastService.forecast(1, 10_000, TODAY);
+
+        // Assert
+        assertEquals(5.0, f.getHoursPerWorkday(), 0.0001);
+        assertEquals(0, f.getHistorySamples());
+        assertEquals(LocalDate.of(2026, 3, 9), f.getFromDate());
+        assertFalse(f.getP50Date().isAfter(f.getP80Date()));
+        assertFalse(f.getP80Date().isAfter(f.getP95Date()));
+        assertTrue(f.getOnTimeProbability() > 0.2 && f.getOnTimeProbability() < 0.8);
+    }
+
+    @Test
+    @DisplayName("Should fit the history once until a project changes")
+    void testForecast_HistoryCached() {
+        // Arrange
+        arrangeProject(LocalDate.of(2026, 2, 23), LocalDate.of(2026, 3, 13), 60, 20, 15);
+        arrangeTasks(1, new int[]{40, 20}, new int[]{20, 0});
+        arrangeHistory(6, 10, 10);
+
+        // Act
+        forecastService.forecast(1, 100, TODAY);
+        forecastService.forecast(1, 100, TODAY);
+        versions.touch(7);
+        forecastService.forecast(1, 100, TODAY);
+
+        // Assert
+        verify(calculationRepository, times(2)).forEachFinishedTaskHours(eq(TODAY), any());
+    }
+
+    @Test
+    @DisplayName("Should throw exception with invalid iterations")
+    void testForecast_InvalidIterations() {
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            forecastService.forecast(1, 0, TODAY);
+        });
+        assertEquals("Iterations must be between 1 and 1000000", exception.getMessage());
+        verifyNoInteractions(calculationService);
+    }
+
+    @Test
+    @DisplayName("Should throw exception with invalid project ID")
+    void testForecast_InvalidId() {
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            forecastService.forecast(-1, 100);
+        });
+        assertEquals("Project ID must be valid", exception.getMessage());
+    }
+
+    // Helper methods
+    private Projekt arrangeProject(LocalDate start, LocalDate end, int est, int reg, int workingDays) {
+        Projekt p = new Projekt();
+        p.setProjectId(1);
+        p.setStartDate(start);
+        p.setEndDate(end);
+        when(calculationService.metrics(1)).thenReturn(new ProjectMetrics(p, est, reg, workingDays));
+        when(calculationService.calendarFor(p)).thenReturn(new WeekdayWorkCalendar());
+        return p;
+    }
+
+    private void arrangeTasks(int projectId, int[] est, int[] reg) {
+        doAnswer(inv -> {
+            CalculationRepository.TaskHours consumer = inv.getArgument(1);
+            for (int i = 0; i < est.length; i++) {
+                consumer.accept(i + 1, est[i], reg[i]);
+            }
+            return null;
+        }).when(calculationRepository).forEachTaskHours(eq(projectId), any());
+    }
+
+    private void arrangeHistory(int count, int est, int reg) {
+        doAnswer(inv -> {
+            CalculationRepository.TaskHours consumer = inv.getArgument(1);
+            for (int i = 0; i < count; i++) {
+                consumer.accept(100 + i, est, reg);
+            }
+            return null;
+        }).when(calculationRepository).forEachFinishedTaskHours(eq(TODAY), any());
+    }
+}
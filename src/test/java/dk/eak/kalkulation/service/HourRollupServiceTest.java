@@ -0,0 +1,189 @@
+package dk.eak.kalkulation.service;
+
+import dk.eak.kalkulation.model.Opgave;
+import dk.eak.kalkulation.model.RollupDrift;
+import dk.eak.kalkulation.model.TimeEntry;
+import dk.eak.kalkulation.repository.HourRollupRepository;
+import dk.eak.kalkulation.repository.OpgaveRepository;
+import dk.eak.kalkulation.util.IntIntMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for HourRollupService.
+ * Tests incremental maintenance and drift detection of the hour rollups.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("HourRollupService Unit Tests")
+class HourRollupServiceTest {
+
+    @Mock
+    private HourRollupRepository rollupRepository;
+
+    @Mock
+    private OpgaveRepository opgaveRepository;
+
+    @Mock
+    private ProjectVersionService projectVersionService;
+
+    private HourRollupService hourRollupService;
+
+    @BeforeEach
+    void setUp() {
+        hourRollupService = new HourRollupService(rollupRepository, opgaveRepository, projectVersionService);
+    }
+
+    @Test
+    @DisplayName("Should add hours to task, subproject and project on create")
+    void testOnTimeEntryCreated() {
+        // Arrange
+        when(opgaveRepository.findById(3)).thenReturn(createTestOpgave(3, 1, 2));
+
+        // Act
+        hourRollupService.onTimeEntryCreated(createTestTimeEntry(3, 5));
+
+        // Assert
+        verify(rollupRepository).addToOpgave(3, 5);
+        verify(rollupRepository).addToDelProjekt(2, 5);
+        verify(rollupRepository).addToProject(1, 5);
+    }
+
+    @Test
+    @DisplayName("Should skip subproject rollup for tasks without subproject")
+    void testOnTimeEntryDeleted_NoDelProjekt() {
+        // Arrange
+        when(opgaveRepository.findById(4)).thenReturn(createTestOpgave(4, 1, null));
+
+        // Act
+        hourRollupService.onTimeEntryDeleted(createTestTimeEntry(4, 2));
+
+        // Assert
+        verify(rollupRepository).addToOpgave(4, -2);
+        verify(rollupRepository).addToProject(1, -2);
+        verify(rollupRepository, never()).addToDelProjekt(anyInt(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should apply only the difference when hours change on the same task")
+    void testOnTimeEntryUpdated_SameTask() {
+        // Arrange
+        when(opgaveRepository.findById(3)).thenReturn(createTestOpgave(3, 1, null));
+
+        // Act
+        hourRollupService.onTimeEntryUpdated(createTestTimeEntry(3, 5), createTestTimeEntry(3, 8));
+
+        // Assert
+        verify(rollupRepository).addToOpgave(3, 3);
+        verify(rollupRepository).addToProject(1, 3);
+    }
+
+    @Test
+    @DisplayName("Should move task hours between projects and subprojects")
+    void testOnOpgaveUpdated_Moved() {
+        // Arrange
+        when(rollupRepository.opgaveHours(3)).thenReturn(12);
+
+        // Act
+        hourRollupService.onOpgaveUpdated(createTestOpgave(3, 1, 2), createTestOpgave(3, 2, null));
+
+        // Assert
+        verify(rollupRepository).addToProject(1, -12);
+        verify(rollupRepository).addToProject(2, 12);
+        verify(rollupRepository).addToDelProjekt(2, -12);
+        verify(rollupRepository, never()).addToOpgave(anyInt(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should not touch rollups when a task keeps its project")
+    void testOnOpgaveUpdated_NotMoved() {
+        // Act
+        hourRollupService.onOpgaveUpdated(createTestOpgave(3, 1, 2), createTestOpgave(3, 1, 2));
+
+        // Assert
+        verifyNoInteractions(rollupRepository);
+    }
+
+    @Test
+    @DisplayName("Should report rows that differ from time_entry")
+    void testVerify_ReportsDrift() {
+        // Arrange
+        IntIntMap stored = new IntIntMap();
+        stored.put(1, 10);
+        stored.put(2, 4);
+        IntIntMap actual = new IntIntMap();
+        actual.put(1, 10);
+        actual.put(3, 6);
+        when(rollupRepository.storedTotals(anyString())).thenReturn(new IntIntMap());
+        when(rollupRepository.actualTotals(anyString())).thenReturn(new IntIntMap());
+        when(rollupRepository.storedTotals(HourRollupRepository.PROJECT)).thenReturn(stored);
+        when(rollupRepository.actualTotals(HourRollupRepository.PROJECT)).thenReturn(actual);
+
+        // Act
+        List<RollupDrift> drift = hourRollupService.verify();
+
+        // Assert
+        assertEquals(2, drift.size());
+        assertTrue(drift.stream().anyMatch(d -> d.getId() == 2 && d.getStoredHours() == 4 && d.getActualHours() == 0));
+        assertTrue(drift.stream().anyMatch(d -> d.getId() == 3 && d.getStoredHours() == 0 && d.getActualHours() == 6));
+    }
+
+    @Test
+    @DisplayName("Should write one rollup row per touched task, subproject and project for a batch")
+    void testOnTimeEntriesCreated_Aggregates() {
+        // Arrange
+        when(opgaveRepository.findByIds(any())).thenReturn(List.of(
+                createTestOpgave(3, 1, 2), createTestOpgave(4, 1, 2)));
+
+        // Act
+        hourRollupService.onTimeEntriesCreated(List.of(
+                createTestTimeEntry(3, 5), createTestTimeEntry(3, 2), createTestTimeEntry(4, 1)));
+
+        // Assert
+        verify(rollupRepository).addToOpgave(3, 7);
+        verify(rollupRepository).addToOpgave(4, 1);
+        verify(rollupRepository, times(1)).addToDelProjekt(2, 8);
+        verify(rollupRepository, times(1)).addToProject(1, 8);
+        verify(opgaveRepository, never()).findById(anyInt());
+    }
+
+    @Test
+    @DisplayName("Should skip rollups when a batch update leaves totals unchanged")
+    void testOnTimeEntriesUpdated_NoNetChange() {
+        // Act
+        hourRollupService.onTimeEntriesUpdated(
+                List.of(createTestTimeEntry(3, 5), createTestTimeEntry(3, 2)),
+                List.of(createTestTimeEntry(3, 2), createTestTimeEntry(3, 5)));
+
+        // Assert
+        verifyNoInteractions(rollupRepository, opgaveRepository);
+    }
+
+    // Helper methods
+    private Opgave createTestOpgave(int id, int projectId, Integer delProjektId) {
+        Opgave opgave = new Opgave();
+        opgave.setOpgaveId(id);
+        opgave.setProject_id(projectId);
+        opgave.setDelProjektId(delProjektId);
+        opgave.setName("Task " + id);
+        opgave.setEstimatedHours(10);
+        return opgave;
+    }
+
+    private TimeEntry createTestTimeEntry(int opgaveId, int hours) {
+        TimeEntry timeEntry = new TimeEntry();
+        timeEntry.setOpgaveId(opgaveId);
+        timeEntry.setWorkDate(LocalDate.now().minusDays(1));
+        timeEntry.setHours(hours);
+        return timeEntry;
+    }
+}
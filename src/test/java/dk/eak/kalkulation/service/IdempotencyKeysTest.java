@@ -0,0 +1,151 @@
+package dk.eak.kalkulation.service;
+
+import dk.eak.kalkulation.repository.TimeEntryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for IdempotencyKeys.
+ * Tests which duplicate checks are answered in memory and which reach the database.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("IdempotencyKeys Unit Tests")
+class IdempotencyKeysTest {
+
+    @Mock
+    private TimeEntryRepository timeEntryRepository;
+
+    private IdempotencyKeys keys;
+
+    @BeforeEach
+    void setUp() {
+        keys = new IdempotencyKeys(timeEntryRepository, 100);
+    }
+
+    @Test
+    @DisplayName("Should answer recent and new keys without a query")
+    void testFind_InMemory() {
+        // Arrange
+        keys.remember(Map.of("timer-1", 11));
+
+        // Act
+        Map<String, Integer> found = keys.find(List.of("timer-1", "timer-2"));
+
+        // Assert
+        assertEquals(Map.of("timer-1", 11), found);
+        verifyNoInteractions(timeEntryRepository);
+        assertEquals(1L, keys.stats().get("recentHits"));
+        assertEquals(1L, keys.stats().get("newKeys"));
+    }
+
+    @Test
+    @DisplayName("Should look up a key that has left the LRU but may be in the filter")
+    void testFind_EvictedKey() {
+        // Arrange
+        keys = new IdempotencyKeys(timeEntryRepository, 2);
+        keys.remember(Map.of("timer-1", 11));
+        keys.remember(Map.of("timer-2", 12));
+        keys.remember(Map.of("timer-3", 13));
+        when(timeEntryRepository.findIdsByIdempotencyKeys(List.of("timer-1"))).thenReturn(Map.of("timer-1", 11));
+
+        // Act
+        Map<String, Integer> found = keys.find(List.of("timer-1"));
+
+        // Assert
+        assertEquals(Map.of("timer-1", 11), found);
+        assertEquals(1L, keys.stats().get("replays"));
+        assertEquals(Map.of("timer-1", 11), keys.find(List.of("timer-1")));
+        verify(timeEntryRepository, times(1)).findIdsByIdempotencyKeys(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Should remember keys only when the transaction commits")
+    void testRemember_AfterCommit() {
+        // Act
+        inTransaction(TransactionSynchronization.STATUS_ROLLED_BACK, () -> keys.remember(Map.of("lost", 20)));
+        inTransaction(TransactionSynchronization.STATUS_COMMITTED, () -> {
+            keys.remember(Map.of("kept", 21));
+            assertTrue(keys.find(List.of("kept")).isEmpty());
+        });
+
+        // Assert
+        assertEquals(Map.of("kept", 21), keys.find(List.of("kept", "lost")));
+        verifyNoInteractions(timeEntryRepository);
+    }
+
+    @Test
+    @DisplayName("Should look up a suspected key and count a miss as a false positive")
+    void testSuspect() {
+        // Arrange
+        keys.suspect(List.of("elsewhere"));
+        when(timeEntryRepository.findIdsByIdempotencyKeys(List.of("elsewhere"))).thenReturn(Map.of());
+
+        // Act
+        Map<String, Integer> found = keys.find(List.of("elsewhere"));
+
+        // Assert
+        assertTrue(found.isEmpty());
+        assertEquals(1L, keys.stats().get("lookups"));
+        assertEquals(1L, keys.stats().get("falsePositives"));
+    }
+
+    @Test
+    @DisplayName("Should not replay the key of a deleted entry from memory")
+    void testForget() {
+        // Arrange
+        keys.remember(Map.of("timer-1", 11, "timer-2", 12));
+        when(timeEntryRepository.findIdsByIdempotencyKeys(List.of("timer-1"))).thenReturn(Map.of());
+
+        // Act
+        keys.forget(Set.of(11));
+
+        // Assert
+        assertTrue(keys.find(List.of("timer-1")).isEmpty());
+        assertEquals(Map.of("timer-2", 12), keys.find(List.of("timer-2")));
+    }
+
+    @Test
+    @DisplayName("Should start with the keys of the newest rows")
+    void testWarmUp() {
+        // Arrange
+        when(timeEntryRepository.findRecentIdempotencyKeys(100)).thenReturn(Map.of("timer-9", 9));
+
+        // Act
+        keys.afterSingletonsInstantiated();
+
+        // Assert
+        assertEquals(Map.of("timer-9", 9), keys.find(List.of("timer-9")));
+        assertEquals(1L, keys.stats().get("recent"));
+    }
+
+    // ===== Helper methods =====
+
+    private void inTransaction(int status, Runnable work) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            work.run();
+            for (TransactionSynchronization s : TransactionSynchronizationManager.getSynchronizations()) {
+                if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                    s.afterCommit();
+                }
+                s.afterCompletion(status);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
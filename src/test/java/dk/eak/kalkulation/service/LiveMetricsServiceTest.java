@@ -0,0 +1,252 @@
+package dk.eak.kalkulation.service;
+
+import dk.eak.kalkulation.datasource.ReplicaContext;
+import dk.eak.kalkulation.model.ProjectMetrics;
+import dk.eak.kalkulation.model.Projekt;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for LiveMetricsService.
+ * Tests coalescing of changes and the fan-out of one event to many streams.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LiveMetricsService Unit Tests")
+class LiveMetricsServiceTest {
+
+    private static final Set<DataWithMediaType> FIRST = SseEmitter.event().comment("first").build();
+
+    @Mock
+    private CalculationService calculationService;
+
+    @Mock
+    private ProjectVersionService projectVersionService;
+
+    private LiveMetricsService live;
+
+    @BeforeEach
+    void setUp() {
+        // flush is called by the tests; the timer never fires
+        live = new LiveMetricsService(calculationService, projectVersionService, JsonMapper.builder().build(),
+                60_000, 0, 30);
+    }
+
+    @AfterEach
+    void tearDown() {
+        live.destroy();
+    }
+
+    @Test
+    @DisplayName("Should register itself for committed changes once constructed")
+    void testAfterPropertiesSet_Listens() {
+        // Assert
+        verifyNoInteractions(projectVersionService);
+
+        // Act
+        live.afterPropertiesSet();
+
+        // Assert
+        verify(projectVersionService).addListener(live);
+    }
+
+    @Test
+    @DisplayName("Should compute the pushed metrics on the primary")
+    void testFlush_ReadsPrimary() throws Exception {
+        // Arrange
+        RecordingEmitter one = subscribe(1);
+        boolean[] pinned = new boolean[1];
+        when(calculationService.metricsFor(Set.of(1))).thenAnswer(inv -> {
+            pinned[0] = ReplicaContext.isPinned();
+            return List.of(createTestMetrics(1, 5));
+        });
+
+        // Act
+        live.projectsChanged(List.of(1));
+        live.flush();
+
+        // Assert
+        assertNotNull(one.next());
+        assertTrue(pinned[0]);
+        assertFalse(ReplicaContext.isPinned());
+    }
+
+    @Test
+    @DisplayName("Should compute once and send one shared event for a burst of changes")
+    void testFlush_CoalescesBurst() throws Exception {
+        // Arrange
+        RecordingEmitter a = subscribe(1);
+        RecordingEmitter b = subscribe(1);
+        when(calculationService.metricsFor(Set.of(1))).thenReturn(List.of(createTestMetrics(1, 5)));
+
+        // Act
+        for (int i = 0; i < 50; i++) {
+            live.projectsChanged(List.of(1));
+        }
+        live.flush();
+
+        // Assert
+        verify(calculationService, times(1)).metricsFor(Set.of(1));
+        Set<DataWithMediaType> sentA = a.next();
+        Set<DataWithMediaType> sentB = b.next();
+        assertSame(sentA, sentB);
+        assertTrue(text(sentA).contains("event:" + LiveMetricsService.EVENT));
+        assertTrue(text(sentA).contains("\"registeredHours\":5"));
+        assertNull(a.poll());
+    }
+
+    @Test
+    @DisplayName("Should compute only changed projects that have subscribers")
+    void testFlush_OnlyWatchedProjects() throws Exception {
+        // Arrange
+        RecordingEmitter one = subscribe(1);
+        RecordingEmitter two = subscribe(2);
+        when(calculationService.metricsFor(Set.of(1))).thenReturn(List.of(createTestMetrics(1, 5)));
+
+        // Act
+        live.projectsChanged(List.of(1, 3));
+        live.flush();
+
+        // Assert
+        assertNotNull(one.next());
+        assertNull(two.poll());
+        verify(calculationService, never()).metricsForAll();
+    }
+
+    @Test
+    @DisplayName("Should send the whole portfolio as one event")
+    void testFlush_Portfolio() throws Exception {
+        // Arrange
+        RecordingEmitter portfolio = subscribe(null);
+        when(calculationService.metricsForAll()).thenReturn(List.of(createTestMetrics(1, 5), createTestMetrics(2, 7)));
+
+        // Act
+        live.projectsChanged(List.of(2));
+        live.flush();
+
+        // Assert
+        String sent = text(portfolio.next());
+        assertTrue(sent.contains("\"registeredHours\":5"));
+        assertTrue(sent.contains("\"registeredHours\":7"));
+        verify(calculationService, never()).metricsFor(any());
+    }
+
+    @Test
+    @DisplayName("Should not compute anything without subscribers or changes")
+    void testFlush_NothingToDo() {
+        // Act
+        live.projectsChanged(List.of(1));
+        live.flush();
+        subscribe(1);
+        live.flush();
+
+        // Assert
+        verifyNoInteractions(calculationService);
+    }
+
+    @Test
+    @DisplayName("Should push every watched project after all projects changed")
+    void testFlush_AllProjectsChanged() throws Exception {
+        // Arrange
+        RecordingEmitter one = subscribe(1);
+        when(calculationService.metricsFor(Set.of(1))).thenReturn(List.of(createTestMetrics(1, 5)));
+
+        // Act
+        live.allProjectsChanged();
+        live.flush();
+
+        // Assert
+        assertNotNull(one.next());
+    }
+
+    @Test
+    @DisplayName("Should drop a subscriber whose connection is gone")
+    void testSend_Failure() throws Exception {
+        // Arrange
+        RecordingEmitter broken = new RecordingEmitter(true);
+
+        // Act
+        live.subscribe(1, broken, FIRST);
+
+        // Assert
+        assertNotNull(broken.next());
+        for (int i = 0; i < 100 && live.subscribers(1) > 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, live.subscribers(1));
+    }
+
+    // ===== Helper methods =====
+
+    private RecordingEmitter subscribe(Integer projectId) {
+        RecordingEmitter emitter = new RecordingEmitter(false);
+        live.subscribe(projectId, emitter, FIRST);
+        try {
+            assertSame(FIRST, emitter.next());
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+        return emitter;
+    }
+
+    private static String text(Set<DataWithMediaType> event) {
+        StringBuilder sb = new StringBuilder();
+        event.forEach(d -> sb.append(d.getData()));
+        return sb.toString();
+    }
+
+    private ProjectMetrics createTestMetrics(int projectId, int registeredHours) {
+        Projekt projekt = new Projekt();
+        projekt.setProjectId(projectId);
+        projekt.setName("Project " + projectId);
+        return new ProjectMetrics(projekt, 10, registeredHours, 20);
+    }
+
+    /**
+     * Keeps what would have been written to the client.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final BlockingQueue<Set<DataWithMediaType>> sent = new LinkedBlockingQueue<>();
+        private final boolean fail;
+
+        RecordingEmitter(boolean fail) {
+            this.fail = fail;
+        }
+
+        @Override
+        public void send(Set<DataWithMediaType> items) throws IOException {
+            sent.add(items);
+            if (fail) {
+                throw new IOException("Broken pipe");
+            }
+        }
+
+        Set<DataWithMediaType> next() throws InterruptedException {
+            Set<DataWithMediaType> items = sent.poll(5, TimeUnit.SECONDS);
+            assertNotNull(items, "nothing was sent");
+            return items;
+        }
+
+        Set<DataWithMediaType> poll() throws InterruptedException {
+            return sent.poll(200, TimeUnit.MILLISECONDS);
+        }
+    }
+}
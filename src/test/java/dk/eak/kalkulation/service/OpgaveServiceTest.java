@@ -1,5 +1,6 @@
 package dk.eak.kalkulation.service;
 
+import dk.eak.kalkulation.model.KeysetPage;
 import dk.eak.kalkulation.model.Opgave;
 import dk.eak.kalkulation.repository.OpgaveRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -27,11 +28,17 @@ class OpgaveServiceTest {
     @Mock
     private OpgaveRepository opgaveRepository;
 
+    @Mock
+    private HourRollupService hourRollupService;
+
+    @Mock
+    private ProjectVersionService projectVersionService;
+
     private OpgaveService opgaveService;
 
     @BeforeEach
     void setUp() {
-        opgaveService = new OpgaveService(opgaveRepository);
+        opgaveService = new OpgaveService(opgaveRepository, hourRollupService, projectVersionService);
     }
 
     @Test
@@ -123,6 +130,7 @@ class OpgaveServiceTest {
 
         // Assert
         verify(opgaveRepository, times(1)).create(opgave);
+        verify(projectVersionService, times(1)).touch(1);
     }
 
     @Test
@@ -191,6 +199,22 @@ class OpgaveServiceTest {
         verify(opgaveRepository, times(1)).update(opgave);
     }
 
+    @Test
+    @DisplayName("Should pass old and new task to rollups when a task moves")
+    void testUpdate_MovesRollups() {
+        // Arrange
+        Opgave before = createTestOpgave(1, 1, "Task", "Description", 8);
+        Opgave after = createTestOpgave(1, 2, "Task", "Description", 8);
+        when(opgaveRepository.findById(1)).thenReturn(before);
+
+        // Act
+        opgaveService.update(after);
+
+        // Assert
+        verify(opgaveRepository, times(1)).update(after);
+        verify(hourRollupService, times(1)).onOpgaveUpdated(before, after);
+    }
+
     @Test
     @DisplayName("Should throw exception when updating task with invalid ID")
     void testUpdate_InvalidId() {
@@ -226,6 +250,52 @@ class OpgaveServiceTest {
         verify(opgaveRepository, never()).delete(anyInt());
     }
 
+    @Test
+    @DisplayName("Should update a batch and move rollups per task")
+    void testUpdateAll_Success() {
+        // Arrange
+        Opgave before = createTestOpgave(1, 1, "Task", "Description", 10);
+        Opgave after = createTestOpgave(1, 2, "Task", "Description", 12);
+        when(opgaveRepository.findByIds(any())).thenReturn(List.of(before));
+
+        // Act
+        opgaveService.updateAll(List.of(after));
+
+        // Assert
+        verify(opgaveRepository, times(1)).updateAll(List.of(after));
+        verify(hourRollupService, times(1)).onOpgaveUpdated(before, after);
+    }
+
+    @Test
+    @DisplayName("Should reject a batch delete with an invalid ID before deleting anything")
+    void testDeleteAll_InvalidId() {
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> opgaveService.deleteAll(Arrays.asList(1, 0)));
+        assertEquals("Opgave ID must be valid", exception.getMessage());
+        verify(opgaveRepository, never()).deleteAll(any());
+        verifyNoInteractions(hourRollupService);
+    }
+
+    @Test
+    @DisplayName("Should page tasks by ID using the cursor of the previous page")
+    void testGetPageByProjectId() {
+        // Arrange
+        when(opgaveRepository.findByProjectIdAfter(1, 0, 2)).thenReturn(Arrays.asList(
+                createTestOpgave(3, 1, "A", "", 1), createTestOpgave(8, 1, "B", "", 1)));
+        when(opgaveRepository.findByProjectIdAfter(1, 3, 2)).thenReturn(List.of(
+                createTestOpgave(8, 1, "B", "", 1)));
+
+        // Act
+        KeysetPage<Opgave> first = opgaveService.getPageByProjectId(1, null, 1);
+        KeysetPage<Opgave> second = opgaveService.getPageByProjectId(1, first.getNextCursor(), 1);
+
+        // Assert
+        assertEquals(3, first.getItems().get(0).getOpgaveId());
+        assertEquals(8, second.getItems().get(0).getOpgaveId());
+        assertTrue(second.isLast());
+    }
+
     // Helper method to create test Opgave
     private Opgave createTestOpgave(int id, int projectId, String name, String description, int estimatedHours) {
         Opgave opgave = new Opgave();
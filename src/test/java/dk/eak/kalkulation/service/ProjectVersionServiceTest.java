@@ -0,0 +1,215 @@
+package dk.eak.kalkulation.service;
+
+import dk.eak.kalkulation.model.Opgave;
+import dk.eak.kalkulation.repository.OpgaveRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ProjectVersionService.
+ * Tests version counting per project and the ETags built from it.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProjectVersionService Unit Tests")
+class ProjectVersionServiceTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-06-01T10:00:00Z"), ZoneOffset.UTC);
+
+    @Mock
+    private OpgaveRepository opgaveRepository;
+
+    private ProjectVersionService versions;
+
+    @BeforeEach
+    void setUp() {
+        versions = new ProjectVersionService(opgaveRepository, CLOCK);
+    }
+
+    @Test
+    @DisplayName("Should change only the version of the touched project")
+    void testTouch_OneProject() {
+        // Arrange
+        String before1 = versions.etag("details", 1);
+        String before2 = versions.etag("details", 2);
+
+        // Act
+        versions.touch(1);
+
+        // Assert
+        assertNotEquals(before1, versions.etag("details", 1));
+        assertEquals(before2, versions.etag("details", 2));
+        assertTrue(versions.version(1) > versions.version(2));
+        assertEquals(CLOCK.millis(), versions.lastModified(1));
+    }
+
+    @Test
+    @DisplayName("Should give each page of a project its own quoted ETag")
+    void testEtag_PerView() {
+        // Act
+        String details = versions.etag("details", 1);
+        String calc = versions.etag("calc", 1);
+
+        // Assert
+        assertNotEquals(details, calc);
+        assertTrue(details.startsWith("\"details-1-") && details.endsWith("\""));
+    }
+
+    @Test
+    @DisplayName("Should move every project past its old version on touchAll")
+    void testTouchAll() {
+        // Arrange
+        versions.touch(1);
+        versions.touch(1);
+        long v1 = versions.version(1);
+        long v2 = versions.version(2);
+
+        // Act
+        versions.touchAll();
+
+        // Assert
+        assertTrue(versions.version(1) > v1);
+        assertTrue(versions.version(2) > v2);
+        versions.touch(2);
+        assertTrue(versions.version(2) > versions.version(1));
+    }
+
+    @Test
+    @DisplayName("Should touch the projects of the given tasks")
+    void testTouchOpgaver() {
+        // Arrange
+        when(opgaveRepository.findByIds(Set.of(3, 4))).thenReturn(List.of(createTestOpgave(3, 1), createTestOpgave(4, 2)));
+        long v1 = versions.version(1);
+        long v5 = versions.version(5);
+
+        // Act
+        versions.touchOpgaver(Set.of(3, 4));
+
+        // Assert
+        assertTrue(versions.version(1) > v1);
+        assertTrue(versions.version(2) > v1);
+        assertEquals(v5, versions.version(5));
+    }
+
+    @Test
+    @DisplayName("Should touch again when the transaction completes")
+    void testTouch_InTransaction() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            versions.touch(1);
+            long during = versions.version(1);
+            for (TransactionSynchronization s : TransactionSynchronizationManager.getSynchronizations()) {
+                s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            }
+
+            // Assert
+            assertTrue(versions.version(1) > during);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should tell listeners about committed changes only")
+    void testListener_OnlyCommitted() {
+        // Arrange
+        ProjectVersionService.ChangeListener listener = mock(ProjectVersionService.ChangeListener.class);
+        versions.addListener(listener);
+
+        // Act
+        inTransaction(TransactionSynchronization.STATUS_ROLLED_BACK, () -> {
+            versions.touch(1);
+            versions.touchAll();
+        });
+        inTransaction(TransactionSynchronization.STATUS_COMMITTED, () -> {
+            versions.touch(2);
+            verifyNoInteractions(listener);
+        });
+
+        // Assert
+        verify(listener).projectsChanged(List.of(2));
+        verifyNoMoreInteractions(listener);
+    }
+
+    @Test
+    @DisplayName("Should not give a tag for a project changed after the mark")
+    void testTag_ChangedAfterMark() {
+        // Arrange
+        long mark = versions.mark();
+
+        // Act
+        versions.touch(1);
+
+        // Assert
+        assertNull(versions.tag(1, mark));
+        assertNotNull(versions.tag(2, mark));
+        assertEquals(versions.tag(1, versions.mark()), versions.tag(1, versions.mark() + 10));
+    }
+
+    @Test
+    @DisplayName("Should not give an ETag while a change may not have reached the replica")
+    void testEtag_ReplicaLag() {
+        // Arrange
+        versions.setReplicaLagMillis(60_000);
+
+        // Act
+        versions.touch(1);
+
+        // Assert
+        assertNull(versions.etag("details", 1));
+        assertNotNull(versions.etag("details", 2));
+    }
+
+    @Test
+    @DisplayName("Should ignore null and empty touches")
+    void testTouch_Empty() {
+        // Arrange
+        long v1 = versions.version(1);
+
+        // Act
+        versions.touch((Integer) null);
+        versions.touch(List.of());
+        versions.touchOpgaver(List.of());
+
+        // Assert
+        assertEquals(v1, versions.version(1));
+        verifyNoInteractions(opgaveRepository);
+    }
+
+    // ===== Helper methods =====
+
+    private void inTransaction(int status, Runnable work) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            work.run();
+            for (TransactionSynchronization s : TransactionSynchronizationManager.getSynchronizations()) {
+                s.afterCompletion(status);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private Opgave createTestOpgave(int id, int projectId) {
+        Opgave opgave = new Opgave();
+        opgave.setOpgaveId(id);
+        opgave.setProject_id(projectId);
+        return opgave;
+    }
+}
@@ -1,6 +1,9 @@
 package dk.eak.kalkulation.service;
 
+import dk.eak.kalkulation.model.KeysetPage;
+import dk.eak.kalkulation.model.ProjectTree;
 import dk.eak.kalkulation.model.Projekt;
+import dk.eak.kalkulation.repository.ProjectTreeRepository;
 import dk.eak.kalkulation.repository.ProjektRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -27,11 +30,17 @@ class ProjektServiceTest {
     @Mock
     private ProjektRepository projektRepository;
 
+    @Mock
+    private ProjectTreeRepository treeRepository;
+
+    @Mock
+    private ProjectVersionService projectVersionService;
+
     private ProjektService projektService;
 
     @BeforeEach
     void setUp() {
-        projektService = new ProjektService(projektRepository);
+        projektService = new ProjektService(projektRepository, treeRepository, projectVersionService);
     }
 
     @Test
@@ -81,6 +90,35 @@ class ProjektServiceTest {
         verify(projektRepository, never()).getById(anyInt());
     }
 
+    @Test
+    @DisplayName("Should get project tree successfully")
+    void testGetTree_Success() {
+        // Arrange
+        ProjectTree tree = new ProjectTree(createTestProjekt(1, "Test Project", "Test Description"),
+                List.of(), List.of());
+        when(treeRepository.findByProjectId(1)).thenReturn(tree);
+
+        // Act
+        ProjectTree result = projektService.getTree(1);
+
+        // Assert
+        assertSame(tree, result);
+        verify(treeRepository, times(1)).findByProjectId(1);
+    }
+
+    @Test
+    @DisplayName("Should throw exception when project tree is not found")
+    void testGetTree_NotFound() {
+        // Arrange
+        when(treeRepository.findByProjectId(99)).thenReturn(null);
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> projektService.getTree(99));
+        assertEquals("Project not found", exception.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> projektService.getTree(0));
+    }
+
     @Test
     @DisplayName("Should create project successfully")
     void testCreate_Success() {
@@ -198,6 +236,30 @@ class ProjektServiceTest {
         verify(projektRepository, never()).delete(anyInt());
     }
 
+    @Test
+    @DisplayName("Should reject a malformed page cursor")
+    void testGetPage_InvalidCursor() {
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> projektService.getPage("not-a-cursor", 10));
+        assertEquals("Invalid page cursor", exception.getMessage());
+        verify(projektRepository, never()).findAfter(anyInt(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should return the first page of projects")
+    void testGetPage_First() {
+        // Arrange
+        when(projektRepository.findAfter(0, 11)).thenReturn(List.of(createTestProjekt(1, "A", "")));
+
+        // Act
+        KeysetPage<Projekt> page = projektService.getPage(null, 10);
+
+        // Assert
+        assertEquals(1, page.getItems().size());
+        assertTrue(page.isLast());
+    }
+
     // Helper method to create test Projekt
     private Projekt createTestProjekt(int id, String name, String description) {
         Projekt projekt = new Projekt();
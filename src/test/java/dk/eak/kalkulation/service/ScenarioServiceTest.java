@@ -0,0 +1,161 @@
+package dk.eak.kalkulation.service;
+
+import dk.eak.kalkulation.calendar.WeekdayWorkCalendar;
+import dk.eak.kalkulation.calendar.WorkCalendarRegistry;
+import dk.eak.kalkulation.model.Opgave;
+import dk.eak.kalkulation.model.Projekt;
+import dk.eak.kalkulation.model.ScenarioResult;
+import dk.eak.kalkulation.repository.CalculationRepository;
+import dk.eak.kalkulation.repository.DelProjektRepository;
+import dk.eak.kalkulation.repository.OpgaveRepository;
+import dk.eak.kalkulation.repository.ProjektRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ScenarioService.
+ * Tests snapshot sharing, edits and that evaluation stays in memory.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ScenarioService Unit Tests")
+class ScenarioServiceTest {
+
+    @Mock
+    private ProjektRepository projektRepository;
+
+    @Mock
+    private DelProjektRepository delProjektRepository;
+
+    @Mock
+    private OpgaveRepository opgaveRepository;
+
+    @Mock
+    private CalculationRepository calculationRepository;
+
+    private ProjectVersionService versions;
+    private ScenarioService scenarioService;
+
+    @BeforeEach
+    void setUp() {
+        WorkCalendarRegistry calendars = new WorkCalendarRegistry(List.of(new WeekdayWorkCalendar()), WeekdayWorkCalendar.ID);
+        versions = new ProjectVersionService(opgaveRepository, Clock.systemUTC());
+        scenarioService = new ScenarioService(projektRepository, delProjektRepository, opgaveRepository,
+                calculationRepository, calendars, versions, 2, 1);
+    }
+
+    @Test
+    @DisplayName("Should load the project once and evaluate edits in memory")
+    void testScenario_LoadsOnce() {
+        // Arrange
+        arrangeProject();
+
+        // Act
+        ScenarioResult first = scenarioService.create(1, false);
+        scenarioService.create(1, false);
+        ScenarioResult edited = scenarioService.scaleEstimate(first.getScenarioId(), 10, -20);
+        edited = scenarioService.shiftEndDate(first.getScenarioId(), 14);
+
+        // Assert
+        verify(projektRepository, times(1)).findById(1);
+        verify(opgaveRepository, times(1)).findByProjectId(1);
+        assertEquals(40, edited.getBase().getEstimatedHours());
+        assertEquals(32, edited.getScenario().getEstimatedHours());
+        assertEquals(-8, edited.getRemainingHoursDelta());
+        assertEquals(2, edited.getEdits().size());
+    }
+
+    @Test
+    @DisplayName("Should load the project again after it changed")
+    void testScenario_ReloadsAfterChange() {
+        // Arrange
+        arrangeProject();
+        scenarioService.create(1, false);
+
+        // Act
+        versions.touch(1);
+        scenarioService.create(1, false);
+        scenarioService.create(1, false);
+
+        // Assert
+        verify(opgaveRepository, times(2)).findByProjectId(1);
+    }
+
+    @Test
+    @DisplayName("Should keep only the configured number of snapshots")
+    void testScenario_SnapshotEviction() {
+        // Arrange
+        arrangeProject();
+        when(projektRepository.findById(2)).thenReturn(new Projekt());
+        scenarioService.create(1, false);
+
+        // Act
+        scenarioService.create(2, false);
+        scenarioService.create(1, false);
+
+        // Assert
+        verify(opgaveRepository, times(2)).findByProjectId(1);
+    }
+
+    @Test
+    @DisplayName("Should drop least recently used scenarios above the limit")
+    void testScenario_Eviction() {
+        // Arrange
+        arrangeProject();
+        String a = scenarioService.create(1, false).getScenarioId();
+        String b = scenarioService.create(1, false).getScenarioId();
+        scenarioService.get(a);
+
+        // Act
+        scenarioService.create(1, false);
+
+        // Assert
+        assertNotNull(scenarioService.get(a));
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            scenarioService.get(b);
+        });
+        assertEquals("Unknown scenario " + b, exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should throw exception with invalid project ID")
+    void testCreate_InvalidId() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            scenarioService.create(0, false);
+        });
+        assertEquals("Project ID must be valid", exception.getMessage());
+        verifyNoInteractions(projektRepository);
+    }
+
+    // Helper methods
+    private void arrangeProject() {
+        Projekt p = new Projekt();
+        p.setProjectId(1);
+        p.setStartDate(LocalDate.of(2026, 3, 2));
+        p.setEndDate(LocalDate.of(2026, 3, 13));
+        when(projektRepository.findById(1)).thenReturn(p);
+        when(delProjektRepository.findByProjektId(1)).thenReturn(List.of());
+        Opgave o = new Opgave();
+        o.setOpgaveId(10);
+        o.setProject_id(1);
+        o.setName("API");
+        o.setEstimatedHours(40);
+        when(opgaveRepository.findByProjectId(1)).thenReturn(List.of(o));
+        doAnswer(inv -> {
+            CalculationRepository.TaskHours consumer = inv.getArgument(1);
+            consumer.accept(10, 40, 0);
+            return null;
+        }).when(calculationRepository).forEachTaskHours(eq(1), any());
+    }
+}
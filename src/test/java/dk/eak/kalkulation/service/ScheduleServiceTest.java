@@ -0,0 +1,219 @@
+package dk.eak.kalkulation.service;
+
+import dk.eak.kalkulation.calendar.WeekdayWorkCalendar;
+import dk.eak.kalkulation.model.Opgave;
+import dk.eak.kalkulation.model.OpgaveDependency;
+import dk.eak.kalkulation.model.ProjectMetrics;
+import dk.eak.kalkulation.model.Projekt;
+import dk.eak.kalkulation.model.Schedule;
+import dk.eak.kalkulation.model.ScheduledTask;
+import dk.eak.kalkulation.repository.CalculationRepository;
+import dk.eak.kalkulation.repository.OpgaveDependencyRepository;
+import dk.eak.kalkulation.repository.OpgaveRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ScheduleService.
+ * Tests date conversion, deadline checks and dependency validation.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ScheduleService Unit Tests")
+class ScheduleServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 5); // Thursday
+
+    @Mock
+    private CalculationRepository calculationRepository;
+
+    @Mock
+    private OpgaveRepository opgaveRepository;
+
+    @Mock
+    private OpgaveDependencyRepository dependencyRepository;
+
+    @Mock
+    private CalculationService calculationService;
+
+    private ScheduleService scheduleService;
+
+    @BeforeEach
+    void setUp() {
+        scheduleService = new ScheduleService(calculationRepository, opgaveRepository,
+                dependencyRepository, calculationService, 8.0, 100);
+    }
+
+    @Test
+    @DisplayName("Should schedule dependent tasks over working days")
+    void testSchedule_Chain() {
+        // Arrange - task 2 (16 h left) waits for task 1 (12 h left), deadline Tue Mar 10
+        arrangeProject();
+        arrangeTasks(new Object[]{1, "Design", 20, 8, null}, new Object[]{2, "Build", 16, 0, LocalDate.of(2026, 3, 10)});
+        when(dependencyRepository.findByProjectId(1)).thenReturn(List.of(new OpgaveDependency(2, 1)));
+
+        // Act
+        Schedule s = scheduleService.schedule(1, TODAY);
+
+        // Assert - Thu+Fri for task 1, Mon+Tue for task 2
+        ScheduledTask build = s.getTasks().get(1);
+        assertEquals(LocalDate.of(2026, 3, 9), build.getEarliestStart());
+        assertEquals(LocalDate.of(2026, 3, 10), build.getEarliestFinish());
+        assertEquals(LocalDate.of(2026, 3, 10), s.getFinishDate());
+        assertFalse(build.isLate());
+        assertEquals(List.of(1, 2), s.getCriticalPath());
+    }
+
+    @Test
+    @DisplayName("Should flag late task after hours change without rebuilding")
+    void testSchedule_IncrementalUpdate() {
+        // Arrange
+        arrangeProject();
+        LocalDate deadline = LocalDate.of(2026, 3, 10);
+        arrangeTasks(new Object[]{1, "Design", 20, 8, null}, new Object[]{2, "Build", 16, 0, deadline});
+        when(dependencyRepository.findByProjectId(1)).thenReturn(List.of(new OpgaveDependency(2, 1)));
+        scheduleService.schedule(1, TODAY);
+
+        // Act - estimate of task 1 grows by a day
+        arrangeTasks(new Object[]{1, "Design", 28, 8, null}, new Object[]{2, "Build", 16, 0, deadline});
+        Schedule s = scheduleService.schedule(1, TODAY);
+
+        // Assert
+        assertTrue(s.getTasks().get(1).isLate());
+        assertEquals(1, s.getLateCount());
+        verify(dependencyRepository, times(1)).findByProjectId(1);
+    }
+
+    @Test
+    @DisplayName("Should keep only the graphs of the most recently scheduled projects")
+    void testSchedule_EvictsGraph() {
+        // Arrange
+        scheduleService = new ScheduleService(calculationRepository, opgaveRepository,
+                dependencyRepository, calculationService, 8.0, 1);
+        arrangeProject(1);
+        arrangeProject(2);
+        arrangeTasks(1, new Object[]{1, "Design", 20, 8, null});
+        arrangeTasks(2, new Object[]{5, "Test", 8, 0, null});
+
+        // Act
+        scheduleService.schedule(1, TODAY);
+        scheduleService.schedule(2, TODAY);
+        scheduleService.schedule(1, TODAY);
+
+        // Assert - project 1 was rebuilt after project 2 took its place
+        verify(dependencyRepository, times(2)).findByProjectId(1);
+        verify(dependencyRepository, times(1)).findByProjectId(2);
+    }
+
+    @Test
+    @DisplayName("Should reject dependency that creates a cycle")
+    void testAddDependency_Cycle() {
+        // Arrange - 2 already depends on 1
+        when(dependencyRepository.findByProjectId(1)).thenReturn(List.of(new OpgaveDependency(2, 1)));
+        when(opgaveRepository.findById(1)).thenReturn(opgave(1));
+        when(opgaveRepository.findById(2)).thenReturn(opgave(2));
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            scheduleService.addDependency(1, 2);
+        });
+        assertEquals("Dependency would create a cycle", exception.getMessage());
+        verify(dependencyRepository, never()).create(any());
+    }
+
+    @Test
+    @DisplayName("Should reject a cycle through other opgaver and a duplicate dependency")
+    void testAddDependency_IndirectCycleAndDuplicate() {
+        // Arrange - 3 waits for 2, 2 waits for 1
+        when(dependencyRepository.findByProjectId(1))
+                .thenReturn(List.of(new OpgaveDependency(3, 2), new OpgaveDependency(2, 1)));
+        when(opgaveRepository.findById(1)).thenReturn(opgave(1));
+        when(opgaveRepository.findById(2)).thenReturn(opgave(2));
+        when(opgaveRepository.findById(3)).thenReturn(opgave(3));
+
+        // Act & Assert
+        assertEquals("Dependency would create a cycle", assertThrows(IllegalArgumentException.class,
+                () -> scheduleService.addDependency(1, 3)).getMessage());
+        assertEquals("Dependency already exists", assertThrows(IllegalArgumentException.class,
+                () -> scheduleService.addDependency(3, 2)).getMessage());
+        verify(dependencyRepository, never()).create(any());
+    }
+
+    @Test
+    @DisplayName("Should turn a concurrent duplicate insert into a validation error")
+    void testAddDependency_DuplicateKey() {
+        // Arrange
+        when(dependencyRepository.findByProjectId(1)).thenReturn(List.of());
+        when(opgaveRepository.findById(1)).thenReturn(opgave(1));
+        when(opgaveRepository.findById(2)).thenReturn(opgave(2));
+        doThrow(new DuplicateKeyException("PRIMARY KEY")).when(dependencyRepository).create(any());
+
+        // Act & Assert
+        assertEquals("Dependency already exists", assertThrows(IllegalArgumentException.class,
+                () -> scheduleService.addDependency(2, 1)).getMessage());
+    }
+
+    @Test
+    @DisplayName("Should reject self dependency")
+    void testAddDependency_Self() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            scheduleService.addDependency(3, 3);
+        });
+        assertEquals("An opgave cannot depend on itself", exception.getMessage());
+        verifyNoInteractions(dependencyRepository);
+    }
+
+    @Test
+    @DisplayName("Should throw exception with invalid project ID")
+    void testSchedule_InvalidId() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            scheduleService.schedule(0);
+        });
+        assertEquals("Project ID must be valid", exception.getMessage());
+    }
+
+    // Helper methods
+    private void arrangeProject() {
+        arrangeProject(1);
+    }
+
+    private void arrangeProject(int projektId) {
+        Projekt p = new Projekt();
+        p.setProjectId(projektId);
+        p.setStartDate(LocalDate.of(2026, 1, 5));
+        when(calculationService.metrics(projektId)).thenReturn(new ProjectMetrics(p, 0, 0));
+        when(calculationService.calendarFor(p)).thenReturn(new WeekdayWorkCalendar());
+    }
+
+    private void arrangeTasks(Object[]... rows) {
+        arrangeTasks(1, rows);
+    }
+
+    private void arrangeTasks(int projektId, Object[]... rows) {
+        doAnswer(inv -> {
+            CalculationRepository.TaskPlan consumer = inv.getArgument(1);
+            for (Object[] r : rows) {
+                consumer.accept((Integer) r[0], (String) r[1], (Integer) r[2], (Integer) r[3], (LocalDate) r[4]);
+            }
+            return null;
+        }).when(calculationRepository).forEachTaskPlan(eq(projektId), any());
+    }
+
+    private Opgave opgave(int id) {
+        Opgave o = new Opgave();
+        o.setOpgaveId(id);
+        o.setProject_id(1);
+        return o;
+    }
+}
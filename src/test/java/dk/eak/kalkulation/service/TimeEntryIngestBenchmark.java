@@ -0,0 +1,133 @@
+package dk.eak.kalkulation.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import dk.eak.kalkulation.migration.SchemaMigrator.Migration;
+import dk.eak.kalkulation.model.TimeEntry;
+import dk.eak.kalkulation.repository.HourRollupRepository;
+import dk.eak.kalkulation.repository.OpgaveRepository;
+import dk.eak.kalkulation.repository.QueryCache;
+import dk.eak.kalkulation.repository.TimeEntryRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Throughput of single time entries from many concurrent clients, written one
+ * transaction each and with group commit at several batch sizes. Runs the real
+ * services and repositories against an H2 file database behind a Hikari pool of
+ * 10; a server database with a synced commit log pays more per commit, so its
+ * gain from batching is larger. Reports entries/sec and the batches written.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@DisplayName("TimeEntryIngestService Benchmark")
+class TimeEntryIngestBenchmark {
+
+    private static final int CLIENTS = 200;
+    private static final int ENTRIES = 20_000;
+    private static final int[] MAX_BATCH = {1, 10, 100, 500};
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Should report entries/sec for direct writes and group commit")
+    void benchmarkThroughput() throws Exception {
+        // Arrange
+        try (HikariDataSource ds = new HikariDataSource()) {
+            ds.setJdbcUrl("jdbc:h2:file:" + dir.resolve("ingest"));
+            ds.setUsername("sa");
+            ds.setMaximumPoolSize(10);
+            JdbcTemplate jdbc = new JdbcTemplate(ds);
+            String schema = new ClassPathResource("schema.sql").getContentAsString(StandardCharsets.UTF_8);
+            new Migration(0, "schema", schema).getStatements().forEach(jdbc::execute);
+            jdbc.update("INSERT INTO project (project_id, name) VALUES (1, 'Benchmark')");
+            jdbc.update("INSERT INTO opgave (opgave_id, project_id, name, estimated_hours) VALUES (1, 1, 'Hours', 100)");
+            TimeEntryService service = service(ds, jdbc);
+
+            // Act & Assert
+            measure("direct", service, false, 1);
+            for (int maxBatch : MAX_BATCH) {
+                measure("group commit, max-batch " + maxBatch, service, true, maxBatch);
+            }
+        }
+    }
+
+    // ===== Helper methods =====
+
+    private static void measure(String label, TimeEntryService service, boolean enabled, int maxBatch) throws Exception {
+        TimeEntryIngestService ingest = new TimeEntryIngestService(service, enabled, maxBatch, 5, 10_000, 1000, 30_000);
+        try {
+            run(ingest, label + "-warmup", ENTRIES / 10);
+            long start = System.nanoTime();
+            run(ingest, label, ENTRIES);
+            long nanos = System.nanoTime() - start;
+            System.out.printf("TimeEntryIngest %-30s %d clients, %d entries, %d ms, %d entries/sec, %d batches%n",
+                    label + ":", CLIENTS, ENTRIES, nanos / 1_000_000, ENTRIES * 1_000_000_000L / nanos,
+                    ingest.stats().get("batches"));
+        } finally {
+            ingest.destroy();
+        }
+    }
+
+    // CLIENTS threads, each sending its share of the entries one after another
+    private static void run(TimeEntryIngestService ingest, String run, int entries) throws Exception {
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> done = new ArrayList<>(CLIENTS);
+            for (int c = 0; c < CLIENTS; c++) {
+                int client = c;
+                done.add(clients.submit(() -> {
+                    for (int i = client; i < entries; i += CLIENTS) {
+                        TimeEntry t = new TimeEntry();
+                        t.setOpgaveId(1);
+                        t.setWorkDate(LocalDate.of(2026, 2, 6));
+                        t.setHours(1);
+                        t.setIdempotencyKey(run + "-" + i);
+                        ingest.create(t);
+                    }
+                }));
+            }
+            for (Future<?> f : done) {
+                f.get();
+            }
+        }
+        assertEquals(0L, ingest.stats().get("fallbacks"));
+    }
+
+    // The service as Spring wires it, with each write in its own transaction like @Transactional
+    private static TimeEntryService service(HikariDataSource ds, JdbcTemplate jdbc) {
+        QueryCache cache = new QueryCache(true, 10_000);
+        OpgaveRepository opgaver = new OpgaveRepository(jdbc, cache);
+        TimeEntryRepository timeEntries = new TimeEntryRepository(jdbc, cache);
+        ProjectVersionService versions = new ProjectVersionService(opgaver);
+        HourRollupService rollups = new HourRollupService(new HourRollupRepository(jdbc, cache), opgaver, versions);
+        TransactionTemplate tx = new TransactionTemplate(new DataSourceTransactionManager(ds));
+        return new TimeEntryService(timeEntries, rollups, versions, new IdempotencyKeys(timeEntries, 100_000)) {
+            @Override
+            public void create(TimeEntry timeEntry) {
+                tx.executeWithoutResult(status -> super.create(timeEntry));
+            }
+
+            @Override
+            public int[] createAll(List<TimeEntry> entries) {
+                return tx.execute(status -> super.createAll(entries));
+            }
+        };
+    }
+}
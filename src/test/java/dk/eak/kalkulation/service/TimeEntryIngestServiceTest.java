@@ -0,0 +1,231 @@
+package dk.eak.kalkulation.service;
+
+import dk.eak.kalkulation.model.TimeEntry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for TimeEntryIngestService.
+ * Tests group commit of concurrent time entries.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TimeEntryIngestService Unit Tests")
+class TimeEntryIngestServiceTest {
+
+    @Mock
+    private TimeEntryService timeEntryService;
+
+    private TimeEntryIngestService ingest;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (ingest != null) {
+            ingest.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("Should write concurrent entries in one batch and return after it commits")
+    void testCreate_GroupCommit() throws Exception {
+        // Arrange
+        ingest = new TimeEntryIngestService(timeEntryService, true, 20, 10_000, 100, 1000, 5_000);
+        List<List<TimeEntry>> batches = new ArrayList<>();
+        when(timeEntryService.createAll(anyList())).thenAnswer(inv -> {
+            List<TimeEntry> rows = inv.getArgument(0);
+            batches.add(List.copyOf(rows));
+            int[] ids = new int[rows.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = 100 + i;
+                rows.get(i).setTimeEntryId(ids[i]);
+            }
+            return ids;
+        });
+        List<TimeEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            entries.add(createTestTimeEntry(1, 1 + i % 8));
+        }
+
+        // Act
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> done = new ArrayList<>();
+            for (TimeEntry t : entries) {
+                done.add(clients.submit(() -> ingest.create(t)));
+            }
+            for (Future<?> f : done) {
+                f.get();
+            }
+        }
+
+        // Assert: max-batch reached long before the linger time
+        assertEquals(1, batches.size());
+        assertEquals(20, batches.get(0).size());
+        entries.forEach(t -> assertNotNull(t.getTimeEntryId()));
+        verify(timeEntryService, never()).create(any());
+        assertEquals(1L, ingest.stats().get("batches"));
+    }
+
+    @Test
+    @DisplayName("Should fail only the bad entry when its batch fails")
+    void testCreate_BatchFailure() throws Exception {
+        // Arrange
+        ingest = new TimeEntryIngestService(timeEntryService, true, 2, 10_000, 100, 1000, 5_000);
+        TimeEntry good = createTestTimeEntry(1, 4);
+        TimeEntry bad = createTestTimeEntry(99, 4);
+        when(timeEntryService.createAll(anyList())).thenThrow(new DataIntegrityViolationException("FK opgave"));
+        doAnswer(inv -> {
+            if (inv.getArgument(0) == bad) {
+                throw new DataIntegrityViolationException("FK opgave");
+            }
+            return null;
+        }).when(timeEntryService).create(any());
+
+        // Act
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<?> ok = clients.submit(() -> ingest.create(good));
+            Future<?> failed = clients.submit(() -> ingest.create(bad));
+
+            // Assert
+            ok.get();
+            Exception e = assertThrows(Exception.class, failed::get);
+            assertInstanceOf(DataIntegrityViolationException.class, e.getCause());
+        }
+        verify(timeEntryService).create(good);
+        assertEquals(1L, ingest.stats().get("fallbacks"));
+    }
+
+    @Test
+    @DisplayName("Should give up on a batch that does not commit in time and on a full queue")
+    void testCreate_Timeouts() throws Exception {
+        // Arrange - the writer hangs in the first batch; one more entry fits in the queue
+        ingest = new TimeEntryIngestService(timeEntryService, true, 1, 0, 1, 0, 200);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(timeEntryService.createAll(anyList())).thenAnswer(inv -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new int[]{1};
+        });
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            // Act
+            Future<?> first = clients.submit(() -> ingest.create(createTestTimeEntry(1, 4)));
+            assertTrue(writing.await(5, TimeUnit.SECONDS));
+            Future<?> queued = clients.submit(() -> ingest.create(createTestTimeEntry(1, 4)));
+            while (ingest.stats().get("queued") == 0) {
+                Thread.sleep(5);
+            }
+            IllegalStateException full = assertThrows(IllegalStateException.class,
+                    () -> ingest.create(createTestTimeEntry(1, 4)));
+
+            // Assert
+            Exception e = assertThrows(Exception.class, first::get);
+            assertEquals("Time entry was not committed within 200 ms; it may still be written", e.getCause().getMessage());
+            assertEquals("Time entry queue is full", full.getMessage());
+            release.countDown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should fail the entries taken when the writer is interrupted")
+    void testCreate_WriterInterrupted() throws Exception {
+        // Arrange - lingers long enough to be interrupted while collecting the batch
+        ingest = new TimeEntryIngestService(timeEntryService, true, 20, 10_000, 100, 1000, 5_000);
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<?> pending = clients.submit(() -> ingest.create(createTestTimeEntry(1, 4)));
+
+            // Act - an interrupt while the writer waits for the first entry is ignored
+            for (int i = 0; i < 250 && !pending.isDone(); i++) {
+                writerThread().interrupt();
+                Thread.sleep(20);
+            }
+
+            // Assert
+            Exception e = assertThrows(Exception.class, () -> pending.get(5, TimeUnit.SECONDS));
+            assertEquals("Time entry writer was interrupted", e.getCause().getMessage());
+        }
+        verifyNoInteractions(timeEntryService);
+    }
+
+    @Test
+    @DisplayName("Should validate before queueing")
+    void testCreate_Invalid() {
+        // Arrange
+        ingest = new TimeEntryIngestService(timeEntryService, true, 20, 5, 100, 1000, 5_000);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> ingest.create(createTestTimeEntry(1, 0)));
+        verifyNoInteractions(timeEntryService);
+    }
+
+    @Test
+    @DisplayName("Should write directly when group commit is off")
+    void testCreate_Disabled() {
+        // Arrange
+        ingest = new TimeEntryIngestService(timeEntryService, false, 20, 5, 100, 1000, 5_000);
+        TimeEntry t = createTestTimeEntry(1, 4);
+
+        // Act
+        ingest.create(t);
+
+        // Assert
+        verify(timeEntryService).create(t);
+        verify(timeEntryService, never()).createAll(anyList());
+    }
+
+    @Test
+    @DisplayName("Should create again and replay when a retry loses the race to its first try")
+    void testCreate_KeyRace() {
+        // Arrange
+        ingest = new TimeEntryIngestService(timeEntryService, false, 20, 5, 100, 1000, 5_000);
+        TimeEntry retry = createTestTimeEntry(1, 4);
+        retry.setIdempotencyKey("timer-42");
+        doThrow(new DuplicateKeyException("uq_time_entry_idempotency_key"))
+                .doAnswer(inv -> {
+                    retry.setTimeEntryId(17);
+                    return null;
+                }).when(timeEntryService).create(retry);
+
+        // Act
+        ingest.create(retry);
+
+        // Assert
+        assertEquals(17, retry.getTimeEntryId());
+        verify(timeEntryService, times(2)).create(retry);
+    }
+
+    // ===== Helper methods =====
+
+    private static Thread writerThread() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(t -> t.getName().equals("time-entry-writer") && t.isAlive())
+                .findFirst().orElseThrow();
+    }
+
+    private TimeEntry createTestTimeEntry(int opgaveId, int hours) {
+        TimeEntry timeEntry = new TimeEntry();
+        timeEntry.setOpgaveId(opgaveId);
+        timeEntry.setWorkDate(LocalDate.of(2026, 2, 6));
+        timeEntry.setHours(hours);
+        return timeEntry;
+    }
+}
@@ -1,17 +1,22 @@
 package dk.eak.kalkulation.service;
 
+import dk.eak.kalkulation.model.KeysetPage;
 import dk.eak.kalkulation.model.TimeEntry;
 import dk.eak.kalkulation.repository.TimeEntryRepository;
+import dk.eak.kalkulation.util.PageCursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
 
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -27,11 +32,21 @@ class TimeEntryServiceTest {
     @Mock
     private TimeEntryRepository timeEntryRepository;
 
+    @Mock
+    private HourRollupService hourRollupService;
+
+    @Mock
+    private ProjectVersionService projectVersionService;
+
+    @Mock
+    private IdempotencyKeys idempotencyKeys;
+
     private TimeEntryService timeEntryService;
 
     @BeforeEach
     void setUp() {
-        timeEntryService = new TimeEntryService(timeEntryRepository);
+        timeEntryService = new TimeEntryService(timeEntryRepository, hourRollupService, projectVersionService,
+                idempotencyKeys);
     }
 
     @Test
@@ -129,6 +144,74 @@ class TimeEntryServiceTest {
 
         // Assert
         verify(timeEntryRepository, times(1)).create(timeEntry);
+        verify(hourRollupService, times(1)).onTimeEntryCreated(timeEntry);
+        verify(projectVersionService, times(1)).touchOpgaver(Set.of(1));
+    }
+
+    @Test
+    @DisplayName("Should return the first entry when its idempotency key is retried")
+    void testCreate_ReplaysKey() {
+        // Arrange
+        TimeEntry retry = createTestTimeEntry(0, 1, LocalDate.now().minusDays(1), 5);
+        retry.setIdempotencyKey("timer-42");
+        when(idempotencyKeys.find(List.of("timer-42"))).thenReturn(Map.of("timer-42", 17));
+
+        // Act
+        timeEntryService.create(retry);
+
+        // Assert
+        assertEquals(17, retry.getTimeEntryId());
+        verify(timeEntryRepository, never()).create(any());
+        verifyNoInteractions(hourRollupService, projectVersionService);
+    }
+
+    @Test
+    @DisplayName("Should remember the key of a new entry")
+    void testCreate_NewKey() {
+        // Arrange
+        TimeEntry timeEntry = createTestTimeEntry(0, 1, LocalDate.now().minusDays(1), 5);
+        timeEntry.setIdempotencyKey("timer-43");
+        when(idempotencyKeys.find(List.of("timer-43"))).thenReturn(Map.of());
+        doAnswer(inv -> {
+            timeEntry.setTimeEntryId(18);
+            return null;
+        }).when(timeEntryRepository).create(timeEntry);
+
+        // Act
+        timeEntryService.create(timeEntry);
+
+        // Assert
+        verify(idempotencyKeys).remember(Map.of("timer-43", 18));
+        verify(hourRollupService).onTimeEntryCreated(timeEntry);
+    }
+
+    @Test
+    @DisplayName("Should let a retry look up a key the unique index rejected")
+    void testCreate_DuplicateKey() {
+        // Arrange
+        TimeEntry timeEntry = createTestTimeEntry(0, 1, LocalDate.now().minusDays(1), 5);
+        timeEntry.setIdempotencyKey("timer-44");
+        when(idempotencyKeys.find(List.of("timer-44"))).thenReturn(Map.of());
+        doThrow(new DuplicateKeyException("uq_time_entry_idempotency_key")).when(timeEntryRepository).create(timeEntry);
+
+        // Act & Assert
+        assertThrows(DuplicateKeyException.class, () -> timeEntryService.create(timeEntry));
+        verify(idempotencyKeys).suspect(List.of("timer-44"));
+        verify(idempotencyKeys, never()).remember(any());
+    }
+
+    @Test
+    @DisplayName("Should reject an idempotency key that does not fit the column")
+    void testCreate_InvalidKey() {
+        // Arrange
+        TimeEntry timeEntry = createTestTimeEntry(0, 1, LocalDate.now().minusDays(1), 5);
+        timeEntry.setIdempotencyKey("k".repeat(65));
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> timeEntryService.create(timeEntry));
+        assertEquals("Idempotency key must be 1 to 64 characters", exception.getMessage());
+        verifyNoInteractions(idempotencyKeys, timeEntryRepository);
     }
 
     @Test
@@ -239,6 +322,36 @@ class TimeEntryServiceTest {
         verify(timeEntryRepository, times(1)).update(timeEntry);
     }
 
+    @Test
+    @DisplayName("Should pass old and new time entry to rollups on update")
+    void testUpdate_UpdatesRollups() {
+        // Arrange
+        TimeEntry before = createTestTimeEntry(1, 1, LocalDate.now().minusDays(1), 3);
+        TimeEntry after = createTestTimeEntry(1, 2, LocalDate.now().minusDays(1), 7);
+        when(timeEntryRepository.findById(1)).thenReturn(before);
+
+        // Act
+        timeEntryService.update(after);
+
+        // Assert
+        verify(hourRollupService, times(1)).onTimeEntryUpdated(before, after);
+    }
+
+    @Test
+    @DisplayName("Should remove hours from rollups on delete")
+    void testDelete_UpdatesRollups() {
+        // Arrange
+        TimeEntry before = createTestTimeEntry(1, 1, LocalDate.now().minusDays(1), 3);
+        when(timeEntryRepository.findById(1)).thenReturn(before);
+
+        // Act
+        timeEntryService.delete(1);
+
+        // Assert
+        verify(timeEntryRepository, times(1)).delete(1);
+        verify(hourRollupService, times(1)).onTimeEntryDeleted(before);
+    }
+
     @Test
     @DisplayName("Should throw exception when updating time entry with invalid ID")
     void testUpdate_InvalidId() {
@@ -274,6 +387,166 @@ class TimeEntryServiceTest {
         verify(timeEntryRepository, never()).delete(anyInt());
     }
 
+    @Test
+    @DisplayName("Should create a batch and apply rollups once")
+    void testCreateAll_Success() {
+        // Arrange
+        List<TimeEntry> entries = List.of(
+                createTestTimeEntry(0, 1, LocalDate.now().minusDays(1), 4),
+                createTestTimeEntry(0, 2, LocalDate.now().minusDays(1), 3));
+        when(timeEntryRepository.createAll(entries)).thenReturn(new int[]{7, 8});
+
+        // Act
+        int[] ids = timeEntryService.createAll(entries);
+
+        // Assert
+        assertArrayEquals(new int[]{7, 8}, ids);
+        verify(hourRollupService, times(1)).onTimeEntriesCreated(entries);
+    }
+
+    @Test
+    @DisplayName("Should insert only the new entries of a retried batch and keep input order")
+    void testCreateAll_ReplaysKeys() {
+        // Arrange
+        TimeEntry known = createTestTimeEntry(0, 1, LocalDate.now().minusDays(1), 4);
+        known.setIdempotencyKey("a");
+        TimeEntry fresh = createTestTimeEntry(0, 2, LocalDate.now().minusDays(1), 3);
+        fresh.setIdempotencyKey("b");
+        TimeEntry unkeyed = createTestTimeEntry(0, 2, LocalDate.now().minusDays(1), 2);
+        when(idempotencyKeys.find(Set.of("a", "b"))).thenReturn(Map.of("a", 7));
+        when(timeEntryRepository.createAll(List.of(fresh, unkeyed))).thenReturn(new int[]{9, 10});
+
+        // Act
+        int[] ids = timeEntryService.createAll(List.of(known, fresh, unkeyed));
+
+        // Assert
+        assertArrayEquals(new int[]{7, 9, 10}, ids);
+        assertEquals(7, known.getTimeEntryId());
+        verify(hourRollupService).onTimeEntriesCreated(List.of(fresh, unkeyed));
+        verify(projectVersionService).touchOpgaver(Set.of(2));
+        verify(idempotencyKeys).remember(Map.of("b", 9));
+    }
+
+    @Test
+    @DisplayName("Should reject a batch with the same idempotency key twice")
+    void testCreateAll_DuplicateKeyInBatch() {
+        // Arrange
+        TimeEntry first = createTestTimeEntry(0, 1, LocalDate.now().minusDays(1), 4);
+        first.setIdempotencyKey("a");
+        TimeEntry second = createTestTimeEntry(0, 1, LocalDate.now().minusDays(2), 4);
+        second.setIdempotencyKey("a");
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> timeEntryService.createAll(List.of(first, second)));
+        assertEquals("Idempotency key a is in the batch twice", exception.getMessage());
+        verifyNoInteractions(idempotencyKeys);
+        verify(timeEntryRepository, never()).createAll(any());
+    }
+
+    @Test
+    @DisplayName("Should reject the whole batch when one entry is invalid")
+    void testCreateAll_OneInvalid() {
+        // Arrange
+        List<TimeEntry> entries = List.of(
+                createTestTimeEntry(0, 1, LocalDate.now().minusDays(1), 4),
+                createTestTimeEntry(0, 1, LocalDate.now().minusDays(1), 0));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> timeEntryService.createAll(entries));
+        verify(timeEntryRepository, never()).createAll(any());
+        verifyNoInteractions(hourRollupService);
+    }
+
+    @Test
+    @DisplayName("Should reject a batch update with the same ID twice")
+    void testUpdateAll_DuplicateId() {
+        // Arrange
+        List<TimeEntry> entries = List.of(
+                createTestTimeEntry(5, 1, LocalDate.now().minusDays(1), 4),
+                createTestTimeEntry(5, 1, LocalDate.now().minusDays(1), 6));
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> timeEntryService.updateAll(entries));
+        assertEquals("Time Entry ID 5 is in the batch twice", exception.getMessage());
+        verify(timeEntryRepository, never()).updateAll(any());
+    }
+
+    @Test
+    @DisplayName("Should reject a batch update with an unknown ID")
+    void testUpdateAll_NotFound() {
+        // Arrange
+        List<TimeEntry> entries = List.of(createTestTimeEntry(5, 1, LocalDate.now().minusDays(1), 4));
+        when(timeEntryRepository.findByIds(any())).thenReturn(List.of());
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> timeEntryService.updateAll(entries));
+        verify(timeEntryRepository, never()).updateAll(any());
+    }
+
+    @Test
+    @DisplayName("Should delete a batch and remove its hours from the rollups")
+    void testDeleteAll_Success() {
+        // Arrange
+        List<TimeEntry> before = List.of(createTestTimeEntry(5, 1, LocalDate.now().minusDays(1), 4));
+        when(timeEntryRepository.findByIds(any())).thenReturn(before);
+
+        // Act
+        timeEntryService.deleteAll(List.of(5));
+
+        // Assert
+        verify(timeEntryRepository, times(1)).deleteAll(any());
+        verify(hourRollupService, times(1)).onTimeEntriesDeleted(before);
+        verify(idempotencyKeys).forget(Set.of(5));
+    }
+
+    @Test
+    @DisplayName("Should return a page with a cursor pointing past its last row")
+    void testGetPageByOpgaveId_HasNext() {
+        // Arrange
+        LocalDate d = LocalDate.of(2026, 2, 3);
+        when(timeEntryRepository.findByOpgaveIdAfter(1, null, 0, 3)).thenReturn(List.of(
+                createTestTimeEntry(4, 1, d, 1), createTestTimeEntry(9, 1, d, 2),
+                createTestTimeEntry(5, 1, d.plusDays(1), 3)));
+
+        // Act
+        KeysetPage<TimeEntry> page = timeEntryService.getPageByOpgaveId(1, null, 2);
+
+        // Assert
+        assertEquals(2, page.getItems().size());
+        assertFalse(page.isLast());
+        assertArrayEquals(new long[]{d.toEpochDay(), 9}, PageCursor.decode(page.getNextCursor(), 2));
+    }
+
+    @Test
+    @DisplayName("Should seek from the cursor and end on a short page")
+    void testGetPageByOpgaveId_LastPage() {
+        // Arrange
+        LocalDate d = LocalDate.of(2026, 2, 3);
+        String cursor = PageCursor.encode(d.toEpochDay(), 9);
+        when(timeEntryRepository.findByOpgaveIdAfter(1, d, 9, 3))
+                .thenReturn(List.of(createTestTimeEntry(5, 1, d.plusDays(1), 3)));
+
+        // Act
+        KeysetPage<TimeEntry> page = timeEntryService.getPageByOpgaveId(1, cursor, 2);
+
+        // Assert
+        assertEquals(1, page.getItems().size());
+        assertTrue(page.isLast());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("Should reject page sizes outside the allowed range")
+    void testGetPageByOpgaveId_InvalidSize() {
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> timeEntryService.getPageByOpgaveId(1, null, 0));
+        assertEquals("Page size must be between 1 and 500", exception.getMessage());
+        verify(timeEntryRepository, never()).findByOpgaveIdAfter(anyInt(), any(), anyInt(), anyInt());
+    }
+
     // Helper method to create test TimeEntry
     private TimeEntry createTestTimeEntry(int id, int opgaveId, LocalDate workDate, int hours) {
         TimeEntry timeEntry = new TimeEntry();
@@ -0,0 +1,103 @@
+package dk.eak.kalkulation.service;
+
+import dk.eak.kalkulation.model.ImportReport;
+import dk.eak.kalkulation.repository.OpgaveRepository;
+import dk.eak.kalkulation.repository.TimeEntryRepository;
+import dk.eak.kalkulation.util.IntIntMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for TimesheetImportService.
+ * Tests validation against known opgaver, batched writes and the rollup rebuild.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TimesheetImportService Unit Tests")
+class TimesheetImportServiceTest {
+
+    @Mock
+    private OpgaveRepository opgaveRepository;
+
+    @Mock
+    private TimeEntryRepository timeEntryRepository;
+
+    @Mock
+    private HourRollupService hourRollupService;
+
+    @TempDir
+    Path dir;
+
+    private TimesheetImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        importService = new TimesheetImportService(opgaveRepository, timeEntryRepository, hourRollupService, 2, 4);
+    }
+
+    @Test
+    @DisplayName("Should insert known rows, reject unknown opgaver and rebuild rollups")
+    void testImportFile_Success() throws IOException {
+        // Arrange
+        when(opgaveRepository.projectIdsByOpgave()).thenReturn(opgaver(1, 2));
+        Path file = dir.resolve("timesheets.csv");
+        Files.writeString(file, "opgave_id,work_date,hours\n1,2026-01-05,3\n7,2026-01-05,3\n2,2026-01-06,4\n");
+
+        // Act
+        ImportReport report = importService.importFile(file);
+
+        // Assert
+        assertEquals(3, report.getRowsRead());
+        assertEquals(2, report.getRowsImported());
+        assertEquals(1, report.getRowsRejected());
+        assertEquals(3, report.getRejected().get(0).getLine());
+        verify(timeEntryRepository, times(1)).insertRows(any(), any(), any(), eq(2));
+        verify(hourRollupService, times(1)).rebuild();
+    }
+
+    @Test
+    @DisplayName("Should not rebuild rollups when nothing was imported")
+    void testImportFile_NothingImported() throws IOException {
+        // Arrange
+        when(opgaveRepository.projectIdsByOpgave()).thenReturn(opgaver());
+        Path file = dir.resolve("timesheets.csv");
+        Files.writeString(file, "1,2026-01-05,3\n");
+
+        // Act
+        ImportReport report = importService.importFile(file);
+
+        // Assert
+        assertEquals(1, report.getRowsRejected());
+        verifyNoInteractions(timeEntryRepository, hourRollupService);
+    }
+
+    @Test
+    @DisplayName("Should throw exception when the file does not exist")
+    void testImportFile_Missing() {
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> importService.importFile(dir.resolve("missing.csv")));
+        assertTrue(exception.getMessage().startsWith("File not found"));
+        verifyNoInteractions(opgaveRepository);
+    }
+
+    // Helper methods
+    private IntIntMap opgaver(int... ids) {
+        IntIntMap map = new IntIntMap();
+        for (int id : ids) {
+            map.put(id, 1);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,64 @@
+package dk.eak.kalkulation.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BloomFilter.
+ */
+@DisplayName("BloomFilter Unit Tests")
+class BloomFilterTest {
+
+    @Test
+    @DisplayName("Should never miss a key that was put")
+    void testMightContain_NoFalseNegatives() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("timer-" + i);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("timer-" + i));
+        }
+        assertEquals(10_000, filter.size());
+        assertEquals(7, filter.hashCount());
+    }
+
+    @Test
+    @DisplayName("Should keep false positives near the configured rate")
+    void testMightContain_FalsePositiveRate() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("timer-" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+    }
+
+    @Test
+    @DisplayName("Should forget everything on clear")
+    void testClear() {
+        BloomFilter filter = new BloomFilter(100, 0.01);
+        filter.put("a");
+
+        filter.clear();
+
+        assertFalse(filter.mightContain("a"));
+        assertEquals(0, filter.size());
+    }
+
+    @Test
+    @DisplayName("Should reject sizes it cannot build")
+    void testConstructor_Invalid() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(100, 1.0));
+    }
+}
@@ -0,0 +1,47 @@
+package dk.eak.kalkulation.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for DateCache.
+ */
+@DisplayName("DateCache Unit Tests")
+class DateCacheTest {
+
+    @Test
+    @DisplayName("Should return one shared instance per day")
+    void testShared() {
+        // Arrange
+        LocalDate a = LocalDate.of(2025, 12, 1);
+        LocalDate b = LocalDate.of(2025, 12, 1);
+
+        // Act
+        LocalDate first = DateCache.of(a);
+        LocalDate second = DateCache.of(b);
+
+        // Assert
+        assertSame(first, second);
+        assertSame(first, DateCache.ofEpochDay(a.toEpochDay()));
+        assertEquals(a, first);
+    }
+
+    @Test
+    @DisplayName("Should pass through nulls and dates outside the cached range")
+    void testOutOfRange() {
+        // Arrange
+        LocalDate early = LocalDate.of(1969, 12, 31);
+        LocalDate late = LocalDate.of(2100, 1, 1);
+
+        // Act & Assert
+        assertNull(DateCache.of(null));
+        assertSame(early, DateCache.of(early));
+        assertSame(late, DateCache.of(late));
+        assertEquals(late, DateCache.ofEpochDay(late.toEpochDay()));
+        assertEquals(LocalDate.of(2099, 12, 31), DateCache.ofEpochDay(late.toEpochDay() - 1));
+    }
+}
@@ -0,0 +1,44 @@
+package dk.eak.kalkulation.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for IntIntMap.
+ */
+@DisplayName("IntIntMap Unit Tests")
+class IntIntMapTest {
+
+    @Test
+    @DisplayName("Should store, overwrite and grow")
+    void testPutAndGet() {
+        IntIntMap map = new IntIntMap(2);
+        for (int i = -500; i <= 500; i++) {
+            map.put(i, i * 3);
+        }
+        map.put(7, 1);
+
+        assertEquals(1001, map.size());
+        assertEquals(1, map.get(7, -1));
+        assertEquals(0, map.get(0, -1));
+        assertEquals(-1500, map.get(-500, -1));
+        assertEquals(-1, map.get(10_000, -1));
+        assertTrue(map.containsKey(0));
+        assertFalse(map.containsKey(501));
+    }
+
+    @Test
+    @DisplayName("Should add deltas starting from zero")
+    void testAdd() {
+        IntIntMap map = new IntIntMap();
+        map.add(5, 3);
+        map.add(5, -1);
+
+        assertEquals(2, map.get(5, 0));
+        map.clear();
+        assertEquals(0, map.size());
+        assertFalse(map.containsKey(5));
+    }
+}
@@ -0,0 +1,33 @@
+package dk.eak.kalkulation.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PageCursor.
+ */
+@DisplayName("PageCursor Unit Tests")
+class PageCursorTest {
+
+    @Test
+    @DisplayName("Should round-trip key values through a URL-safe token")
+    void testEncodeDecode() {
+        String token = PageCursor.encode(20_487L, 123_456L);
+
+        assertTrue(token.matches("[A-Za-z0-9_-]+"));
+        assertArrayEquals(new long[]{20_487L, 123_456L}, PageCursor.decode(token, 2));
+        assertArrayEquals(new long[]{-5L}, PageCursor.decode(PageCursor.encode(-5L), 1));
+    }
+
+    @Test
+    @DisplayName("Should reject malformed tokens and wrong key counts")
+    void testDecode_Invalid() {
+        String oneKey = PageCursor.encode(7L);
+
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("%%%", 1));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(oneKey, 2));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("YWJj", 1));
+    }
+}
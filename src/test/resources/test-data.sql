@@ -27,3 +27,19 @@ INSERT INTO time_entry (time_entry_id, opgave_id, work_date, hours) VALUES
 (4, 3, '2026-02-05', 8),
 (5, 4, '2026-02-02', 2),
 (6, 5, '2026-03-03', 10);
+
+-- The rows above use explicit IDs; move the identity columns past them so inserts don't collide
+ALTER TABLE project ALTER COLUMN project_id RESTART WITH 100;
+ALTER TABLE delprojekt ALTER COLUMN delprojekt_id RESTART WITH 100;
+ALTER TABLE opgave ALTER COLUMN opgave_id RESTART WITH 100;
+ALTER TABLE time_entry ALTER COLUMN time_entry_id RESTART WITH 100;
+
+-- Rollups for the rows above
+INSERT INTO opgave_hours (opgave_id, hours)
+SELECT opgave_id, SUM(hours) FROM time_entry GROUP BY opgave_id;
+INSERT INTO delprojekt_hours (delprojekt_id, hours)
+SELECT o.delprojekt_id, SUM(te.hours) FROM time_entry te JOIN opgave o ON o.opgave_id = te.opgave_id
+WHERE o.delprojekt_id IS NOT NULL GROUP BY o.delprojekt_id;
+INSERT INTO project_hours (project_id, hours)
+SELECT o.project_id, SUM(te.hours) FROM time_entry te JOIN opgave o ON o.opgave_id = te.opgave_id
+GROUP BY o.project_id;